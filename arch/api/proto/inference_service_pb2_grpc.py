@@ -44,6 +44,11 @@ class InferenceServiceStub(object):
         request_serializer=inference__service__pb2.InferenceMessage.SerializeToString,
         response_deserializer=inference__service__pb2.InferenceMessage.FromString,
         )
+    self.batchInference = channel.unary_unary(
+        '/com.webank.ai.fate.api.serving.InferenceService/batchInference',
+        request_serializer=inference__service__pb2.InferenceMessage.SerializeToString,
+        response_deserializer=inference__service__pb2.InferenceMessage.FromString,
+        )
 
 
 class InferenceServiceServicer(object):
@@ -71,6 +76,13 @@ class InferenceServiceServicer(object):
     context.set_details('Method not implemented!')
     raise NotImplementedError('Method not implemented!')
 
+  def batchInference(self, request, context):
+    # missing associated documentation comment in .proto file
+    pass
+    context.set_code(grpc.StatusCode.UNIMPLEMENTED)
+    context.set_details('Method not implemented!')
+    raise NotImplementedError('Method not implemented!')
+
 
 def add_InferenceServiceServicer_to_server(servicer, server):
   rpc_method_handlers = {
@@ -89,6 +101,11 @@ def add_InferenceServiceServicer_to_server(servicer, server):
           request_deserializer=inference__service__pb2.InferenceMessage.FromString,
           response_serializer=inference__service__pb2.InferenceMessage.SerializeToString,
       ),
+      'batchInference': grpc.unary_unary_rpc_method_handler(
+          servicer.batchInference,
+          request_deserializer=inference__service__pb2.InferenceMessage.FromString,
+          response_serializer=inference__service__pb2.InferenceMessage.SerializeToString,
+      ),
   }
   generic_handler = grpc.method_handlers_generic_handler(
       'com.webank.ai.fate.api.serving.InferenceService', rpc_method_handlers)
@@ -56,18 +56,20 @@ empty = kv_pb2.Empty()
 
 class _DTable(object):
 
-    def __init__(self, storage_locator, partitions=1, in_place_computing=False):
+    def __init__(self, storage_locator, partitions=1, in_place_computing=False, dispatcher=None):
         # self.__client = _EggRoll.get_instance()
         self._namespace = storage_locator.namespace
         self._name = storage_locator.name
         self._type = storage_basic_pb2.StorageType.Name(storage_locator.type)
         self._partitions = partitions
+        # tables created by older rolls report no dispatcher, they are all MOD
+        self._dispatcher = dispatcher if dispatcher else 'MOD'
         self.schema = {}
         self._in_place_computing = in_place_computing
 
     def __str__(self):
-        return "storage_type: {}, namespace: {}, name: {}, partitions: {}, in_place_computing: {}".format(self._type,
-                                                                                                     self._namespace, self._name, self._partitions, self._in_place_computing)
+        return "storage_type: {}, namespace: {}, name: {}, partitions: {}, dispatcher: {}, in_place_computing: {}".format(self._type,
+                                                                                                     self._namespace, self._name, self._partitions, self._dispatcher, self._in_place_computing)
 
     '''
     Getter / Setter
@@ -86,25 +88,33 @@ class _DTable(object):
     def save_as(self, name, namespace, partition=None, use_serialize=True, persistent=True):
         if partition is None:
             partition = self._partitions
-        dup = _EggRoll.get_instance().table(name, namespace, partition=partition, in_place_computing=self.get_in_place_computing(), persistent=persistent)
-        dup.put_all(self.collect(use_serialize=use_serialize), use_serialize=use_serialize)
+        dup = _EggRoll.get_instance().table(name, namespace, partition=partition, in_place_computing=self.get_in_place_computing(), persistent=persistent,
+                                            dispatcher=self._dispatcher)
+        dup.put_all(self.collect(use_serialize=use_serialize), use_serialize=use_serialize, sorted_keys=True)
         return dup
 
     def put(self, k, v, use_serialize=True):
         _EggRoll.get_instance().put(self, k, v, use_serialize=use_serialize)
 
-    def put_all(self, kv_list: Iterable, use_serialize=True, chunk_size=100000):
-        return _EggRoll.get_instance().put_all(self, kv_list, use_serialize=use_serialize, chunk_size=chunk_size)
+    def put_all(self, kv_list: Iterable, use_serialize=True, chunk_size=100000, sorted_keys=False):
+        return _EggRoll.get_instance().put_all(self, kv_list, use_serialize=use_serialize, chunk_size=chunk_size,
+                                               sorted_keys=sorted_keys)
 
     def get(self, k, use_serialize=True):
         return _EggRoll.get_instance().get(self, k, use_serialize=use_serialize)
 
+    def get_all(self, keys: Iterable, use_serialize=True):
+        return _EggRoll.get_instance().get_all(self, keys, use_serialize=use_serialize)
+
     def collect(self, min_chunk_size=0, use_serialize=True):
         return _EggRollIterator(self, min_chunk_size=min_chunk_size, use_serialize=use_serialize)
 
     def delete(self, k, use_serialize=True):
         return _EggRoll.get_instance().delete(self, k, use_serialize=use_serialize)
 
+    def delete_all(self, keys: Iterable, use_serialize=True):
+        return _EggRoll.get_instance().delete_all(self, keys, use_serialize=use_serialize)
+
     def destroy(self):
         _EggRoll.get_instance().destroy(self)
 
@@ -188,6 +198,9 @@ class _DTable(object):
 
     @staticmethod
     def _repartition_small_table(left, right):
+        # fragment i of both tables only holds the same keys when they are dispatched alike
+        if left._dispatcher != right._dispatcher:
+            raise ValueError("tables with different dispatchers cannot be combined: {} and {}".format(left, right))
         left_partitions = left._partitions
         right_partitions = right._partitions
         if left_partitions != right_partitions:
@@ -237,10 +250,11 @@ class _EggRoll(object):
 
     def table(self, name, namespace, partition=1,
               create_if_missing=True, error_if_exist=False,
-              persistent=True, in_place_computing=False):
+              persistent=True, in_place_computing=False, dispatcher=None):
         _type = storage_basic_pb2.LMDB if persistent else storage_basic_pb2.IN_MEMORY
         storage_locator = storage_basic_pb2.StorageLocator(type=_type, namespace=namespace, name=name)
-        create_table_info = kv_pb2.CreateTableInfo(storageLocator=storage_locator, fragmentCount=partition)
+        create_table_info = kv_pb2.CreateTableInfo(storageLocator=storage_locator, fragmentCount=partition,
+                                                   dispatcher=dispatcher if dispatcher else '')
         _table = self._create_table(create_table_info)
         _table.set_in_place_computing(in_place_computing)
         LOGGER.debug("created table: %s", _table)
@@ -289,10 +303,11 @@ class _EggRoll(object):
 
     def _create_table(self, create_table_info):
         info = self.kv_stub.createIfAbsent(create_table_info)
-        return _DTable(info.storageLocator, info.fragmentCount)
+        return _DTable(info.storageLocator, info.fragmentCount, dispatcher=info.dispatcher)
 
     def _create_table_from_locator(self, storage_locator, template: _DTable):
-        create_table_info = kv_pb2.CreateTableInfo(storageLocator=storage_locator, fragmentCount=template._partitions)
+        create_table_info = kv_pb2.CreateTableInfo(storageLocator=storage_locator, fragmentCount=template._partitions,
+                                                   dispatcher=template._dispatcher)
         result = self._create_table(create_table_info)
         result.set_in_place_computing(template.get_in_place_computing())
         return result
@@ -302,6 +317,11 @@ class _EggRoll(object):
         for k, v in kvs:
             yield kv_pb2.Operand(key=_EggRoll.value_serdes.serialize(k) if use_serialize else bytes_to_string(k), value=_EggRoll.value_serdes.serialize(v) if use_serialize else v)
 
+    @staticmethod
+    def __generate_key_operand(keys: Iterable, use_serialize=True):
+        for k in keys:
+            yield kv_pb2.Operand(key=_EggRoll.value_serdes.serialize(k) if use_serialize else string_to_bytes(k))
+
     @staticmethod
     def _deserialize_operand(operand: kv_pb2.Operand, include_key=False, use_serialize=True):
         if operand.value and len(operand.value) > 0:
@@ -339,13 +359,16 @@ class _EggRoll(object):
         operand = self.kv_stub.putIfAbsent(kv_pb2.Operand(key=k, value=v), metadata=_get_meta(_table))
         return self._deserialize_operand(operand, use_serialize=use_serialize)
 
-    def put_all(self, _table, kvs: Iterable, use_serialize=True, chunk_size=100000, skip_chunk=0):
+    def put_all(self, _table, kvs: Iterable, use_serialize=True, chunk_size=100000, skip_chunk=0, sorted_keys=False):
         skipped_chunk = 0
+        metadata = _get_meta(_table)
+        if sorted_keys:
+            metadata = metadata + (('sorted_keys', 'true'),)
         for chunked_iter in split_every(kvs, chunk_size=chunk_size):
             if skipped_chunk < skip_chunk:
                 skipped_chunk += 1
             else:
-                self.kv_stub.putAll(self.__generate_operand(chunked_iter, use_serialize=use_serialize), metadata=_get_meta(_table))
+                self.kv_stub.putAll(self.__generate_operand(chunked_iter, use_serialize=use_serialize), metadata=metadata)
 
     def delete(self, _table, k, use_serialize=True):
         k = self.kv_to_bytes(k=k, use_serialize=use_serialize)
@@ -357,6 +380,14 @@ class _EggRoll(object):
         operand = self.kv_stub.get(kv_pb2.Operand(key=k), metadata=_get_meta(_table))
         return self._deserialize_operand(operand, use_serialize=use_serialize)
 
+    def get_all(self, _table, keys: Iterable, use_serialize=True):
+        operands = self.kv_stub.getAll(self.__generate_key_operand(keys, use_serialize=use_serialize), metadata=_get_meta(_table))
+        return [self._deserialize_operand(operand, use_serialize=use_serialize) for operand in operands]
+
+    def delete_all(self, _table, keys: Iterable, use_serialize=True):
+        operands = self.kv_stub.deleteAll(self.__generate_key_operand(keys, use_serialize=use_serialize), metadata=_get_meta(_table))
+        return [self._deserialize_operand(operand, use_serialize=use_serialize) for operand in operands]
+
     def iterate(self, _table, _range):
         return self.kv_stub.iterate(_range, metadata=_get_meta(_table))
 
@@ -446,7 +477,8 @@ class _EggRoll(object):
 
         return processor_pb2.UnaryProcess(info=task_info,
                                           operand=operand,
-                                          conf=processor_pb2.ProcessConf(namingPolicy=self.eggroll_context.get_naming_policy().name))
+                                          conf=processor_pb2.ProcessConf(namingPolicy=self.eggroll_context.get_naming_policy().name,
+                                                                         combineAtRoll=self.eggroll_context.get_combine_at_roll()))
 
     def __do_unary_process(self, table: _DTable, user_func, stub_func):
         process = self.__create_unary_process(table=table, func=user_func)
@@ -18,11 +18,15 @@ from enum import IntEnum, Enum
 from eggroll.api import NamingPolicy
 
 class EggRollContext(object):
-    def __init__(self, naming_policy : NamingPolicy = NamingPolicy.DEFAULT):
+    def __init__(self, naming_policy : NamingPolicy = NamingPolicy.DEFAULT, combine_at_roll=False):
         self._naming_policy = naming_policy
+        self._combine_at_roll = combine_at_roll
 
     def get_naming_policy(self):
         return self._naming_policy
 
+    def get_combine_at_roll(self):
+        return self._combine_at_roll
+
 
 
@@ -22,10 +22,41 @@ DESCRIPTOR = _descriptor.FileDescriptor(
   package='com.webank.ai.eggroll.api.driver.clustercomm',
   syntax='proto3',
   serialized_options=None,
-  serialized_pb=_b('\n\x12\x63luster-comm.proto\x12,com.webank.ai.eggroll.api.driver.clustercomm\x1a\x10\x62\x61sic-meta.proto\x1a\x13storage-basic.proto\"&\n\x05Party\x12\x0f\n\x07partyId\x18\x01 \x01(\t\x12\x0c\n\x04name\x18\x02 \x01(\t\"\xd3\x01\n\x10TransferDataDesc\x12X\n\x10transferDataType\x18\x01 \x01(\x0e\x32>.com.webank.ai.eggroll.api.driver.clustercomm.TransferDataType\x12I\n\x0estorageLocator\x18\x02 \x01(\x0b\x32\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12\x1a\n\x12taggedVariableName\x18\x03 \x01(\x0c\"d\n\x0cTransferConf\x12\x16\n\x0eoverallTimeout\x18\x01 \x01(\x03\x12\x1d\n\x15\x63ompletionWaitTimeout\x18\x02 \x01(\x03\x12\x1d\n\x15packetIntervalTimeout\x18\x03 \x01(\x03\"\xd1\x04\n\x0cTransferMeta\x12\x30\n\x03job\x18\x01 \x01(\x0b\x32#.com.webank.ai.eggroll.api.core.Job\x12\x0b\n\x03tag\x18\x02 \x01(\t\x12@\n\x03src\x18\x03 \x01(\x0b\x32\x33.com.webank.ai.eggroll.api.driver.clustercomm.Party\x12@\n\x03\x64st\x18\x04 \x01(\x0b\x32\x33.com.webank.ai.eggroll.api.driver.clustercomm.Party\x12P\n\x08\x64\x61taDesc\x18\x05 \x01(\x0b\x32>.com.webank.ai.eggroll.api.driver.clustercomm.TransferDataDesc\x12H\n\x04type\x18\x06 \x01(\x0e\x32:.com.webank.ai.eggroll.api.driver.clustercomm.TransferType\x12T\n\x0etransferStatus\x18\x07 \x01(\x0e\x32<.com.webank.ai.eggroll.api.driver.clustercomm.TransferStatus\x12H\n\x04\x63onf\x18\x08 \x01(\x0b\x32:.com.webank.ai.eggroll.api.driver.clustercomm.TransferConf\x12\x42\n\x0creturnStatus\x18\t \x01(\x0b\x32,.com.webank.ai.eggroll.api.core.ReturnStatus*m\n\x0eTransferStatus\x12\x11\n\rNOT_PROCESSED\x10\x00\x12\x10\n\x0cINITIALIZING\x10\x01\x12\x0e\n\nPROCESSING\x10\x02\x12\x0c\n\x08\x43OMPLETE\x10\x03\x12\t\n\x05\x45RROR\x10\x04\x12\r\n\tCANCELLED\x10\x05*\"\n\x0cTransferType\x12\x08\n\x04SEND\x10\x00\x12\x08\n\x04RECV\x10\x01*=\n\x10TransferDataType\x12\x11\n\rNOT_SPECIFIED\x10\x00\x12\n\n\x06\x44TABLE\x10\x01\x12\n\n\x06OBJECT\x10\x02\x32\xaa\x04\n\x15TransferSubmitService\x12~\n\x04send\x12:.com.webank.ai.eggroll.api.driver.clustercomm.TransferMeta\x1a:.com.webank.ai.eggroll.api.driver.clustercomm.TransferMeta\x12~\n\x04recv\x12:.com.webank.ai.eggroll.api.driver.clustercomm.TransferMeta\x1a:.com.webank.ai.eggroll.api.driver.clustercomm.TransferMeta\x12\x88\x01\n\x0e\x63heckStatusNow\x12:.com.webank.ai.eggroll.api.driver.clustercomm.TransferMeta\x1a:.com.webank.ai.eggroll.api.driver.clustercomm.TransferMeta\x12\x85\x01\n\x0b\x63heckStatus\x12:.com.webank.ai.eggroll.api.driver.clustercomm.TransferMeta\x1a:.com.webank.ai.eggroll.api.driver.clustercomm.TransferMetab\x06proto3')
+  serialized_pb=_b('\n\x12\x63luster-comm.proto\x12,com.webank.ai.eggroll.api.driver.clustercomm\x1a\x10\x62\x61sic-meta.proto\x1a\x13storage-basic.proto\"&\n\x05Party\x12\x0f\n\x07partyId\x18\x01 \x01(\t\x12\x0c\n\x04name\x18\x02 \x01(\t\"\xd3\x01\n\x10TransferDataDesc\x12X\n\x10transferDataType\x18\x01 \x01(\x0e\x32>.com.webank.ai.eggroll.api.driver.clustercomm.TransferDataType\x12I\n\x0estorageLocator\x18\x02 \x01(\x0b\x32\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12\x1a\n\x12taggedVariableName\x18\x03 \x01(\x0c\"\xd9\x01\n\x0cTransferConf\x12\x16\n\x0eoverallTimeout\x18\x01 \x01(\x03\x12\x1d\n\x15\x63ompletionWaitTimeout\x18\x02 \x01(\x03\x12\x1d\n\x15packetIntervalTimeout\x18\x03 \x01(\x03\x12V\n\x0b\x63ompression\x18\x04 \x01(\x0e\x32\x41.com.webank.ai.eggroll.api.driver.clustercomm.TransferCompression\x12\x1b\n\x13\x63ompressionAccepted\x18\x05 \x01(\x08\"\xd1\x04\n\x0cTransferMeta\x12\x30\n\x03job\x18\x01 \x01(\x0b\x32#.com.webank.ai.eggroll.api.core.Job\x12\x0b\n\x03tag\x18\x02 \x01(\t\x12@\n\x03src\x18\x03 \x01(\x0b\x32\x33.com.webank.ai.eggroll.api.driver.clustercomm.Party\x12@\n\x03\x64st\x18\x04 \x01(\x0b\x32\x33.com.webank.ai.eggroll.api.driver.clustercomm.Party\x12P\n\x08\x64\x61taDesc\x18\x05 \x01(\x0b\x32>.com.webank.ai.eggroll.api.driver.clustercomm.TransferDataDesc\x12H\n\x04type\x18\x06 \x01(\x0e\x32:.com.webank.ai.eggroll.api.driver.clustercomm.TransferType\x12T\n\x0etransferStatus\x18\x07 \x01(\x0e\x32<.com.webank.ai.eggroll.api.driver.clustercomm.TransferStatus\x12H\n\x04\x63onf\x18\x08 \x01(\x0b\x32:.com.webank.ai.eggroll.api.driver.clustercomm.TransferConf\x12\x42\n\x0creturnStatus\x18\t \x01(\x0b\x32,.com.webank.ai.eggroll.api.core.ReturnStatus*?\n\x13TransferCompression\x12\x0b\n\x07\x44\x45\x46\x41ULT\x10\x00\x12\x08\n\x04NONE\x10\x01\x12\x07\n\x03LZ4\x10\x02\x12\x08\n\x04ZSTD\x10\x03*m\n\x0eTransferStatus\x12\x11\n\rNOT_PROCESSED\x10\x00\x12\x10\n\x0cINITIALIZING\x10\x01\x12\x0e\n\nPROCESSING\x10\x02\x12\x0c\n\x08\x43OMPLETE\x10\x03\x12\t\n\x05\x45RROR\x10\x04\x12\r\n\tCANCELLED\x10\x05*\"\n\x0cTransferType\x12\x08\n\x04SEND\x10\x00\x12\x08\n\x04RECV\x10\x01*=\n\x10TransferDataType\x12\x11\n\rNOT_SPECIFIED\x10\x00\x12\n\n\x06\x44TABLE\x10\x01\x12\n\n\x06OBJECT\x10\x02\x32\xaa\x04\n\x15TransferSubmitService\x12~\n\x04send\x12:.com.webank.ai.eggroll.api.driver.clustercomm.TransferMeta\x1a:.com.webank.ai.eggroll.api.driver.clustercomm.TransferMeta\x12~\n\x04recv\x12:.com.webank.ai.eggroll.api.driver.clustercomm.TransferMeta\x1a:.com.webank.ai.eggroll.api.driver.clustercomm.TransferMeta\x12\x88\x01\n\x0e\x63heckStatusNow\x12:.com.webank.ai.eggroll.api.driver.clustercomm.TransferMeta\x1a:.com.webank.ai.eggroll.api.driver.clustercomm.TransferMeta\x12\x85\x01\n\x0b\x63heckStatus\x12:.com.webank.ai.eggroll.api.driver.clustercomm.TransferMeta\x1a:.com.webank.ai.eggroll.api.driver.clustercomm.TransferMetab\x06proto3')
   ,
   dependencies=[basic__meta__pb2.DESCRIPTOR,storage__basic__pb2.DESCRIPTOR,])
 
+_TRANSFERCOMPRESSION = _descriptor.EnumDescriptor(
+  name='TransferCompression',
+  full_name='com.webank.ai.eggroll.api.driver.clustercomm.TransferCompression',
+  filename=None,
+  file=DESCRIPTOR,
+  values=[
+    _descriptor.EnumValueDescriptor(
+      name='DEFAULT', index=0, number=0,
+      serialized_options=None,
+      type=None),
+    _descriptor.EnumValueDescriptor(
+      name='NONE', index=1, number=1,
+      serialized_options=None,
+      type=None),
+    _descriptor.EnumValueDescriptor(
+      name='LZ4', index=2, number=2,
+      serialized_options=None,
+      type=None),
+    _descriptor.EnumValueDescriptor(
+      name='ZSTD', index=3, number=3,
+      serialized_options=None,
+      type=None),
+  ],
+  containing_type=None,
+  serialized_options=None,
+  serialized_start=1177,
+  serialized_end=1240,
+)
+_sym_db.RegisterEnumDescriptor(_TRANSFERCOMPRESSION)
+
+TransferCompression = enum_type_wrapper.EnumTypeWrapper(_TRANSFERCOMPRESSION)
 _TRANSFERSTATUS = _descriptor.EnumDescriptor(
   name='TransferStatus',
   full_name='com.webank.ai.eggroll.api.driver.clustercomm.TransferStatus',
@@ -59,8 +90,8 @@ _TRANSFERSTATUS = _descriptor.EnumDescriptor(
   ],
   containing_type=None,
   serialized_options=None,
-  serialized_start=1059,
-  serialized_end=1168,
+  serialized_start=1242,
+  serialized_end=1351,
 )
 _sym_db.RegisterEnumDescriptor(_TRANSFERSTATUS)
 
@@ -82,8 +113,8 @@ _TRANSFERTYPE = _descriptor.EnumDescriptor(
   ],
   containing_type=None,
   serialized_options=None,
-  serialized_start=1170,
-  serialized_end=1204,
+  serialized_start=1353,
+  serialized_end=1387,
 )
 _sym_db.RegisterEnumDescriptor(_TRANSFERTYPE)
 
@@ -109,12 +140,16 @@ _TRANSFERDATATYPE = _descriptor.EnumDescriptor(
   ],
   containing_type=None,
   serialized_options=None,
-  serialized_start=1206,
-  serialized_end=1267,
+  serialized_start=1389,
+  serialized_end=1450,
 )
 _sym_db.RegisterEnumDescriptor(_TRANSFERDATATYPE)
 
 TransferDataType = enum_type_wrapper.EnumTypeWrapper(_TRANSFERDATATYPE)
+DEFAULT = 0
+NONE = 1
+LZ4 = 2
+ZSTD = 3
 NOT_PROCESSED = 0
 INITIALIZING = 1
 PROCESSING = 2
@@ -240,6 +275,20 @@ _TRANSFERCONF = _descriptor.Descriptor(
       message_type=None, enum_type=None, containing_type=None,
       is_extension=False, extension_scope=None,
       serialized_options=None, file=DESCRIPTOR),
+    _descriptor.FieldDescriptor(
+      name='compression', full_name='com.webank.ai.eggroll.api.driver.clustercomm.TransferConf.compression', index=3,
+      number=4, type=14, cpp_type=8, label=1,
+      has_default_value=False, default_value=0,
+      message_type=None, enum_type=None, containing_type=None,
+      is_extension=False, extension_scope=None,
+      serialized_options=None, file=DESCRIPTOR),
+    _descriptor.FieldDescriptor(
+      name='compressionAccepted', full_name='com.webank.ai.eggroll.api.driver.clustercomm.TransferConf.compressionAccepted', index=4,
+      number=5, type=8, cpp_type=7, label=1,
+      has_default_value=False, default_value=False,
+      message_type=None, enum_type=None, containing_type=None,
+      is_extension=False, extension_scope=None,
+      serialized_options=None, file=DESCRIPTOR),
   ],
   extensions=[
   ],
@@ -252,8 +301,8 @@ _TRANSFERCONF = _descriptor.Descriptor(
   extension_ranges=[],
   oneofs=[
   ],
-  serialized_start=361,
-  serialized_end=461,
+  serialized_start=362,
+  serialized_end=579,
 )
 
 
@@ -339,12 +388,13 @@ _TRANSFERMETA = _descriptor.Descriptor(
   extension_ranges=[],
   oneofs=[
   ],
-  serialized_start=464,
-  serialized_end=1057,
+  serialized_start=582,
+  serialized_end=1175,
 )
 
 _TRANSFERDATADESC.fields_by_name['transferDataType'].enum_type = _TRANSFERDATATYPE
 _TRANSFERDATADESC.fields_by_name['storageLocator'].message_type = storage__basic__pb2._STORAGELOCATOR
+_TRANSFERCONF.fields_by_name['compression'].enum_type = _TRANSFERCOMPRESSION
 _TRANSFERMETA.fields_by_name['job'].message_type = basic__meta__pb2._JOB
 _TRANSFERMETA.fields_by_name['src'].message_type = _PARTY
 _TRANSFERMETA.fields_by_name['dst'].message_type = _PARTY
@@ -357,6 +407,7 @@ DESCRIPTOR.message_types_by_name['Party'] = _PARTY
 DESCRIPTOR.message_types_by_name['TransferDataDesc'] = _TRANSFERDATADESC
 DESCRIPTOR.message_types_by_name['TransferConf'] = _TRANSFERCONF
 DESCRIPTOR.message_types_by_name['TransferMeta'] = _TRANSFERMETA
+DESCRIPTOR.enum_types_by_name['TransferCompression'] = _TRANSFERCOMPRESSION
 DESCRIPTOR.enum_types_by_name['TransferStatus'] = _TRANSFERSTATUS
 DESCRIPTOR.enum_types_by_name['TransferType'] = _TRANSFERTYPE
 DESCRIPTOR.enum_types_by_name['TransferDataType'] = _TRANSFERDATATYPE
@@ -398,8 +449,8 @@ _TRANSFERSUBMITSERVICE = _descriptor.ServiceDescriptor(
   file=DESCRIPTOR,
   index=0,
   serialized_options=None,
-  serialized_start=1270,
-  serialized_end=1824,
+  serialized_start=1453,
+  serialized_end=2007,
   methods=[
   _descriptor.MethodDescriptor(
     name='send',
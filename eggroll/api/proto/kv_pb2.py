@@ -20,7 +20,7 @@ DESCRIPTOR = _descriptor.FileDescriptor(
   package='com.webank.ai.eggroll.api.storage',
   syntax='proto3',
   serialized_options=None,
-  serialized_pb=_b('\n\x08kv.proto\x12!com.webank.ai.eggroll.api.storage\x1a\x13storage-basic.proto\"9\n\x05Range\x12\r\n\x05start\x18\x01 \x01(\x0c\x12\x0b\n\x03\x65nd\x18\x02 \x01(\x0c\x12\x14\n\x0cminChunkSize\x18\x03 \x01(\x03\"\x07\n\x05\x45mpty\"%\n\x07Operand\x12\x0b\n\x03key\x18\x01 \x01(\x0c\x12\r\n\x05value\x18\x02 \x01(\x0c\"\x16\n\x05\x43ount\x12\r\n\x05value\x18\x01 \x01(\x03\"s\n\x0f\x43reateTableInfo\x12I\n\x0estorageLocator\x18\x01 \x01(\x0b\x32\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12\x15\n\rfragmentCount\x18\x02 \x01(\x05\x32\xed\x07\n\tKVService\x12x\n\x0e\x63reateIfAbsent\x12\x32.com.webank.ai.eggroll.api.storage.CreateTableInfo\x1a\x32.com.webank.ai.eggroll.api.storage.CreateTableInfo\x12[\n\x03put\x12*.com.webank.ai.eggroll.api.storage.Operand\x1a(.com.webank.ai.eggroll.api.storage.Empty\x12\x65\n\x0bputIfAbsent\x12*.com.webank.ai.eggroll.api.storage.Operand\x1a*.com.webank.ai.eggroll.api.storage.Operand\x12`\n\x06putAll\x12*.com.webank.ai.eggroll.api.storage.Operand\x1a(.com.webank.ai.eggroll.api.storage.Empty(\x01\x12`\n\x06\x64\x65lOne\x12*.com.webank.ai.eggroll.api.storage.Operand\x1a*.com.webank.ai.eggroll.api.storage.Operand\x12]\n\x03get\x12*.com.webank.ai.eggroll.api.storage.Operand\x1a*.com.webank.ai.eggroll.api.storage.Operand\x12\x61\n\x07iterate\x12(.com.webank.ai.eggroll.api.storage.Range\x1a*.com.webank.ai.eggroll.api.storage.Operand0\x01\x12]\n\x07\x64\x65stroy\x12(.com.webank.ai.eggroll.api.storage.Empty\x1a(.com.webank.ai.eggroll.api.storage.Empty\x12`\n\ndestroyAll\x12(.com.webank.ai.eggroll.api.storage.Empty\x1a(.com.webank.ai.eggroll.api.storage.Empty\x12[\n\x05\x63ount\x12(.com.webank.ai.eggroll.api.storage.Empty\x1a(.com.webank.ai.eggroll.api.storage.Countb\x06proto3')
+  serialized_pb=_b('\n\x08kv.proto\x12!com.webank.ai.eggroll.api.storage\x1a\x13storage-basic.proto\"L\n\x05Range\x12\r\n\x05start\x18\x01 \x01(\x0c\x12\x0b\n\x03\x65nd\x18\x02 \x01(\x0c\x12\x14\n\x0cminChunkSize\x18\x03 \x01(\x03\x12\x11\n\tstreaming\x18\x04 \x01(\x08\"\x07\n\x05\x45mpty\"%\n\x07Operand\x12\x0b\n\x03key\x18\x01 \x01(\x0c\x12\r\n\x05value\x18\x02 \x01(\x0c\"\x16\n\x05\x43ount\x12\r\n\x05value\x18\x01 \x01(\x03\"\xa1\x01\n\x0f\x43reateTableInfo\x12I\n\x0estorageLocator\x18\x01 \x01(\x0b\x32\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12\x15\n\rfragmentCount\x18\x02 \x01(\x05\x12\x18\n\x10\x66ragmentSizeHint\x18\x03 \x01(\x03\x12\x12\n\ndispatcher\x18\x04 \x01(\t\":\n\rRebalanceInfo\x12\x15\n\rfragmentCount\x18\x01 \x01(\x05\x12\x12\n\nmovedCount\x18\x02 \x01(\x03\x32\xad\x0a\n\tKVService\x12x\n\x0e\x63reateIfAbsent\x12\x32.com.webank.ai.eggroll.api.storage.CreateTableInfo\x1a\x32.com.webank.ai.eggroll.api.storage.CreateTableInfo\x12[\n\x03put\x12*.com.webank.ai.eggroll.api.storage.Operand\x1a(.com.webank.ai.eggroll.api.storage.Empty\x12\x65\n\x0bputIfAbsent\x12*.com.webank.ai.eggroll.api.storage.Operand\x1a*.com.webank.ai.eggroll.api.storage.Operand\x12`\n\x06putAll\x12*.com.webank.ai.eggroll.api.storage.Operand\x1a(.com.webank.ai.eggroll.api.storage.Empty(\x01\x12`\n\x06\x64\x65lOne\x12*.com.webank.ai.eggroll.api.storage.Operand\x1a*.com.webank.ai.eggroll.api.storage.Operand\x12]\n\x03get\x12*.com.webank.ai.eggroll.api.storage.Operand\x1a*.com.webank.ai.eggroll.api.storage.Operand\x12\x61\n\x07iterate\x12(.com.webank.ai.eggroll.api.storage.Range\x1a*.com.webank.ai.eggroll.api.storage.Operand0\x01\x12]\n\x07\x64\x65stroy\x12(.com.webank.ai.eggroll.api.storage.Empty\x1a(.com.webank.ai.eggroll.api.storage.Empty\x12`\n\ndestroyAll\x12(.com.webank.ai.eggroll.api.storage.Empty\x1a(.com.webank.ai.eggroll.api.storage.Empty\x12[\n\x05\x63ount\x12(.com.webank.ai.eggroll.api.storage.Empty\x1a(.com.webank.ai.eggroll.api.storage.Count\x12o\n\trebalance\x12\x30.com.webank.ai.eggroll.api.storage.RebalanceInfo\x1a\x30.com.webank.ai.eggroll.api.storage.RebalanceInfo\x12d\x0a\x06getAll\x12\x2a.com.webank.ai.eggroll.api.storage.Operand\x1a\x2a.com.webank.ai.eggroll.api.storage.Operand\x28\x010\x01\x12g\x0a\x09deleteAll\x12\x2a.com.webank.ai.eggroll.api.storage.Operand\x1a\x2a.com.webank.ai.eggroll.api.storage.Operand\x28\x010\x01b\x06proto3')
   ,
   dependencies=[storage__basic__pb2.DESCRIPTOR,])
 
@@ -55,6 +55,13 @@ _RANGE = _descriptor.Descriptor(
       message_type=None, enum_type=None, containing_type=None,
       is_extension=False, extension_scope=None,
       serialized_options=None, file=DESCRIPTOR),
+    _descriptor.FieldDescriptor(
+      name='streaming', full_name='com.webank.ai.eggroll.api.storage.Range.streaming', index=3,
+      number=4, type=8, cpp_type=7, label=1,
+      has_default_value=False, default_value=False,
+      message_type=None, enum_type=None, containing_type=None,
+      is_extension=False, extension_scope=None,
+      serialized_options=None, file=DESCRIPTOR),
   ],
   extensions=[
   ],
@@ -68,7 +75,7 @@ _RANGE = _descriptor.Descriptor(
   oneofs=[
   ],
   serialized_start=68,
-  serialized_end=125,
+  serialized_end=144,
 )
 
 
@@ -91,8 +98,8 @@ _EMPTY = _descriptor.Descriptor(
   extension_ranges=[],
   oneofs=[
   ],
-  serialized_start=127,
-  serialized_end=134,
+  serialized_start=146,
+  serialized_end=153,
 )
 
 
@@ -129,8 +136,8 @@ _OPERAND = _descriptor.Descriptor(
   extension_ranges=[],
   oneofs=[
   ],
-  serialized_start=136,
-  serialized_end=173,
+  serialized_start=155,
+  serialized_end=192,
 )
 
 
@@ -160,8 +167,8 @@ _COUNT = _descriptor.Descriptor(
   extension_ranges=[],
   oneofs=[
   ],
-  serialized_start=175,
-  serialized_end=197,
+  serialized_start=194,
+  serialized_end=216,
 )
 
 
@@ -186,6 +193,58 @@ _CREATETABLEINFO = _descriptor.Descriptor(
       message_type=None, enum_type=None, containing_type=None,
       is_extension=False, extension_scope=None,
       serialized_options=None, file=DESCRIPTOR),
+    _descriptor.FieldDescriptor(
+      name='fragmentSizeHint', full_name='com.webank.ai.eggroll.api.storage.CreateTableInfo.fragmentSizeHint', index=2,
+      number=3, type=3, cpp_type=2, label=1,
+      has_default_value=False, default_value=0,
+      message_type=None, enum_type=None, containing_type=None,
+      is_extension=False, extension_scope=None,
+      serialized_options=None, file=DESCRIPTOR),
+    _descriptor.FieldDescriptor(
+      name='dispatcher', full_name='com.webank.ai.eggroll.api.storage.CreateTableInfo.dispatcher', index=3,
+      number=4, type=9, cpp_type=9, label=1,
+      has_default_value=False, default_value=_b("").decode('utf-8'),
+      message_type=None, enum_type=None, containing_type=None,
+      is_extension=False, extension_scope=None,
+      serialized_options=None, file=DESCRIPTOR),
+  ],
+  extensions=[
+  ],
+  nested_types=[],
+  enum_types=[
+  ],
+  serialized_options=None,
+  is_extendable=False,
+  syntax='proto3',
+  extension_ranges=[],
+  oneofs=[
+  ],
+  serialized_start=219,
+  serialized_end=380,
+)
+
+
+_REBALANCEINFO = _descriptor.Descriptor(
+  name='RebalanceInfo',
+  full_name='com.webank.ai.eggroll.api.storage.RebalanceInfo',
+  filename=None,
+  file=DESCRIPTOR,
+  containing_type=None,
+  fields=[
+    _descriptor.FieldDescriptor(
+      name='fragmentCount', full_name='com.webank.ai.eggroll.api.storage.RebalanceInfo.fragmentCount', index=0,
+      number=1, type=5, cpp_type=1, label=1,
+      has_default_value=False, default_value=0,
+      message_type=None, enum_type=None, containing_type=None,
+      is_extension=False, extension_scope=None,
+      serialized_options=None, file=DESCRIPTOR),
+    _descriptor.FieldDescriptor(
+      name='movedCount', full_name='com.webank.ai.eggroll.api.storage.RebalanceInfo.movedCount', index=1,
+      number=2, type=3, cpp_type=2, label=1,
+      has_default_value=False, default_value=0,
+      message_type=None, enum_type=None, containing_type=None,
+      is_extension=False, extension_scope=None,
+      serialized_options=None, file=DESCRIPTOR),
   ],
   extensions=[
   ],
@@ -198,8 +257,8 @@ _CREATETABLEINFO = _descriptor.Descriptor(
   extension_ranges=[],
   oneofs=[
   ],
-  serialized_start=199,
-  serialized_end=314,
+  serialized_start=382,
+  serialized_end=440,
 )
 
 _CREATETABLEINFO.fields_by_name['storageLocator'].message_type = storage__basic__pb2._STORAGELOCATOR
@@ -208,6 +267,7 @@ DESCRIPTOR.message_types_by_name['Empty'] = _EMPTY
 DESCRIPTOR.message_types_by_name['Operand'] = _OPERAND
 DESCRIPTOR.message_types_by_name['Count'] = _COUNT
 DESCRIPTOR.message_types_by_name['CreateTableInfo'] = _CREATETABLEINFO
+DESCRIPTOR.message_types_by_name['RebalanceInfo'] = _REBALANCEINFO
 _sym_db.RegisterFileDescriptor(DESCRIPTOR)
 
 Range = _reflection.GeneratedProtocolMessageType('Range', (_message.Message,), dict(
@@ -245,6 +305,13 @@ CreateTableInfo = _reflection.GeneratedProtocolMessageType('CreateTableInfo', (_
   ))
 _sym_db.RegisterMessage(CreateTableInfo)
 
+RebalanceInfo = _reflection.GeneratedProtocolMessageType('RebalanceInfo', (_message.Message,), dict(
+  DESCRIPTOR = _REBALANCEINFO,
+  __module__ = 'kv_pb2'
+  # @@protoc_insertion_point(class_scope:com.webank.ai.eggroll.api.storage.RebalanceInfo)
+  ))
+_sym_db.RegisterMessage(RebalanceInfo)
+
 
 
 _KVSERVICE = _descriptor.ServiceDescriptor(
@@ -253,8 +320,8 @@ _KVSERVICE = _descriptor.ServiceDescriptor(
   file=DESCRIPTOR,
   index=0,
   serialized_options=None,
-  serialized_start=317,
-  serialized_end=1322,
+  serialized_start=443,
+  serialized_end=1768,
   methods=[
   _descriptor.MethodDescriptor(
     name='createIfAbsent',
@@ -346,6 +413,33 @@ _KVSERVICE = _descriptor.ServiceDescriptor(
     output_type=_COUNT,
     serialized_options=None,
   ),
+  _descriptor.MethodDescriptor(
+    name='rebalance',
+    full_name='com.webank.ai.eggroll.api.storage.KVService.rebalance',
+    index=10,
+    containing_service=None,
+    input_type=_REBALANCEINFO,
+    output_type=_REBALANCEINFO,
+    serialized_options=None,
+  ),
+  _descriptor.MethodDescriptor(
+    name='getAll',
+    full_name='com.webank.ai.eggroll.api.storage.KVService.getAll',
+    index=11,
+    containing_service=None,
+    input_type=_OPERAND,
+    output_type=_OPERAND,
+    serialized_options=None,
+  ),
+  _descriptor.MethodDescriptor(
+    name='deleteAll',
+    full_name='com.webank.ai.eggroll.api.storage.KVService.deleteAll',
+    index=12,
+    containing_service=None,
+    input_type=_OPERAND,
+    output_type=_OPERAND,
+    serialized_options=None,
+  ),
 ])
 _sym_db.RegisterServiceDescriptor(_KVSERVICE)
 
@@ -64,6 +64,21 @@ class KVServiceStub(object):
         request_serializer=kv__pb2.Empty.SerializeToString,
         response_deserializer=kv__pb2.Count.FromString,
         )
+    self.rebalance = channel.unary_unary(
+        '/com.webank.ai.eggroll.api.storage.KVService/rebalance',
+        request_serializer=kv__pb2.RebalanceInfo.SerializeToString,
+        response_deserializer=kv__pb2.RebalanceInfo.FromString,
+        )
+    self.getAll = channel.stream_stream(
+        '/com.webank.ai.eggroll.api.storage.KVService/getAll',
+        request_serializer=kv__pb2.Operand.SerializeToString,
+        response_deserializer=kv__pb2.Operand.FromString,
+        )
+    self.deleteAll = channel.stream_stream(
+        '/com.webank.ai.eggroll.api.storage.KVService/deleteAll',
+        request_serializer=kv__pb2.Operand.SerializeToString,
+        response_deserializer=kv__pb2.Operand.FromString,
+        )
 
 
 class KVServiceServicer(object):
@@ -140,6 +155,27 @@ class KVServiceServicer(object):
     context.set_details('Method not implemented!')
     raise NotImplementedError('Method not implemented!')
 
+  def rebalance(self, request, context):
+    """grow a table or spread its fragments over healthy nodes
+    """
+    context.set_code(grpc.StatusCode.UNIMPLEMENTED)
+    context.set_details('Method not implemented!')
+    raise NotImplementedError('Method not implemented!')
+
+  def getAll(self, request_iterator, context):
+    """get entries by keys. Responses follow request order; absent keys come back without value
+    """
+    context.set_code(grpc.StatusCode.UNIMPLEMENTED)
+    context.set_details('Method not implemented!')
+    raise NotImplementedError('Method not implemented!')
+
+  def deleteAll(self, request_iterator, context):
+    """delete entries by keys. Responses carry the deleted values in request order
+    """
+    context.set_code(grpc.StatusCode.UNIMPLEMENTED)
+    context.set_details('Method not implemented!')
+    raise NotImplementedError('Method not implemented!')
+
 
 def add_KVServiceServicer_to_server(servicer, server):
   rpc_method_handlers = {
@@ -193,6 +229,21 @@ def add_KVServiceServicer_to_server(servicer, server):
           request_deserializer=kv__pb2.Empty.FromString,
           response_serializer=kv__pb2.Count.SerializeToString,
       ),
+      'rebalance': grpc.unary_unary_rpc_method_handler(
+          servicer.rebalance,
+          request_deserializer=kv__pb2.RebalanceInfo.FromString,
+          response_serializer=kv__pb2.RebalanceInfo.SerializeToString,
+      ),
+      'getAll': grpc.stream_stream_rpc_method_handler(
+          servicer.getAll,
+          request_deserializer=kv__pb2.Operand.FromString,
+          response_serializer=kv__pb2.Operand.SerializeToString,
+      ),
+      'deleteAll': grpc.stream_stream_rpc_method_handler(
+          servicer.deleteAll,
+          request_deserializer=kv__pb2.Operand.FromString,
+          response_serializer=kv__pb2.Operand.SerializeToString,
+      ),
   }
   generic_handler = grpc.method_handlers_generic_handler(
       'com.webank.ai.eggroll.api.storage.KVService', rpc_method_handlers)
@@ -21,7 +21,7 @@ DESCRIPTOR = _descriptor.FileDescriptor(
   package='com.webank.ai.eggroll.api.computing.processor',
   syntax='proto3',
   serialized_options=None,
-  serialized_pb=_b('\n\x0fprocessor.proto\x12-com.webank.ai.eggroll.api.computing.processor\x1a\x08kv.proto\x1a\x13storage-basic.proto\"#\n\x0bProcessConf\x12\x14\n\x0cnamingPolicy\x18\x01 \x01(\t\"d\n\x08TaskInfo\x12\x0f\n\x07task_id\x18\x01 \x01(\t\x12\x13\n\x0b\x66unction_id\x18\x02 \x01(\t\x12\x16\n\x0e\x66unction_bytes\x18\x03 \x01(\x0c\x12\x1a\n\x12isInPlaceComputing\x18\x04 \x01(\x08\"\xe3\x01\n\x0cUnaryProcess\x12\x45\n\x04info\x18\x01 \x01(\x0b\x32\x37.com.webank.ai.eggroll.api.computing.processor.TaskInfo\x12\x42\n\x07operand\x18\x02 \x01(\x0b\x32\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12H\n\x04\x63onf\x18\x03 \x01(\x0b\x32:.com.webank.ai.eggroll.api.computing.processor.ProcessConf\"\xa3\x02\n\rBinaryProcess\x12\x45\n\x04info\x18\x01 \x01(\x0b\x32\x37.com.webank.ai.eggroll.api.computing.processor.TaskInfo\x12?\n\x04left\x18\x02 \x01(\x0b\x32\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12@\n\x05right\x18\x03 \x01(\x0b\x32\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12H\n\x04\x63onf\x18\x04 \x01(\x0b\x32:.com.webank.ai.eggroll.api.computing.processor.ProcessConf2\xd7\n\n\x0eProcessService\x12u\n\x03map\x12;.com.webank.ai.eggroll.api.computing.processor.UnaryProcess\x1a\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12{\n\tmapValues\x12;.com.webank.ai.eggroll.api.computing.processor.UnaryProcess\x1a\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12w\n\x04join\x12<.com.webank.ai.eggroll.api.computing.processor.BinaryProcess\x1a\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12s\n\x06reduce\x12;.com.webank.ai.eggroll.api.computing.processor.UnaryProcess\x1a*.com.webank.ai.eggroll.api.storage.Operand0\x01\x12\x7f\n\rmapPartitions\x12;.com.webank.ai.eggroll.api.computing.processor.UnaryProcess\x1a\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12v\n\x04glom\x12;.com.webank.ai.eggroll.api.computing.processor.UnaryProcess\x1a\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12x\n\x06sample\x12;.com.webank.ai.eggroll.api.computing.processor.UnaryProcess\x1a\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12\x80\x01\n\rsubtractByKey\x12<.com.webank.ai.eggroll.api.computing.processor.BinaryProcess\x1a\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12x\n\x06\x66ilter\x12;.com.webank.ai.eggroll.api.computing.processor.UnaryProcess\x1a\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12x\n\x05union\x12<.com.webank.ai.eggroll.api.computing.processor.BinaryProcess\x1a\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12y\n\x07\x66latMap\x12;.com.webank.ai.eggroll.api.computing.processor.UnaryProcess\x1a\x31.com.webank.ai.eggroll.api.storage.StorageLocatorb\x06proto3')
+  serialized_pb=_b('\n\x0fprocessor.proto\x12-com.webank.ai.eggroll.api.computing.processor\x1a\x08kv.proto\x1a\x13storage-basic.proto\":\n\x0bProcessConf\x12\x14\n\x0cnamingPolicy\x18\x01 \x01(\t\x12\x15\n\rcombineAtRoll\x18\x02 \x01(\x08\"d\n\x08TaskInfo\x12\x0f\n\x07task_id\x18\x01 \x01(\t\x12\x13\n\x0b\x66unction_id\x18\x02 \x01(\t\x12\x16\n\x0e\x66unction_bytes\x18\x03 \x01(\x0c\x12\x1a\n\x12isInPlaceComputing\x18\x04 \x01(\x08\"\xe3\x01\n\x0cUnaryProcess\x12\x45\n\x04info\x18\x01 \x01(\x0b\x32\x37.com.webank.ai.eggroll.api.computing.processor.TaskInfo\x12\x42\n\x07operand\x18\x02 \x01(\x0b\x32\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12H\n\x04\x63onf\x18\x03 \x01(\x0b\x32:.com.webank.ai.eggroll.api.computing.processor.ProcessConf\"\xa3\x02\n\rBinaryProcess\x12\x45\n\x04info\x18\x01 \x01(\x0b\x32\x37.com.webank.ai.eggroll.api.computing.processor.TaskInfo\x12?\n\x04left\x18\x02 \x01(\x0b\x32\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12@\n\x05right\x18\x03 \x01(\x0b\x32\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12H\n\x04\x63onf\x18\x04 \x01(\x0b\x32:.com.webank.ai.eggroll.api.computing.processor.ProcessConf\"\x95\x01\n\x0e\x43ombineProcess\x12\x45\n\x04info\x18\x01 \x01(\x0b\x32\x37.com.webank.ai.eggroll.api.computing.processor.TaskInfo\x12<\n\x08operands\x18\x02 \x03(\x0b\x32*.com.webank.ai.eggroll.api.storage.Operand2\xcd\x0b\n\x0eProcessService\x12u\n\x03map\x12;.com.webank.ai.eggroll.api.computing.processor.UnaryProcess\x1a\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12{\n\tmapValues\x12;.com.webank.ai.eggroll.api.computing.processor.UnaryProcess\x1a\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12w\n\x04join\x12<.com.webank.ai.eggroll.api.computing.processor.BinaryProcess\x1a\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12s\n\x06reduce\x12;.com.webank.ai.eggroll.api.computing.processor.UnaryProcess\x1a*.com.webank.ai.eggroll.api.storage.Operand0\x01\x12\x7f\n\rmapPartitions\x12;.com.webank.ai.eggroll.api.computing.processor.UnaryProcess\x1a\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12v\n\x04glom\x12;.com.webank.ai.eggroll.api.computing.processor.UnaryProcess\x1a\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12x\n\x06sample\x12;.com.webank.ai.eggroll.api.computing.processor.UnaryProcess\x1a\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12\x80\x01\n\rsubtractByKey\x12<.com.webank.ai.eggroll.api.computing.processor.BinaryProcess\x1a\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12x\n\x06\x66ilter\x12;.com.webank.ai.eggroll.api.computing.processor.UnaryProcess\x1a\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12x\n\x05union\x12<.com.webank.ai.eggroll.api.computing.processor.BinaryProcess\x1a\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12y\n\x07\x66latMap\x12;.com.webank.ai.eggroll.api.computing.processor.UnaryProcess\x1a\x31.com.webank.ai.eggroll.api.storage.StorageLocator\x12t\n\x07\x63ombine\x12=.com.webank.ai.eggroll.api.computing.processor.CombineProcess\x1a*.com.webank.ai.eggroll.api.storage.Operandb\x06proto3')
   ,
   dependencies=[kv__pb2.DESCRIPTOR,storage__basic__pb2.DESCRIPTOR,])
 
@@ -42,6 +42,13 @@ _PROCESSCONF = _descriptor.Descriptor(
       message_type=None, enum_type=None, containing_type=None,
       is_extension=False, extension_scope=None,
       serialized_options=None, file=DESCRIPTOR),
+    _descriptor.FieldDescriptor(
+      name='combineAtRoll', full_name='com.webank.ai.eggroll.api.computing.processor.ProcessConf.combineAtRoll', index=1,
+      number=2, type=8, cpp_type=7, label=1,
+      has_default_value=False, default_value=False,
+      message_type=None, enum_type=None, containing_type=None,
+      is_extension=False, extension_scope=None,
+      serialized_options=None, file=DESCRIPTOR),
   ],
   extensions=[
   ],
@@ -55,7 +62,7 @@ _PROCESSCONF = _descriptor.Descriptor(
   oneofs=[
   ],
   serialized_start=97,
-  serialized_end=132,
+  serialized_end=155,
 )
 
 
@@ -106,8 +113,8 @@ _TASKINFO = _descriptor.Descriptor(
   extension_ranges=[],
   oneofs=[
   ],
-  serialized_start=134,
-  serialized_end=234,
+  serialized_start=157,
+  serialized_end=257,
 )
 
 
@@ -151,8 +158,8 @@ _UNARYPROCESS = _descriptor.Descriptor(
   extension_ranges=[],
   oneofs=[
   ],
-  serialized_start=237,
-  serialized_end=464,
+  serialized_start=260,
+  serialized_end=487,
 )
 
 
@@ -203,8 +210,46 @@ _BINARYPROCESS = _descriptor.Descriptor(
   extension_ranges=[],
   oneofs=[
   ],
-  serialized_start=467,
-  serialized_end=758,
+  serialized_start=490,
+  serialized_end=781,
+)
+
+
+_COMBINEPROCESS = _descriptor.Descriptor(
+  name='CombineProcess',
+  full_name='com.webank.ai.eggroll.api.computing.processor.CombineProcess',
+  filename=None,
+  file=DESCRIPTOR,
+  containing_type=None,
+  fields=[
+    _descriptor.FieldDescriptor(
+      name='info', full_name='com.webank.ai.eggroll.api.computing.processor.CombineProcess.info', index=0,
+      number=1, type=11, cpp_type=10, label=1,
+      has_default_value=False, default_value=None,
+      message_type=None, enum_type=None, containing_type=None,
+      is_extension=False, extension_scope=None,
+      serialized_options=None, file=DESCRIPTOR),
+    _descriptor.FieldDescriptor(
+      name='operands', full_name='com.webank.ai.eggroll.api.computing.processor.CombineProcess.operands', index=1,
+      number=2, type=11, cpp_type=10, label=3,
+      has_default_value=False, default_value=[],
+      message_type=None, enum_type=None, containing_type=None,
+      is_extension=False, extension_scope=None,
+      serialized_options=None, file=DESCRIPTOR),
+  ],
+  extensions=[
+  ],
+  nested_types=[],
+  enum_types=[
+  ],
+  serialized_options=None,
+  is_extendable=False,
+  syntax='proto3',
+  extension_ranges=[],
+  oneofs=[
+  ],
+  serialized_start=784,
+  serialized_end=933,
 )
 
 _UNARYPROCESS.fields_by_name['info'].message_type = _TASKINFO
@@ -214,10 +259,13 @@ _BINARYPROCESS.fields_by_name['info'].message_type = _TASKINFO
 _BINARYPROCESS.fields_by_name['left'].message_type = storage__basic__pb2._STORAGELOCATOR
 _BINARYPROCESS.fields_by_name['right'].message_type = storage__basic__pb2._STORAGELOCATOR
 _BINARYPROCESS.fields_by_name['conf'].message_type = _PROCESSCONF
+_COMBINEPROCESS.fields_by_name['info'].message_type = _TASKINFO
+_COMBINEPROCESS.fields_by_name['operands'].message_type = kv__pb2._OPERAND
 DESCRIPTOR.message_types_by_name['ProcessConf'] = _PROCESSCONF
 DESCRIPTOR.message_types_by_name['TaskInfo'] = _TASKINFO
 DESCRIPTOR.message_types_by_name['UnaryProcess'] = _UNARYPROCESS
 DESCRIPTOR.message_types_by_name['BinaryProcess'] = _BINARYPROCESS
+DESCRIPTOR.message_types_by_name['CombineProcess'] = _COMBINEPROCESS
 _sym_db.RegisterFileDescriptor(DESCRIPTOR)
 
 ProcessConf = _reflection.GeneratedProtocolMessageType('ProcessConf', (_message.Message,), dict(
@@ -248,6 +296,13 @@ BinaryProcess = _reflection.GeneratedProtocolMessageType('BinaryProcess', (_mess
   ))
 _sym_db.RegisterMessage(BinaryProcess)
 
+CombineProcess = _reflection.GeneratedProtocolMessageType('CombineProcess', (_message.Message,), dict(
+  DESCRIPTOR = _COMBINEPROCESS,
+  __module__ = 'processor_pb2'
+  # @@protoc_insertion_point(class_scope:com.webank.ai.eggroll.api.computing.processor.CombineProcess)
+  ))
+_sym_db.RegisterMessage(CombineProcess)
+
 
 
 _PROCESSSERVICE = _descriptor.ServiceDescriptor(
@@ -256,8 +311,8 @@ _PROCESSSERVICE = _descriptor.ServiceDescriptor(
   file=DESCRIPTOR,
   index=0,
   serialized_options=None,
-  serialized_start=761,
-  serialized_end=2128,
+  serialized_start=936,
+  serialized_end=2421,
   methods=[
   _descriptor.MethodDescriptor(
     name='map',
@@ -358,6 +413,15 @@ _PROCESSSERVICE = _descriptor.ServiceDescriptor(
     output_type=storage__basic__pb2._STORAGELOCATOR,
     serialized_options=None,
   ),
+  _descriptor.MethodDescriptor(
+    name='combine',
+    full_name='com.webank.ai.eggroll.api.computing.processor.ProcessService.combine',
+    index=11,
+    containing_service=None,
+    input_type=_COMBINEPROCESS,
+    output_type=kv__pb2._OPERAND,
+    serialized_options=None,
+  ),
 ])
 _sym_db.RegisterServiceDescriptor(_PROCESSSERVICE)
 
@@ -71,6 +71,11 @@ class ProcessServiceStub(object):
         request_serializer=processor__pb2.UnaryProcess.SerializeToString,
         response_deserializer=storage__basic__pb2.StorageLocator.FromString,
         )
+    self.combine = channel.unary_unary(
+        '/com.webank.ai.eggroll.api.computing.processor.ProcessService/combine',
+        request_serializer=processor__pb2.CombineProcess.SerializeToString,
+        response_deserializer=kv__pb2.Operand.FromString,
+        )
 
 
 class ProcessServiceServicer(object):
@@ -154,6 +159,13 @@ class ProcessServiceServicer(object):
     context.set_details('Method not implemented!')
     raise NotImplementedError('Method not implemented!')
 
+  def combine(self, request, context):
+    # missing associated documentation comment in .proto file
+    pass
+    context.set_code(grpc.StatusCode.UNIMPLEMENTED)
+    context.set_details('Method not implemented!')
+    raise NotImplementedError('Method not implemented!')
+
 
 def add_ProcessServiceServicer_to_server(servicer, server):
   rpc_method_handlers = {
@@ -212,6 +224,11 @@ def add_ProcessServiceServicer_to_server(servicer, server):
           request_deserializer=processor__pb2.UnaryProcess.FromString,
           response_serializer=storage__basic__pb2.StorageLocator.SerializeToString,
       ),
+      'combine': grpc.unary_unary_rpc_method_handler(
+          servicer.combine,
+          request_deserializer=processor__pb2.CombineProcess.FromString,
+          response_serializer=kv__pb2.Operand.SerializeToString,
+      ),
   }
   generic_handler = grpc.method_handlers_generic_handler(
       'com.webank.ai.eggroll.api.computing.processor.ProcessService', rpc_method_handlers)
@@ -554,6 +554,9 @@ class _DTable(object):
                 return None if old_value_bytes is None else (c_pickle.loads(old_value_bytes) if use_serialize else old_value_bytes)
             return None
 
+    def delete_all(self, keys: Iterable, use_serialize=True):
+        return self.__multi_key_op(keys, write=True, use_serialize=use_serialize)
+
     def put_if_absent(self, k, v, use_serialize=True):
         k_bytes = self.kv_to_bytes(k=k, use_serialize=use_serialize)
         p = _hash_key_to_partition(k_bytes, self._partitions)
@@ -592,6 +595,30 @@ class _DTable(object):
             old_value_bytes = txn.get(k_bytes)
             return None if old_value_bytes is None else (c_pickle.loads(old_value_bytes) if use_serialize else old_value_bytes)
 
+    def get_all(self, keys: Iterable, use_serialize=True):
+        return self.__multi_key_op(keys, write=False, use_serialize=use_serialize)
+
+    def __multi_key_op(self, keys: Iterable, write, use_serialize=True):
+        # one txn per partition instead of one per key. values come back in key order
+        partition_to_positions = {}
+        k_bytes_list = []
+        for i, k in enumerate(keys):
+            k_bytes = self.kv_to_bytes(k=k, use_serialize=use_serialize)
+            k_bytes_list.append(k_bytes)
+            partition_to_positions.setdefault(_hash_key_to_partition(k_bytes, self._partitions), []).append(i)
+        result = [None] * len(k_bytes_list)
+        for p, positions in partition_to_positions.items():
+            env = self._get_env_for_partition(p, write=write)
+            with env.begin(write=write) as txn:
+                for i in positions:
+                    value_bytes = txn.get(k_bytes_list[i])
+                    if value_bytes is None:
+                        continue
+                    if write:
+                        txn.delete(k_bytes_list[i])
+                    result[i] = c_pickle.loads(value_bytes) if use_serialize else value_bytes
+        return result
+
     def destroy(self):
         for p in range(self._partitions):
             env = self._get_env_for_partition(p, write=True)
@@ -189,6 +189,26 @@ class Processor(processor_pb2_grpc.ProcessServiceServicer):
             yield rtn
             LOGGER.debug(PROCESS_DONE_FORMAT.format('reduce', value))
 
+    def combine(self, request, context):
+        LOGGER.debug(PROCESS_RECV_FORMAT.format('combine', request.info))
+        task_info = request.info
+
+        _reducer, _serdes = self.get_function_and_serdes(task_info)
+        value = None
+        result_key_bytes = None
+        for operand in request.operands:
+            v = _serdes.deserialize(operand.value)
+            if v is None:
+                continue
+            if value is None:
+                value = v
+            else:
+                value = _reducer(value, v)
+            result_key_bytes = operand.key
+        rtn = kv_pb2.Operand(key=result_key_bytes, value=_serdes.serialize(value))
+        LOGGER.debug(PROCESS_DONE_FORMAT.format('combine', value))
+        return rtn
+
     def glom(self, request, context):
         LOGGER.debug(PROCESS_RECV_FORMAT.format('glom', request))
         task_info = request.info
@@ -18,20 +18,42 @@ package com.webank.ai.eggroll.core.api.grpc.client.crud;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.webank.ai.eggroll.api.framework.meta.service.MetaService;
 import com.webank.ai.eggroll.api.framework.meta.service.StorageMetaServiceGrpc;
 import com.webank.ai.eggroll.core.io.StoreInfo;
 import com.webank.ai.eggroll.core.model.NodeStatus;
+import com.webank.ai.eggroll.core.utils.MetaConversionUtils;
 import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable;
 import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment;
 import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @Scope("prototype")
 public class StorageMetaClient extends BaseCrudClient<StorageMetaServiceGrpc.StorageMetaServiceStub> {
+    private static final long DEFAULT_DEADLINE_MILLIS = 30000;
+
+    @Autowired
+    private MetaConversionUtils metaConversionUtils;
+
+    // meta-services before the typed lookups answer them with UNIMPLEMENTED
+    private volatile boolean isTypedCallSupported = true;
+
     public Dtable createTable(Dtable dtable) {
         return doCrudRequest(dtable,
                 (CrudRequestProcessor<StorageMetaServiceGrpc.StorageMetaServiceStub>)
@@ -78,12 +100,35 @@ public class StorageMetaClient extends BaseCrudClient<StorageMetaServiceGrpc.Sto
     }
 
     public Dtable getTable(Dtable dtable) {
+        if (isTypedCallSupported) {
+            try {
+                return getResult(getTableAsync(dtable.getNamespace(), dtable.getTableName()));
+            } catch (StatusRuntimeException e) {
+                checkTypedCallSupported(e);
+            }
+        }
+
         return doCrudRequest(dtable,
                 (CrudRequestProcessor<StorageMetaServiceGrpc.StorageMetaServiceStub>)
                         StorageMetaServiceGrpc.StorageMetaServiceStub::getTable,
                 Dtable.class);
     }
 
+    /**
+     * @return future of the NORMAL table, completing with null if there is no such table
+     */
+    public ListenableFuture<Dtable> getTableAsync(String namespace, String tableName) {
+        MetaService.MetaTableRequest request = MetaService.MetaTableRequest.newBuilder()
+                .setNamespace(StringUtils.defaultString(namespace))
+                .setTableName(StringUtils.defaultString(tableName))
+                .build();
+
+        return Futures.transform(
+                this.<MetaService.MetaTableResponse>typedCall((stub, responseObserver) -> stub.getTableMeta(request, responseObserver)),
+                response -> response.hasTable() ? metaConversionUtils.toDtable(response.getTable()) : null,
+                MoreExecutors.directExecutor());
+    }
+
     public Dtable getTable(StoreInfo storeInfo) {
         Dtable dtable = new Dtable();
         dtable.setTableType(storeInfo.getType());
@@ -121,6 +166,15 @@ public class StorageMetaClient extends BaseCrudClient<StorageMetaServiceGrpc.Sto
     }
 
     public Node getNodeByNodeId(Long nodeId) {
+        if (isTypedCallSupported && nodeId != null) {
+            try {
+                List<Node> nodes = getResult(getNodesByIdsAsync(Collections.singletonList(nodeId)));
+                return nodes.isEmpty() ? null : nodes.get(0);
+            } catch (StatusRuntimeException e) {
+                checkTypedCallSupported(e);
+            }
+        }
+
         return doCrudRequest(
                 nodeId,
                 (CrudRequestProcessor<StorageMetaServiceGrpc.StorageMetaServiceStub>)
@@ -129,6 +183,15 @@ public class StorageMetaClient extends BaseCrudClient<StorageMetaServiceGrpc.Sto
     }
 
     public Fragment getFragmentByFragmentId(Long fragmentId) {
+        if (isTypedCallSupported && fragmentId != null) {
+            try {
+                List<Fragment> fragments = getResult(getFragmentsByIdsAsync(Collections.singletonList(fragmentId)));
+                return fragments.isEmpty() ? null : fragments.get(0);
+            } catch (StatusRuntimeException e) {
+                checkTypedCallSupported(e);
+            }
+        }
+
         return doCrudRequest(
                 fragmentId,
                 (CrudRequestProcessor<StorageMetaServiceGrpc.StorageMetaServiceStub>)
@@ -153,6 +216,14 @@ public class StorageMetaClient extends BaseCrudClient<StorageMetaServiceGrpc.Sto
     }
 
     public List<Fragment> getFragmentsByTableId(Long tableId) {
+        if (isTypedCallSupported && tableId != null) {
+            try {
+                return getResult(getFragmentsByTableIdsAsync(Collections.singletonList(tableId)));
+            } catch (StatusRuntimeException e) {
+                checkTypedCallSupported(e);
+            }
+        }
+
         List<Fragment> result = Lists.newArrayList();
 
         result = doCrudRequest(
@@ -166,6 +237,14 @@ public class StorageMetaClient extends BaseCrudClient<StorageMetaServiceGrpc.Sto
     public List<Node> getStorageNodesByTableId(Long nodeId) {
         Preconditions.checkNotNull(nodeId);
 
+        if (isTypedCallSupported) {
+            try {
+                return getResult(getStorageNodesByTableIdsAsync(Collections.singletonList(nodeId)));
+            } catch (StatusRuntimeException e) {
+                checkTypedCallSupported(e);
+            }
+        }
+
         List<Node> result = Lists.newArrayList();
 
         result = doCrudRequest(
@@ -178,6 +257,14 @@ public class StorageMetaClient extends BaseCrudClient<StorageMetaServiceGrpc.Sto
     }
 
     public List<Node> getNodesByIds(List<Long> nodeIds) {
+        if (isTypedCallSupported) {
+            try {
+                return getResult(getNodesByIdsAsync(nodeIds));
+            } catch (StatusRuntimeException e) {
+                checkTypedCallSupported(e);
+            }
+        }
+
         List<Node> result = Lists.newArrayList();
 
         result = doCrudRequest(
@@ -231,4 +318,120 @@ public class StorageMetaClient extends BaseCrudClient<StorageMetaServiceGrpc.Sto
 
         return result;
     }
+
+    /**
+     * Streams meta changes until the call fails or is cancelled. The first change is always a RESET,
+     * after which cached metadata can be trusted until a change for it arrives.
+     */
+    public void watch(StreamObserver<MetaService.MetaChange> responseObserver) {
+        stub.watch(MetaService.MetaWatchRequest.getDefaultInstance(), responseObserver);
+    }
+
+    public ListenableFuture<List<Fragment>> getFragmentsByIdsAsync(List<Long> fragmentIds) {
+        MetaService.MetaIdsRequest request = MetaService.MetaIdsRequest.newBuilder().addAllIds(fragmentIds).build();
+
+        return Futures.transform(
+                this.<MetaService.MetaFragments>typedCall((stub, responseObserver) -> stub.getFragmentMetasByIds(request, responseObserver)),
+                this::toFragments,
+                MoreExecutors.directExecutor());
+    }
+
+    public ListenableFuture<List<Fragment>> getFragmentsByTableIdsAsync(List<Long> tableIds) {
+        MetaService.MetaIdsRequest request = MetaService.MetaIdsRequest.newBuilder().addAllIds(tableIds).build();
+
+        return Futures.transform(
+                this.<MetaService.MetaFragments>typedCall((stub, responseObserver) -> stub.getFragmentMetasByTableIds(request, responseObserver)),
+                this::toFragments,
+                MoreExecutors.directExecutor());
+    }
+
+    /**
+     * @return future of the healthy storage nodes holding fragments of any of the tables
+     */
+    public ListenableFuture<List<Node>> getStorageNodesByTableIdsAsync(List<Long> tableIds) {
+        MetaService.MetaIdsRequest request = MetaService.MetaIdsRequest.newBuilder().addAllIds(tableIds).build();
+
+        return Futures.transform(
+                this.<MetaService.MetaNodes>typedCall((stub, responseObserver) -> stub.getStorageNodeMetasByTableIds(request, responseObserver)),
+                this::toNodes,
+                MoreExecutors.directExecutor());
+    }
+
+    public ListenableFuture<List<Node>> getNodesByIdsAsync(List<Long> nodeIds) {
+        MetaService.MetaIdsRequest request = MetaService.MetaIdsRequest.newBuilder().addAllIds(nodeIds).build();
+
+        return Futures.transform(
+                this.<MetaService.MetaNodes>typedCall((stub, responseObserver) -> stub.getNodeMetasByIds(request, responseObserver)),
+                this::toNodes,
+                MoreExecutors.directExecutor());
+    }
+
+    private <R> ListenableFuture<R> typedCall(TypedCallInvoker<R> invoker) {
+        SettableFuture<R> result = SettableFuture.create();
+        invoker.invoke(stub.withDeadlineAfter(DEFAULT_DEADLINE_MILLIS, TimeUnit.MILLISECONDS), new StreamObserver<R>() {
+            @Override
+            public void onNext(R response) {
+                result.set(response);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                result.setException(throwable);
+            }
+
+            @Override
+            public void onCompleted() {
+                if (!result.isDone()) {
+                    result.setException(new IllegalStateException("meta call completed without response"));
+                }
+            }
+        });
+
+        return result;
+    }
+
+    private <T> T getResult(ListenableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    private void checkTypedCallSupported(StatusRuntimeException e) {
+        if (e.getStatus().getCode() != Status.Code.UNIMPLEMENTED) {
+            throw e;
+        }
+        LOGGER.warn("[COMMON] meta-service does not support typed meta calls. falling back to crud requests");
+        isTypedCallSupported = false;
+    }
+
+    private List<Fragment> toFragments(MetaService.MetaFragments metaFragments) {
+        List<Fragment> result = Lists.newArrayListWithCapacity(metaFragments.getFragmentsCount());
+        for (MetaService.MetaFragment metaFragment : metaFragments.getFragmentsList()) {
+            result.add(metaConversionUtils.toFragment(metaFragment));
+        }
+
+        return result;
+    }
+
+    private List<Node> toNodes(MetaService.MetaNodes metaNodes) {
+        List<Node> result = Lists.newArrayListWithCapacity(metaNodes.getNodesCount());
+        for (MetaService.MetaNode metaNode : metaNodes.getNodesList()) {
+            result.add(metaConversionUtils.toNode(metaNode));
+        }
+
+        return result;
+    }
+
+    private interface TypedCallInvoker<R> {
+        void invoke(StorageMetaServiceGrpc.StorageMetaServiceStub stub, StreamObserver<R> responseObserver);
+    }
 }
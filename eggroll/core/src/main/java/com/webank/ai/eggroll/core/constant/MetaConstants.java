@@ -31,12 +31,15 @@ public class MetaConstants {
     public static final CompositeHeaderKey TABLE_NAME = CompositeHeaderKey.from("TABLE_NAME");
     public static final CompositeHeaderKey NAME_SPACE = CompositeHeaderKey.from("NAME_SPACE");
     public static final CompositeHeaderKey FRAGMENT = CompositeHeaderKey.from("FRAGMENT");
+    // "true" on a putAll whose keys are sent in ascending order
+    public static final CompositeHeaderKey SORTED_KEYS = CompositeHeaderKey.from("SORTED_KEYS");
 
     private static final CompositeHeaderKey[] STORE_META = {
             STORE_TYPE,
             TABLE_NAME,
             NAME_SPACE,
-            FRAGMENT
+            FRAGMENT,
+            SORTED_KEYS
     };
 
 
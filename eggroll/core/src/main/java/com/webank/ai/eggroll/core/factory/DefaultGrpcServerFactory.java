@@ -17,11 +17,15 @@
 package com.webank.ai.eggroll.core.factory;
 
 import com.google.common.net.InetAddresses;
+import com.webank.ai.eggroll.core.metrics.MetricsHttpServer;
+import com.webank.ai.eggroll.core.metrics.MetricsRegistry;
+import com.webank.ai.eggroll.core.metrics.MetricsServerInterceptor;
 import com.webank.ai.eggroll.core.server.DefaultServerConf;
 import com.webank.ai.eggroll.core.server.ServerConf;
 import com.webank.ai.eggroll.core.utils.ErrorUtils;
 import io.grpc.BindableService;
 import io.grpc.Server;
+import io.grpc.ServerInterceptors;
 import io.grpc.ServerServiceDefinition;
 import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
 import org.apache.commons.lang3.StringUtils;
@@ -32,6 +36,7 @@ import org.apache.logging.log4j.core.config.Configurator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
@@ -75,15 +80,27 @@ public class DefaultGrpcServerFactory implements GrpcServerFactory {
 
         }
 
+        MetricsServerInterceptor metricsServerInterceptor = new MetricsServerInterceptor();
         for (BindableService service : defaultServerConf.getBindableServices()) {
-            serverBuilder.addService(service);
+            serverBuilder.addService(ServerInterceptors.intercept(service, metricsServerInterceptor));
         }
 
         for (ServerServiceDefinition service : defaultServerConf.getServerServiceDefinitions()) {
-            serverBuilder.addService(service);
+            serverBuilder.addService(ServerInterceptors.intercept(service, metricsServerInterceptor));
         }
 
-        serverBuilder.executor((TaskExecutor) applicationContext.getBean("grpcServiceExecutor"));
+        TaskExecutor grpcServiceExecutor = (TaskExecutor) applicationContext.getBean("grpcServiceExecutor");
+        serverBuilder.executor(grpcServiceExecutor);
+        if (grpcServiceExecutor instanceof ThreadPoolTaskExecutor) {
+            MetricsRegistry.getDefault().registerExecutor("grpcServiceExecutor",
+                    ((ThreadPoolTaskExecutor) grpcServiceExecutor).getThreadPoolExecutor());
+        }
+
+        try {
+            MetricsHttpServer.startIfConfigured(defaultServerConf.getProperties());
+        } catch (IOException e) {
+            LOGGER.warn("failed to start metrics endpoint: {}", errorUtils.getStackTrace(e));
+        }
 
         Runtime.getRuntime().addShutdownHook(new Thread() {
             @Override
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.core.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Counter extends Metric {
+    private final ConcurrentMap<List<String>, LongAdder> children;
+
+    Counter(String name, String help, String... labelNames) {
+        super(name, help, labelNames);
+        this.children = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public String getType() {
+        return "counter";
+    }
+
+    public void inc(String... labelValues) {
+        inc(1, labelValues);
+    }
+
+    public void inc(long amount, String... labelValues) {
+        children.computeIfAbsent(labelValues(labelValues), key -> new LongAdder()).add(amount);
+    }
+
+    public long get(String... labelValues) {
+        LongAdder child = children.get(labelValues(labelValues));
+        return child == null ? 0 : child.sum();
+    }
+
+    @Override
+    protected void writeSamples(StringBuilder out) {
+        for (Map.Entry<List<String>, LongAdder> entry : children.entrySet()) {
+            writeSample(out, getName(), entry.getKey(), null, null, entry.getValue().sum());
+        }
+    }
+}
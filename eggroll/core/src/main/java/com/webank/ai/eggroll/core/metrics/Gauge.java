@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.core.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Gauge whose values are read from callbacks at scrape time.
+ */
+public class Gauge extends Metric {
+    private final ConcurrentMap<List<String>, DoubleSupplier> children;
+
+    Gauge(String name, String help, String... labelNames) {
+        super(name, help, labelNames);
+        this.children = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public String getType() {
+        return "gauge";
+    }
+
+    public Gauge register(DoubleSupplier supplier, String... labelValues) {
+        children.put(labelValues(labelValues), supplier);
+        return this;
+    }
+
+    public void remove(String... labelValues) {
+        children.remove(labelValues(labelValues));
+    }
+
+    public double get(String... labelValues) {
+        DoubleSupplier supplier = children.get(labelValues(labelValues));
+        return supplier == null ? Double.NaN : supplier.getAsDouble();
+    }
+
+    @Override
+    protected void writeSamples(StringBuilder out) {
+        for (Map.Entry<List<String>, DoubleSupplier> entry : children.entrySet()) {
+            double value;
+            try {
+                value = entry.getValue().getAsDouble();
+            } catch (RuntimeException e) {
+                continue;
+            }
+            writeSample(out, getName(), entry.getKey(), null, null, value);
+        }
+    }
+}
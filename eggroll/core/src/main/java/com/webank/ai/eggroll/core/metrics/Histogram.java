@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.core.metrics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Histogram extends Metric {
+    public static final double[] DEFAULT_LATENCY_BUCKETS
+            = {0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60, 300};
+
+    private final double[] buckets;
+    private final ConcurrentMap<List<String>, Child> children;
+
+    Histogram(String name, String help, double[] buckets, String... labelNames) {
+        super(name, help, labelNames);
+        this.buckets = Arrays.copyOf(buckets, buckets.length);
+        Arrays.sort(this.buckets);
+        this.children = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public String getType() {
+        return "histogram";
+    }
+
+    public void observe(double value, String... labelValues) {
+        children.computeIfAbsent(labelValues(labelValues), key -> new Child(buckets.length)).observe(buckets, value);
+    }
+
+    public long getCount(String... labelValues) {
+        Child child = children.get(labelValues(labelValues));
+        return child == null ? 0 : child.count.sum();
+    }
+
+    public double getSum(String... labelValues) {
+        Child child = children.get(labelValues(labelValues));
+        return child == null ? 0 : child.sum.sum();
+    }
+
+    @Override
+    protected void writeSamples(StringBuilder out) {
+        for (Map.Entry<List<String>, Child> entry : children.entrySet()) {
+            Child child = entry.getValue();
+            long cumulative = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                cumulative += child.bucketCounts[i].sum();
+                writeSample(out, getName() + "_bucket", entry.getKey(), "le", formatValue(buckets[i]), cumulative);
+            }
+            cumulative += child.bucketCounts[buckets.length].sum();
+            writeSample(out, getName() + "_bucket", entry.getKey(), "le", "+Inf", cumulative);
+            writeSample(out, getName() + "_sum", entry.getKey(), null, null, child.sum.sum());
+            writeSample(out, getName() + "_count", entry.getKey(), null, null, child.count.sum());
+        }
+    }
+
+    private static class Child {
+        private final LongAdder[] bucketCounts;
+        private final DoubleAdder sum;
+        private final LongAdder count;
+
+        Child(int bucketSize) {
+            this.bucketCounts = new LongAdder[bucketSize + 1];
+            for (int i = 0; i < bucketCounts.length; i++) {
+                bucketCounts[i] = new LongAdder();
+            }
+            this.sum = new DoubleAdder();
+            this.count = new LongAdder();
+        }
+
+        void observe(double[] buckets, double value) {
+            int index = Arrays.binarySearch(buckets, value);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            bucketCounts[index].increment();
+            sum.add(value);
+            count.increment();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.core.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Gauge over short-lived objects such as pipes and brokers. Instances are held weakly and exported
+ * as the sum and max of their values, plus the number of live instances.
+ */
+public class InstanceGauge<T> extends Metric {
+    private final ToDoubleFunction<T> valueFunction;
+    private final Set<T> instances;
+
+    InstanceGauge(String name, String help, ToDoubleFunction<T> valueFunction) {
+        super(name, help);
+        this.valueFunction = valueFunction;
+        this.instances = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    }
+
+    @Override
+    public String getType() {
+        return "gauge";
+    }
+
+    public void track(T instance) {
+        instances.add(instance);
+    }
+
+    public void untrack(T instance) {
+        instances.remove(instance);
+    }
+
+    public int getInstanceCount() {
+        return instances.size();
+    }
+
+    @Override
+    protected void writeSamples(StringBuilder out) {
+        List<T> snapshot;
+        synchronized (instances) {
+            snapshot = new ArrayList<>(instances);
+        }
+
+        double sum = 0;
+        double max = 0;
+        int count = 0;
+        for (T instance : snapshot) {
+            double value;
+            try {
+                value = valueFunction.applyAsDouble(instance);
+            } catch (RuntimeException e) {
+                continue;
+            }
+            sum += value;
+            max = Math.max(max, value);
+            ++count;
+        }
+
+        List<String> noLabels = labelValues();
+        writeSample(out, getName(), noLabels, "stat", "sum", sum);
+        writeSample(out, getName(), noLabels, "stat", "max", max);
+        writeSample(out, getName(), noLabels, "stat", "instances", count);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.core.metrics;
+
+import java.util.Arrays;
+import java.util.List;
+
+public abstract class Metric {
+    private final String name;
+    private final String help;
+    private final String[] labelNames;
+
+    protected Metric(String name, String help, String... labelNames) {
+        this.name = name;
+        this.help = help;
+        this.labelNames = labelNames;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public abstract String getType();
+
+    protected abstract void writeSamples(StringBuilder out);
+
+    void writeTo(StringBuilder out) {
+        out.append("# HELP ").append(name).append(' ').append(escapeHelp(help)).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(getType()).append('\n');
+        writeSamples(out);
+    }
+
+    protected List<String> labelValues(String... labelValues) {
+        if (labelValues.length != labelNames.length) {
+            throw new IllegalArgumentException("metric " + name + " expects labels " + Arrays.toString(labelNames)
+                    + ", got " + Arrays.toString(labelValues));
+        }
+        return Arrays.asList(labelValues);
+    }
+
+    protected void writeSample(StringBuilder out, String sampleName, List<String> labelValues,
+                               String extraLabelName, String extraLabelValue, double value) {
+        out.append(sampleName);
+        if (labelNames.length > 0 || extraLabelName != null) {
+            out.append('{');
+            String separator = "";
+            for (int i = 0; i < labelNames.length; i++) {
+                out.append(separator).append(labelNames[i]).append("=\"").append(escapeLabel(labelValues.get(i))).append('"');
+                separator = ",";
+            }
+            if (extraLabelName != null) {
+                out.append(separator).append(extraLabelName).append("=\"").append(extraLabelValue).append('"');
+            }
+            out.append('}');
+        }
+        out.append(' ').append(formatValue(value)).append('\n');
+    }
+
+    static String formatValue(double value) {
+        if (value == Double.POSITIVE_INFINITY) {
+            return "+Inf";
+        } else if (value == Double.NEGATIVE_INFINITY) {
+            return "-Inf";
+        } else if (Double.isNaN(value)) {
+            return "NaN";
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String escapeLabel(String value) {
+        return String.valueOf(value).replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.core.metrics;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Process wide metrics, exported in the Prometheus text format. Metrics are created on first use
+ * and shared by name afterwards, so prototype beans can look them up from static fields.
+ */
+public class MetricsRegistry {
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private final ConcurrentMap<String, Metric> metrics;
+
+    public MetricsRegistry() {
+        this.metrics = new ConcurrentSkipListMap<>();
+    }
+
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public Counter counter(String name, String help, String... labelNames) {
+        return getOrCreate(name, Counter.class, () -> new Counter(name, help, labelNames));
+    }
+
+    public Gauge gauge(String name, String help, String... labelNames) {
+        return getOrCreate(name, Gauge.class, () -> new Gauge(name, help, labelNames));
+    }
+
+    public Histogram histogram(String name, String help, double[] buckets, String... labelNames) {
+        return getOrCreate(name, Histogram.class, () -> new Histogram(name, help, buckets, labelNames));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> InstanceGauge<T> instanceGauge(String name, String help, ToDoubleFunction<T> valueFunction) {
+        return getOrCreate(name, InstanceGauge.class, () -> new InstanceGauge<>(name, help, valueFunction));
+    }
+
+    public void registerExecutor(String executorName, ThreadPoolExecutor executor) {
+        gauge("eggroll_executor_active_threads", "threads running tasks", "executor")
+                .register(executor::getActiveCount, executorName);
+        gauge("eggroll_executor_pool_size", "threads in the pool", "executor")
+                .register(executor::getPoolSize, executorName);
+        gauge("eggroll_executor_max_pool_size", "max threads allowed in the pool", "executor")
+                .register(executor::getMaximumPoolSize, executorName);
+        gauge("eggroll_executor_queued_tasks", "tasks waiting for a thread", "executor")
+                .register(() -> executor.getQueue().size(), executorName);
+        gauge("eggroll_executor_saturation", "active threads over max pool size", "executor")
+                .register(() -> (double) executor.getActiveCount() / executor.getMaximumPoolSize(), executorName);
+    }
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Metric metric : metrics.values()) {
+            metric.writeTo(out);
+        }
+        return out.toString();
+    }
+
+    private <M extends Metric> M getOrCreate(String name, Class<M> type, Supplier<M> factory) {
+        Metric metric = metrics.computeIfAbsent(name, key -> factory.get());
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("metric " + name + " has already been registered as " + metric.getType());
+        }
+        return type.cast(metric);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.core.metrics;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records started calls and call latency per gRPC method. Streaming calls are timed from start to close.
+ */
+public class MetricsServerInterceptor implements ServerInterceptor {
+    private final Counter startedCounter;
+    private final Histogram handledHistogram;
+
+    public MetricsServerInterceptor() {
+        this(MetricsRegistry.getDefault());
+    }
+
+    public MetricsServerInterceptor(MetricsRegistry registry) {
+        this.startedCounter = registry.counter("eggroll_grpc_server_started_total",
+                "rpcs started on the server", "method");
+        this.handledHistogram = registry.histogram("eggroll_grpc_server_handling_seconds",
+                "rpc latency on the server", Histogram.DEFAULT_LATENCY_BUCKETS, "method", "code");
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        String method = call.getMethodDescriptor().getFullMethodName();
+        long startNanos = System.nanoTime();
+        AtomicBoolean recorded = new AtomicBoolean(false);
+        startedCounter.inc(method);
+
+        ServerCall<ReqT, RespT> monitoredCall = new ForwardingServerCall.SimpleForwardingServerCall<ReqT, RespT>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                record(method, status.getCode(), startNanos, recorded);
+                super.close(status, trailers);
+            }
+        };
+
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<ReqT>(next.startCall(monitoredCall, headers)) {
+            @Override
+            public void onCancel() {
+                record(method, Status.Code.CANCELLED, startNanos, recorded);
+                super.onCancel();
+            }
+        };
+    }
+
+    private void record(String method, Status.Code code, long startNanos, AtomicBoolean recorded) {
+        if (recorded.compareAndSet(false, true)) {
+            handledHistogram.observe((System.nanoTime() - startNanos) / 1e9, method, code.name());
+        }
+    }
+}
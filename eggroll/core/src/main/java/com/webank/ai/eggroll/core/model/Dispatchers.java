@@ -17,5 +17,6 @@
 package com.webank.ai.eggroll.core.model;
 
 public enum Dispatchers {
-    MOD;
+    MOD,
+    JUMP;
 }
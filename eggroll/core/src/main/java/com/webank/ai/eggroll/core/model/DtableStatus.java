@@ -18,6 +18,8 @@ package com.webank.ai.eggroll.core.model;
 
 public enum DtableStatus {
     NORMAL,
+    // readable, but writes and processing are rejected by every roll while data moves between fragments
+    REBALANCING,
     DEPRECATED,
     DELETED;
 }
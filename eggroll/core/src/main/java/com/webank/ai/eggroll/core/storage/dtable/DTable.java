@@ -16,11 +16,17 @@
 
 package com.webank.ai.eggroll.core.storage.dtable;
 
+import java.util.Collection;
 import java.util.Map;
 
 public interface DTable {
     byte[] get(String key);
 
+    /**
+     * @return values of the keys that exist, keyed by key
+     */
+    Map<String, byte[]> getAll(Collection<String> keys);
+
     void put(String key, byte[] value);
 
     Map<String, byte[]> collect();
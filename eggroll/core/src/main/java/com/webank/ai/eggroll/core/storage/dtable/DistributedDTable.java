@@ -24,14 +24,17 @@ import com.webank.ai.eggroll.core.constant.MetaConstants.CompositeHeaderKey;
 import io.grpc.ManagedChannel;
 import io.grpc.Metadata;
 import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
 import com.webank.ai.eggroll.core.network.grpc.client.ClientPool;
 import com.webank.ai.eggroll.core.utils.Configuration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 
 public class DistributedDTable implements DTable {
     private static final Logger LOGGER = LogManager.getLogger();
@@ -60,6 +63,49 @@ public class DistributedDTable implements DTable {
         }
     }
 
+    @Override
+    public Map<String, byte[]> getAll(Collection<String> keys) {
+        Map<String, byte[]> result = new HashMap<>();
+        CountDownLatch finishLatch = new CountDownLatch(1);
+        Throwable[] error = new Throwable[1];
+
+        KVServiceGrpc.KVServiceStub kvServiceStub = MetadataUtils.attachHeaders(KVServiceGrpc.newStub(this.channel), this.genHeader());
+        StreamObserver<Kv.Operand> requestObserver = kvServiceStub.getAll(new StreamObserver<Kv.Operand>() {
+            @Override
+            public void onNext(Kv.Operand operand) {
+                if (!operand.getValue().isEmpty()) {
+                    result.put(operand.getKey().toStringUtf8(), operand.getValue().toByteArray());
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                error[0] = throwable;
+                finishLatch.countDown();
+            }
+
+            @Override
+            public void onCompleted() {
+                finishLatch.countDown();
+            }
+        });
+        for (String key : keys) {
+            requestObserver.onNext(Kv.Operand.newBuilder().setKey(ByteString.copyFrom(key.getBytes())).build());
+        }
+        requestObserver.onCompleted();
+
+        try {
+            finishLatch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        if (error[0] != null) {
+            throw new RuntimeException(error[0]);
+        }
+        return result;
+    }
+
     @Override
     public void put(String key, byte[] value) {
         StorageBasic.StorageLocator.Builder storageLocator = StorageBasic.StorageLocator.newBuilder();
@@ -22,6 +22,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.nio.file.Paths;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -44,6 +45,20 @@ public class StandaloneDTable implements DTable {
         return db.get(key.getBytes());
     }
 
+    @Override
+    public Map<String, byte[]> getAll(Collection<String> keys) {
+        Map<String, byte[]> result = new HashMap<>();
+        try (Transaction txn = this.env.createReadTransaction()) {
+            for (String key : keys) {
+                byte[] value = db.get(txn, key.getBytes());
+                if (value != null) {
+                    result.put(key, value);
+                }
+            }
+        }
+        return result;
+    }
+
     @Override
     public void put(String key, byte[] value) {
         this.db.put(key.getBytes(), value);
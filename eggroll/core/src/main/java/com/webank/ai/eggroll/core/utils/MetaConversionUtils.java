@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.core.utils;
+
+import com.google.common.base.Strings;
+import com.webank.ai.eggroll.api.framework.meta.service.MetaService;
+import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable;
+import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment;
+import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * Converts meta models to and from the typed meta-service messages. Nulls are sent as 0 or empty string.
+ */
+@Component
+public class MetaConversionUtils {
+    public MetaService.MetaTable toMetaTable(Dtable dtable) {
+        return MetaService.MetaTable.newBuilder()
+                .setTableId(toLong(dtable.getTableId()))
+                .setNamespace(StringUtils.defaultString(dtable.getNamespace()))
+                .setTableName(StringUtils.defaultString(dtable.getTableName()))
+                .setTableType(StringUtils.defaultString(dtable.getTableType()))
+                .setTotalFragments(toInt(dtable.getTotalFragments()))
+                .setDispatcher(StringUtils.defaultString(dtable.getDispatcher()))
+                .setSerdes(StringUtils.defaultString(dtable.getSerdes()))
+                .setStorageVersion(toInt(dtable.getStorageVersion()))
+                .setStatus(StringUtils.defaultString(dtable.getStatus()))
+                .setCreatedAt(toMillis(dtable.getCreatedAt()))
+                .setUpdatedAt(toMillis(dtable.getUpdatedAt()))
+                .build();
+    }
+
+    public Dtable toDtable(MetaService.MetaTable metaTable) {
+        Dtable result = new Dtable();
+        result.setTableId(toId(metaTable.getTableId()));
+        result.setNamespace(Strings.emptyToNull(metaTable.getNamespace()));
+        result.setTableName(Strings.emptyToNull(metaTable.getTableName()));
+        result.setTableType(Strings.emptyToNull(metaTable.getTableType()));
+        result.setTotalFragments(metaTable.getTotalFragments());
+        result.setDispatcher(Strings.emptyToNull(metaTable.getDispatcher()));
+        result.setSerdes(Strings.emptyToNull(metaTable.getSerdes()));
+        result.setStorageVersion(metaTable.getStorageVersion());
+        result.setStatus(Strings.emptyToNull(metaTable.getStatus()));
+        result.setCreatedAt(toDate(metaTable.getCreatedAt()));
+        result.setUpdatedAt(toDate(metaTable.getUpdatedAt()));
+
+        return result;
+    }
+
+    public MetaService.MetaFragment toMetaFragment(Fragment fragment) {
+        return MetaService.MetaFragment.newBuilder()
+                .setFragmentId(toLong(fragment.getFragmentId()))
+                .setTableId(toLong(fragment.getTableId()))
+                .setNodeId(toLong(fragment.getNodeId()))
+                .setFragmentOrder(toInt(fragment.getFragmentOrder()))
+                .setStatus(StringUtils.defaultString(fragment.getStatus()))
+                .setCreatedAt(toMillis(fragment.getCreatedAt()))
+                .setUpdatedAt(toMillis(fragment.getUpdatedAt()))
+                .build();
+    }
+
+    public Fragment toFragment(MetaService.MetaFragment metaFragment) {
+        Fragment result = new Fragment();
+        result.setFragmentId(toId(metaFragment.getFragmentId()));
+        result.setTableId(toId(metaFragment.getTableId()));
+        result.setNodeId(toId(metaFragment.getNodeId()));
+        result.setFragmentOrder(metaFragment.getFragmentOrder());
+        result.setStatus(Strings.emptyToNull(metaFragment.getStatus()));
+        result.setCreatedAt(toDate(metaFragment.getCreatedAt()));
+        result.setUpdatedAt(toDate(metaFragment.getUpdatedAt()));
+
+        return result;
+    }
+
+    public MetaService.MetaNode toMetaNode(Node node) {
+        return MetaService.MetaNode.newBuilder()
+                .setNodeId(toLong(node.getNodeId()))
+                .setHost(StringUtils.defaultString(node.getHost()))
+                .setIp(StringUtils.defaultString(node.getIp()))
+                .setPort(toInt(node.getPort()))
+                .setType(StringUtils.defaultString(node.getType()))
+                .setStatus(StringUtils.defaultString(node.getStatus()))
+                .setLastHeartbeatAt(toMillis(node.getLastHeartbeatAt()))
+                .setCreatedAt(toMillis(node.getCreatedAt()))
+                .setUpdatedAt(toMillis(node.getUpdatedAt()))
+                .build();
+    }
+
+    public Node toNode(MetaService.MetaNode metaNode) {
+        Node result = new Node();
+        result.setNodeId(toId(metaNode.getNodeId()));
+        result.setHost(Strings.emptyToNull(metaNode.getHost()));
+        result.setIp(Strings.emptyToNull(metaNode.getIp()));
+        result.setPort(metaNode.getPort() == 0 ? null : metaNode.getPort());
+        result.setType(Strings.emptyToNull(metaNode.getType()));
+        result.setStatus(Strings.emptyToNull(metaNode.getStatus()));
+        result.setLastHeartbeatAt(toDate(metaNode.getLastHeartbeatAt()));
+        result.setCreatedAt(toDate(metaNode.getCreatedAt()));
+        result.setUpdatedAt(toDate(metaNode.getUpdatedAt()));
+
+        return result;
+    }
+
+    private long toLong(Long value) {
+        return value == null ? 0L : value;
+    }
+
+    private int toInt(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    private Long toId(long value) {
+        return value == 0L ? null : value;
+    }
+
+    private long toMillis(Date date) {
+        return date == null ? 0L : date.getTime();
+    }
+
+    private Date toDate(long millis) {
+        return millis == 0L ? null : new Date(millis);
+    }
+}
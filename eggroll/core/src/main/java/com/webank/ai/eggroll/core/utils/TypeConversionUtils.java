@@ -20,6 +20,7 @@ import com.webank.ai.eggroll.api.core.BasicMeta;
 import com.webank.ai.eggroll.api.core.DataStructure;
 import com.webank.ai.eggroll.api.storage.Kv;
 import com.webank.ai.eggroll.api.storage.StorageBasic;
+import com.webank.ai.eggroll.core.model.Dispatchers;
 import com.webank.ai.eggroll.core.model.DtableStatus;
 import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable;
 import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node;
@@ -76,6 +77,9 @@ public class TypeConversionUtils {
         Dtable result = toDtable(createTableInfo.getStorageLocator());
         result.setTotalFragments(createTableInfo.getFragmentCount());
         result.setStatus(DtableStatus.NORMAL.name());
+        if (StringUtils.isNotBlank(createTableInfo.getDispatcher())) {
+            result.setDispatcher(createTableInfo.getDispatcher());
+        }
 
         return result;
     }
@@ -114,6 +118,9 @@ public class TypeConversionUtils {
             if (fragments != null) {
                 createTableInfoBuilder.setFragmentCount(fragments);
             }
+            // tables without a dispatcher, or with the legacy DEFAULT, are dispatched by MOD
+            createTableInfoBuilder.setDispatcher(Dispatchers.JUMP.name().equals(dtable.getDispatcher())
+                    ? Dispatchers.JUMP.name() : Dispatchers.MOD.name());
 
             return createTableInfoBuilder.build();
         }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.core.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestMetricsRegistry {
+    @Test
+    public void testCounterAndHistogramFormat() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter counter = registry.counter("test_calls_total", "calls", "method");
+        counter.inc("a");
+        counter.inc(2, "a");
+        Assert.assertSame(counter, registry.counter("test_calls_total", "calls", "method"));
+
+        Histogram histogram = registry.histogram("test_latency_seconds", "latency", new double[]{0.1, 1}, "method");
+        histogram.observe(0.05, "a");
+        histogram.observe(0.5, "a");
+        histogram.observe(5, "a");
+
+        String scraped = registry.scrape();
+        Assert.assertTrue(scraped.contains("# TYPE test_calls_total counter\n"));
+        Assert.assertTrue(scraped.contains("test_calls_total{method=\"a\"} 3\n"));
+        Assert.assertTrue(scraped.contains("test_latency_seconds_bucket{method=\"a\",le=\"0.1\"} 1\n"));
+        Assert.assertTrue(scraped.contains("test_latency_seconds_bucket{method=\"a\",le=\"1\"} 2\n"));
+        Assert.assertTrue(scraped.contains("test_latency_seconds_bucket{method=\"a\",le=\"+Inf\"} 3\n"));
+        Assert.assertTrue(scraped.contains("test_latency_seconds_count{method=\"a\"} 3\n"));
+        Assert.assertEquals(5.55, histogram.getSum("a"), 1e-9);
+    }
+
+    @Test
+    public void testInstanceGauge() {
+        MetricsRegistry registry = new MetricsRegistry();
+        InstanceGauge<AtomicInteger> gauge = registry.instanceGauge("test_queue_size", "queue size", AtomicInteger::get);
+        AtomicInteger first = new AtomicInteger(3);
+        AtomicInteger second = new AtomicInteger(5);
+        gauge.track(first);
+        gauge.track(second);
+
+        String scraped = registry.scrape();
+        Assert.assertTrue(scraped.contains("test_queue_size{stat=\"sum\"} 8\n"));
+        Assert.assertTrue(scraped.contains("test_queue_size{stat=\"max\"} 5\n"));
+        Assert.assertTrue(scraped.contains("test_queue_size{stat=\"instances\"} 2\n"));
+
+        gauge.untrack(second);
+        Assert.assertTrue(registry.scrape().contains("test_queue_size{stat=\"sum\"} 3\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConflictingType() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("test_metric", "counter");
+        registry.gauge("test_metric", "gauge");
+    }
+
+    @Test
+    public void testHttpScrape() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.gauge("test_up", "up").register(() -> 1);
+        MetricsHttpServer server = new MetricsHttpServer(registry, 0);
+        server.start();
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + "/metrics").openConnection();
+            Assert.assertEquals(200, connection.getResponseCode());
+            try (InputStream is = connection.getInputStream(); Scanner scanner = new Scanner(is, StandardCharsets.UTF_8.name())) {
+                String body = scanner.useDelimiter("\\A").next();
+                Assert.assertTrue(body.contains("test_up 1\n"));
+            }
+        } finally {
+            server.stop();
+        }
+    }
+}
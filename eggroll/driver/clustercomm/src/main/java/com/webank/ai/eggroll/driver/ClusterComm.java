@@ -19,8 +19,6 @@ package com.webank.ai.eggroll.driver;
 import com.webank.ai.eggroll.core.factory.DefaultGrpcServerFactory;
 import com.webank.ai.eggroll.core.server.BaseEggRollServer;
 import com.webank.ai.eggroll.core.server.DefaultServerConf;
-import com.webank.ai.eggroll.core.utils.ErrorUtils;
-import com.webank.ai.eggroll.driver.clustercomm.transfer.communication.TransferJobScheduler;
 import com.webank.ai.eggroll.driver.clustercomm.transfer.api.grpc.server.ProxyServiceImpl;
 import com.webank.ai.eggroll.driver.clustercomm.transfer.api.grpc.server.TransferSubmitServiceImpl;
 import com.webank.ai.eggroll.framework.storage.service.server.ObjectStoreServicer;
@@ -31,9 +29,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-import org.springframework.util.concurrent.ListenableFuture;
-import org.springframework.util.concurrent.ListenableFutureCallback;
 
 public class ClusterComm extends BaseEggRollServer {
     private static final Logger LOGGER = LogManager.getLogger();
@@ -48,24 +43,6 @@ public class ClusterComm extends BaseEggRollServer {
         confFilePath = cmd.getOptionValue("c");
 
         ApplicationContext context = new ClassPathXmlApplicationContext("applicationContext-clustercomm.xml");
-        ThreadPoolTaskExecutor clusterCommAsyncThreadPool = (ThreadPoolTaskExecutor) context.getBean("clusterCommAsyncThreadPool");
-        ErrorUtils errorUtils = context.getBean(ErrorUtils.class);
-
-        TransferJobScheduler transferJobScheduler = context.getBean(TransferJobScheduler.class);
-        ListenableFuture<?> schedulerListenableFuture = clusterCommAsyncThreadPool.submitListenable(transferJobScheduler);
-
-        schedulerListenableFuture.addCallback(new ListenableFutureCallback<Object>() {
-            @Override
-            public void onFailure(Throwable throwable) {
-                LOGGER.fatal("[CLUSTERCOMM][MAIN][FATAL] job scheduler failed: {}", errorUtils.getStackTrace(throwable));
-            }
-
-            @Override
-            public void onSuccess(Object o) {
-                LOGGER.fatal("[CLUSTERCOMM][MAIN][FATAL] job scheduler 'return' successful");
-            }
-        });
-
 
         DefaultGrpcServerFactory serverFactory = context.getBean(DefaultGrpcServerFactory.class);
         DefaultServerConf serverConf = (DefaultServerConf) serverFactory.parseConfFile(confFilePath);
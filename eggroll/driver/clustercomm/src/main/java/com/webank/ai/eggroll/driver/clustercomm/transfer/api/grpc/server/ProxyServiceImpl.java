@@ -24,6 +24,7 @@ import com.webank.ai.eggroll.core.constant.StringConstants;
 import com.webank.ai.eggroll.driver.clustercomm.factory.TransferServiceFactory;
 import com.webank.ai.eggroll.driver.clustercomm.transfer.api.grpc.observer.PushServerRequestStreamObserver;
 import com.webank.ai.eggroll.driver.clustercomm.transfer.manager.RecvBrokerManager;
+import com.webank.ai.eggroll.driver.clustercomm.transfer.utils.TransferCompressionUtils;
 import com.webank.ai.eggroll.driver.clustercomm.transfer.utils.TransferProtoMessageUtils;
 import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
@@ -47,6 +48,8 @@ public class ProxyServiceImpl extends DataTransferServiceGrpc.DataTransferServic
     private TransferProtoMessageUtils transferProtoMessageUtils;
     @Autowired
     private RecvBrokerManager recvBrokerManager;
+    @Autowired
+    private TransferCompressionUtils transferCompressionUtils;
 
     @Override
     public PushServerRequestStreamObserver push(StreamObserver<Proxy.Metadata> responseObserver) {
@@ -81,9 +84,18 @@ public class ProxyServiceImpl extends DataTransferServiceGrpc.DataTransferServic
                 LOGGER.info("[CLUSTERCOMM][PROXY][UNARY] mark start: {}", task.getTaskId());
                 ClusterComm.TransferMeta transferMeta = transferProtoMessageUtils.extractTransferMetaFromPacket(request);
 
+                // downgrade the proposed compression to one this side can decode, and always mark it accepted:
+                // an old receiver echoes the request unchanged, which the sender must read as NONE
+                ClusterComm.TransferCompression accepted
+                        = transferCompressionUtils.accept(transferCompressionUtils.getCompression(transferMeta));
+                transferMeta = transferCompressionUtils.withAcceptedCompression(transferMeta, accepted);
+                Proxy.Packet response = request.toBuilder()
+                        .setBody(request.getBody().toBuilder().setValue(transferMeta.toByteString()))
+                        .build();
+
                 recvBrokerManager.markStart(transferMeta);
 
-                responseObserver.onNext(request);
+                responseObserver.onNext(response);
                 responseObserver.onCompleted();
             } else if (StringConstants.SEND_END.equals(commandName)) {
                 LOGGER.info("[CLUSTERCOMM][PROXY][UNARY] mark end: {}", task.getTaskId());
@@ -17,8 +17,11 @@
 package com.webank.ai.eggroll.driver.clustercomm.transfer.communication;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Queues;
 import com.webank.ai.eggroll.api.driver.clustercomm.ClusterComm;
+import com.webank.ai.eggroll.core.server.ServerConf;
 import com.webank.ai.eggroll.core.utils.ErrorUtils;
 import com.webank.ai.eggroll.core.utils.ToStringUtils;
 import com.webank.ai.eggroll.driver.clustercomm.transfer.manager.TransferMetaHelper;
@@ -26,24 +29,42 @@ import com.webank.ai.eggroll.driver.clustercomm.transfer.utils.TransferPojoUtils
 import com.webank.ai.eggroll.driver.clustercomm.factory.TransferServiceFactory;
 import com.webank.ai.eggroll.driver.clustercomm.transfer.communication.processor.BaseTransferProcessor;
 import com.webank.ai.eggroll.driver.clustercomm.transfer.event.TransferJobEvent;
+import io.grpc.Status;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 import org.springframework.util.concurrent.ListenableFuture;
 import org.springframework.util.concurrent.ListenableFutureCallback;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.CountDownLatch;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Admits transfer jobs up to transfer.scheduler.capacity (running and pending). A submit waits up to
+ * transfer.scheduler.admission.timeout.ms for room and is rejected with RESOURCE_EXHAUSTED after that,
+ * so the caller of send / recv sees the rejection instead of losing the transfer.
+ *
+ * Admitted jobs are started as soon as their peer has fewer than transfer.scheduler.peer.concurrency
+ * running jobs of the same type and the executor has a free thread, taking peers in turn.
+ */
 @Component
-public class TransferJobScheduler implements Runnable {
+public class TransferJobScheduler {
     private static final Logger LOGGER = LogManager.getLogger();
-    private final Object runningLock;
+    private static final String SCHEDULER_CAPACITY = "transfer.scheduler.capacity";
+    private static final String SCHEDULER_PEER_CONCURRENCY = "transfer.scheduler.peer.concurrency";
+    private static final String SCHEDULER_ADMISSION_TIMEOUT_MS = "transfer.scheduler.admission.timeout.ms";
+    private static final int DEFAULT_CAPACITY = 1000;
+    private static final int DEFAULT_PEER_CONCURRENCY = 32;
+    private static final int DEFAULT_ADMISSION_TIMEOUT_MS = 30_000;
+
     @Autowired
     private ToStringUtils toStringUtils;
     @Autowired
@@ -56,46 +77,93 @@ public class TransferJobScheduler implements Runnable {
     private ErrorUtils errorUtils;
     @Autowired
     private TransferPojoUtils transferPojoUtils;
+    @Autowired
+    private ServerConf serverConf;
 
-    private BlockingQueue<ClusterComm.TransferMeta> jobQueue;
-    // singleton so no explicit synchronization is used for now
-    private volatile boolean isRunning;
-    private CountDownLatch jobQueueReadyLatch;
+    private final Object scheduleLock;
+    // guarded by scheduleLock
+    private final Map<String, PeerJobs> peerJobs;
+    private int runningCount;
+
+    private volatile Semaphore admission;
+    private int peerConcurrency;
+    private long admissionTimeoutMs;
 
     public TransferJobScheduler() {
-        this.jobQueue = Queues.newLinkedBlockingQueue(20);
-        this.isRunning = false;
-        this.runningLock = new Object();
-        resetLatch();
+        this.scheduleLock = new Object();
+        this.peerJobs = Maps.newLinkedHashMap();
+        this.runningCount = 0;
     }
 
     public void submit(ClusterComm.TransferMeta transferMeta) {
         Preconditions.checkNotNull(transferMeta, "transferMeta cannot be null");
+        initIfNeeded();
+
+        String transferMetaId = transferPojoUtils.generateTransferId(transferMeta);
+        boolean admitted = false;
+        try {
+            admitted = admission.tryAcquire(admissionTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Status.CANCELLED.withDescription("interrupted while admitting transfer: " + transferMetaId).asRuntimeException();
+        }
 
-        // todo: capacity check and handle
-        jobQueue.offer(transferMeta);
-        jobQueueReadyLatch.countDown();
+        if (!admitted) {
+            LOGGER.warn("[CLUSTERCOMM][SCHEDULER] rejecting job. transferMetaId: {}, waited: {} ms", transferMetaId, admissionTimeoutMs);
+            throw Status.RESOURCE_EXHAUSTED
+                    .withDescription("transfer scheduler is full, retry later. transferMetaId: " + transferMetaId)
+                    .asRuntimeException();
+        }
+
+        String peer = getPeer(transferMeta);
+        synchronized (scheduleLock) {
+            peerJobs.computeIfAbsent(peer, k -> new PeerJobs()).pending.add(transferMeta);
+        }
+        LOGGER.info("[CLUSTERCOMM][SCHEDULER] admitted job. transferMetaId: {}, peer: {}", transferMetaId, peer);
+
+        dispatch();
     }
 
-    @Override
-    public void run() {
-        boolean latchWaitResult = false;
-        int waitCount = 0;
-        while (System.currentTimeMillis() > 0) {
-            try {
-            while (!latchWaitResult && ++waitCount < 15 && jobQueue.isEmpty()) {
-                latchWaitResult = jobQueueReadyLatch.await(1, TimeUnit.SECONDS);
-            }
+    @EventListener
+    public void handleTransferJobEvent(TransferJobEvent transferJobEvent) {
+        Preconditions.checkNotNull(transferJobEvent);
+
+        submit(transferJobEvent.getTransferMeta());
+    }
 
-            waitCount = 0;
-            latchWaitResult = false;
-            resetLatch();
+    private void dispatch() {
+        List<String> peers = Lists.newArrayList();
+        List<ClusterComm.TransferMeta> jobs = Lists.newArrayList();
 
-            if (jobQueue.isEmpty()) {
-                continue;
+        synchronized (scheduleLock) {
+            int maxRunning = transferJobSchedulerExecutor.getMaxPoolSize();
+            boolean progressed = true;
+            while (progressed && runningCount < maxRunning) {
+                progressed = false;
+                for (Map.Entry<String, PeerJobs> entry : peerJobs.entrySet()) {
+                    PeerJobs cur = entry.getValue();
+                    if (runningCount >= maxRunning) {
+                        break;
+                    }
+                    if (cur.runningCount < peerConcurrency && !cur.pending.isEmpty()) {
+                        ++cur.runningCount;
+                        ++runningCount;
+                        peers.add(entry.getKey());
+                        jobs.add(cur.pending.remove());
+                        progressed = true;
+                    }
+                }
             }
+        }
+
+        for (int i = 0; i < jobs.size(); ++i) {
+            start(peers.get(i), jobs.get(i));
+        }
+    }
 
-            ClusterComm.TransferMeta cur = jobQueue.remove();
+    private void start(String peer, ClusterComm.TransferMeta cur) {
+        String transferMetaId = transferPojoUtils.generateTransferId(cur);
+        try {
             LOGGER.info("[CLUSTERCOMM][SCHEDULER] processing job: {}, executor active: {}, executor max capacity: {}",
                     toStringUtils.toOneLineString(cur), transferJobSchedulerExecutor.getActiveCount(), transferJobSchedulerExecutor.getMaxPoolSize());
 
@@ -114,62 +182,87 @@ public class TransferJobScheduler implements Runnable {
                     break;
             }
 
-            String transferMetaId = transferPojoUtils.generateTransferId(cur);
-            if (processor != null) {
-                LOGGER.info("[CLUSTERCOMM][SCHEDULER] ready to submit job. transferMetaId: {}, type: {}, processorType: {}, ",
-                        transferMetaId, type.name(), processor.getClass().getSimpleName());
-
-                CountDownLatch countDownLatch = new CountDownLatch(1);
-                ListenableFuture<?> listenableFuture = transferJobSchedulerExecutor.submitListenable(processor);
-                listenableFuture.addCallback(new ListenableFutureCallback<Object>() {
-                    @Override
-                    public void onFailure(Throwable throwable) {
-                        LOGGER.error("[CLUSTERCOMM][SCHEDULER] processor failed: transferMetaId: {}, exception: {}",
-                                transferMetaId, errorUtils.getStackTrace(throwable));
-                        countDownLatch.countDown();
-                    }
-
-                    @Override
-                    public void onSuccess(Object o) {
-                        LOGGER.info("[CLUSTERCOMM][SCHEDULER] processor success. transferMetaId: {}", transferMetaId);
-                        countDownLatch.countDown();
-                    }
-                });
-
-/*                    boolean awaitResult = false;
-                while (!awaitResult) {
-                    boolean isDone = listenableFuture.isDone();
-                    boolean isCancelled = listenableFuture.isCancelled();
-                    LOGGER.info("[CLUSTERCOMM][SCHEDULER] transferMetaId: {}, isDone: {}, isCancelled: {}",
-                            transferMetaId, isDone, isCancelled);
-
-                    if (isDone || isCancelled) {
-                        LOGGER.info("[CLUSTERCOMM][SCHEDULER] transferMetaId: {}, breaking", transferMetaId);
-                    }
-                    awaitResult = countDownLatch.await(10, TimeUnit.SECONDS);
-                }*/
-            } else {
+            if (processor == null) {
                 LOGGER.error("[CLUSTERCOMM][SCHEDULER][FATAL] processor is null. transferMetaId: {}. type: {}",
                         transferMetaId, type.name());
+                onJobFinished(peer);
+                return;
             }
 
-            } catch (Exception e) {
-                LOGGER.error(errorUtils.getStackTrace(e));
+            LOGGER.info("[CLUSTERCOMM][SCHEDULER] ready to submit job. transferMetaId: {}, type: {}, processorType: {}, ",
+                    transferMetaId, type.name(), processor.getClass().getSimpleName());
+
+            ListenableFuture<?> listenableFuture = transferJobSchedulerExecutor.submitListenable(processor);
+            listenableFuture.addCallback(new ListenableFutureCallback<Object>() {
+                @Override
+                public void onFailure(Throwable throwable) {
+                    LOGGER.error("[CLUSTERCOMM][SCHEDULER] processor failed: transferMetaId: {}, exception: {}",
+                            transferMetaId, errorUtils.getStackTrace(throwable));
+                    onJobFinished(peer);
+                }
+
+                @Override
+                public void onSuccess(Object o) {
+                    LOGGER.info("[CLUSTERCOMM][SCHEDULER] processor success. transferMetaId: {}", transferMetaId);
+                    onJobFinished(peer);
+                }
+            });
+        } catch (Exception e) {
+            LOGGER.error("[CLUSTERCOMM][SCHEDULER] failed to start job. transferMetaId: {}, exception: {}",
+                    transferMetaId, errorUtils.getStackTrace(e));
+            transferMetaHelper.onError(cur, 201, "failed to start transfer job: " + e.getMessage());
+            onJobFinished(peer);
+        }
+    }
+
+    private void onJobFinished(String peer) {
+        synchronized (scheduleLock) {
+            PeerJobs cur = peerJobs.get(peer);
+            --cur.runningCount;
+            --runningCount;
+            if (cur.runningCount == 0 && cur.pending.isEmpty()) {
+                peerJobs.remove(peer);
             }
         }
+        admission.release();
+
+        dispatch();
     }
 
-    @Async
-    @EventListener
-    public void handleTransferJobEvent(TransferJobEvent transferJobEvent) {
-        Preconditions.checkNotNull(transferJobEvent);
+    private String getPeer(ClusterComm.TransferMeta transferMeta) {
+        ClusterComm.Party party = transferMeta.getType() == ClusterComm.TransferType.RECV
+                ? transferMeta.getSrc() : transferMeta.getDst();
 
-        submit(transferJobEvent.getTransferMeta());
+        return transferMeta.getType().name() + "-" + party.getPartyId();
     }
 
-    private void resetLatch() {
-        if (jobQueueReadyLatch == null || jobQueueReadyLatch.getCount() == 0) {
-            jobQueueReadyLatch = new CountDownLatch(1);
+    private void initIfNeeded() {
+        if (admission != null) {
+            return;
+        }
+
+        synchronized (scheduleLock) {
+            if (admission == null) {
+                Properties properties = serverConf.getProperties();
+                peerConcurrency = getIntProperty(properties, SCHEDULER_PEER_CONCURRENCY, DEFAULT_PEER_CONCURRENCY);
+                admissionTimeoutMs = getIntProperty(properties, SCHEDULER_ADMISSION_TIMEOUT_MS, DEFAULT_ADMISSION_TIMEOUT_MS);
+                int capacity = getIntProperty(properties, SCHEDULER_CAPACITY, DEFAULT_CAPACITY);
+
+                LOGGER.info("[CLUSTERCOMM][SCHEDULER] capacity: {}, peer concurrency: {}, admission timeout: {} ms",
+                        capacity, peerConcurrency, admissionTimeoutMs);
+                admission = new Semaphore(capacity, true);
+            }
         }
     }
+
+    private int getIntProperty(Properties properties, String key, int defaultValue) {
+        String value = properties == null ? null : properties.getProperty(key);
+
+        return StringUtils.isBlank(value) ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static class PeerJobs {
+        private final Queue<ClusterComm.TransferMeta> pending = Queues.newArrayDeque();
+        private int runningCount = 0;
+    }
 }
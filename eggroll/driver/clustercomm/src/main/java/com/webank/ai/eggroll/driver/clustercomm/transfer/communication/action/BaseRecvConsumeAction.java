@@ -16,12 +16,14 @@
 
 package com.webank.ai.eggroll.driver.clustercomm.transfer.communication.action;
 
+import com.google.protobuf.ByteString;
 import com.webank.ai.eggroll.api.driver.clustercomm.ClusterComm;
 import com.webank.ai.eggroll.core.utils.ErrorUtils;
 import com.webank.ai.eggroll.core.utils.ToStringUtils;
 import com.webank.ai.eggroll.core.utils.TypeConversionUtils;
 import com.webank.ai.eggroll.driver.clustercomm.transfer.manager.RecvBrokerManager;
 import com.webank.ai.eggroll.driver.clustercomm.transfer.manager.TransferMetaHelper;
+import com.webank.ai.eggroll.driver.clustercomm.transfer.utils.TransferCompressionUtils;
 import com.webank.ai.eggroll.driver.clustercomm.transfer.utils.TransferPojoUtils;
 import com.webank.ai.eggroll.driver.clustercomm.transfer.model.TransferBroker;
 import org.apache.logging.log4j.LogManager;
@@ -42,10 +44,13 @@ public abstract class BaseRecvConsumeAction implements TransferQueueConsumeActio
     protected ToStringUtils toStringUtils;
     @Autowired
     protected RecvBrokerManager recvBrokerManager;
+    @Autowired
+    protected TransferCompressionUtils transferCompressionUtils;
 
     protected TransferBroker transferBroker;
     protected ClusterComm.TransferMeta transferMeta;
     protected String transferMetaId;
+    private ClusterComm.TransferCompression compression;
     private ClusterComm.TransferStatus currentTransferStatus;
 
     public BaseRecvConsumeAction(TransferBroker transferBroker) {
@@ -68,6 +73,18 @@ public abstract class BaseRecvConsumeAction implements TransferQueueConsumeActio
         }
     }
 
+    /**
+     * Restores a chunk compressed as negotiated in send start. Data only arrives after send start,
+     * so the sender's transferMeta is known by then.
+     */
+    protected ByteString decompress(ByteString chunk) {
+        if (compression == null) {
+            compression = transferCompressionUtils.getCompression(recvBrokerManager.getPassedInTransferMetaNow(transferMetaId));
+        }
+
+        return transferCompressionUtils.decompress(compression, chunk);
+    }
+
     @Override
     public void onComplete() {
         if (!transferBroker.hasError()) {
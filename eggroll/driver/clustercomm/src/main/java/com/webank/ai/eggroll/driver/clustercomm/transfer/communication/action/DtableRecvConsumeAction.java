@@ -179,7 +179,7 @@ public class DtableRecvConsumeAction extends BaseRecvConsumeAction {
         try {
             if (!rawMaps.isEmpty()) {
                 for (ByteString rawMapBS : rawMaps) {
-                    DataStructure.RawMap rawMap = DataStructure.RawMap.parseFrom(rawMapBS);
+                    DataStructure.RawMap rawMap = DataStructure.RawMap.parseFrom(decompress(rawMapBS));
 
                     for (DataStructure.RawEntry entry : rawMap.getEntriesList()) {
                         Kv.Operand operand = typeConversionUtils.toOperand(entry);
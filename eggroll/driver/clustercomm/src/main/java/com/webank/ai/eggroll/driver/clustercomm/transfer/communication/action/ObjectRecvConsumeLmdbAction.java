@@ -103,7 +103,9 @@ public class ObjectRecvConsumeLmdbAction extends BaseRecvConsumeAction {
 
         int partSize = parts.size();
         if (partSize > 0) {
-            serializedObjects.add(ByteString.copyFrom(parts));
+            for (ByteString part : parts) {
+                serializedObjects.add(decompress(part));
+            }
 
             ++chunkCount;
         }
@@ -31,6 +31,7 @@ import com.webank.ai.eggroll.driver.clustercomm.transfer.communication.producer.
 import com.webank.ai.eggroll.driver.clustercomm.transfer.communication.producer.ObjectLmdbSendProducer;
 import com.webank.ai.eggroll.driver.clustercomm.transfer.model.TransferBroker;
 import com.webank.ai.eggroll.driver.clustercomm.transfer.service.ProxySelectionService;
+import com.webank.ai.eggroll.driver.clustercomm.transfer.utils.TransferCompressionUtils;
 import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable;
 import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment;
 import org.apache.logging.log4j.LogManager;
@@ -56,6 +57,10 @@ public class SendProcessor extends BaseTransferProcessor {
     private ProxyClient proxyClient;
     @Autowired
     private ClusterCommCallbackFactory clusterCommCallbackFactory;
+    @Autowired
+    private TransferCompressionUtils transferCompressionUtils;
+
+    private ClusterComm.TransferMeta sendTransferMeta;
 
     public SendProcessor(ClusterComm.TransferMeta transferMeta) {
         super(transferMeta);
@@ -67,11 +72,17 @@ public class SendProcessor extends BaseTransferProcessor {
         BasicMeta.Endpoint targetProxy = null;
         try {
             LOGGER.info("[CLUSTERCOMM][SEND][PROCESSOR] transferMetaId: {}", transferMetaId);
-            targetProxy = proxySelectionService.select();
+            targetProxy = proxySelectionService.select(transferMetaId);
             ClusterComm.TransferDataDesc dataDesc = transferMeta.getDataDesc();
 
-            // request send start
-            proxyClient.requestSendStart(transferMeta, targetProxy);
+            // request send start, proposing a compression the receiver may downgrade
+            ClusterComm.TransferMeta proposed = transferCompressionUtils.withCompression(transferMeta,
+                    transferCompressionUtils.propose(transferMeta.getConf().getCompression()));
+            ClusterComm.TransferMeta accepted = requestSendStart(proposed, targetProxy);
+            sendTransferMeta = transferCompressionUtils.withCompression(transferMeta,
+                    transferCompressionUtils.getAcceptedCompression(accepted));
+            LOGGER.info("[CLUSTERCOMM][SEND][PROCESSOR] transferMetaId: {}, compression: {}",
+                    transferMetaId, sendTransferMeta.getConf().getCompression());
 
             final List<Throwable> errorContainer = Collections.synchronizedList(Lists.newLinkedList());
             CountDownLatch finishLatch = null;
@@ -94,12 +105,39 @@ public class SendProcessor extends BaseTransferProcessor {
             LOGGER.error(errorUtils.getStackTrace(e));
             throw new RuntimeException(e);
         } finally {
-            // request send end
-            proxyClient.requestSendEnd(transferMeta, targetProxy);
+            try {
+                // request send end
+                requestSendEnd(transferMeta, targetProxy);
+            } finally {
+                proxySelectionService.release(transferMetaId);
+            }
             LOGGER.info("[CLUSTERCOMM][SEND][PROCESSOR] send job finished: {}", transferMetaId);
         }
     }
 
+    private ClusterComm.TransferMeta requestSendStart(ClusterComm.TransferMeta request, BasicMeta.Endpoint targetProxy) {
+        long startTime = System.currentTimeMillis();
+        try {
+            ClusterComm.TransferMeta result = proxyClient.requestSendStart(request, targetProxy);
+            proxySelectionService.reportSuccess(targetProxy, System.currentTimeMillis() - startTime);
+            return result;
+        } catch (RuntimeException e) {
+            proxySelectionService.reportFailure(targetProxy);
+            throw e;
+        }
+    }
+
+    private void requestSendEnd(ClusterComm.TransferMeta request, BasicMeta.Endpoint targetProxy) {
+        long startTime = System.currentTimeMillis();
+        try {
+            proxyClient.requestSendEnd(request, targetProxy);
+            proxySelectionService.reportSuccess(targetProxy, System.currentTimeMillis() - startTime);
+        } catch (RuntimeException e) {
+            proxySelectionService.reportFailure(targetProxy);
+            throw e;
+        }
+    }
+
     private CountDownLatch processDtable(ClusterComm.TransferDataDesc dataDesc,
                                          final List<Throwable> errorContainer) {
         LOGGER.info("[CLUSTERCOMM][SEND][PROCESSOR][DTABLE] transferMetaId: {}", transferMetaId);
@@ -114,7 +152,7 @@ public class SendProcessor extends BaseTransferProcessor {
 
         List<Fragment> fragments = storageMetaClient.getFragmentsByTableId(dtable.getTableId());
 
-        BasicMeta.Endpoint targetProxy = proxySelectionService.select();
+        BasicMeta.Endpoint targetProxy = proxySelectionService.select(transferMetaId);
 
         int fragmentSize = fragments.size();
         final List<BasicMeta.ReturnStatus> results = Collections.synchronizedList(Lists.newArrayList());
@@ -122,7 +160,7 @@ public class SendProcessor extends BaseTransferProcessor {
 
         for (Fragment fragment : fragments) {
             // todo: make this configurable
-            final TransferBroker broker = transferServiceFactory.createTransferBroker(transferMeta, 10_000);
+            final TransferBroker broker = transferServiceFactory.createTransferBroker(sendTransferMeta, 10_000);
             TransferQueueConsumeAction sendConsumeAction = transferServiceFactory.createSendConsumeAction(broker, targetProxy);
             broker.setAction(sendConsumeAction);
 
@@ -150,8 +188,8 @@ public class SendProcessor extends BaseTransferProcessor {
     private CountDownLatch processObject(ClusterComm.TransferDataDesc dataDesc,
                                          final List<Throwable> errorContainer) {
         LOGGER.info("[CLUSTERCOMM][SEND][PROCESSOR][OBJECT] transferMetaId: {}", transferMetaId);
-        TransferBroker broker = transferServiceFactory.createTransferBroker(transferMeta);
-        TransferQueueConsumeAction sendConsumeAction = transferServiceFactory.createSendConsumeAction(broker, proxySelectionService.select());
+        TransferBroker broker = transferServiceFactory.createTransferBroker(sendTransferMeta);
+        TransferQueueConsumeAction sendConsumeAction = transferServiceFactory.createSendConsumeAction(broker, proxySelectionService.select(transferMetaId));
         broker.setAction(sendConsumeAction);
 
         ObjectLmdbSendProducer producer = transferServiceFactory.createLmdbSendProducer(broker);
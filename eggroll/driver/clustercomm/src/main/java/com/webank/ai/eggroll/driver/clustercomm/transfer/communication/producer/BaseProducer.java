@@ -27,6 +27,7 @@ import com.webank.ai.eggroll.core.utils.ErrorUtils;
 import com.webank.ai.eggroll.core.utils.ToStringUtils;
 import com.webank.ai.eggroll.driver.clustercomm.factory.KeyValueStoreFactory;
 import com.webank.ai.eggroll.driver.clustercomm.transfer.model.TransferBroker;
+import com.webank.ai.eggroll.driver.clustercomm.transfer.utils.TransferCompressionUtils;
 import com.webank.ai.eggroll.driver.clustercomm.utils.ClusterCommServerUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -54,6 +55,8 @@ public abstract class BaseProducer implements Callable<BasicMeta.ReturnStatus> {
     protected ToStringUtils toStringUtils;
     @Autowired
     protected ClusterCommServerUtils clusterCommServerUtils;
+    @Autowired
+    protected TransferCompressionUtils transferCompressionUtils;
     protected int chunkSize;
 
     public BaseProducer(TransferBroker transferBroker) {
@@ -76,6 +79,7 @@ public abstract class BaseProducer implements Callable<BasicMeta.ReturnStatus> {
     }
 
     protected void putToBroker(ByteString byteString) {
-        transferBroker.put(byteString);
+        transferBroker.put(transferCompressionUtils.compress(
+                transferCompressionUtils.getCompression(transferMeta), byteString));
     }
 }
@@ -74,9 +74,17 @@ public class RecvBrokerManager {
             return;
         }
 
-        createdTasks.putIfAbsent(transferMetaId, transferMeta);
-
-        applicationEventPublisher.publishEvent(new TransferJobEvent(this, transferMeta));
+        boolean created = createdTasks.putIfAbsent(transferMetaId, transferMeta) == null;
+
+        try {
+            applicationEventPublisher.publishEvent(new TransferJobEvent(this, transferMeta));
+        } catch (RuntimeException e) {
+            // not admitted by scheduler. forgets it so that the caller can submit again
+            if (created) {
+                createdTasks.remove(transferMetaId, transferMeta);
+            }
+            throw e;
+        }
     }
 
     public void createRecvTaskFromPassedInTransferMetaId(String transferMetaId) {
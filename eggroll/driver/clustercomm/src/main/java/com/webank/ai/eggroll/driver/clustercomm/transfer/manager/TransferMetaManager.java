@@ -44,14 +44,27 @@ class TransferMetaManager {
         this.transferMetaHolder = Maps.newConcurrentMap();
     }
 
-    synchronized void create(ClusterComm.TransferMeta transferMeta) {
+    void create(ClusterComm.TransferMeta transferMeta) {
         String key = transferPojoUtils.generateTransferId(transferMeta);
 
-        ClusterComm.TransferMeta existing = get(transferMeta);
-        if (existing == null) {
-            transferMetaHolder.put(key, transferMeta);
+        boolean created = false;
+        synchronized (this) {
+            ClusterComm.TransferMeta existing = get(transferMeta);
+            if (existing == null) {
+                transferMetaHolder.put(key, transferMeta);
+                created = true;
+            }
+        }
+
+        try {
+            applicationEventPublisher.publishEvent(new TransferJobEvent(this, transferMeta));
+        } catch (RuntimeException e) {
+            // not admitted by scheduler. forgets it so that the caller can submit again
+            if (created) {
+                transferMetaHolder.remove(key, transferMeta);
+            }
+            throw e;
         }
-        applicationEventPublisher.publishEvent(new TransferJobEvent(this, transferMeta));
     }
 
     public ClusterComm.TransferMeta get(ClusterComm.TransferMeta transferMeta) {
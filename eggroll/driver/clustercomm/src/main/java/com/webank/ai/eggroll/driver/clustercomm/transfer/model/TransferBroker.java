@@ -22,6 +22,8 @@ import com.google.common.collect.Queues;
 import com.google.protobuf.ByteString;
 import com.webank.ai.eggroll.api.driver.clustercomm.ClusterComm;
 import com.webank.ai.eggroll.core.constant.RuntimeConstants;
+import com.webank.ai.eggroll.core.metrics.InstanceGauge;
+import com.webank.ai.eggroll.core.metrics.MetricsRegistry;
 import com.webank.ai.eggroll.driver.clustercomm.transfer.communication.action.TransferQueueConsumeAction;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
@@ -37,6 +39,12 @@ import java.util.concurrent.atomic.AtomicInteger;
 @Scope("prototype")
 public class TransferBroker {
     private static final int DEFAULT_QUEUE_CAPACITY = 100_000;
+    private static final InstanceGauge<TransferBroker> QUEUE_SIZE_GAUGE = MetricsRegistry.getDefault()
+            .instanceGauge("eggroll_clustercomm_transfer_broker_queue_size", "chunks waiting in open transfer brokers",
+                    TransferBroker::getQueueSize);
+    private static final InstanceGauge<TransferBroker> OCCUPANCY_GAUGE = MetricsRegistry.getDefault()
+            .instanceGauge("eggroll_clustercomm_transfer_broker_occupancy", "queue size over capacity of open transfer brokers",
+                    broker -> (double) broker.getQueueSize() / broker.getQueueCapacity());
     private ClusterComm.TransferMeta transferMeta;
     private BlockingQueue<ByteString> dataQueue;
     private List<TransferBrokerListener> listeners;
@@ -70,6 +78,8 @@ public class TransferBroker {
         }
         this.isFinishedLock = new Object();
         this.closeLatch = new CountDownLatch(1);
+        QUEUE_SIZE_GAUGE.track(this);
+        OCCUPANCY_GAUGE.track(this);
     }
 
     public TransferBroker(String transferMetaId) {
@@ -231,6 +241,8 @@ public class TransferBroker {
     public void close() {
         listeners.clear();
         action.onComplete();
+        QUEUE_SIZE_GAUGE.untrack(this);
+        OCCUPANCY_GAUGE.untrack(this);
     }
 
     public int getQueueCapacity() {
@@ -20,4 +20,15 @@ import com.webank.ai.eggroll.api.core.BasicMeta;
 
 public interface ProxySelectionService {
     public BasicMeta.Endpoint select();
+
+    /**
+     * returns the same proxy for every call with the same transferKey until {@link #release(String)} is called
+     */
+    public BasicMeta.Endpoint select(String transferKey);
+
+    public void release(String transferKey);
+
+    public void reportSuccess(BasicMeta.Endpoint proxy, long latencyMillis);
+
+    public void reportFailure(BasicMeta.Endpoint proxy);
 }
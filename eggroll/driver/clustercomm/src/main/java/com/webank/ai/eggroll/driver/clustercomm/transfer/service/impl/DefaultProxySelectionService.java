@@ -17,6 +17,7 @@
 package com.webank.ai.eggroll.driver.clustercomm.transfer.service.impl;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.webank.ai.eggroll.api.core.BasicMeta;
 import com.webank.ai.eggroll.core.api.grpc.client.crud.StorageMetaClient;
 import com.webank.ai.eggroll.core.model.NodeStatus;
@@ -31,8 +32,19 @@ import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Picks proxies by in-flight transfers, recent latency and failures. A proxy failing
+ * FAILURE_THRESHOLD times in a row is ejected with exponential backoff; once the backoff
+ * elapses a single transfer is let through as a probe, and its outcome decides recovery.
+ */
 @Service("proxySelectionService")
 public class DefaultProxySelectionService implements ProxySelectionService {
     @Autowired
@@ -44,43 +56,233 @@ public class DefaultProxySelectionService implements ProxySelectionService {
     @Autowired
     private ToStringUtils toStringUtils;
 
-    private List<BasicMeta.Endpoint> proxies;
+    private volatile List<ProxyState> proxies;
+    private final ConcurrentMap<BasicMeta.Endpoint, ProxyState> proxyStates;
+    private final ConcurrentMap<String, ProxyState> assignments;
+    private volatile long lastLoadTimestamp;
+
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final long BASE_EJECTION_MILLIS = 5_000L;
+    private static final long MAX_EJECTION_MILLIS = 120_000L;
+    private static final long PROBE_TIMEOUT_MILLIS = 30_000L;
+    private static final long RELOAD_INTERVAL_MILLIS = 60_000L;
+    private static final double LATENCY_DECAY = 0.3;
 
     private static final Logger LOGGER = LogManager.getLogger();
 
     public DefaultProxySelectionService() {
-        proxies = Lists.newArrayList();
+        proxies = Collections.emptyList();
+        proxyStates = Maps.newConcurrentMap();
+        assignments = Maps.newConcurrentMap();
     }
 
     public synchronized void loadProxy() {
         LOGGER.info("[CLUSTERCOMM][PROXY][SELECTION] loading");
         storageMetaClient.init(clusterCommServerUtils.getMetaServiceEndpoint());
 
-        proxies.clear();
-
         Node node = new Node();
         node.setType(NodeType.PROXY.name());
         node.setStatus(NodeStatus.HEALTHY.name());
 
         List<Node> nodes = storageMetaClient.getNodes(node);
 
-        BasicMeta.Endpoint endpoint = null;
+        List<BasicMeta.Endpoint> endpoints = Lists.newArrayListWithCapacity(nodes.size());
         for (Node cur : nodes) {
-            endpoint = typeConversionUtils.toEndpoint(cur);
-            proxies.add(endpoint);
+            endpoints.add(typeConversionUtils.toEndpoint(cur));
         }
+
+        updateProxies(endpoints);
     }
 
-    @Override
-    public BasicMeta.Endpoint select() {
+    synchronized void updateProxies(List<BasicMeta.Endpoint> endpoints) {
+        // keeps the stats of proxies which are still registered
+        Map<BasicMeta.Endpoint, ProxyState> previous = Maps.newHashMap(proxyStates);
+        List<ProxyState> updated = Lists.newArrayListWithCapacity(endpoints.size());
+        for (BasicMeta.Endpoint endpoint : endpoints) {
+            ProxyState state = previous.remove(endpoint);
+            if (state == null) {
+                state = new ProxyState(endpoint);
+                proxyStates.put(endpoint, state);
+            }
+            updated.add(state);
+        }
+        proxyStates.keySet().removeAll(previous.keySet());
+
+        proxies = Collections.unmodifiableList(updated);
+        lastLoadTimestamp = System.currentTimeMillis();
+        LOGGER.info("[CLUSTERCOMM][PROXY][SELECTION] loaded proxies: {}", updated);
+    }
+
+    private void ensureLoaded() {
+        boolean isEmpty = proxies.isEmpty();
+        if (isEmpty || System.currentTimeMillis() - lastLoadTimestamp > RELOAD_INTERVAL_MILLIS) {
+            try {
+                loadProxy();
+            } catch (Exception e) {
+                if (isEmpty) {
+                    throw e;
+                }
+                // keeps serving with the current proxies and retries at next interval
+                lastLoadTimestamp = System.currentTimeMillis();
+                LOGGER.warn("[CLUSTERCOMM][PROXY][SELECTION] failed to reload proxies: {}", e.getMessage());
+            }
+        }
+
         if (proxies.isEmpty()) {
-            loadProxy();
+            throw new IllegalStateException("no healthy proxy registered in meta service");
         }
-        // todo: make this more flexible
+    }
+
+    @Override
+    public BasicMeta.Endpoint select() {
+        ensureLoaded();
 
-        BasicMeta.Endpoint result = proxies.get(0);
+        BasicMeta.Endpoint result = choose().endpoint;
         LOGGER.info("[CLUSTERCOMM][PROXY][SELECTION] result: {}", toStringUtils.toOneLineString(result));
 
         return result;
     }
+
+    @Override
+    public BasicMeta.Endpoint select(String transferKey) {
+        ensureLoaded();
+
+        ProxyState result = assignments.computeIfAbsent(transferKey, key -> {
+            ProxyState state = choose();
+            state.inFlight.incrementAndGet();
+            LOGGER.info("[CLUSTERCOMM][PROXY][SELECTION] transferKey: {}, result: {}", key, state);
+            return state;
+        });
+
+        return result.endpoint;
+    }
+
+    @Override
+    public void release(String transferKey) {
+        ProxyState state = assignments.remove(transferKey);
+        if (state != null) {
+            state.inFlight.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void reportSuccess(BasicMeta.Endpoint proxy, long latencyMillis) {
+        ProxyState state = proxy == null ? null : proxyStates.get(proxy);
+        if (state == null) {
+            return;
+        }
+
+        state.onSuccess(latencyMillis);
+    }
+
+    @Override
+    public void reportFailure(BasicMeta.Endpoint proxy) {
+        ProxyState state = proxy == null ? null : proxyStates.get(proxy);
+        if (state == null) {
+            return;
+        }
+
+        state.onFailure(System.currentTimeMillis());
+    }
+
+    private ProxyState choose() {
+        long now = System.currentTimeMillis();
+        List<ProxyState> current = proxies;
+
+        List<ProxyState> healthy = Lists.newArrayListWithCapacity(current.size());
+        ProxyState soonestRecovery = null;
+        for (ProxyState state : current) {
+            if (state.isHealthy()) {
+                healthy.add(state);
+            } else if (state.tryProbe(now)) {
+                LOGGER.info("[CLUSTERCOMM][PROXY][SELECTION] probing ejected proxy: {}", state);
+                return state;
+            } else if (soonestRecovery == null || state.ejectedUntil < soonestRecovery.ejectedUntil) {
+                soonestRecovery = state;
+            }
+        }
+
+        if (healthy.isEmpty()) {
+            LOGGER.warn("[CLUSTERCOMM][PROXY][SELECTION] all proxies ejected. falling back to: {}", soonestRecovery);
+            return soonestRecovery;
+        }
+
+        // power of two choices: balanced without herding concurrent selections onto one proxy
+        int size = healthy.size();
+        int firstIndex = ThreadLocalRandom.current().nextInt(size);
+        ProxyState first = healthy.get(firstIndex);
+        if (size == 1) {
+            return first;
+        }
+        int secondIndex = ThreadLocalRandom.current().nextInt(size - 1);
+        ProxyState second = healthy.get(secondIndex >= firstIndex ? secondIndex + 1 : secondIndex);
+
+        return first.score() <= second.score() ? first : second;
+    }
+
+    private static class ProxyState {
+        private final BasicMeta.Endpoint endpoint;
+        private final AtomicInteger inFlight;
+        private final AtomicInteger consecutiveFailures;
+        private final AtomicLong probeDeadline;
+        private volatile double latencyEwma;
+        private volatile long ejectedUntil;
+        private volatile int ejectionCount;
+
+        ProxyState(BasicMeta.Endpoint endpoint) {
+            this.endpoint = endpoint;
+            this.inFlight = new AtomicInteger(0);
+            this.consecutiveFailures = new AtomicInteger(0);
+            this.probeDeadline = new AtomicLong(0);
+        }
+
+        boolean isHealthy() {
+            return ejectedUntil == 0;
+        }
+
+        boolean tryProbe(long now) {
+            if (ejectedUntil > now) {
+                return false;
+            }
+            // one probe at a time. a probe never reported back expires after PROBE_TIMEOUT_MILLIS
+            long deadline = probeDeadline.get();
+            return deadline <= now && probeDeadline.compareAndSet(deadline, now + PROBE_TIMEOUT_MILLIS);
+        }
+
+        double score() {
+            return (inFlight.get() + 1) * (latencyEwma + 1) * (consecutiveFailures.get() + 1);
+        }
+
+        synchronized void onSuccess(long latencyMillis) {
+            latencyEwma = latencyEwma == 0 ? latencyMillis : LATENCY_DECAY * latencyMillis + (1 - LATENCY_DECAY) * latencyEwma;
+            consecutiveFailures.set(0);
+            if (ejectedUntil != 0) {
+                LOGGER.info("[CLUSTERCOMM][PROXY][SELECTION] proxy recovered: {}", this);
+                ejectedUntil = 0;
+                ejectionCount = 0;
+                probeDeadline.set(0);
+            }
+        }
+
+        synchronized void onFailure(long now) {
+            int failures = consecutiveFailures.incrementAndGet();
+            // a failed probe re-ejects at once with a longer backoff
+            if (isHealthy() ? failures >= FAILURE_THRESHOLD : ejectedUntil <= now) {
+                long backoff = Math.min(BASE_EJECTION_MILLIS << Math.min(ejectionCount, 16), MAX_EJECTION_MILLIS);
+                ++ejectionCount;
+                ejectedUntil = now + backoff;
+                probeDeadline.set(0);
+                LOGGER.warn("[CLUSTERCOMM][PROXY][SELECTION] ejecting proxy: {}, backoff: {} ms", this, backoff);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return endpoint.getIp() + (endpoint.getHostname().isEmpty() ? "" : "/" + endpoint.getHostname()) + ":" + endpoint.getPort()
+                    + " {inFlight=" + inFlight.get()
+                    + ", latencyEwma=" + String.format("%.1f", latencyEwma)
+                    + ", consecutiveFailures=" + consecutiveFailures.get()
+                    + ", ejected=" + !isHealthy() + "}";
+        }
+    }
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.driver.clustercomm.transfer.utils;
+
+import com.github.luben.zstd.Zstd;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import com.webank.ai.eggroll.api.driver.clustercomm.ClusterComm;
+import com.webank.ai.eggroll.core.server.ServerConf;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compresses transfer chunks with the codec negotiated in send start.
+ *
+ * With LZ4 or ZSTD negotiated, each chunk is prefixed with the codec actually used (chunks which do not
+ * shrink are sent as is) and the uncompressed length. Without compression chunks are passed through
+ * unchanged, so peers which do not know about compression are unaffected.
+ */
+@Component
+public class TransferCompressionUtils {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final String TRANSFER_COMPRESSION = "transfer.compression";
+    private static final int ZSTD_LEVEL = 3;
+    private static final int HEADER_SIZE = 5;
+
+    @Autowired
+    private ServerConf serverConf;
+
+    private final LZ4Compressor lz4Compressor = LZ4Factory.fastestInstance().fastCompressor();
+    private final LZ4FastDecompressor lz4Decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+    private volatile Boolean zstdAvailable;
+
+    /**
+     * @return the codec a sender should propose: the requested one, or the configured default
+     */
+    public ClusterComm.TransferCompression propose(ClusterComm.TransferCompression requested) {
+        ClusterComm.TransferCompression result = requested;
+        if (result == ClusterComm.TransferCompression.DEFAULT || result == ClusterComm.TransferCompression.UNRECOGNIZED) {
+            String configured = serverConf.getProperties().getProperty(TRANSFER_COMPRESSION);
+            result = StringUtils.isBlank(configured)
+                    ? ClusterComm.TransferCompression.NONE
+                    : ClusterComm.TransferCompression.valueOf(configured.trim().toUpperCase());
+        }
+
+        return accept(result);
+    }
+
+    /**
+     * @return the proposed codec if it is available here, otherwise the closest one which is
+     */
+    public ClusterComm.TransferCompression accept(ClusterComm.TransferCompression proposed) {
+        switch (proposed) {
+            case LZ4:
+                return proposed;
+            case ZSTD:
+                return isZstdAvailable() ? proposed : ClusterComm.TransferCompression.LZ4;
+            default:
+                return ClusterComm.TransferCompression.NONE;
+        }
+    }
+
+    public ClusterComm.TransferCompression getCompression(ClusterComm.TransferMeta transferMeta) {
+        return transferMeta == null ? ClusterComm.TransferCompression.NONE : transferMeta.getConf().getCompression();
+    }
+
+    /**
+     * @return the codec a receiver accepted in its send start response. A receiver which predates compression
+     * echoes the proposal without marking it accepted, so that falls back to NONE
+     */
+    public ClusterComm.TransferCompression getAcceptedCompression(ClusterComm.TransferMeta response) {
+        if (response == null || !response.getConf().getCompressionAccepted()) {
+            return ClusterComm.TransferCompression.NONE;
+        }
+
+        return accept(response.getConf().getCompression());
+    }
+
+    public ClusterComm.TransferMeta withCompression(ClusterComm.TransferMeta transferMeta,
+                                                    ClusterComm.TransferCompression compression) {
+        ClusterComm.TransferMeta.Builder builder = transferMeta.toBuilder();
+        builder.getConfBuilder().setCompression(compression).clearCompressionAccepted();
+
+        return builder.build();
+    }
+
+    public ClusterComm.TransferMeta withAcceptedCompression(ClusterComm.TransferMeta transferMeta,
+                                                            ClusterComm.TransferCompression compression) {
+        ClusterComm.TransferMeta.Builder builder = transferMeta.toBuilder();
+        builder.getConfBuilder().setCompression(compression).setCompressionAccepted(true);
+
+        return builder.build();
+    }
+
+    public ByteString compress(ClusterComm.TransferCompression compression, ByteString data) {
+        if (!isCompressed(compression)) {
+            return data;
+        }
+
+        byte[] src = data.toByteArray();
+        int srcLength = src.length;
+        byte[] dst;
+        int compressedLength;
+
+        if (compression == ClusterComm.TransferCompression.LZ4) {
+            dst = new byte[HEADER_SIZE + lz4Compressor.maxCompressedLength(srcLength)];
+            compressedLength = lz4Compressor.compress(src, 0, srcLength, dst, HEADER_SIZE, dst.length - HEADER_SIZE);
+        } else {
+            dst = new byte[HEADER_SIZE + (int) Zstd.compressBound(srcLength)];
+            long result = Zstd.compressByteArray(dst, HEADER_SIZE, dst.length - HEADER_SIZE, src, 0, srcLength, ZSTD_LEVEL);
+            if (Zstd.isError(result)) {
+                throw new IllegalStateException("zstd compression failed: " + Zstd.getErrorName(result));
+            }
+            compressedLength = (int) result;
+        }
+
+        ClusterComm.TransferCompression used = compression;
+        if (compressedLength >= srcLength) {
+            used = ClusterComm.TransferCompression.NONE;
+            System.arraycopy(src, 0, dst, HEADER_SIZE, srcLength);
+            compressedLength = srcLength;
+        }
+
+        ByteBuffer.wrap(dst, 0, HEADER_SIZE).put((byte) used.getNumber()).putInt(srcLength);
+
+        return UnsafeByteOperations.unsafeWrap(dst, 0, HEADER_SIZE + compressedLength);
+    }
+
+    public ByteString decompress(ClusterComm.TransferCompression compression, ByteString data) {
+        if (!isCompressed(compression)) {
+            return data;
+        }
+
+        ByteBuffer header = data.substring(0, HEADER_SIZE).asReadOnlyByteBuffer();
+        ClusterComm.TransferCompression used = ClusterComm.TransferCompression.forNumber(header.get());
+        int originalLength = header.getInt();
+
+        if (used == ClusterComm.TransferCompression.NONE) {
+            return data.substring(HEADER_SIZE);
+        }
+
+        byte[] src = data.toByteArray();
+        byte[] dst = new byte[originalLength];
+        if (used == ClusterComm.TransferCompression.LZ4) {
+            lz4Decompressor.decompress(src, HEADER_SIZE, dst, 0, originalLength);
+        } else if (used == ClusterComm.TransferCompression.ZSTD) {
+            long result = Zstd.decompressByteArray(dst, 0, originalLength, src, HEADER_SIZE, src.length - HEADER_SIZE);
+            if (Zstd.isError(result) || result != originalLength) {
+                throw new IllegalStateException("zstd decompression failed: "
+                        + (Zstd.isError(result) ? Zstd.getErrorName(result) : "length mismatch"));
+            }
+        } else {
+            throw new IllegalArgumentException("unknown chunk compression: " + used);
+        }
+
+        return UnsafeByteOperations.unsafeWrap(dst);
+    }
+
+    private boolean isCompressed(ClusterComm.TransferCompression compression) {
+        return compression == ClusterComm.TransferCompression.LZ4 || compression == ClusterComm.TransferCompression.ZSTD;
+    }
+
+    private boolean isZstdAvailable() {
+        if (zstdAvailable == null) {
+            try {
+                Zstd.compressBound(0);
+                zstdAvailable = true;
+            } catch (Throwable t) {
+                LOGGER.warn("[CLUSTERCOMM][COMPRESSION] zstd unavailable, falling back to lz4: {}", t.toString());
+                zstdAvailable = false;
+            }
+        }
+
+        return zstdAvailable;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.driver.clustercomm.transfer.service.impl;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.webank.ai.eggroll.api.core.BasicMeta;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+public class TestDefaultProxySelectionService {
+    private DefaultProxySelectionService proxySelectionService;
+    private BasicMeta.Endpoint proxy1;
+    private BasicMeta.Endpoint proxy2;
+
+    @Before
+    public void init() {
+        proxy1 = BasicMeta.Endpoint.newBuilder().setIp("127.0.0.1").setPort(9370).build();
+        proxy2 = BasicMeta.Endpoint.newBuilder().setIp("127.0.0.2").setPort(9370).build();
+
+        proxySelectionService = new DefaultProxySelectionService();
+        proxySelectionService.updateProxies(Lists.newArrayList(proxy1, proxy2));
+    }
+
+    @Test
+    public void testSticky() {
+        BasicMeta.Endpoint selected = proxySelectionService.select("transfer-1");
+        for (int i = 0; i < 10; ++i) {
+            Assert.assertEquals(selected, proxySelectionService.select("transfer-1"));
+        }
+    }
+
+    @Test
+    public void testBalancedByInFlight() {
+        List<String> transferKeys = Lists.newArrayList();
+        Set<BasicMeta.Endpoint> selected = Sets.newHashSet();
+        for (int i = 0; i < 10; ++i) {
+            String transferKey = "transfer-" + i;
+            transferKeys.add(transferKey);
+            selected.add(proxySelectionService.select(transferKey));
+        }
+
+        Assert.assertEquals(2, selected.size());
+
+        for (String transferKey : transferKeys) {
+            proxySelectionService.release(transferKey);
+        }
+    }
+
+    @Test
+    public void testEjectAfterFailures() {
+        for (int i = 0; i < 3; ++i) {
+            proxySelectionService.reportFailure(proxy1);
+        }
+
+        for (int i = 0; i < 20; ++i) {
+            String transferKey = "transfer-" + i;
+            Assert.assertEquals(proxy2, proxySelectionService.select(transferKey));
+            proxySelectionService.release(transferKey);
+        }
+    }
+
+    @Test
+    public void testFallbackWhenAllEjected() {
+        for (int i = 0; i < 3; ++i) {
+            proxySelectionService.reportFailure(proxy1);
+            proxySelectionService.reportFailure(proxy2);
+        }
+
+        Assert.assertNotNull(proxySelectionService.select("transfer-1"));
+    }
+
+    @Test
+    public void testSuccessResetsFailures() {
+        proxySelectionService.reportFailure(proxy1);
+        proxySelectionService.reportFailure(proxy1);
+        proxySelectionService.reportSuccess(proxy1, 10);
+        proxySelectionService.reportFailure(proxy1);
+        proxySelectionService.reportSuccess(proxy2, 10);
+
+        Set<BasicMeta.Endpoint> selected = Sets.newHashSet();
+        for (int i = 0; i < 10; ++i) {
+            selected.add(proxySelectionService.select("transfer-" + i));
+        }
+
+        Assert.assertTrue(selected.contains(proxy1));
+    }
+}
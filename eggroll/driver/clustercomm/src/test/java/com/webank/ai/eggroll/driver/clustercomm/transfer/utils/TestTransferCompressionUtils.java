@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webank.ai.eggroll.driver.clustercomm.transfer.utils;
+
+import com.google.protobuf.ByteString;
+import com.webank.ai.eggroll.api.driver.clustercomm.ClusterComm;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestTransferCompressionUtils {
+    private TransferCompressionUtils transferCompressionUtils = new TransferCompressionUtils();
+
+    @Test
+    public void testRoundTrip() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10000; ++i) {
+            sb.append("key_").append(i % 100).append(',');
+        }
+        ByteString data = ByteString.copyFromUtf8(sb.toString());
+
+        for (ClusterComm.TransferCompression compression : new ClusterComm.TransferCompression[]{
+                ClusterComm.TransferCompression.LZ4, ClusterComm.TransferCompression.ZSTD}) {
+            ByteString compressed = transferCompressionUtils.compress(compression, data);
+            Assert.assertTrue(compressed.size() < data.size());
+            Assert.assertEquals(data, transferCompressionUtils.decompress(compression, compressed));
+        }
+    }
+
+    @Test
+    public void testIncompressible() {
+        byte[] bytes = new byte[4096];
+        new Random(42).nextBytes(bytes);
+        ByteString data = ByteString.copyFrom(bytes);
+
+        ByteString compressed = transferCompressionUtils.compress(ClusterComm.TransferCompression.LZ4, data);
+        Assert.assertEquals(data, transferCompressionUtils.decompress(ClusterComm.TransferCompression.LZ4, compressed));
+    }
+
+    @Test
+    public void testNoneIsPassThrough() {
+        ByteString data = ByteString.copyFromUtf8("hello");
+
+        Assert.assertSame(data, transferCompressionUtils.compress(ClusterComm.TransferCompression.NONE, data));
+        Assert.assertSame(data, transferCompressionUtils.decompress(ClusterComm.TransferCompression.DEFAULT, data));
+        Assert.assertEquals(ClusterComm.TransferCompression.NONE,
+                transferCompressionUtils.accept(ClusterComm.TransferCompression.DEFAULT));
+    }
+
+    @Test
+    public void testUnacceptedEchoFallsBackToNone() {
+        ClusterComm.TransferMeta proposed = transferCompressionUtils.withCompression(
+                ClusterComm.TransferMeta.getDefaultInstance(), ClusterComm.TransferCompression.LZ4);
+
+        // an old receiver echoes the proposal as is
+        Assert.assertEquals(ClusterComm.TransferCompression.NONE, transferCompressionUtils.getAcceptedCompression(proposed));
+
+        ClusterComm.TransferMeta accepted = transferCompressionUtils.withAcceptedCompression(
+                proposed, transferCompressionUtils.accept(transferCompressionUtils.getCompression(proposed)));
+        Assert.assertEquals(ClusterComm.TransferCompression.LZ4, transferCompressionUtils.getAcceptedCompression(accepted));
+        Assert.assertFalse(transferCompressionUtils.withCompression(accepted, ClusterComm.TransferCompression.LZ4)
+                .getConf().getCompressionAccepted());
+    }
+}
@@ -17,10 +17,12 @@
 package com.webank.ai.eggroll.framework.egg.api.grpc.server;
 
 import com.webank.ai.eggroll.api.core.BasicMeta;
+import com.webank.ai.eggroll.api.framework.egg.NodeManager;
 import com.webank.ai.eggroll.api.framework.egg.NodeServiceGrpc;
 import com.webank.ai.eggroll.core.api.grpc.server.GrpcServerWrapper;
 import com.webank.ai.eggroll.core.utils.RuntimeUtils;
 import com.webank.ai.eggroll.core.utils.ToStringUtils;
+import com.webank.ai.eggroll.framework.egg.manager.LocalScheduler;
 import com.webank.ai.eggroll.framework.egg.node.manager.ProcessorManager;
 import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
@@ -37,6 +39,8 @@ public class NodeServiceImpl extends NodeServiceGrpc.NodeServiceImplBase {
     @Autowired
     private ProcessorManager processorManager;
     @Autowired
+    private LocalScheduler localScheduler;
+    @Autowired
     private RuntimeUtils runtimeUtils;
     @Autowired
     private GrpcServerWrapper grpcServerWrapper;
@@ -49,7 +53,7 @@ public class NodeServiceImpl extends NodeServiceGrpc.NodeServiceImplBase {
     public void getProcessor(BasicMeta.Endpoint request, StreamObserver<BasicMeta.Endpoint> responseObserver) {
         LOGGER.info("[EGG][NODEMANAGER] getProcessor. request: {}", toStringUtils.toOneLineString(request));
         grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
-            int port = processorManager.get();
+            int port = localScheduler.acquire();
 
             BasicMeta.Endpoint.Builder resultBuilder = BasicMeta.Endpoint.newBuilder()
                     .setIp(runtimeUtils.getMySiteLocalAddress())
@@ -91,6 +95,7 @@ public class NodeServiceImpl extends NodeServiceGrpc.NodeServiceImplBase {
         grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
             int port = request.getPort();
             processorManager.kill(port);
+            localScheduler.remove(port);
 
             BasicMeta.Endpoint.Builder resultBuilder = BasicMeta.Endpoint.newBuilder()
                     .setIp(runtimeUtils.getMySiteLocalAddress())
@@ -124,4 +129,42 @@ public class NodeServiceImpl extends NodeServiceGrpc.NodeServiceImplBase {
             responseObserver.onCompleted();
         });
     }
+
+    @Override
+    public void releaseProcessor(BasicMeta.Endpoint request, StreamObserver<BasicMeta.Endpoint> responseObserver) {
+        LOGGER.debug("[EGG][NODEMANAGER] releaseProcessor. request: {}", toStringUtils.toOneLineString(request));
+
+        grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
+            localScheduler.release(request.getPort());
+
+            responseObserver.onNext(request);
+            responseObserver.onCompleted();
+        });
+    }
+
+    @Override
+    public void getSchedulerStatus(BasicMeta.Endpoint request, StreamObserver<NodeManager.SchedulerStatus> responseObserver) {
+        grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
+            String mySiteLocalAddress = runtimeUtils.getMySiteLocalAddress();
+
+            BasicMeta.Endpoint.Builder endpointBuilder = BasicMeta.Endpoint.newBuilder().setIp(mySiteLocalAddress);
+            NodeManager.SchedulerStatus.Builder resultBuilder = NodeManager.SchedulerStatus.newBuilder()
+                    .setQueueDepth(localScheduler.getQueueDepth())
+                    .setMaxInFlightPerProcessor(localScheduler.getMaxInFlightPerProcessor());
+
+            int inFlight = 0;
+            for (LocalScheduler.ProcessorLoad load : localScheduler.getProcessorLoads()) {
+                inFlight += load.getInFlight();
+                resultBuilder.addProcessors(NodeManager.ProcessorLoad.newBuilder()
+                        .setEndpoint(endpointBuilder.clone().setPort(load.getPort()))
+                        .setInFlight(load.getInFlight())
+                        .setCpuPercent(load.getCpuPercent())
+                        .setRssBytes(load.getRssBytes()));
+            }
+            resultBuilder.setInFlight(inFlight);
+
+            responseObserver.onNext(resultBuilder.build());
+            responseObserver.onCompleted();
+        });
+    }
 }
@@ -14,10 +14,67 @@
  * limitations under the License.
  */
 
+
 package com.webank.ai.eggroll.framework.egg.manager;
 
+import com.webank.ai.eggroll.core.server.ServerConf;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
- *
+ * Bounded admission for tasks waiting on a processor. Tasks beyond the bound are rejected
+ * instead of piling up in egg.
  */
+@Component
 public class JobAcceptor {
+    @Autowired
+    private ServerConf serverConf;
+
+    private final AtomicInteger queued;
+    private volatile int maxQueued;
+
+    private static final String MAX_QUEUED_TASKS = "scheduler.max.queued.tasks";
+    private static final int DEFAULT_MAX_QUEUED_TASKS = 1024;
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public JobAcceptor() {
+        queued = new AtomicInteger(0);
+    }
+
+    public void accept() {
+        int limit = getMaxQueued();
+        int current;
+        do {
+            current = queued.get();
+            if (current >= limit) {
+                LOGGER.warn("[EGG][SCHEDULER][ACCEPTOR] rejected. queued: {}, limit: {}", current, limit);
+                throw new RejectedExecutionException("too many tasks queued in egg: " + current);
+            }
+        } while (!queued.compareAndSet(current, current + 1));
+    }
+
+    public void leave() {
+        queued.decrementAndGet();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public int getMaxQueued() {
+        if (maxQueued <= 0) {
+            maxQueued = Integer.valueOf(serverConf.getProperties()
+                    .getProperty(MAX_QUEUED_TASKS, String.valueOf(DEFAULT_MAX_QUEUED_TASKS)));
+            if (maxQueued <= 0) {
+                maxQueued = DEFAULT_MAX_QUEUED_TASKS;
+            }
+        }
+
+        return maxQueued;
+    }
 }
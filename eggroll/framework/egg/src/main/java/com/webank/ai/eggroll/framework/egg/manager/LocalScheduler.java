@@ -14,7 +14,313 @@
  * limitations under the License.
  */
 
+
 package com.webank.ai.eggroll.framework.egg.manager;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.webank.ai.eggroll.core.server.ServerConf;
+import com.webank.ai.eggroll.core.utils.ErrorUtils;
+import com.webank.ai.eggroll.framework.egg.node.manager.ProcessorManager;
+import com.webank.ai.eggroll.framework.egg.node.sandbox.ProcessorOperator;
+import com.webank.ai.eggroll.framework.egg.node.sandbox.ProcessorResourceUsage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Routes fragment tasks to the least loaded python processor of this egg.
+ *
+ * Each processor handed out holds a lease until roll releases it. By default tasks never wait and go to the
+ * processor with the fewest in flight. With scheduler.max.inflight.per.processor set, a task waits while every
+ * processor already runs that many tasks; how many may wait is bounded by {@link JobAcceptor}.
+ * Ties on in-flight count are broken by the sampled cpu and rss of the processors.
+ */
+@Component
 public class LocalScheduler {
+    @Autowired
+    private ProcessorManager processorManager;
+    @Autowired
+    private ProcessorOperator processorOperator;
+    @Autowired
+    private JobAcceptor jobAcceptor;
+    @Autowired
+    private ServerConf serverConf;
+    @Autowired
+    private ErrorUtils errorUtils;
+
+    private final Map<Integer, ProcessorLoad> portToLoad;
+    private final ReentrantLock lock;
+    private final Condition released;
+    private volatile boolean confInited;
+    // 0 for unbounded
+    private int maxInFlightPerProcessor;
+    private long acquireTimeoutMs;
+    private long leaseTimeoutMs;
+
+    private static final String MAX_IN_FLIGHT_PER_PROCESSOR = "scheduler.max.inflight.per.processor";
+    private static final String ACQUIRE_TIMEOUT_MS = "scheduler.acquire.timeout.ms";
+    private static final String LEASE_TIMEOUT_MS = "scheduler.lease.timeout.ms";
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public LocalScheduler() {
+        portToLoad = Maps.newHashMap();
+        lock = new ReentrantLock();
+        released = lock.newCondition();
+    }
+
+    /**
+     * @return port of the processor the task should run on. The caller must {@link #release(int)} it.
+     */
+    public int acquire() throws InterruptedException {
+        initConf();
+        jobAcceptor.accept();
+        try {
+            lock.lock();
+            try {
+                if (portToLoad.isEmpty()) {
+                    syncProcessors(processorManager.getAllPossible());
+                }
+
+                long remainingNanos = TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMs);
+                ProcessorLoad selected = selectLeastLoaded();
+                while (selected != null && maxInFlightPerProcessor > 0 && selected.getInFlight() >= maxInFlightPerProcessor) {
+                    if (remainingNanos <= 0L) {
+                        // all busy for too long: oversubscribe the least loaded one rather than fail the task
+                        LOGGER.warn("[EGG][SCHEDULER] acquire timeout. oversubscribing processor: {}", selected);
+                        break;
+                    }
+                    remainingNanos = released.awaitNanos(remainingNanos);
+                    selected = selectLeastLoaded();
+                }
+
+                if (selected == null) {
+                    selected = addProcessor(processorManager.get());
+                }
+
+                selected.lease();
+                return selected.port;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            jobAcceptor.leave();
+        }
+    }
+
+    public void release(int port) {
+        lock.lock();
+        try {
+            ProcessorLoad load = portToLoad.get(port);
+            if (load != null && load.release()) {
+                released.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(int port) {
+        lock.lock();
+        try {
+            portToLoad.remove(port);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Samples cpu and rss of processors, expires leases never released and picks up processor changes.
+     * Runs on the routine scheduler.
+     */
+    public void refresh() {
+        initConf();
+        List<Integer> ports = processorManager.getAllPossible();
+        Map<Integer, ProcessorResourceUsage> usages = Maps.newHashMap();
+        for (Integer port : ports) {
+            try {
+                ProcessorResourceUsage usage = processorOperator.getResourceUsage(port);
+                if (usage != null) {
+                    usages.put(port, usage);
+                }
+            } catch (Exception e) {
+                LOGGER.warn("[EGG][SCHEDULER] failed to sample processor {}: {}", port, errorUtils.getStackTrace(e));
+            }
+        }
+
+        lock.lock();
+        try {
+            syncProcessors(ports);
+
+            long expireBefore = System.currentTimeMillis() - leaseTimeoutMs;
+            int expired = 0;
+            for (ProcessorLoad load : portToLoad.values()) {
+                ProcessorResourceUsage usage = usages.get(load.port);
+                if (usage != null) {
+                    load.cpuPercent = usage.getCpuPercent();
+                    load.rssBytes = usage.getRssBytes();
+                }
+                expired += load.expireLeases(expireBefore);
+            }
+
+            if (expired > 0) {
+                LOGGER.warn("[EGG][SCHEDULER] expired {} leases not released within {} ms", expired, leaseTimeoutMs);
+                released.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueDepth() {
+        return jobAcceptor.getQueued();
+    }
+
+    public int getMaxInFlightPerProcessor() {
+        initConf();
+        return maxInFlightPerProcessor;
+    }
+
+    public List<ProcessorLoad> getProcessorLoads() {
+        lock.lock();
+        try {
+            List<ProcessorLoad> result = Lists.newArrayListWithCapacity(portToLoad.size());
+            for (ProcessorLoad load : portToLoad.values()) {
+                result.add(load.copy());
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ProcessorLoad selectLeastLoaded() {
+        ProcessorLoad result = null;
+        for (ProcessorLoad load : portToLoad.values()) {
+            if (result == null || load.compareTo(result) < 0) {
+                result = load;
+            }
+        }
+
+        return result;
+    }
+
+    private void syncProcessors(List<Integer> ports) {
+        portToLoad.keySet().retainAll(ports);
+        for (Integer port : ports) {
+            if (!portToLoad.containsKey(port)) {
+                addProcessor(port);
+            }
+        }
+        released.signalAll();
+    }
+
+    private ProcessorLoad addProcessor(int port) {
+        ProcessorLoad result = new ProcessorLoad(port);
+        portToLoad.put(port, result);
+
+        return result;
+    }
+
+    private void initConf() {
+        if (confInited) {
+            return;
+        }
+
+        synchronized (this) {
+            if (!confInited) {
+                maxInFlightPerProcessor = Math.max(0, Integer.valueOf(serverConf.getProperties()
+                        .getProperty(MAX_IN_FLIGHT_PER_PROCESSOR, "0")));
+                acquireTimeoutMs = Long.valueOf(serverConf.getProperties().getProperty(ACQUIRE_TIMEOUT_MS, "60000"));
+                leaseTimeoutMs = Long.valueOf(serverConf.getProperties().getProperty(LEASE_TIMEOUT_MS, "3600000"));
+                confInited = true;
+
+                LOGGER.info("[EGG][SCHEDULER] maxInFlightPerProcessor: {}, acquireTimeoutMs: {}, leaseTimeoutMs: {}",
+                        maxInFlightPerProcessor, acquireTimeoutMs, leaseTimeoutMs);
+            }
+        }
+    }
+
+    public static class ProcessorLoad implements Comparable<ProcessorLoad> {
+        private final int port;
+        private final Deque<Long> leases;
+        private double cpuPercent;
+        private long rssBytes;
+
+        ProcessorLoad(int port) {
+            this.port = port;
+            this.leases = new ArrayDeque<>();
+        }
+
+        void lease() {
+            leases.addLast(System.currentTimeMillis());
+        }
+
+        boolean release() {
+            return leases.pollFirst() != null;
+        }
+
+        int expireLeases(long expireBefore) {
+            int result = 0;
+            while (!leases.isEmpty() && leases.peekFirst() < expireBefore) {
+                leases.pollFirst();
+                ++result;
+            }
+
+            return result;
+        }
+
+        ProcessorLoad copy() {
+            ProcessorLoad result = new ProcessorLoad(port);
+            result.leases.addAll(leases);
+            result.cpuPercent = cpuPercent;
+            result.rssBytes = rssBytes;
+
+            return result;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public int getInFlight() {
+            return leases.size();
+        }
+
+        public double getCpuPercent() {
+            return cpuPercent;
+        }
+
+        public long getRssBytes() {
+            return rssBytes;
+        }
+
+        @Override
+        public int compareTo(ProcessorLoad other) {
+            int result = Integer.compare(getInFlight(), other.getInFlight());
+            if (result == 0) {
+                result = Double.compare(cpuPercent, other.cpuPercent);
+            }
+            if (result == 0) {
+                result = Long.compare(rssBytes, other.rssBytes);
+            }
+
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "ProcessorLoad{port=" + port + ", inFlight=" + getInFlight()
+                    + ", cpuPercent=" + cpuPercent + ", rssBytes=" + rssBytes + "}";
+        }
+    }
 }
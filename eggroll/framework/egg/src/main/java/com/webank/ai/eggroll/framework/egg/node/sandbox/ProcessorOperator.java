@@ -18,7 +18,9 @@ package com.webank.ai.eggroll.framework.egg.node.sandbox;
 
 import com.webank.ai.eggroll.core.server.ServerConf;
 import com.webank.ai.eggroll.core.utils.RuntimeUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.output.FileWriterWithEncoding;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,6 +29,7 @@ import org.springframework.stereotype.Component;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.SocketException;
 import java.nio.charset.StandardCharsets;
 import java.util.Properties;
@@ -43,9 +46,11 @@ public class ProcessorOperator {
 
     private String startScriptPath;
     private String stopScriptPath;
+    private String usageScriptPath;
 
     private String startCmdTemplate;
     private String stopCmdTemplate;
+    private String usageCmdTemplate;
 
     private String processLogDir;
     private volatile boolean inited;
@@ -54,6 +59,7 @@ public class ProcessorOperator {
 
     private static final String startCmdScriptTemplate = "#!/bin/bash;source %s/bin/activate;export PYTHONPATH=$PYTHONPATH:%s;python %s -p $1 -d %s >> %s/processor-$1.log 2>&1 &";
     private static final String stopCmdScriptTemplate = "#!/bin/bash;kill -9 $(lsof -t -i:$1)";
+    private static final String usageCmdScriptTemplate = "#!/bin/bash;pid=$(lsof -t -i:$1 -sTCP:LISTEN | head -n 1);if [ -n \"$pid\" ]; then ps -o pcpu=,rss= -p $pid; fi";
     private static final String checkStatusCmdScriptTemplate = "#!/bin/bash;ps aux | grep processor.py | grep %s | wc -l";
 
     public synchronized void init() throws IOException {
@@ -81,13 +87,22 @@ public class ProcessorOperator {
             bw.flush();
         }
 
+        File tempUsageScript = File.createTempFile("python-processor-usage-", ".sh");
+        tempUsageScript.deleteOnExit();
+        try (BufferedWriter bw = new BufferedWriter(new FileWriterWithEncoding(tempUsageScript, StandardCharsets.UTF_8))) {
+            bw.write(usageCmdScriptTemplate.replace(";", "\n"));
+            bw.flush();
+        }
+
         startScriptPath = tempStartScript.getAbsolutePath();
         stopScriptPath = tempStopScript.getAbsolutePath();
+        usageScriptPath = tempUsageScript.getAbsolutePath();
 
         LOGGER.info(startScriptPath);
         LOGGER.info(stopScriptPath);
         this.startCmdTemplate = "sh " + startScriptPath + " %d";
         this.stopCmdTemplate = "sh " + stopScriptPath + " %d";
+        this.usageCmdTemplate = "bash " + usageScriptPath + " %d";
 
         inited = true;
     }
@@ -133,6 +148,33 @@ public class ProcessorOperator {
         return result;
     }
 
+    /**
+     * @return cpu and rss of the processor listening on port, or null if there is none
+     */
+    public ProcessorResourceUsage getResourceUsage(int port) throws IOException, InterruptedException {
+        if (!inited) {
+            init();
+        }
+
+        ProcessorResourceUsage result = null;
+        Process process = Runtime.getRuntime().exec(String.format(usageCmdTemplate, port));
+
+        String output;
+        try (InputStream is = process.getInputStream()) {
+            output = IOUtils.toString(is, StandardCharsets.UTF_8).trim();
+        }
+        process.waitFor();
+
+        if (StringUtils.isNotBlank(output)) {
+            String[] fields = output.split("\\s+");
+            if (fields.length >= 2) {
+                result = new ProcessorResourceUsage(Double.parseDouble(fields[0]), Long.parseLong(fields[1]) * 1024L);
+            }
+        }
+
+        return result;
+    }
+
     // todo: implement it
     public boolean checkStatus(int port) throws IOException {
         if (!inited) {
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webank.ai.eggroll.framework.egg.node.sandbox;
+
+public class ProcessorResourceUsage {
+    private final double cpuPercent;
+    private final long rssBytes;
+
+    public ProcessorResourceUsage(double cpuPercent, long rssBytes) {
+        this.cpuPercent = cpuPercent;
+        this.rssBytes = rssBytes;
+    }
+
+    public double getCpuPercent() {
+        return cpuPercent;
+    }
+
+    public long getRssBytes() {
+        return rssBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessorResourceUsage{cpuPercent=" + cpuPercent + ", rssBytes=" + rssBytes + "}";
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webank.ai.eggroll.framework.egg;
+
+import com.google.common.collect.Lists;
+import com.webank.ai.eggroll.core.server.DefaultServerConf;
+import com.webank.ai.eggroll.framework.egg.manager.JobAcceptor;
+import com.webank.ai.eggroll.framework.egg.manager.LocalScheduler;
+import com.webank.ai.eggroll.framework.egg.node.manager.ProcessorManager;
+import com.webank.ai.eggroll.framework.egg.node.sandbox.ProcessorOperator;
+import com.webank.ai.eggroll.framework.egg.node.sandbox.ProcessorResourceUsage;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Properties;
+import java.util.concurrent.RejectedExecutionException;
+
+public class TestLocalScheduler {
+    private LocalScheduler localScheduler;
+    private JobAcceptor jobAcceptor;
+
+    @Before
+    public void init() {
+        Properties properties = new Properties();
+        properties.setProperty("scheduler.max.inflight.per.processor", "2");
+        properties.setProperty("scheduler.acquire.timeout.ms", "100");
+        properties.setProperty("scheduler.max.queued.tasks", "1");
+        DefaultServerConf serverConf = new DefaultServerConf().setProperties(properties);
+
+        jobAcceptor = new JobAcceptor();
+        ReflectionTestUtils.setField(jobAcceptor, "serverConf", serverConf);
+        localScheduler = createLocalScheduler(serverConf, jobAcceptor);
+    }
+
+    private LocalScheduler createLocalScheduler(DefaultServerConf serverConf, JobAcceptor jobAcceptor) {
+        ProcessorManager processorManager = new ProcessorManager() {
+            @Override
+            public ArrayList<Integer> getAllPossible() {
+                return Lists.newArrayList(50001, 50002);
+            }
+        };
+        ProcessorOperator processorOperator = new ProcessorOperator() {
+            @Override
+            public ProcessorResourceUsage getResourceUsage(int port) {
+                return port == 50001 ? new ProcessorResourceUsage(90.0, 1L << 30) : new ProcessorResourceUsage(5.0, 1L << 20);
+            }
+        };
+
+        LocalScheduler result = new LocalScheduler();
+        ReflectionTestUtils.setField(result, "processorManager", processorManager);
+        ReflectionTestUtils.setField(result, "processorOperator", processorOperator);
+        ReflectionTestUtils.setField(result, "jobAcceptor", jobAcceptor);
+        ReflectionTestUtils.setField(result, "serverConf", serverConf);
+        result.refresh();
+        return result;
+    }
+
+    @Test
+    public void testLeastLoaded() throws Exception {
+        // idle processors are ordered by sampled cpu
+        Assert.assertEquals(50002, localScheduler.acquire());
+        Assert.assertEquals(50001, localScheduler.acquire());
+        Assert.assertEquals(50002, localScheduler.acquire());
+
+        localScheduler.release(50002);
+        localScheduler.release(50002);
+        Assert.assertEquals(50002, localScheduler.acquire());
+    }
+
+    @Test
+    public void testOversubscribeAfterTimeout() throws Exception {
+        for (int i = 0; i < 4; ++i) {
+            localScheduler.acquire();
+        }
+
+        long start = System.currentTimeMillis();
+        int port = localScheduler.acquire();
+        Assert.assertTrue(System.currentTimeMillis() - start >= 100);
+        Assert.assertEquals(50002, port);
+        Assert.assertEquals(0, localScheduler.getQueueDepth());
+    }
+
+    @Test
+    public void testUnboundedByDefault() throws Exception {
+        DefaultServerConf serverConf = new DefaultServerConf().setProperties(new Properties());
+        JobAcceptor defaultJobAcceptor = new JobAcceptor();
+        ReflectionTestUtils.setField(defaultJobAcceptor, "serverConf", serverConf);
+        LocalScheduler defaultScheduler = createLocalScheduler(serverConf, defaultJobAcceptor);
+
+        // busy processors take more tasks at once instead of making them wait for the 60s acquire timeout
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 10; ++i) {
+            defaultScheduler.acquire();
+        }
+        Assert.assertTrue(System.currentTimeMillis() - start < 1000);
+        Assert.assertEquals(0, defaultScheduler.getMaxInFlightPerProcessor());
+        for (LocalScheduler.ProcessorLoad load : defaultScheduler.getProcessorLoads()) {
+            Assert.assertEquals(5, load.getInFlight());
+        }
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testBoundedAdmission() {
+        jobAcceptor.accept();
+        jobAcceptor.accept();
+    }
+}
@@ -28,6 +28,7 @@ import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.NodeExam
 import com.webank.ai.eggroll.framework.meta.service.factory.GrpcCrudServiceFactory;
 import com.webank.ai.eggroll.framework.meta.service.service.CrudServerProcessor;
 import com.webank.ai.eggroll.framework.meta.service.service.GrpcCrudService;
+import com.webank.ai.eggroll.framework.meta.service.service.StorageMetaCache;
 import com.webank.ai.eggroll.framework.meta.service.service.impl.GenericDaoService;
 import io.grpc.stub.StreamObserver;
 import org.apache.commons.lang3.StringUtils;
@@ -52,6 +53,8 @@ public class ClusterMetaServiceImpl extends ClusterMetaServiceGrpc.ClusterMetaSe
     private ToStringUtils toStringUtils;
     @Autowired
     private GrpcServerWrapper grpcServerWrapper;
+    @Autowired
+    private StorageMetaCache storageMetaCache;
     private GrpcCrudService nodeGrpcCrudService;
     private GrpcCrudService fragmentGrpcCrudService;
 
@@ -120,6 +123,7 @@ public class ClusterMetaServiceImpl extends ClusterMetaServiceGrpc.ClusterMetaSe
                 }
 
                 if (rowsAffected == 1) {
+                    storageMetaCache.onNodeChanged(result.getNodeId());
                     return result;
                 } else {
                     throw new CrudException(103, "Failed to create or update node");
@@ -17,7 +17,9 @@
 package com.webank.ai.eggroll.framework.meta.service.api.grpc.server;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.webank.ai.eggroll.api.core.BasicMeta;
+import com.webank.ai.eggroll.api.framework.meta.service.MetaService;
 import com.webank.ai.eggroll.api.framework.meta.service.StorageMetaServiceGrpc;
 import com.webank.ai.eggroll.core.api.grpc.server.GrpcServerWrapper;
 import com.webank.ai.eggroll.core.error.exception.CrudException;
@@ -29,14 +31,17 @@ import com.webank.ai.eggroll.core.model.NodeStatus;
 import com.webank.ai.eggroll.core.model.NodeType;
 import com.webank.ai.eggroll.core.serdes.impl.ByteStringSerDesHelper;
 import com.webank.ai.eggroll.core.utils.CrudUtils;
+import com.webank.ai.eggroll.core.utils.MetaConversionUtils;
 import com.webank.ai.eggroll.core.utils.ToStringUtils;
 import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.*;
 import com.webank.ai.eggroll.framework.meta.service.factory.DaoServiceFactory;
 import com.webank.ai.eggroll.framework.meta.service.factory.GrpcCrudServiceFactory;
 import com.webank.ai.eggroll.framework.meta.service.service.CrudServerProcessor;
 import com.webank.ai.eggroll.framework.meta.service.service.GrpcCrudService;
+import com.webank.ai.eggroll.framework.meta.service.service.StorageMetaCache;
 import com.webank.ai.eggroll.framework.meta.service.service.impl.GenericDaoService;
 import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -47,11 +52,16 @@ import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 @Component
 @Scope("prototype")
 public class StorageMetaServiceImpl extends StorageMetaServiceGrpc.StorageMetaServiceImplBase {
     private static final Logger LOGGER = LogManager.getLogger(StorageMetaServiceImpl.class);
+    // a table being rebalanced is still the live table: it is read, found and kept unique under its name
+    private static final List<String> LIVE_TABLE_STATUSES
+            = Lists.newArrayList(DtableStatus.NORMAL.name(), DtableStatus.REBALANCING.name());
     @Autowired
     private GrpcCrudServiceFactory grpcCrudServiceFactory;
     @Autowired
@@ -66,6 +76,10 @@ public class StorageMetaServiceImpl extends StorageMetaServiceGrpc.StorageMetaSe
     private ParamValidationHelper paramValidationHelper;
     @Autowired
     private GrpcServerWrapper grpcServerWrapper;
+    @Autowired
+    private StorageMetaCache storageMetaCache;
+    @Autowired
+    private MetaConversionUtils metaConversionUtils;
     private GrpcCrudService dtableGrpcCrudService;
     private GrpcCrudService fragmentGrpcCrudService;
     private GrpcCrudService nodeGrpcCrudService;
@@ -81,8 +95,24 @@ public class StorageMetaServiceImpl extends StorageMetaServiceGrpc.StorageMetaSe
     public void createTable(BasicMeta.CallRequest request, StreamObserver<BasicMeta.CallResponse> responseObserver) {
         LOGGER.info("create table called: {}", toStringUtils.toOneLineString(request));
 
-        grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
-            dtableGrpcCrudService.create(request, responseObserver);
+        dtableGrpcCrudService.processCrudRequest(request, responseObserver, new CrudServerProcessor<Integer>() {
+            @Override
+            public Integer process(Object record) throws CrudException {
+                Integer result = dtableGrpcCrudService.getGenericDaoService().insertSelective(record);
+                storageMetaCache.onTableChanged((com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable) record);
+
+                return result;
+            }
+
+            @Override
+            public boolean isValid(Integer result) {
+                return result != null && result > 0;
+            }
+
+            @Override
+            public Object pickResult(Object originalRecord, Object callResult) {
+                return originalRecord;
+            }
         });
     }
 
@@ -102,7 +132,7 @@ public class StorageMetaServiceImpl extends StorageMetaServiceGrpc.StorageMetaSe
                 com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable dtable = (com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable) record;
 
                 DtableExample example = new DtableExample();
-                DtableExample.Criteria criteria = example.createCriteria().andStatusEqualTo(DtableStatus.NORMAL.name());
+                DtableExample.Criteria criteria = example.createCriteria().andStatusIn(LIVE_TABLE_STATUSES);
 
                 String namespace = dtable.getNamespace();
                 if (StringUtils.isNotBlank(namespace)) {
@@ -124,6 +154,7 @@ public class StorageMetaServiceImpl extends StorageMetaServiceGrpc.StorageMetaSe
                         int rowsAffected = genericDaoService.insertSelective(dtable);
                         if (rowsAffected == 1) {
                             result = dtable;
+                            storageMetaCache.onTableChanged(dtable);
                         }
                     } catch (RuntimeException e) {
                         callResult = genericDaoService.selectByExampleWithRowbounds(example, CrudUtils.ROWBOUNDS_ZERO_TO_ONE);
@@ -156,8 +187,24 @@ public class StorageMetaServiceImpl extends StorageMetaServiceGrpc.StorageMetaSe
     public void updateTable(BasicMeta.CallRequest request, StreamObserver<BasicMeta.CallResponse> responseObserver) {
         LOGGER.info("Updating table: {}", toStringUtils.toOneLineString(request));
 
-        grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
-            dtableGrpcCrudService.update(request, responseObserver);
+        dtableGrpcCrudService.processCrudRequest(request, responseObserver, new CrudServerProcessor<Integer>() {
+            @Override
+            public Integer process(Object record) throws CrudException {
+                Integer result = dtableGrpcCrudService.getGenericDaoService().updateByPrimaryKeySelective(record);
+                storageMetaCache.onTableChanged((com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable) record);
+
+                return result;
+            }
+
+            @Override
+            public boolean isValid(Integer result) {
+                return result != null && result > 0;
+            }
+
+            @Override
+            public Object pickResult(Object originalRecord, Object callResult) {
+                return originalRecord;
+            }
         });
     }
 
@@ -165,8 +212,35 @@ public class StorageMetaServiceImpl extends StorageMetaServiceGrpc.StorageMetaSe
     public void updateFragment(BasicMeta.CallRequest request, StreamObserver<BasicMeta.CallResponse> responseObserver) {
         LOGGER.info("updateFragment: {}", toStringUtils.toOneLineString(request));
 
-        grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
-            fragmentGrpcCrudService.update(request, responseObserver);
+        fragmentGrpcCrudService.processCrudRequest(request, responseObserver, new CrudServerProcessor<Integer>() {
+            @Override
+            public Integer process(Object record) throws CrudException {
+                GenericDaoService genericDaoService = fragmentGrpcCrudService.getGenericDaoService();
+                com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment fragment = (com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment) record;
+
+                Long tableId = fragment.getTableId();
+                if (tableId == null && fragment.getFragmentId() != null) {
+                    com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment existing = (com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment) genericDaoService.selectByPrimaryKey(fragment.getFragmentId());
+                    if (existing != null) {
+                        tableId = existing.getTableId();
+                    }
+                }
+
+                Integer result = genericDaoService.updateByPrimaryKeySelective(fragment);
+                storageMetaCache.onFragmentsChanged(tableId);
+
+                return result;
+            }
+
+            @Override
+            public boolean isValid(Integer result) {
+                return result != null && result > 0;
+            }
+
+            @Override
+            public Object pickResult(Object originalRecord, Object callResult) {
+                return originalRecord;
+            }
         });
     }
 
@@ -186,36 +260,13 @@ public class StorageMetaServiceImpl extends StorageMetaServiceGrpc.StorageMetaSe
         dtableGrpcCrudService.processCrudRequest(request, responseObserver, new CrudServerProcessor<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable>() {
             @Override
             public com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable process(Object record) throws CrudException {
-                GenericDaoService genericDaoService = dtableGrpcCrudService.getGenericDaoService();
-                com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable result = null;
-
                 if (record == null) {
                     throw new CrudException(100, "input parameter cannot be null");
                 }
 
                 com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable dtable = (com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable) record;
 
-                DtableExample example = new DtableExample();
-                DtableExample.Criteria criteria = example.createCriteria().andStatusEqualTo(DtableStatus.NORMAL.name());
-
-                String namespace = dtable.getNamespace();
-                if (StringUtils.isNotBlank(namespace)) {
-                    criteria.andNamespaceEqualTo(namespace);
-                }
-
-                String tableName = dtable.getTableName();
-                if (StringUtils.isNotBlank(tableName)) {
-                    criteria.andTableNameEqualTo(tableName);
-                }
-
-                List callResult = genericDaoService.selectByExampleWithRowbounds(example, CrudUtils.ROWBOUNDS_ZERO_TO_ONE);
-                List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable> selectResult = (List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable>) callResult;
-
-                if (!selectResult.isEmpty()) {
-                    result = selectResult.get(0);
-                }
-
-                return result;
+                return findTable(dtable.getNamespace(), dtable.getTableName());
             }
 
             @Override
@@ -247,7 +298,7 @@ public class StorageMetaServiceImpl extends StorageMetaServiceGrpc.StorageMetaSe
                 com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable dtable = (com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable) record;
 
                 DtableExample example = new DtableExample();
-                DtableExample.Criteria criteria = example.createCriteria().andStatusEqualTo(DtableStatus.NORMAL.name());
+                DtableExample.Criteria criteria = example.createCriteria().andStatusIn(LIVE_TABLE_STATUSES);
 
                 String namespace = dtable.getNamespace();
                 if (StringUtils.isNotBlank(namespace)) {
@@ -290,18 +341,9 @@ public class StorageMetaServiceImpl extends StorageMetaServiceGrpc.StorageMetaSe
         dtableGrpcCrudService.processCrudRequest(request, responseObserver, new CrudServerProcessor<List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment>>() {
             @Override
             public List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment> process(Object record) throws CrudException {
-                GenericDaoService genericDaoService = fragmentGrpcCrudService.getGenericDaoService();
-                List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment> result = null;
-
                 Long tableId = (Long) record;
 
-                FragmentExample example = new FragmentExample();
-                example.createCriteria().andTableIdEqualTo(tableId);
-
-                Object callResult = genericDaoService.selectByExample(example);
-                List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment> selectResult = (List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment>) callResult;
-
-                return selectResult;
+                return getFragments(tableId);
             }
 
             @Override
@@ -341,29 +383,9 @@ public class StorageMetaServiceImpl extends StorageMetaServiceGrpc.StorageMetaSe
         nodeGrpcCrudService.processCrudRequest(request, responseObserver, new CrudServerProcessor<List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node>>() {
             @Override
             public List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node> process(Object record) throws CrudException {
-                GenericDaoService nodeDaoService = nodeGrpcCrudService.getGenericDaoService();
-                GenericDaoService fragmentDaoService = fragmentGrpcCrudService.getGenericDaoService();
-
                 Long tableId = (Long) record;
 
-                FragmentExample fragmentExample = new FragmentExample();
-                fragmentExample.createCriteria().andTableIdEqualTo(tableId);
-
-                List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment> fragments = fragmentDaoService.selectByExample(fragmentExample);
-                List<Long> nodeIds = Lists.newArrayList();
-
-                for (com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment fragment : fragments) {
-                    nodeIds.add(fragment.getNodeId());
-                }
-
-                NodeExample nodeExample = new NodeExample();
-                nodeExample.createCriteria()
-                        .andNodeIdIn(nodeIds)
-                        .andStatusEqualTo(NodeStatus.HEALTHY.name());
-
-                List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node> result = nodeDaoService.selectByExample(nodeExample);
-
-                return result;
+                return getStorageNodes(Lists.newArrayList(tableId));
             }
 
             @Override
@@ -385,24 +407,17 @@ public class StorageMetaServiceImpl extends StorageMetaServiceGrpc.StorageMetaSe
         nodeGrpcCrudService.processCrudRequest(request, responseObserver, new CrudServerProcessor<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node>() {
             @Override
             public com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node process(Object record) throws CrudException {
-                GenericDaoService nodeDaoService = nodeGrpcCrudService.getGenericDaoService();
-
-                com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node result = null;
                 String ip = (String) record;
 
-                NodeExample nodeExample = new NodeExample();
-                nodeExample.createCriteria()
-                        .andTypeEqualTo(NodeType.EGG.name())
-                        .andStatusEqualTo(NodeStatus.HEALTHY.name())
-                        .andIpEqualTo(ip);
-
-                List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node> results = nodeDaoService.selectByExampleWithRowbounds(nodeExample, CrudUtils.ROWBOUNDS_ZERO_TO_ONE);
-
-                if (!results.isEmpty()) {
-                    result = results.get(0);
+                for (com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node node : getAllNodes()) {
+                    if (NodeType.EGG.name().equals(node.getType())
+                            && NodeStatus.HEALTHY.name().equals(node.getStatus())
+                            && Objects.equals(ip, node.getIp())) {
+                        return node;
+                    }
                 }
 
-                return result;
+                return null;
             }
 
             @Override
@@ -424,18 +439,7 @@ public class StorageMetaServiceImpl extends StorageMetaServiceGrpc.StorageMetaSe
         nodeGrpcCrudService.processCrudRequest(request, responseObserver, new CrudServerProcessor<List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node>>() {
             @Override
             public List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node> process(Object record) throws CrudException {
-                GenericDaoService genericDaoService = nodeGrpcCrudService.getGenericDaoService();
-                List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node> result = null;
-
-                List<Long> nodeIds = (List<Long>) record;
-
-                NodeExample example = new NodeExample();
-                example.createCriteria().andNodeIdIn(nodeIds);
-
-                Object callResult = genericDaoService.selectByExample(example);
-                result = (List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node>) callResult;
-
-                return result;
+                return getNodesByIds((List<Long>) record);
             }
 
             @Override
@@ -465,13 +469,14 @@ public class StorageMetaServiceImpl extends StorageMetaServiceGrpc.StorageMetaSe
             @Override
             public List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment> process(Object record) throws CrudException {
                 GenericDaoService fragmentDaoService = fragmentGrpcCrudService.getGenericDaoService();
-                GenericDaoService nodeDaoService = nodeGrpcCrudService.getGenericDaoService();
                 List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment> result = Lists.newArrayList();
 
-                NodeExample nodeExample = new NodeExample();
-                nodeExample.createCriteria().andStatusEqualTo(NodeStatus.HEALTHY.name())
-                        .andTypeEqualTo(NodeType.STORAGE.name());
-                List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node> healthyStorageNodes = nodeDaoService.selectByExample(nodeExample);
+                List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node> healthyStorageNodes = Lists.newArrayList();
+                for (com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node node : getAllNodes()) {
+                    if (NodeStatus.HEALTHY.name().equals(node.getStatus()) && NodeType.STORAGE.name().equals(node.getType())) {
+                        healthyStorageNodes.add(node);
+                    }
+                }
 
                 if (healthyStorageNodes.size() == 0) {
                     throw new CrudException(400, "No healthy node available");
@@ -488,7 +493,19 @@ public class StorageMetaServiceImpl extends StorageMetaServiceGrpc.StorageMetaSe
                 int rowsAffected = 0;
                 String defaultStatus = FragmentStatus.BACKUP.name();
 
+                // only missing fragment orders are created, so that a table can be grown in place
+                FragmentExample existingFragmentExample = new FragmentExample();
+                existingFragmentExample.createCriteria().andTableIdEqualTo(tableId);
+                List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment> existingFragments = fragmentDaoService.selectByExample(existingFragmentExample);
+                Set<Integer> existingFragmentOrders = Sets.newHashSet();
+                for (com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment existingFragment : existingFragments) {
+                    existingFragmentOrders.add(existingFragment.getFragmentOrder());
+                }
+
                 for (int i = 0; i < totalFragments; ++i) {
+                    if (existingFragmentOrders.contains(i)) {
+                        continue;
+                    }
                     com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment fragment = new com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment();
                     fragment.setFragmentOrder(i);
                     fragment.setTableId(tableId);
@@ -504,6 +521,10 @@ public class StorageMetaServiceImpl extends StorageMetaServiceGrpc.StorageMetaSe
                     }
                 }
 
+                if (!result.isEmpty()) {
+                    storageMetaCache.onFragmentsChanged(tableId);
+                }
+
                 return result;
             }
 
@@ -527,45 +548,28 @@ public class StorageMetaServiceImpl extends StorageMetaServiceGrpc.StorageMetaSe
         nodeGrpcCrudService.processCrudRequest(request, responseObserver, new CrudServerProcessor<List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node>>() {
             @Override
             public List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node> process(Object record) throws CrudException {
-                GenericDaoService nodeDaoService = nodeGrpcCrudService.getGenericDaoService();
-
-                List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node> result = null;
                 if (record == null) {
                     throw new CrudException(100, "input parameter cannot be null");
                 }
 
                 com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node node = (com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node) record;
 
-                NodeExample nodeExample = new NodeExample();
-                NodeExample.Criteria criteria = nodeExample.createCriteria();
-
                 String host = node.getHost();
-                if (StringUtils.isNotBlank(host)) {
-                    criteria.andHostEqualTo(host);
-                }
-
                 String ip = node.getIp();
-                if (StringUtils.isNotBlank(ip)) {
-                    criteria.andIpEqualTo(ip);
-                }
-
                 Integer port = node.getPort();
-                if (port != null) {
-                    criteria.andPortEqualTo(port);
-                }
-
                 String type = node.getType();
-                if (StringUtils.isNotBlank(type)) {
-                    criteria.andTypeEqualTo(type);
-                }
-
                 String status = node.getStatus();
-                if (StringUtils.isNotBlank(status)) {
-                    criteria.andStatusEqualTo(status);
-                }
 
-                List callResult = nodeDaoService.selectByExample(nodeExample);
-                result = (List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node>) callResult;
+                List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node> result = Lists.newArrayList();
+                for (com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node cur : getAllNodes()) {
+                    if ((StringUtils.isBlank(host) || host.equals(cur.getHost()))
+                            && (StringUtils.isBlank(ip) || ip.equals(cur.getIp()))
+                            && (port == null || port.equals(cur.getPort()))
+                            && (StringUtils.isBlank(type) || type.equals(cur.getType()))
+                            && (StringUtils.isBlank(status) || status.equals(cur.getStatus()))) {
+                        result.add(cur);
+                    }
+                }
 
                 return result;
             }
@@ -582,20 +586,171 @@ public class StorageMetaServiceImpl extends StorageMetaServiceGrpc.StorageMetaSe
         });
     }
 
+    @Override
+    public void watch(MetaService.MetaWatchRequest request, StreamObserver<MetaService.MetaChange> responseObserver) {
+        LOGGER.info("watch called");
+
+        grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
+            storageMetaCache.watch((ServerCallStreamObserver<MetaService.MetaChange>) responseObserver);
+        });
+    }
+
+    @Override
+    public void getTableMeta(MetaService.MetaTableRequest request, StreamObserver<MetaService.MetaTableResponse> responseObserver) {
+        grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
+            MetaService.MetaTableResponse.Builder builder = MetaService.MetaTableResponse.newBuilder();
+            com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable dtable = findTable(request.getNamespace(), request.getTableName());
+            if (dtable != null) {
+                builder.setTable(metaConversionUtils.toMetaTable(dtable));
+            }
+
+            responseObserver.onNext(builder.build());
+            responseObserver.onCompleted();
+        });
+    }
+
+    @Override
+    public void getFragmentMetasByIds(MetaService.MetaIdsRequest request, StreamObserver<MetaService.MetaFragments> responseObserver) {
+        grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
+            MetaService.MetaFragments.Builder builder = MetaService.MetaFragments.newBuilder();
+            if (request.getIdsCount() > 0) {
+                FragmentExample example = new FragmentExample();
+                example.createCriteria().andFragmentIdIn(request.getIdsList());
+
+                List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment> fragments = fragmentGrpcCrudService.getGenericDaoService().selectByExample(example);
+                for (com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment fragment : fragments) {
+                    builder.addFragments(metaConversionUtils.toMetaFragment(fragment));
+                }
+            }
+
+            responseObserver.onNext(builder.build());
+            responseObserver.onCompleted();
+        });
+    }
+
+    @Override
+    public void getFragmentMetasByTableIds(MetaService.MetaIdsRequest request, StreamObserver<MetaService.MetaFragments> responseObserver) {
+        grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
+            MetaService.MetaFragments.Builder builder = MetaService.MetaFragments.newBuilder();
+            for (Long tableId : request.getIdsList()) {
+                for (com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment fragment : getFragments(tableId)) {
+                    builder.addFragments(metaConversionUtils.toMetaFragment(fragment));
+                }
+            }
+
+            responseObserver.onNext(builder.build());
+            responseObserver.onCompleted();
+        });
+    }
+
+    @Override
+    public void getStorageNodeMetasByTableIds(MetaService.MetaIdsRequest request, StreamObserver<MetaService.MetaNodes> responseObserver) {
+        grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
+            MetaService.MetaNodes.Builder builder = MetaService.MetaNodes.newBuilder();
+            for (com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node node : getStorageNodes(request.getIdsList())) {
+                builder.addNodes(metaConversionUtils.toMetaNode(node));
+            }
+
+            responseObserver.onNext(builder.build());
+            responseObserver.onCompleted();
+        });
+    }
+
+    @Override
+    public void getNodeMetasByIds(MetaService.MetaIdsRequest request, StreamObserver<MetaService.MetaNodes> responseObserver) {
+        grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
+            MetaService.MetaNodes.Builder builder = MetaService.MetaNodes.newBuilder();
+            for (com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node node : getNodesByIds(request.getIdsList())) {
+                builder.addNodes(metaConversionUtils.toMetaNode(node));
+            }
+
+            responseObserver.onNext(builder.build());
+            responseObserver.onCompleted();
+        });
+    }
+
+    private com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable findTable(String namespace, String tableName) {
+        GenericDaoService genericDaoService = dtableGrpcCrudService.getGenericDaoService();
+
+        DtableExample example = new DtableExample();
+        DtableExample.Criteria criteria = example.createCriteria().andStatusIn(LIVE_TABLE_STATUSES);
+
+        if (StringUtils.isNotBlank(namespace)) {
+            criteria.andNamespaceEqualTo(namespace);
+        }
+
+        if (StringUtils.isNotBlank(tableName)) {
+            criteria.andTableNameEqualTo(tableName);
+        }
+
+        if (StringUtils.isNoneBlank(namespace, tableName)) {
+            return storageMetaCache.getTable(namespace, tableName, () -> selectFirst(genericDaoService, example));
+        }
+
+        return selectFirst(genericDaoService, example);
+    }
+
+    private com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable selectFirst(GenericDaoService genericDaoService, DtableExample example) {
+        List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable> selectResult = genericDaoService.selectByExampleWithRowbounds(example, CrudUtils.ROWBOUNDS_ZERO_TO_ONE);
+
+        return selectResult.isEmpty() ? null : selectResult.get(0);
+    }
+
+    private List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node> getStorageNodes(List<Long> tableIds) {
+        Set<Long> nodeIds = Sets.newHashSet();
+        for (Long tableId : tableIds) {
+            for (com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment fragment : getFragments(tableId)) {
+                nodeIds.add(fragment.getNodeId());
+            }
+        }
+
+        List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node> result = Lists.newArrayList();
+        for (com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node node : getAllNodes()) {
+            if (nodeIds.contains(node.getNodeId()) && NodeStatus.HEALTHY.name().equals(node.getStatus())) {
+                result.add(node);
+            }
+        }
+
+        return result;
+    }
+
+    private List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node> getNodesByIds(List<Long> ids) {
+        Set<Long> nodeIds = Sets.newHashSet(ids);
+
+        List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node> result = Lists.newArrayList();
+        for (com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node node : getAllNodes()) {
+            if (nodeIds.contains(node.getNodeId())) {
+                result.add(node);
+            }
+        }
+
+        return result;
+    }
+
+    private List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment> getFragments(Long tableId) {
+        return storageMetaCache.getFragments(tableId, () -> {
+            FragmentExample example = new FragmentExample();
+            example.createCriteria().andTableIdEqualTo(tableId);
+
+            return fragmentGrpcCrudService.getGenericDaoService().selectByExample(example);
+        });
+    }
+
+    private List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node> getAllNodes() {
+        return storageMetaCache.getNodes(() -> nodeGrpcCrudService.getGenericDaoService().selectByExample(new NodeExample()));
+    }
+
     public class GetNodeOfStatusCrudProcessor implements CrudServerProcessor<List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node>> {
         @Override
         public List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node> process(Object record) throws CrudException {
-            GenericDaoService genericDaoService = nodeGrpcCrudService.getGenericDaoService();
-
-            List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node> result = null;
-
             NodeStatus nodeStatus = (NodeStatus) record;
 
-            NodeExample example = new NodeExample();
-            example.createCriteria().andStatusEqualTo(nodeStatus.name());
-
-            Object callResult = genericDaoService.selectByExample(example);
-            result = (List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node>) callResult;
+            List<com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node> result = Lists.newArrayList();
+            for (com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node node : getAllNodes()) {
+                if (nodeStatus.name().equals(node.getStatus())) {
+                    result.add(node);
+                }
+            }
 
             return result;
         }
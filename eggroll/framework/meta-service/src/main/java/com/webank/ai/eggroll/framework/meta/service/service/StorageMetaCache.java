@@ -0,0 +1,280 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.framework.meta.service.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Sets;
+import com.webank.ai.eggroll.api.framework.meta.service.MetaService;
+import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable;
+import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment;
+import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node;
+import io.grpc.stub.ServerCallStreamObserver;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of tables, fragments and nodes for the meta-service read path, invalidated by the
+ * meta-service writes and published to watchers as {@link MetaService.MetaChange}.
+ *
+ * A load is only cached if no change was published while it ran, so a concurrent write cannot be
+ * overwritten by a stale read. The version is checked again after the put, since a change published in
+ * between may have invalidated the entry before it was cached. Entries also expire so that rows changed
+ * outside meta-service heal.
+ */
+@Component
+public class StorageMetaCache {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final long MAX_TABLES = 100000;
+    private static final long EXPIRE_MINUTES = 10;
+    private static final long NODES_EXPIRE_MILLIS = 30000;
+
+    private final Cache<Pair<String, String>, Dtable> tableCache;
+    private final Cache<Long, List<Fragment>> fragmentCache;
+    private volatile List<Node> nodes;
+    private volatile long nodesLoadedAt;
+
+    private final AtomicLong version;
+    private final Set<MetaWatcher> watchers;
+
+    public StorageMetaCache() {
+        this.tableCache = CacheBuilder.newBuilder()
+                .maximumSize(MAX_TABLES)
+                .expireAfterWrite(EXPIRE_MINUTES, TimeUnit.MINUTES)
+                .build();
+        this.fragmentCache = CacheBuilder.newBuilder()
+                .maximumSize(MAX_TABLES)
+                .expireAfterWrite(EXPIRE_MINUTES, TimeUnit.MINUTES)
+                .build();
+        this.version = new AtomicLong(0);
+        this.watchers = Sets.newConcurrentHashSet();
+    }
+
+    /**
+     * @return the NORMAL table of this namespace and name, or null. misses are not cached
+     */
+    public Dtable getTable(String namespace, String tableName, Supplier<Dtable> loader) {
+        Pair<String, String> key = ImmutablePair.of(namespace, tableName);
+        Dtable result = tableCache.getIfPresent(key);
+        if (result == null) {
+            long observedVersion = version.get();
+            result = loader.get();
+            if (result != null && observedVersion == version.get()) {
+                tableCache.put(key, result);
+                if (observedVersion != version.get()) {
+                    tableCache.asMap().remove(key, result);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    public List<Fragment> getFragments(Long tableId, Supplier<List<Fragment>> loader) {
+        List<Fragment> result = fragmentCache.getIfPresent(tableId);
+        if (result == null) {
+            long observedVersion = version.get();
+            result = loader.get();
+            if (result != null && observedVersion == version.get()) {
+                List<Fragment> cached = Collections.unmodifiableList(result);
+                fragmentCache.put(tableId, cached);
+                if (observedVersion != version.get()) {
+                    fragmentCache.asMap().remove(tableId, cached);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return all registered nodes. callers filter in memory
+     */
+    public List<Node> getNodes(Supplier<List<Node>> loader) {
+        List<Node> result = nodes;
+        if (result == null || System.currentTimeMillis() - nodesLoadedAt > NODES_EXPIRE_MILLIS) {
+            long observedVersion = version.get();
+            result = loader.get();
+            if (result != null && observedVersion == version.get()) {
+                nodes = Collections.unmodifiableList(result);
+                nodesLoadedAt = System.currentTimeMillis();
+                if (observedVersion != version.get()) {
+                    nodes = null;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    public void onTableChanged(Dtable dtable) {
+        long newVersion = version.incrementAndGet();
+
+        String namespace = dtable.getNamespace();
+        String tableName = dtable.getTableName();
+        Long tableId = dtable.getTableId();
+        if (StringUtils.isNotBlank(namespace) && StringUtils.isNotBlank(tableName)) {
+            tableCache.invalidate(ImmutablePair.of(namespace, tableName));
+        }
+        if (tableId != null) {
+            for (Map.Entry<Pair<String, String>, Dtable> entry : tableCache.asMap().entrySet()) {
+                if (tableId.equals(entry.getValue().getTableId())) {
+                    namespace = entry.getKey().getLeft();
+                    tableName = entry.getKey().getRight();
+                    tableCache.invalidate(entry.getKey());
+                }
+            }
+        }
+
+        MetaService.MetaChange.Builder builder = MetaService.MetaChange.newBuilder()
+                .setType(MetaService.MetaChangeType.TABLE)
+                .setVersion(newVersion);
+        if (tableId != null) {
+            builder.setTableId(tableId);
+        }
+        if (namespace != null) {
+            builder.setNamespace(namespace);
+        }
+        if (tableName != null) {
+            builder.setTableName(tableName);
+        }
+        publish(builder.build());
+    }
+
+    public void onFragmentsChanged(Long tableId) {
+        long newVersion = version.incrementAndGet();
+        if (tableId == null) {
+            fragmentCache.invalidateAll();
+        } else {
+            fragmentCache.invalidate(tableId);
+        }
+
+        MetaService.MetaChange.Builder builder = MetaService.MetaChange.newBuilder()
+                .setType(tableId == null ? MetaService.MetaChangeType.RESET : MetaService.MetaChangeType.FRAGMENT)
+                .setVersion(newVersion);
+        if (tableId != null) {
+            builder.setTableId(tableId);
+        }
+        publish(builder.build());
+    }
+
+    public void onNodeChanged(Long nodeId) {
+        long newVersion = version.incrementAndGet();
+        nodes = null;
+
+        MetaService.MetaChange.Builder builder = MetaService.MetaChange.newBuilder()
+                .setType(MetaService.MetaChangeType.NODE)
+                .setVersion(newVersion);
+        if (nodeId != null) {
+            builder.setNodeId(nodeId);
+        }
+        publish(builder.build());
+    }
+
+    /**
+     * Streams changes to the observer until the call is cancelled. The first change is always a RESET.
+     */
+    public void watch(ServerCallStreamObserver<MetaService.MetaChange> responseObserver) {
+        MetaWatcher watcher = new MetaWatcher(responseObserver);
+        responseObserver.setOnCancelHandler(() -> {
+            watcher.close();
+            watchers.remove(watcher);
+            LOGGER.info("[META][CACHE] watcher cancelled. remaining: {}", watchers.size());
+        });
+        responseObserver.setOnReadyHandler(watcher::onReady);
+
+        watchers.add(watcher);
+        watcher.send(createReset(version.get()));
+        LOGGER.info("[META][CACHE] watcher added. total: {}", watchers.size());
+    }
+
+    private void publish(MetaService.MetaChange change) {
+        for (MetaWatcher watcher : watchers) {
+            if (!watcher.send(change)) {
+                watchers.remove(watcher);
+            }
+        }
+    }
+
+    private MetaService.MetaChange createReset(long currentVersion) {
+        return MetaService.MetaChange.newBuilder()
+                .setType(MetaService.MetaChangeType.RESET)
+                .setVersion(currentVersion)
+                .build();
+    }
+
+    /**
+     * Never buffers for a slow watcher: while it is not ready its changes are dropped, and a single RESET
+     * is sent once it catches up.
+     */
+    private class MetaWatcher {
+        private final ServerCallStreamObserver<MetaService.MetaChange> responseObserver;
+        private boolean lagging;
+        private boolean closed;
+
+        MetaWatcher(ServerCallStreamObserver<MetaService.MetaChange> responseObserver) {
+            this.responseObserver = responseObserver;
+            this.lagging = false;
+            this.closed = false;
+        }
+
+        /**
+         * @return false if the watcher is gone
+         */
+        synchronized boolean send(MetaService.MetaChange change) {
+            if (closed) {
+                return false;
+            }
+            if (!responseObserver.isReady()) {
+                lagging = true;
+                return true;
+            }
+
+            try {
+                responseObserver.onNext(lagging ? createReset(change.getVersion()) : change);
+                lagging = false;
+            } catch (RuntimeException e) {
+                LOGGER.warn("[META][CACHE] failed to notify watcher: {}", e.getMessage());
+                closed = true;
+            }
+
+            return !closed;
+        }
+
+        synchronized void onReady() {
+            if (lagging) {
+                send(createReset(version.get()));
+            }
+        }
+
+        synchronized void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.framework.meta.service.service;
+
+import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestStorageMetaCache {
+    private StorageMetaCache storageMetaCache = new StorageMetaCache();
+
+    @Test
+    public void testReadThrough() {
+        AtomicInteger loadCount = new AtomicInteger(0);
+        Dtable dtable = createDtable(1L);
+
+        for (int i = 0; i < 3; ++i) {
+            Assert.assertSame(dtable, storageMetaCache.getTable("ns", "name", () -> {
+                loadCount.incrementAndGet();
+                return dtable;
+            }));
+        }
+
+        Assert.assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    public void testInvalidateByTableId() {
+        storageMetaCache.getTable("ns", "name", () -> createDtable(1L));
+
+        Dtable update = new Dtable();
+        update.setTableId(1L);
+        storageMetaCache.onTableChanged(update);
+
+        Assert.assertNull(storageMetaCache.getTable("ns", "name", () -> null));
+    }
+
+    @Test
+    public void testRacingLoadIsNotCached() {
+        Dtable stale = createDtable(1L);
+        storageMetaCache.getTable("ns", "name", () -> {
+            storageMetaCache.onTableChanged(stale);
+            return stale;
+        });
+
+        Dtable fresh = createDtable(2L);
+        Assert.assertSame(fresh, storageMetaCache.getTable("ns", "name", () -> fresh));
+    }
+
+    private Dtable createDtable(Long tableId) {
+        Dtable result = new Dtable();
+        result.setTableId(tableId);
+        result.setNamespace("ns");
+        result.setTableName("name");
+
+        return result;
+    }
+}
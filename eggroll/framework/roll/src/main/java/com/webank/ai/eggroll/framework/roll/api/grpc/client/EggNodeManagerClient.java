@@ -17,6 +17,7 @@
 package com.webank.ai.eggroll.framework.roll.api.grpc.client;
 
 import com.webank.ai.eggroll.api.core.BasicMeta;
+import com.webank.ai.eggroll.api.framework.egg.NodeManager;
 import com.webank.ai.eggroll.api.framework.egg.NodeServiceGrpc;
 import com.webank.ai.eggroll.core.api.grpc.client.GrpcAsyncClientContext;
 import com.webank.ai.eggroll.core.api.grpc.client.GrpcStreamingClientTemplate;
@@ -26,6 +27,7 @@ import com.webank.ai.eggroll.core.model.impl.SingleDelayedResult;
 import com.webank.ai.eggroll.core.utils.TypeConversionUtils;
 import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node;
 import com.webank.ai.eggroll.framework.roll.api.grpc.observer.processor.egg.node.EggNodeServiceEndpointToEndpointResponseObserver;
+import com.webank.ai.eggroll.framework.roll.api.grpc.observer.processor.egg.node.EggNodeServiceEndpointToSchedulerStatusResponseObserver;
 import com.webank.ai.eggroll.framework.roll.factory.EggNodeServiceCallModelTemplateFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -77,6 +79,62 @@ public class EggNodeManagerClient {
         return result;
     }
 
+    public BasicMeta.Endpoint releaseProcessor(BasicMeta.Endpoint nodeManager, BasicMeta.Endpoint processor) {
+        GrpcAsyncClientContext<NodeServiceGrpc.NodeServiceStub, BasicMeta.Endpoint, BasicMeta.Endpoint> context
+                = eggNodeServiceCallModelTemplateFactory.createEndpointToEndpointContext();
+
+        DelayedResult<BasicMeta.Endpoint> delayedResult = new SingleDelayedResult<>();
+
+        context.setLatchInitCount(1)
+                .setEndpoint(nodeManager)
+                .setFinishTimeout(RuntimeConstants.DEFAULT_WAIT_TIME, RuntimeConstants.DEFAULT_TIMEUNIT)
+                .setCalleeStreamingMethodInvoker(NodeServiceGrpc.NodeServiceStub::releaseProcessor)
+                .setCallerStreamObserverClassAndArguments(EggNodeServiceEndpointToEndpointResponseObserver.class, delayedResult);
+
+        GrpcStreamingClientTemplate<NodeServiceGrpc.NodeServiceStub, BasicMeta.Endpoint, BasicMeta.Endpoint> template
+                = eggNodeServiceCallModelTemplateFactory.createEndpointToEndpointTemplate();
+
+        template.setGrpcAsyncClientContext(context);
+
+        BasicMeta.Endpoint result;
+
+        try {
+            result = template.calleeStreamingRpcWithImmediateDelayedResult(processor, delayedResult);
+        } catch (InvocationTargetException e) {
+            throw new RuntimeException(e);
+        }
+
+        return result;
+    }
+
+    public NodeManager.SchedulerStatus getSchedulerStatus(BasicMeta.Endpoint nodeManager) {
+        GrpcAsyncClientContext<NodeServiceGrpc.NodeServiceStub, BasicMeta.Endpoint, NodeManager.SchedulerStatus> context
+                = eggNodeServiceCallModelTemplateFactory.createEndpointToSchedulerStatusContext();
+
+        DelayedResult<NodeManager.SchedulerStatus> delayedResult = new SingleDelayedResult<>();
+
+        context.setLatchInitCount(1)
+                .setEndpoint(nodeManager)
+                .setFinishTimeout(RuntimeConstants.DEFAULT_WAIT_TIME, RuntimeConstants.DEFAULT_TIMEUNIT)
+                .setCalleeStreamingMethodInvoker(NodeServiceGrpc.NodeServiceStub::getSchedulerStatus)
+                .setCallerStreamObserverClassAndArguments(EggNodeServiceEndpointToSchedulerStatusResponseObserver.class, delayedResult);
+
+        GrpcStreamingClientTemplate<NodeServiceGrpc.NodeServiceStub, BasicMeta.Endpoint, NodeManager.SchedulerStatus> template
+                = eggNodeServiceCallModelTemplateFactory.createEndpointToSchedulerStatusTemplate();
+
+        template.setGrpcAsyncClientContext(context);
+
+        NodeManager.SchedulerStatus result;
+
+        try {
+            result = template.calleeStreamingRpcWithImmediateDelayedResult(nodeManager, delayedResult);
+        } catch (InvocationTargetException e) {
+            throw new RuntimeException(e);
+        }
+
+        return result;
+    }
+
     public BasicMeta.Endpoints getAllPossibleProcessors(Node node) {
         return null;
     }
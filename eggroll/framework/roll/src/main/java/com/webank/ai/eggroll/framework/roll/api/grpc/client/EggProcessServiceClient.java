@@ -28,6 +28,7 @@ import com.webank.ai.eggroll.core.constant.RuntimeConstants;
 import com.webank.ai.eggroll.core.model.DelayedResult;
 import com.webank.ai.eggroll.core.model.impl.SingleDelayedResult;
 import com.webank.ai.eggroll.core.utils.TypeConversionUtils;
+import com.webank.ai.eggroll.framework.roll.api.grpc.observer.processor.egg.EggProcessorCombineResponseObserver;
 import com.webank.ai.eggroll.framework.roll.api.grpc.observer.processor.egg.EggProcessorReduceResponseStreamObserver;
 import com.webank.ai.eggroll.framework.roll.api.grpc.observer.processor.egg.EggProcessorUnaryProcessToStorageLocatorResponseObserver;
 import com.webank.ai.eggroll.framework.roll.factory.RollModelFactory;
@@ -81,6 +82,33 @@ public class EggProcessServiceClient {
         return result;
     }
 
+    public Kv.Operand combine(Processor.CombineProcess request, BasicMeta.Endpoint processorEndpoint) {
+        GrpcAsyncClientContext<ProcessServiceGrpc.ProcessServiceStub, Processor.CombineProcess, Kv.Operand> context
+                = rollProcessorServiceCallModelFactory.createCombineProcessToOperandContext();
+
+        DelayedResult<Kv.Operand> delayedResult = new SingleDelayedResult<>();
+
+        context.setLatchInitCount(1)
+                .setEndpoint(processorEndpoint)
+                .setFinishTimeout(RuntimeConstants.DEFAULT_WAIT_TIME, RuntimeConstants.DEFAULT_TIMEUNIT)
+                .setCalleeStreamingMethodInvoker(ProcessServiceGrpc.ProcessServiceStub::combine)
+                .setCallerStreamObserverClassAndArguments(EggProcessorCombineResponseObserver.class, delayedResult);
+
+        GrpcStreamingClientTemplate<ProcessServiceGrpc.ProcessServiceStub, Processor.CombineProcess, Kv.Operand> template
+                = rollProcessorServiceCallModelFactory.createCombineProcessToOperandTemplate();
+        template.setGrpcAsyncClientContext(context);
+
+        Kv.Operand result = null;
+
+        try {
+            result = template.calleeStreamingRpcWithImmediateDelayedResult(request, delayedResult);
+        } catch (InvocationTargetException e) {
+            throw new RuntimeException(e);
+        }
+
+        return result;
+    }
+
     public StorageBasic.StorageLocator mapPartitions(Processor.UnaryProcess request, BasicMeta.Endpoint processorEndpoint) {
         return unaryProcessToStorageLocatorUnaryCall(request, processorEndpoint, ProcessServiceGrpc.ProcessServiceStub::mapPartitions);
     }
@@ -20,6 +20,7 @@ import com.webank.ai.eggroll.api.core.BasicMeta;
 import com.webank.ai.eggroll.api.storage.KVServiceGrpc;
 import com.webank.ai.eggroll.api.storage.Kv;
 import com.webank.ai.eggroll.core.api.grpc.client.GrpcAsyncClientContext;
+import com.webank.ai.eggroll.core.api.grpc.client.GrpcCallerStreamingStubMethodInvoker;
 import com.webank.ai.eggroll.core.api.grpc.client.GrpcStreamingClientTemplate;
 import com.webank.ai.eggroll.core.constant.MetaConstants;
 import com.webank.ai.eggroll.core.constant.RuntimeConstants;
@@ -31,10 +32,12 @@ import com.webank.ai.eggroll.core.utils.ToStringUtils;
 import com.webank.ai.eggroll.core.utils.TypeConversionUtils;
 import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node;
 import com.webank.ai.eggroll.framework.roll.api.grpc.observer.kv.storage.*;
+import com.webank.ai.eggroll.framework.roll.api.grpc.processor.caller.StorageKvOperandsRequestStreamProcessor;
 import com.webank.ai.eggroll.framework.roll.api.grpc.processor.caller.StorageKvPutAllRequestStreamProcessor;
 import com.webank.ai.eggroll.framework.roll.factory.RollKvCallModelFactory;
 import com.webank.ai.eggroll.framework.roll.factory.RollModelFactory;
 import com.webank.ai.eggroll.framework.roll.service.model.OperandBroker;
+import io.grpc.Metadata;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,6 +45,7 @@ import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 @Component
@@ -61,6 +65,23 @@ public class StorageServiceClient {
 
     private BasicMeta.Endpoint storageServiceEndpoint = BasicMeta.Endpoint.newBuilder().setHostname("localhost").setPort(7778).build();
 
+    public void createIfAbsent(Kv.CreateTableInfo request, Node node) {
+        GrpcAsyncClientContext<KVServiceGrpc.KVServiceStub, Kv.CreateTableInfo, Kv.CreateTableInfo> context
+                = rollKvCallModelFactory.createCreateTableContext();
+
+        context.setLatchInitCount(1)
+                .setEndpoint(typeConversionUtils.toEndpoint(node))
+                .setFinishTimeout(RuntimeConstants.DEFAULT_WAIT_TIME, RuntimeConstants.DEFAULT_TIMEUNIT)
+                .setCalleeStreamingMethodInvoker(KVServiceGrpc.KVServiceStub::createIfAbsent)
+                .setCallerStreamObserverClassAndArguments(StorageKvCreateResponseObserver.class);
+
+        GrpcStreamingClientTemplate<KVServiceGrpc.KVServiceStub, Kv.CreateTableInfo, Kv.CreateTableInfo> template
+                = rollKvCallModelFactory.createCreateTableTemplate();
+        template.setGrpcAsyncClientContext(context);
+
+        template.calleeStreamingRpc(request);
+    }
+
     public void put(Kv.Operand operand, StoreInfo storeInfo, Node node) {
         GrpcAsyncClientContext<KVServiceGrpc.KVServiceStub, Kv.Operand, Kv.Empty> context
                 = rollKvCallModelFactory.createOperandToEmptyContext();
@@ -108,6 +129,13 @@ public class StorageServiceClient {
     }
 
     public void putAll(OperandBroker operandBroker, StoreInfo storeInfo, Node node) {
+        putAll(operandBroker, storeInfo, node, false);
+    }
+
+    /**
+     * @param sortedKeys whether the broker yields keys in ascending order, letting storage append them
+     */
+    public void putAll(OperandBroker operandBroker, StoreInfo storeInfo, Node node, boolean sortedKeys) {
         boolean needReset = true;
         boolean hasError = false;
         int resetInterval = 1000;
@@ -116,6 +144,10 @@ public class StorageServiceClient {
 
         GrpcAsyncClientContext<KVServiceGrpc.KVServiceStub, Kv.Operand, Kv.Empty> context = null;
         GrpcStreamingClientTemplate<KVServiceGrpc.KVServiceStub, Kv.Operand, Kv.Empty> template = null;
+        Metadata metadata = MetaConstants.createMetadataFromStoreInfo(storeInfo);
+        if (sortedKeys) {
+            metadata.put(MetaConstants.SORTED_KEYS.asMetaKey(), String.valueOf(true));
+        }
         try {
             LOGGER.info("[ROLL][PUTALL][SUBTASK] putAll subTask request received: {}", toStringUtils.toOneLineString(storeInfo));
             while (!operandBroker.isClosable()) {
@@ -131,7 +163,7 @@ public class StorageServiceClient {
                             .setFinishTimeout(RuntimeConstants.DEFAULT_WAIT_TIME, RuntimeConstants.DEFAULT_TIMEUNIT)
                             .setCallerStreamingMethodInvoker(KVServiceGrpc.KVServiceStub::putAll)
                             .setCallerStreamObserverClassAndArguments(StorageKvPutAllClientResponseStreamObserver.class)
-                            .setGrpcMetadata(MetaConstants.createMetadataFromStoreInfo(storeInfo))
+                            .setGrpcMetadata(metadata)
                             .setRequestStreamProcessorClassAndArguments(StorageKvPutAllRequestStreamProcessor.class, operandBroker, node);
 
                     template = rollKvCallModelFactory.createOperandToEmptyTemplate();
@@ -226,6 +258,56 @@ public class StorageServiceClient {
         return result;
     }
 
+    /**
+     * Gets the keys, all of the same fragment, in one call. Results follow key order.
+     */
+    public List<Kv.Operand> getAll(List<Kv.Operand> keys, StoreInfo storeInfo, Node node) {
+        return keysStreamingRpc(KVServiceGrpc.KVServiceStub::getAll, keys, storeInfo, node);
+    }
+
+    /**
+     * Deletes the keys, all of the same fragment, in one call. Results carry the deleted values in key order.
+     */
+    public List<Kv.Operand> deleteAll(List<Kv.Operand> keys, StoreInfo storeInfo, Node node) {
+        return keysStreamingRpc(KVServiceGrpc.KVServiceStub::deleteAll, keys, storeInfo, node);
+    }
+
+    private List<Kv.Operand> keysStreamingRpc(GrpcCallerStreamingStubMethodInvoker<KVServiceGrpc.KVServiceStub, Kv.Operand, Kv.Operand> invoker,
+                                              List<Kv.Operand> keys, StoreInfo storeInfo, Node node) {
+        DelayedResult<List<Kv.Operand>> delayedResult = new SingleDelayedResult<>();
+
+        GrpcAsyncClientContext<KVServiceGrpc.KVServiceStub, Kv.Operand, Kv.Operand> context
+                = rollKvCallModelFactory.createOperandToOperandContext();
+
+        context.setLatchInitCount(1)
+                .setEndpoint(typeConversionUtils.toEndpoint(node))
+                .setFinishTimeout(RuntimeConstants.DEFAULT_WAIT_TIME, RuntimeConstants.DEFAULT_TIMEUNIT)
+                .setCallerStreamingMethodInvoker(invoker)
+                .setCallerStreamObserverClassAndArguments(StorageKvOperandsResponseStreamObserver.class, delayedResult)
+                .setGrpcMetadata(MetaConstants.createMetadataFromStoreInfo(storeInfo))
+                .setRequestStreamProcessorClassAndArguments(StorageKvOperandsRequestStreamProcessor.class, keys);
+
+        GrpcStreamingClientTemplate<KVServiceGrpc.KVServiceStub, Kv.Operand, Kv.Operand> template
+                = rollKvCallModelFactory.createOperandToOperandTemplate();
+        template.setGrpcAsyncClientContext(context);
+
+        template.initCallerStreamingRpc();
+        template.processCallerStreamingRpc();
+        template.completeStreamingRpc();
+
+        if (delayedResult.hasError()) {
+            throw new RuntimeException(delayedResult.getError());
+        }
+
+        List<Kv.Operand> result = delayedResult.getResultNow();
+        if (result.size() != keys.size()) {
+            throw new IllegalStateException("storage returned " + result.size() + " operands for " + keys.size()
+                    + " keys. storeInfo: " + storeInfo);
+        }
+
+        return result;
+    }
+
     public OperandBroker iterate(Kv.Range request, StoreInfo storeInfo, Node node) {
         GrpcAsyncClientContext<KVServiceGrpc.KVServiceStub, Kv.Range, Kv.Operand> context
                 = rollKvCallModelFactory.createRangeToOperandContext();
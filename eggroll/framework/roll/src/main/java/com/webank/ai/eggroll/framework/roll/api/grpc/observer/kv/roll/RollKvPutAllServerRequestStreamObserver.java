@@ -30,8 +30,10 @@ import com.webank.ai.eggroll.core.io.StoreInfo;
 import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable;
 import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment;
 import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node;
+import com.webank.ai.eggroll.framework.roll.factory.DispatcherFactory;
 import com.webank.ai.eggroll.framework.roll.factory.RollModelFactory;
 import com.webank.ai.eggroll.framework.roll.helper.NodeHelper;
+import com.webank.ai.eggroll.framework.roll.helper.TableWriteFence;
 import com.webank.ai.eggroll.framework.roll.service.async.storage.PutAllProcessor;
 import com.webank.ai.eggroll.framework.roll.service.model.OperandBroker;
 import com.webank.ai.eggroll.framework.roll.strategy.DispatchPolicy;
@@ -60,6 +62,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
 @Scope("prototype")
 public class RollKvPutAllServerRequestStreamObserver extends BaseCalleeRequestStreamObserver<Kv.Operand, Kv.Empty> {
     private static final Logger LOGGER = LogManager.getLogger();
+    // operands between checks that a rebalance has not started since this stream entered the fence
+    private static final int FENCE_CHECK_INTERVAL = 10_000;
     private final Object fragmentOrderToOperandBrokerLock = new Object();
 
     @Autowired
@@ -67,17 +71,21 @@ public class RollKvPutAllServerRequestStreamObserver extends BaseCalleeRequestSt
     @Autowired
     private StorageMetaClient storageMetaClient;
     @Autowired
-    private DispatchPolicy dispatchPolicy;
+    private DispatcherFactory dispatcherFactory;
     @Autowired
     private RollModelFactory rollModelFactory;
     @Autowired
     private RollServerUtils rollServerUtils;
     @Autowired
     private NodeHelper nodeHelper;
+    @Autowired
+    private TableWriteFence tableWriteFence;
 
     private final ServerCallStreamObserver<Kv.Empty> serverCallStreamObserver;
     private final StoreInfo storeInfo;
     private final AtomicBoolean wasReady;
+    // each fragment gets an ascending subsequence of ascending input, so storage may append
+    private final boolean sortedKeys;
 
     private Map<Long, Node> nodeIdToNodes;
     private Map<Integer, Node> fragmentOrderToNodes;
@@ -88,14 +96,21 @@ public class RollKvPutAllServerRequestStreamObserver extends BaseCalleeRequestSt
     private List<ListenableFuture<BasicMeta.ReturnStatus>> listenableFutures;
     private Set<Integer> finishedFragmentSet;
     private int tableFragmentCount;
+    // resolved per table, as get and put do, so a JUMP table is not written by mod hash
+    private DispatchPolicy dispatchPolicy;
+    private int totalFragments;
     private long totalCount;
     private volatile boolean inited;
+    // set while this stream counts as a write in flight for the table's rebalance fence
+    private final AtomicBoolean fenceEntered = new AtomicBoolean(false);
+    private volatile boolean failed;
 
-    public RollKvPutAllServerRequestStreamObserver(StreamObserver<Kv.Empty> callerNotifier, StoreInfo storeInfo, AtomicBoolean wasReady) {
+    public RollKvPutAllServerRequestStreamObserver(StreamObserver<Kv.Empty> callerNotifier, StoreInfo storeInfo, AtomicBoolean wasReady, boolean sortedKeys) {
         super(callerNotifier);
         this.serverCallStreamObserver = (ServerCallStreamObserver<Kv.Empty>) callerNotifier;
         this.storeInfo = storeInfo;
         this.wasReady = wasReady;
+        this.sortedKeys = sortedKeys;
 
         this.fragmentOrderToOperandBroker = Maps.newConcurrentMap();
 
@@ -115,6 +130,8 @@ public class RollKvPutAllServerRequestStreamObserver extends BaseCalleeRequestSt
         Dtable dtable = storageMetaClient.getTable(storeInfo);
 
         long tableId = dtable.getTableId();
+        dispatchPolicy = dispatcherFactory.createDispatcher(dtable.getDispatcher()).getDispatchPolicy();
+        totalFragments = dtable.getTotalFragments();
 
         nodeIdToNodes = nodeHelper.getNodeIdToStorageNodesOfTable(tableId);
         List<Fragment> fragments = nodeHelper.getFragmentListOfTable(tableId);
@@ -123,16 +140,33 @@ public class RollKvPutAllServerRequestStreamObserver extends BaseCalleeRequestSt
         tableFragmentCount = fragments.size();
         eggPutAllFinishLatch = new CountDownLatch(fragments.size());
 
+        tableWriteFence.enter(storeInfo);
+        fenceEntered.set(true);
         inited = true;
     }
 
     @Override
     public void onNext(Kv.Operand operand) {
+        if (failed) {
+            return;
+        }
         if (!inited) {
             init();
         }
+        if (totalCount > 0 && totalCount % FENCE_CHECK_INTERVAL == 0) {
+            try {
+                tableWriteFence.check(storeInfo);
+            } catch (IllegalStateException e) {
+                failed = true;
+                for (OperandBroker operandBroker : fragmentOrderToOperandBroker.values()) {
+                    operandBroker.close();
+                }
+                onError(e);
+                return;
+            }
+        }
         // perform dispatch
-        int dispatchedFragment = dispatchPolicy.executePolicy(storeInfo, operand.getKey());
+        int dispatchedFragment = dispatchPolicy.executePolicy(totalFragments, operand.getKey());
 
         // init
         if (!fragmentOrderToOperandBroker.containsKey(dispatchedFragment)) {
@@ -181,12 +215,16 @@ public class RollKvPutAllServerRequestStreamObserver extends BaseCalleeRequestSt
 
     @Override
     public void onError(Throwable throwable) {
+        exitFence();
         super.onError(throwable);
         LOGGER.error("[ROLL][KV][PUTALL] put all onError: {}", errorUtils.getStackTrace(throwable));
     }
 
     @Override
     public void onCompleted() {
+        if (failed) {
+            return;
+        }
         for (Map.Entry<Integer, OperandBroker> entry : fragmentOrderToOperandBroker.entrySet()) {
             entry.getValue().setFinished();
         }
@@ -229,6 +267,7 @@ public class RollKvPutAllServerRequestStreamObserver extends BaseCalleeRequestSt
 
             if (awaitResult) {
                 if (errorContainer.isEmpty()) {
+                    exitFence();
                     LOGGER.info("[ROLL][PROCESS][PUTALL] put all completed. storeInfo: {}, totalCount: {}",
                             storeInfo, totalCount);
                     callerNotifier.onNext(ModelConstants.EMPTY);
@@ -246,9 +285,15 @@ public class RollKvPutAllServerRequestStreamObserver extends BaseCalleeRequestSt
         }
     }
 
+    private void exitFence() {
+        if (fenceEntered.compareAndSet(true, false)) {
+            tableWriteFence.exit(storeInfo);
+        }
+    }
+
     private PutAllProcessor createStoragePutAllRequest(OperandBroker operandBroker, StoreInfo storeInfo) {
         PutAllProcessor result =
-                rollModelFactory.createPutAllProcessor(operandBroker, storeInfo, fragmentOrderToNodes.get(storeInfo.getFragment()));
+                rollModelFactory.createPutAllProcessor(operandBroker, storeInfo, fragmentOrderToNodes.get(storeInfo.getFragment()), sortedKeys);
 
         return result;
     }
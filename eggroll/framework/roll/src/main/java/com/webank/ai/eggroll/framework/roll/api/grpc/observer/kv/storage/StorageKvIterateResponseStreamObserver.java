@@ -50,7 +50,7 @@ public class StorageKvIterateResponseStreamObserver extends BaseCallerResponseSt
 
     @Override
     public void onError(Throwable throwable) {
-        operandBroker.setFinished();
+        operandBroker.setError(throwable);
         super.onError(throwable);
     }
 
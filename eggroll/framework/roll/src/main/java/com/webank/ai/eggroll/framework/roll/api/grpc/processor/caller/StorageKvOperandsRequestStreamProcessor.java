@@ -0,0 +1,45 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webank.ai.eggroll.framework.roll.api.grpc.processor.caller;
+
+import com.webank.ai.eggroll.api.storage.Kv;
+import com.webank.ai.eggroll.core.api.grpc.client.crud.BaseStreamProcessor;
+import io.grpc.stub.StreamObserver;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Scope("prototype")
+public class StorageKvOperandsRequestStreamProcessor extends BaseStreamProcessor<Kv.Operand> {
+    private List<Kv.Operand> operands;
+
+    public StorageKvOperandsRequestStreamProcessor(StreamObserver<Kv.Operand> streamObserver, List<Kv.Operand> operands) {
+        super(streamObserver);
+        this.operands = operands;
+    }
+
+    @Override
+    public synchronized void process() {
+        super.process();
+        for (Kv.Operand operand : operands) {
+            streamObserver.onNext(operand);
+        }
+    }
+}
@@ -18,18 +18,21 @@ package com.webank.ai.eggroll.framework.roll.api.grpc.server;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.protobuf.ByteString;
 import com.webank.ai.eggroll.api.storage.KVServiceGrpc;
 import com.webank.ai.eggroll.api.storage.Kv;
 import com.webank.ai.eggroll.api.storage.StorageBasic;
 import com.webank.ai.eggroll.core.api.grpc.client.crud.StorageMetaClient;
 import com.webank.ai.eggroll.core.api.grpc.server.GrpcServerWrapper;
+import com.webank.ai.eggroll.core.constant.MetaConstants;
 import com.webank.ai.eggroll.core.constant.ModelConstants;
 import com.webank.ai.eggroll.core.constant.StringConstants;
 import com.webank.ai.eggroll.core.error.exception.CrudException;
 import com.webank.ai.eggroll.core.error.exception.MultipleRuntimeThrowables;
 import com.webank.ai.eggroll.core.error.exception.StorageNotExistsException;
 import com.webank.ai.eggroll.core.io.StoreInfo;
+import com.webank.ai.eggroll.core.model.Dispatchers;
 import com.webank.ai.eggroll.core.model.DtableStatus;
 import com.webank.ai.eggroll.core.model.FragmentStatus;
 import com.webank.ai.eggroll.core.utils.ErrorUtils;
@@ -40,20 +43,21 @@ import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fr
 import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node;
 import com.webank.ai.eggroll.framework.roll.api.grpc.client.StorageServiceClient;
 import com.webank.ai.eggroll.framework.roll.api.grpc.observer.kv.roll.RollKvPutAllServerRequestStreamObserver;
-import com.webank.ai.eggroll.framework.roll.factory.DispatchPolicyFactory;
 import com.webank.ai.eggroll.framework.roll.factory.DispatcherFactory;
 import com.webank.ai.eggroll.framework.roll.factory.RollGrpcObserverFactory;
 import com.webank.ai.eggroll.framework.roll.factory.RollModelFactory;
 import com.webank.ai.eggroll.framework.roll.helper.NodeHelper;
+import com.webank.ai.eggroll.framework.roll.helper.TableMetaCache;
+import com.webank.ai.eggroll.framework.roll.helper.TableWriteFence;
 import com.webank.ai.eggroll.framework.roll.service.async.storage.CountProcessor;
 import com.webank.ai.eggroll.framework.roll.service.async.storage.IterateProcessor;
 import com.webank.ai.eggroll.framework.roll.service.model.DispatchResult;
 import com.webank.ai.eggroll.framework.roll.service.model.OperandBroker;
-import com.webank.ai.eggroll.framework.roll.strategy.DispatchPolicy;
 import com.webank.ai.eggroll.framework.roll.strategy.Dispatcher;
 import com.webank.ai.eggroll.framework.roll.util.RollServerUtils;
 import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -67,15 +71,28 @@ import javax.annotation.PostConstruct;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 @Scope("prototype")
 public class RollKvServiceImpl extends KVServiceGrpc.KVServiceImplBase {
     private static final Logger LOGGER = LogManager.getLogger();
+    private static final int DESTROY_PARALLELISM = 32;
+    // keys of a getAll / deleteAll dispatched together. each batch costs one storage call per fragment it touches
+    private static final int KEY_BATCH_SIZE = 10_000;
+    // operands an iterate merges ahead of the caller. the merge blocks on a full broker, so a streaming iterate,
+    // which has no chunk size to stop at, does not pull whole fragments into memory for a slow caller
+    private static final int ITERATE_BROKER_CAPACITY = 10_000;
     @Autowired
     private StorageMetaClient storageMetaClient;
     @Autowired
@@ -93,8 +110,6 @@ public class RollKvServiceImpl extends KVServiceGrpc.KVServiceImplBase {
     @Autowired
     private DispatcherFactory dispatcherFactory;
     @Autowired
-    private DispatchPolicyFactory dispatchPolicyFactory;
-    @Autowired
     private RollGrpcObserverFactory rollGrpcObserverFactory;
     @Autowired
     private RollModelFactory rollModelFactory;
@@ -102,6 +117,10 @@ public class RollKvServiceImpl extends KVServiceGrpc.KVServiceImplBase {
     private RollServerUtils rollServerUtils;
     @Autowired
     private NodeHelper nodeHelper;
+    @Autowired
+    private TableMetaCache tableMetaCache;
+    @Autowired
+    private TableWriteFence tableWriteFence;
 
     @PostConstruct
     public void init() {
@@ -120,6 +139,9 @@ public class RollKvServiceImpl extends KVServiceGrpc.KVServiceImplBase {
 
             // todo: add transaction control
             if (createTemplate == null) {
+                if (StringUtils.isNotBlank(request.getDispatcher())) {
+                    Dispatchers.valueOf(request.getDispatcher());
+                }
                 createTemplate = typeConversionUtils.toDtable(request);
 
                 createResult = storageMetaClient.createTable(createTemplate);
@@ -127,11 +149,26 @@ public class RollKvServiceImpl extends KVServiceGrpc.KVServiceImplBase {
                 if (createResult != null) {
                     fragments = storageMetaClient.createFragmentsForTable(createResult);
                 }
+
+                // storage nodes create fragments lazily. only reach out to them when they should be pre-sized
+                if (fragments != null && request.getFragmentSizeHint() > 0) {
+                    Map<Long, Node> nodeIdToNode = nodeHelper.getNodeIdToStorageNodesOfTable(createResult.getTableId());
+                    for (Fragment fragment : fragments) {
+                        Kv.CreateTableInfo fragmentCreateInfo = request.toBuilder()
+                                .setStorageLocator(storageLocator.toBuilder().setFragment(fragment.getFragmentOrder()))
+                                .build();
+                        storageServiceClient.createIfAbsent(fragmentCreateInfo, nodeIdToNode.get(fragment.getNodeId()));
+                    }
+                }
             } else {
                 fragments = storageMetaClient.getFragmentsByTableId(createTemplate.getTableId());
                 createResult = createTemplate;
             }
 
+            if (createResult != null) {
+                tableMetaCache.onTableUpdated(createResult);
+            }
+
             Kv.CreateTableInfo result = null;
             // todo: add more result check
             if (!fragments.isEmpty()) {
@@ -150,8 +187,13 @@ public class RollKvServiceImpl extends KVServiceGrpc.KVServiceImplBase {
             StoreInfo storeInfo = StoreInfo.fromGrpcContext();
             LOGGER.info("Kv.put request received. storeInfo: {}", toStringUtils.toOneLineString(storeInfo));
 
-            DispatchResult dispatchResult = dispatchInternal(storeInfo, request.getKey());
-            storageServiceClient.put(request, dispatchResult.getStoreInfo(), dispatchResult.getNode());
+            tableWriteFence.enter(storeInfo);
+            try {
+                DispatchResult dispatchResult = dispatchInternal(storeInfo, request.getKey());
+                storageServiceClient.put(request, dispatchResult.getStoreInfo(), dispatchResult.getNode());
+            } finally {
+                tableWriteFence.exit(storeInfo);
+            }
 
             responseObserver.onNext(ModelConstants.EMPTY);
             responseObserver.onCompleted();
@@ -164,8 +206,14 @@ public class RollKvServiceImpl extends KVServiceGrpc.KVServiceImplBase {
             StoreInfo storeInfo = StoreInfo.fromGrpcContext();
             LOGGER.info("Kv.putIfAbsent request received. storeInfo: {}", storeInfo);
 
-            DispatchResult dispatchResult = dispatchInternal(storeInfo, request.getKey());
-            Kv.Operand result = storageServiceClient.putIfAbsent(request, dispatchResult.getStoreInfo(), dispatchResult.getNode());
+            Kv.Operand result;
+            tableWriteFence.enter(storeInfo);
+            try {
+                DispatchResult dispatchResult = dispatchInternal(storeInfo, request.getKey());
+                result = storageServiceClient.putIfAbsent(request, dispatchResult.getStoreInfo(), dispatchResult.getNode());
+            } finally {
+                tableWriteFence.exit(storeInfo);
+            }
 
             responseObserver.onNext(result);
             responseObserver.onCompleted();
@@ -175,7 +223,8 @@ public class RollKvServiceImpl extends KVServiceGrpc.KVServiceImplBase {
     @Override
     public StreamObserver<Kv.Operand> putAll(StreamObserver<Kv.Empty> responseObserver) {
         StoreInfo storeInfo = StoreInfo.fromGrpcContext();
-        LOGGER.info("Kv.putAll request received: {}", toStringUtils.toOneLineString(storeInfo));
+        boolean sortedKeys = Boolean.parseBoolean(MetaConstants.SORTED_KEYS.asContextKey().get());
+        LOGGER.info("Kv.putAll request received: {}, sortedKeys: {}", toStringUtils.toOneLineString(storeInfo), sortedKeys);
 
         final ServerCallStreamObserver<Kv.Empty> serverCallStreamObserver
                 = (ServerCallStreamObserver<Kv.Empty>) responseObserver;
@@ -190,7 +239,7 @@ public class RollKvServiceImpl extends KVServiceGrpc.KVServiceImplBase {
         });
 
         RollKvPutAllServerRequestStreamObserver requestObserver
-                = rollGrpcObserverFactory.createRollKvPutAllServerRequestStreamObserver(responseObserver, storeInfo, wasReady);
+                = rollGrpcObserverFactory.createRollKvPutAllServerRequestStreamObserver(responseObserver, storeInfo, wasReady, sortedKeys);
 
         return requestObserver;
     }
@@ -201,8 +250,14 @@ public class RollKvServiceImpl extends KVServiceGrpc.KVServiceImplBase {
             StoreInfo storeInfo = StoreInfo.fromGrpcContext();
             LOGGER.info("Kv.delete request received. storeInfo: {}", toStringUtils.toOneLineString(storeInfo));
 
-            DispatchResult dispatchResult = dispatchInternal(storeInfo, request.getKey());
-            Kv.Operand result = storageServiceClient.delete(request, dispatchResult.getStoreInfo(), dispatchResult.getNode());
+            Kv.Operand result;
+            tableWriteFence.enter(storeInfo);
+            try {
+                DispatchResult dispatchResult = dispatchInternal(storeInfo, request.getKey());
+                result = storageServiceClient.delete(request, dispatchResult.getStoreInfo(), dispatchResult.getNode());
+            } finally {
+                tableWriteFence.exit(storeInfo);
+            }
 
             responseObserver.onNext(result);
             responseObserver.onCompleted();
@@ -223,14 +278,33 @@ public class RollKvServiceImpl extends KVServiceGrpc.KVServiceImplBase {
         });
     }
 
+    @Override
+    public StreamObserver<Kv.Operand> getAll(StreamObserver<Kv.Operand> responseObserver) {
+        StoreInfo storeInfo = StoreInfo.fromGrpcContext();
+        LOGGER.info("Kv.getAll request received. storeInfo: {}", toStringUtils.toOneLineString(storeInfo));
+
+        return new KeyBatchRequestObserver(responseObserver, storeInfo, "GETALL", false, storageServiceClient::getAll);
+    }
+
+    @Override
+    public StreamObserver<Kv.Operand> deleteAll(StreamObserver<Kv.Operand> responseObserver) {
+        StoreInfo storeInfo = StoreInfo.fromGrpcContext();
+        LOGGER.info("Kv.deleteAll request received. storeInfo: {}", toStringUtils.toOneLineString(storeInfo));
+
+        return new KeyBatchRequestObserver(responseObserver, storeInfo, "DELETEALL", true, storageServiceClient::deleteAll);
+    }
+
     @Override
     public void iterate(Kv.Range request, StreamObserver<Kv.Operand> responseObserver) {
         grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
             StoreInfo storeInfo = StoreInfo.fromGrpcContext();
             LOGGER.info("Kv.iterate request received: {}", toStringUtils.toOneLineString(storeInfo));
-            OperandBroker sortedBroker = rollModelFactory.createOperandBroker();
+            OperandBroker sortedBroker = rollModelFactory.createOperandBroker(ITERATE_BROKER_CAPACITY);
 
             final List<Throwable> errorContainer = Collections.synchronizedList(Lists.newLinkedList());
+            final IterateResponseWriter responseWriter = new IterateResponseWriter(
+                    (ServerCallStreamObserver<Kv.Operand>) responseObserver, sortedBroker, errorContainer, storeInfo, request);
+
             IterateProcessor iterateProcessor
                     = rollModelFactory.createIterateProcessor(request, storeInfo, sortedBroker);
 
@@ -240,8 +314,8 @@ public class RollKvServiceImpl extends KVServiceGrpc.KVServiceImplBase {
                 @Override
                 public void onFailure(Throwable throwable) {
                     LOGGER.error("[ROLL][KV][ITERATE] error in iterate processor: {}", errorUtils.getStackTrace(throwable));
-                    sortedBroker.setFinished();
                     errorContainer.add(throwable);
+                    sortedBroker.setFinished();
                 }
 
                 @Override
@@ -252,37 +326,8 @@ public class RollKvServiceImpl extends KVServiceGrpc.KVServiceImplBase {
                 }
             });
 
-            int totalIterated = 0;
-            List<Kv.Operand> sortedOperands = Lists.newLinkedList();
-            int spinCount = 0;
-            while (!sortedBroker.isClosable()) {
-                sortedBroker.awaitLatch(50, TimeUnit.MILLISECONDS);
-
-                if (sortedBroker.isReady()) {
-                    sortedOperands.clear();
-                    totalIterated += sortedBroker.drainTo(sortedOperands);
-
-                    for (Kv.Operand next : sortedOperands) {
-                        responseObserver.onNext(next);
-                    }
-                    spinCount = 0;
-                } else {
-                    ++spinCount;
-                    if (spinCount == 1000) {
-                        LOGGER.info("[ROLL][KV][ITERATE] waiting for sortedBroker to finish storeInfo: {}. closable: {}, queueSize: {}, finished: {}, peek: {}",
-                                storeInfo, sortedBroker.isClosable(), sortedBroker.getQueueSize(), sortedBroker.isFinished(), sortedBroker.peek());
-                        spinCount = 0;
-                    }
-                }
-            }
-
-            if (!errorContainer.isEmpty()) {
-                throw new MultipleRuntimeThrowables("[ROLL][KV][ITERATE] error in iterate. storeInfo: " + storeInfo, errorContainer);
-            }
-
-            LOGGER.info("[ROLL][KV][ITERATE] roll iterate successfully. totalIterated: {}, storeInfo: {}, request: {}",
-                    totalIterated, storeInfo, toStringUtils.toOneLineString(request));
-            responseObserver.onCompleted();
+            // returns at once; responseWriter completes the call once sortedBroker is drained
+            responseWriter.start();
         });
     }
 
@@ -293,21 +338,30 @@ public class RollKvServiceImpl extends KVServiceGrpc.KVServiceImplBase {
             StoreInfo storeInfo = StoreInfo.fromGrpcContext();
 
             Dtable dtable = storageMetaClient.getTable(storeInfo.getNameSpace(), storeInfo.getTableName());
+            if (dtable != null && DtableStatus.REBALANCING.name().equals(dtable.getStatus())) {
+                throw new IllegalStateException("table is being rebalanced, destroy is rejected: " + storeInfo);
+            }
 
             if (dtable != null && DtableStatus.NORMAL.name().equals(dtable.getStatus())) {
                 Map<Long, Node> nodeIdToNode = nodeHelper.getNodeIdToStorageNodesOfTable(dtable.getTableId());
                 List<Fragment> fragments = storageMetaClient.getFragmentsByTableId(dtable.getTableId());
 
                 // destroy all fragments in all nodes
+                Semaphore inFlight = new Semaphore(DESTROY_PARALLELISM);
+                List<ListenableFuture<Fragment>> destroyFutures = Lists.newArrayListWithExpectedSize(fragments.size());
                 for (Fragment fragment : fragments) {
-                    fragment.setStatus(FragmentStatus.DELETED.name());
-                    storageMetaClient.updateFragment(fragment);
-
                     Node node = nodeIdToNode.get(fragment.getNodeId());
-                    storageServiceClient.destroy(request, storeInfo, node);
+                    destroyFutures.add(submitFragmentDestroy(request, fragment, storeInfo, node, inFlight));
+                }
+
+                List<Throwable> throwables = Lists.newLinkedList();
+                awaitFragmentDestroys(fragments, destroyFutures, throwables, Sets.newHashSet());
+                if (!throwables.isEmpty()) {
+                    throw new MultipleRuntimeThrowables("error in destroying fragments. storeInfo: " + storeInfo, throwables);
                 }
 
                 // update metadata
+                tableMetaCache.invalidate(dtable);
                 dtable.setStatus(DtableStatus.DELETED.name());
                 dtable.setTableName(dtable.getTableName() + StringConstants.DASH + System.currentTimeMillis());
                 Dtable result = storageMetaClient.updateTable(dtable);
@@ -332,10 +386,16 @@ public class RollKvServiceImpl extends KVServiceGrpc.KVServiceImplBase {
             LOGGER.info("Kv.destroyAll request received. storeInfo: {}", storeInfo);
 
             List<Dtable> dtables = storageMetaClient.getTables(storeInfo);
+            List<Dtable> normalDtables = Lists.newArrayListWithExpectedSize(dtables.size());
             List<Dtable> destroyedDtables = Lists.newArrayListWithExpectedSize(dtables.size());
 
+            // fragments of all tables share one bounded fan-out, so a namespace of many small tables is not serialized table by table
+            Semaphore inFlight = new Semaphore(DESTROY_PARALLELISM);
+            List<Fragment> destroyingFragments = Lists.newArrayList();
+            List<ListenableFuture<Fragment>> destroyFutures = Lists.newArrayList();
             for (Dtable dtable : dtables) {
                 if (dtable != null && DtableStatus.NORMAL.name().equals(dtable.getStatus())) {
+                    normalDtables.add(dtable);
                     Map<Long, Node> nodeIdToNode = nodeHelper.getNodeIdToStorageNodesOfTable(dtable.getTableId());
 
                     List<Fragment> fragments = storageMetaClient.getFragmentsByTableId(dtable.getTableId());
@@ -344,39 +404,64 @@ public class RollKvServiceImpl extends KVServiceGrpc.KVServiceImplBase {
 
                     // destroy all fragments in all nodes
                     for (Fragment fragment : fragments) {
-                        fragment.setStatus(FragmentStatus.DELETED.name());
-                        storageMetaClient.updateFragment(fragment);
-
                         Node node = nodeIdToNode.get(fragment.getNodeId());
-                        if (node == null) {
-                            continue;
-                        }
 
                         StoreInfo storeInfoWithExactTableNameAndFragment = StoreInfo.copy(storeInfoWithExactTableName);
                         storeInfoWithExactTableNameAndFragment.setFragment(fragment.getFragmentOrder());
-                        storageServiceClient.destroy(request, storeInfoWithExactTableNameAndFragment, node);
+                        destroyingFragments.add(fragment);
+                        destroyFutures.add(submitFragmentDestroy(request, fragment, storeInfoWithExactTableNameAndFragment, node, inFlight));
                     }
+                }
+            }
 
-                    // update metadata
-                    dtable.setStatus(DtableStatus.DELETED.name());
-                    dtable.setTableName(dtable.getTableName() + StringConstants.DASH + System.currentTimeMillis());
-                    Dtable result = storageMetaClient.updateTable(dtable);
+            List<Throwable> throwables = Lists.newLinkedList();
+            Set<Long> failedTableIds = Sets.newHashSet();
+            awaitFragmentDestroys(destroyingFragments, destroyFutures, throwables, failedTableIds);
 
-                    if (result == null) {
-                        throw new CrudException(103, "Failed to destroy table: " + storeInfo);
-                    } else {
-                        destroyedDtables.add(dtable);
-                    }
+            for (Dtable dtable : normalDtables) {
+                if (failedTableIds.contains(dtable.getTableId())) {
+                    continue;
+                }
+
+                // update metadata
+                tableMetaCache.invalidate(dtable);
+                dtable.setStatus(DtableStatus.DELETED.name());
+                dtable.setTableName(dtable.getTableName() + StringConstants.DASH + System.currentTimeMillis());
+                Dtable result = storageMetaClient.updateTable(dtable);
+
+                if (result == null) {
+                    throw new CrudException(103, "Failed to destroy table: " + storeInfo);
+                } else {
+                    destroyedDtables.add(dtable);
                 }
             }
 
             LOGGER.info("Kv.destroyAll result: {}", destroyedDtables);
 
+            if (!throwables.isEmpty()) {
+                throw new MultipleRuntimeThrowables("error in destroying fragments. storeInfo: " + storeInfo
+                        + ", failed table ids: " + failedTableIds, throwables);
+            }
+
             responseObserver.onNext(ModelConstants.EMPTY);
             responseObserver.onCompleted();
         });
     }
 
+    @Override
+    public void rebalance(Kv.RebalanceInfo request, StreamObserver<Kv.RebalanceInfo> responseObserver) {
+        grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
+            StoreInfo storeInfo = StoreInfo.fromGrpcContext();
+            LOGGER.info("Kv.rebalance request received. storeInfo: {}, request: {}",
+                    storeInfo, toStringUtils.toOneLineString(request));
+
+            Kv.RebalanceInfo result = rollModelFactory.createRebalanceProcessor(request, storeInfo).call();
+
+            responseObserver.onNext(result);
+            responseObserver.onCompleted();
+        });
+    }
+
     @Override
     public void count(Kv.Empty request, StreamObserver<Kv.Count> responseObserver) {
         grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
@@ -385,6 +470,10 @@ public class RollKvServiceImpl extends KVServiceGrpc.KVServiceImplBase {
             LOGGER.info("Kv.count request received. storeInfo: {}", storeInfo);
 
             Dtable dtable = storageMetaClient.getTable(storeInfo.getNameSpace(), storeInfo.getTableName());
+            // moved entries are in both fragments until the rebalance ends
+            if (dtable != null && DtableStatus.REBALANCING.name().equals(dtable.getStatus())) {
+                throw new IllegalStateException("table is being rebalanced, count is rejected: " + storeInfo);
+            }
             if (dtable != null && DtableStatus.NORMAL.name().equals(dtable.getStatus())) {
                 List<Fragment> fragments = storageMetaClient.getFragmentsByTableId(dtable.getTableId());
 
@@ -429,17 +518,384 @@ public class RollKvServiceImpl extends KVServiceGrpc.KVServiceImplBase {
         });
     }
 
+    private ListenableFuture<Fragment> submitFragmentDestroy(Kv.Empty request, Fragment fragment, StoreInfo storeInfo,
+                                                             Node node, Semaphore inFlight) throws InterruptedException {
+        inFlight.acquire();
+        ListenableFuture<Fragment> result;
+        try {
+            result = asyncThreadPool.submitListenable(() -> {
+                fragment.setStatus(FragmentStatus.DELETED.name());
+                storageMetaClient.updateFragment(fragment);
+
+                if (node != null) {
+                    storageServiceClient.destroy(request, storeInfo, node);
+                }
+                return fragment;
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+        result.addCallback(fragmentResult -> inFlight.release(), throwable -> inFlight.release());
+
+        return result;
+    }
+
+    private void awaitFragmentDestroys(List<Fragment> fragments,
+                                       List<ListenableFuture<Fragment>> destroyFutures,
+                                       List<Throwable> throwables,
+                                       Set<Long> failedTableIds) throws InterruptedException {
+        for (int i = 0; i < destroyFutures.size(); ++i) {
+            try {
+                destroyFutures.get(i).get();
+            } catch (ExecutionException e) {
+                throwables.add(e.getCause());
+                failedTableIds.add(fragments.get(i).getTableId());
+            }
+        }
+    }
+
+    /**
+     * Writes the sorted operands of an iterate as they arrive, and only while the transport is ready to take them.
+     * drain() may be triggered concurrently by the broker and by grpc's onReady; the work-in-progress counter lets
+     * exactly one caller write at a time without losing any trigger.
+     */
+    private class IterateResponseWriter {
+        private final ServerCallStreamObserver<Kv.Operand> responseObserver;
+        private final OperandBroker sortedBroker;
+        private final List<Throwable> errorContainer;
+        private final StoreInfo storeInfo;
+        private final Kv.Range request;
+        private final AtomicInteger wip;
+        private final AtomicBoolean done;
+        private long totalIterated;
+
+        IterateResponseWriter(ServerCallStreamObserver<Kv.Operand> responseObserver, OperandBroker sortedBroker,
+                              List<Throwable> errorContainer, StoreInfo storeInfo, Kv.Range request) {
+            this.responseObserver = responseObserver;
+            this.sortedBroker = sortedBroker;
+            this.errorContainer = errorContainer;
+            this.storeInfo = storeInfo;
+            this.request = request;
+            this.wip = new AtomicInteger(0);
+            this.done = new AtomicBoolean(false);
+            this.totalIterated = 0;
+        }
+
+        void start() {
+            responseObserver.setOnCancelHandler(() -> {
+                LOGGER.warn("[ROLL][KV][ITERATE] cancelled by caller. storeInfo: {}, iterated: {}", storeInfo, totalIterated);
+                done.set(true);
+                // stops the iterate processor from merging more for a caller that is gone
+                sortedBroker.close();
+            });
+            responseObserver.setOnReadyHandler(this::drain);
+            // ready listeners run on the producer's thread, so writing to the call is handed to the pool
+            sortedBroker.addReadyListener(this::scheduleDrain);
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            drainLoop();
+        }
+
+        private void scheduleDrain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            try {
+                asyncThreadPool.execute(this::drainLoop);
+            } catch (RejectedExecutionException e) {
+                drainLoop();
+            }
+        }
+
+        private void drainLoop() {
+            do {
+                if (done.get()) {
+                    continue;
+                }
+
+                Kv.Operand next;
+                while (responseObserver.isReady() && (next = sortedBroker.poll()) != null) {
+                    responseObserver.onNext(next);
+                    ++totalIterated;
+                }
+
+                if (sortedBroker.isClosable() && done.compareAndSet(false, true)) {
+                    complete();
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+
+        private void complete() {
+            sortedBroker.close();
+            if (!errorContainer.isEmpty()) {
+                responseObserver.onError(errorUtils.toGrpcRuntimeException(
+                        new MultipleRuntimeThrowables("[ROLL][KV][ITERATE] error in iterate. storeInfo: " + storeInfo, errorContainer)));
+                return;
+            }
+
+            LOGGER.info("[ROLL][KV][ITERATE] roll iterate successfully. totalIterated: {}, storeInfo: {}, request: {}",
+                    totalIterated, storeInfo, toStringUtils.toOneLineString(request));
+            responseObserver.onCompleted();
+        }
+    }
+
+    private interface FragmentKeysCall {
+        List<Kv.Operand> call(List<Kv.Operand> keys, StoreInfo storeInfo, Node node);
+    }
+
+    /**
+     * Serves getAll / deleteAll. Keys are collected into batches; each batch is grouped by fragment with the
+     * table's dispatch policy, every fragment group goes to its storage node in one call, and the results are
+     * written back in request order. After the first error the rest of the stream is dropped. Writing operations
+     * take the table's write fence per batch, so a rebalance starting mid-stream fails the remaining batches.
+     *
+     * Batches are dispatched on asyncThreadPool, one at a time, and their results are written as the caller
+     * reads them. The next keys are requested only once the previous batch is written, so neither the gRPC
+     * threads nor the memory held per call depend on how fast storage or the caller are.
+     */
+    private class KeyBatchRequestObserver implements StreamObserver<Kv.Operand> {
+        private final ServerCallStreamObserver<Kv.Operand> responseObserver;
+        private final StoreInfo storeInfo;
+        private final String operation;
+        private final boolean writes;
+        private final FragmentKeysCall fragmentKeysCall;
+        private final Queue<Kv.Operand> results;
+        private final AtomicInteger wip;
+        private final AtomicBoolean done;
+        // guarded by this
+        private List<Kv.Operand> keys;
+        private boolean dispatching;
+        private boolean paused;
+        private boolean inputCompleted;
+        private long count;
+        private volatile Throwable error;
+
+        KeyBatchRequestObserver(StreamObserver<Kv.Operand> responseObserver, StoreInfo storeInfo,
+                                String operation, boolean writes, FragmentKeysCall fragmentKeysCall) {
+            this.responseObserver = (ServerCallStreamObserver<Kv.Operand>) responseObserver;
+            this.storeInfo = storeInfo;
+            this.operation = operation;
+            this.writes = writes;
+            this.fragmentKeysCall = fragmentKeysCall;
+            this.results = new ConcurrentLinkedQueue<>();
+            this.wip = new AtomicInteger(0);
+            this.done = new AtomicBoolean(false);
+            this.keys = Lists.newArrayList();
+            this.count = 0;
+
+            // with manual flow control the call handler requests nothing, so the first key is asked for here
+            this.responseObserver.disableAutoInboundFlowControl();
+            this.responseObserver.setOnReadyHandler(this::drain);
+            this.responseObserver.request(1);
+        }
+
+        @Override
+        public void onNext(Kv.Operand operand) {
+            if (done.get()) {
+                return;
+            }
+            boolean requestNext;
+            synchronized (this) {
+                keys.add(operand);
+                requestNext = keys.size() < KEY_BATCH_SIZE;
+                paused = !requestNext;
+            }
+            if (requestNext) {
+                responseObserver.request(1);
+            } else {
+                drain();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.set(true);
+            LOGGER.error("[ROLL][KV][{}] cancelled by caller. storeInfo: {}, processed: {}", operation, storeInfo, count);
+        }
+
+        @Override
+        public void onCompleted() {
+            synchronized (this) {
+                inputCompleted = true;
+            }
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            do {
+                if (done.get()) {
+                    continue;
+                }
+                if (error != null) {
+                    done.set(true);
+                    LOGGER.error(errorUtils.getStackTrace(error));
+                    responseObserver.onError(errorUtils.toGrpcRuntimeException(error));
+                    continue;
+                }
+
+                Kv.Operand next;
+                while (responseObserver.isReady() && (next = results.poll()) != null) {
+                    responseObserver.onNext(next);
+                }
+                if (results.isEmpty()) {
+                    advance();
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+
+        /**
+         * Called once the results written so far are sent: dispatches the next batch, asks for more keys
+         * or completes the call.
+         */
+        private void advance() {
+            List<Kv.Operand> batch = null;
+            boolean requestNext = false;
+            boolean complete = false;
+            synchronized (this) {
+                if (dispatching) {
+                    return;
+                }
+                if (keys.size() >= KEY_BATCH_SIZE || (inputCompleted && !keys.isEmpty())) {
+                    batch = keys;
+                    keys = Lists.newArrayList();
+                    dispatching = true;
+                } else if (inputCompleted) {
+                    complete = true;
+                } else if (paused) {
+                    paused = false;
+                    requestNext = true;
+                }
+            }
+
+            if (batch != null) {
+                dispatch(batch);
+            } else if (requestNext) {
+                responseObserver.request(1);
+            } else if (complete && done.compareAndSet(false, true)) {
+                LOGGER.info("[ROLL][KV][{}] finished. storeInfo: {}, processed: {}", operation, storeInfo, count);
+                responseObserver.onCompleted();
+            }
+        }
+
+        private void dispatch(List<Kv.Operand> batch) {
+            try {
+                asyncThreadPool.execute(() -> {
+                    try {
+                        Collections.addAll(results, dispatchBatch(batch));
+                        synchronized (this) {
+                            count += batch.size();
+                        }
+                    } catch (Throwable t) {
+                        error = t;
+                    }
+                    finishDispatch();
+                });
+            } catch (Throwable t) {
+                error = t;
+                finishDispatch();
+            }
+        }
+
+        private void finishDispatch() {
+            synchronized (this) {
+                dispatching = false;
+            }
+            drain();
+        }
+
+        private Kv.Operand[] dispatchBatch(List<Kv.Operand> batch) throws InterruptedException, MultipleRuntimeThrowables {
+            if (!writes) {
+                return dispatchBatchUnfenced(batch);
+            }
+            tableWriteFence.enter(storeInfo);
+            try {
+                return dispatchBatchUnfenced(batch);
+            } finally {
+                tableWriteFence.exit(storeInfo);
+            }
+        }
+
+        private Kv.Operand[] dispatchBatchUnfenced(List<Kv.Operand> batch) throws InterruptedException, MultipleRuntimeThrowables {
+            Dtable dtable = tableMetaCache.getTable(storeInfo.getNameSpace(), storeInfo.getTableName());
+            if (dtable == null) {
+                throw new StorageNotExistsException(storeInfo);
+            }
+            Dispatcher dispatcher = dispatcherFactory.createDispatcher(dtable.getDispatcher());
+
+            // positions in batch of the keys of each fragment
+            Map<Integer, List<Integer>> fragmentToPositions = Maps.newHashMap();
+            for (int i = 0; i < batch.size(); ++i) {
+                int fragment = dispatcher.getDispatchPolicy().executePolicy(dtable.getTotalFragments(), batch.get(i).getKey());
+                fragmentToPositions.computeIfAbsent(fragment, k -> Lists.newArrayList()).add(i);
+            }
+
+            Kv.Operand[] results = new Kv.Operand[batch.size()];
+            List<ListenableFuture<List<Kv.Operand>>> futures = Lists.newArrayListWithExpectedSize(fragmentToPositions.size());
+            for (Map.Entry<Integer, List<Integer>> entry : fragmentToPositions.entrySet()) {
+                int fragment = entry.getKey();
+                List<Integer> positions = entry.getValue();
+
+                Node node = dispatcher.dispatch(dtable, fragment);
+                StoreInfo storeInfoWithFragment = StoreInfo.copy(storeInfo);
+                storeInfoWithFragment.setFragment(fragment);
+                if (node == null) {
+                    throw new StorageNotExistsException(storeInfoWithFragment);
+                }
+
+                List<Kv.Operand> fragmentKeys = Lists.newArrayListWithCapacity(positions.size());
+                for (int position : positions) {
+                    fragmentKeys.add(batch.get(position));
+                }
+                futures.add(asyncThreadPool.submitListenable(
+                        () -> fragmentKeysCall.call(fragmentKeys, storeInfoWithFragment, node)));
+            }
+
+            List<Throwable> throwables = Lists.newLinkedList();
+            int i = 0;
+            for (List<Integer> positions : fragmentToPositions.values()) {
+                try {
+                    List<Kv.Operand> fragmentResults = futures.get(i++).get();
+                    for (int j = 0; j < positions.size(); ++j) {
+                        results[positions.get(j)] = fragmentResults.get(j);
+                    }
+                } catch (ExecutionException e) {
+                    throwables.add(e.getCause());
+                }
+            }
+            if (!throwables.isEmpty()) {
+                throw new MultipleRuntimeThrowables("[ROLL][KV][" + operation + "] error in fragment calls. storeInfo: " + storeInfo, throwables);
+            }
+
+            return results;
+        }
+    }
+
     private DispatchResult dispatchInternal(StoreInfo storeInfo, ByteString dataKey) {
-        Dtable dtable = storageMetaClient.getTable(storeInfo.getNameSpace(), storeInfo.getTableName());
+        Dtable dtable = tableMetaCache.getTable(storeInfo.getNameSpace(), storeInfo.getTableName());
         if (dtable == null) {
             throw new StorageNotExistsException(storeInfo);
         }
 
         Dispatcher dispatcher = dispatcherFactory.createDispatcher(dtable.getDispatcher());
-        DispatchPolicy dispatchPolicy = dispatchPolicyFactory.createDefaultModDispatchPolicy();
 
-        int fragmentResult = dispatchPolicy.executePolicy(storeInfo, dataKey);
-        Node nodeResult = dispatcher.dispatch(storeInfo, dataKey);
+        int fragmentResult = dispatcher.getDispatchPolicy().executePolicy(dtable.getTotalFragments(), dataKey);
+        Node nodeResult = dispatcher.dispatch(dtable, fragmentResult);
+        if (nodeResult == null) {
+            StoreInfo storeInfoWithFragment = StoreInfo.copy(storeInfo);
+            storeInfoWithFragment.setFragment(fragmentResult);
+            throw new StorageNotExistsException(storeInfoWithFragment);
+        }
 
         return dispatcherFactory.createDispatchResult(nodeResult, storeInfo, fragmentResult);
     }
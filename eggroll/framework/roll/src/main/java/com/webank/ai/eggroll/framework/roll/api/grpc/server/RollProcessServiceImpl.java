@@ -42,6 +42,7 @@ import com.webank.ai.eggroll.framework.roll.api.grpc.client.EggProcessServiceCli
 import com.webank.ai.eggroll.framework.roll.factory.RollGrpcObserverFactory;
 import com.webank.ai.eggroll.framework.roll.factory.RollModelFactory;
 import com.webank.ai.eggroll.framework.roll.helper.NodeHelper;
+import com.webank.ai.eggroll.framework.roll.helper.TableWriteFence;
 import com.webank.ai.eggroll.framework.roll.service.async.processor.*;
 import com.webank.ai.eggroll.framework.roll.service.handler.ProcessServiceResultHandler;
 import com.webank.ai.eggroll.framework.roll.util.RollServerUtils;
@@ -90,6 +91,8 @@ public class RollProcessServiceImpl extends ProcessServiceGrpc.ProcessServiceImp
     private RollServerUtils rollServerUtils;
     @Autowired
     private NodeHelper nodeHelper;
+    @Autowired
+    private TableWriteFence tableWriteFence;
 
     @PostConstruct
     public void init() {
@@ -133,11 +136,16 @@ public class RollProcessServiceImpl extends ProcessServiceGrpc.ProcessServiceImp
     public void reduce(Processor.UnaryProcess request, StreamObserver<Kv.Operand> responseObserver) {
         LOGGER.info("[ROLL][PROCESS][Reduce] request received: {}", toStringUtils.toOneLineString(request));
 
-        grpcServerWrapper.wrapGrpcServerRunnable(responseObserver,
-                new ProcessServiceTemplate<>(request,
-                        responseObserver,
-                        ReduceServiceProcessor.class,
-                        rollModelFactory.createReduceProcessServiceResultHandler()));
+        grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
+            List<String> combineTargets = request.getConf().getCombineAtRoll()
+                    ? Lists.newArrayList(getEggTargetToNodes().keySet())
+                    : Collections.emptyList();
+
+            new ProcessServiceTemplate<>(request,
+                    responseObserver,
+                    ReduceServiceProcessor.class,
+                    rollModelFactory.createReduceProcessServiceResultHandler(request, nodeHelper, combineTargets)).run();
+        });
     }
 
     @Override
@@ -280,6 +288,22 @@ public class RollProcessServiceImpl extends ProcessServiceGrpc.ProcessServiceImp
 
         @Override
         public void run() throws Throwable {
+            // operand tables are fenced as writes are, so a rebalance does not move entries under a running task
+            List<StoreInfo> enteredStoreInfos = Lists.newArrayList();
+            try {
+                for (StoreInfo operandStoreInfo : getOperandStoreInfos(request)) {
+                    tableWriteFence.enter(operandStoreInfo);
+                    enteredStoreInfos.add(operandStoreInfo);
+                }
+                process();
+            } finally {
+                for (StoreInfo operandStoreInfo : enteredStoreInfos) {
+                    tableWriteFence.exit(operandStoreInfo);
+                }
+            }
+        }
+
+        private void process() throws Throwable {
             StorageBasic.StorageLocator requestStorageLocator = getStorageLocatorFromRequest(request);
             LOGGER.info("[ROLL][PROCESS][ProcessServiceTemplate] requestStorageLocator: {}",
                     toStringUtils.toOneLineString(requestStorageLocator));
@@ -328,7 +352,7 @@ public class RollProcessServiceImpl extends ProcessServiceGrpc.ProcessServiceImp
 
                 Node selectedEggNode = eggPossibleNodes.get(i);*/
 
-                // todo: scheduler: should become a module later
+                // the egg's LocalScheduler picks its least loaded processor; the lease is released once the task is done
                 BasicMeta.Endpoint selectedEggProcessor = nodeHelper.getProcessorEndpoint(target);
 
                 // fill the fragment into the parameter
@@ -340,6 +364,7 @@ public class RollProcessServiceImpl extends ProcessServiceGrpc.ProcessServiceImp
                         processServiceProcessorClass, eggProcessServiceClient, dispatchRequest, selectedEggProcessor);
 
                 ListenableFuture<I> resultFuture = asyncThreadPool.submitListenable(processor);
+                resultFuture.addCallback(rollModelFactory.createEggProcessorReleaseCallback(nodeHelper, target, selectedEggProcessor));
                 resultFuture.addCallback(rollModelFactory
                         .createDefaultRollProcessListenableCallback(
                                 results, subTaskThrowables, finishLatch, selectedEggProcessor.getIp(), selectedEggProcessor.getPort()));
@@ -386,6 +411,20 @@ public class RollProcessServiceImpl extends ProcessServiceGrpc.ProcessServiceImp
             return result;
         }
 
+        private List<StoreInfo> getOperandStoreInfos(R request) {
+            List<StoreInfo> result = Lists.newArrayList();
+
+            if (request instanceof Processor.UnaryProcess) {
+                result.add(StoreInfo.fromStorageLocator(((Processor.UnaryProcess) request).getOperand()));
+            } else if (request instanceof Processor.BinaryProcess) {
+                Processor.BinaryProcess typedRequest = (Processor.BinaryProcess) request;
+                result.add(StoreInfo.fromStorageLocator(typedRequest.getLeft()));
+                result.add(StoreInfo.fromStorageLocator(typedRequest.getRight()));
+            }
+
+            return result;
+        }
+
         private R buildDispatchRequest(R request, Fragment fragment) {
             R result = null;
             if (request instanceof Processor.UnaryProcess) {
@@ -16,8 +16,10 @@
 
 package com.webank.ai.eggroll.framework.roll.factory;
 
+import com.webank.ai.eggroll.core.model.Dispatchers;
 import com.webank.ai.eggroll.framework.roll.strategy.DispatchPolicy;
 import com.webank.ai.eggroll.framework.roll.strategy.impl.DefaultModDispatchPolicy;
+import com.webank.ai.eggroll.framework.roll.strategy.impl.JumpConsistentHashDispatchPolicy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
@@ -30,4 +32,16 @@ public class DispatchPolicyFactory {
     public DispatchPolicy createDefaultModDispatchPolicy() {
         return applicationContext.getBean(DefaultModDispatchPolicy.class);
     }
+
+    public DispatchPolicy createJumpConsistentHashDispatchPolicy() {
+        return applicationContext.getBean(JumpConsistentHashDispatchPolicy.class);
+    }
+
+    public DispatchPolicy createDispatchPolicy(String dispatcherName) {
+        if (Dispatchers.JUMP.name().equals(dispatcherName)) {
+            return createJumpConsistentHashDispatchPolicy();
+        }
+
+        return createDefaultModDispatchPolicy();
+    }
 }
@@ -17,33 +17,26 @@
 package com.webank.ai.eggroll.framework.roll.factory;
 
 import com.webank.ai.eggroll.core.io.StoreInfo;
-import com.webank.ai.eggroll.core.model.Dispatchers;
 import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node;
 import com.webank.ai.eggroll.framework.roll.service.model.DispatchResult;
 import com.webank.ai.eggroll.framework.roll.strategy.DispatchPolicy;
 import com.webank.ai.eggroll.framework.roll.strategy.Dispatcher;
 import com.webank.ai.eggroll.framework.roll.strategy.impl.DefaultDispatcher;
-import com.webank.ai.eggroll.framework.roll.strategy.impl.DefaultModDispatchPolicy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
 @Component
 public class DispatcherFactory {
-    private static final String DEFAULT = "DEFAULT";
     @Autowired
     private ApplicationContext applicationContext;
+    @Autowired
+    private DispatchPolicyFactory dispatchPolicyFactory;
 
     public Dispatcher createDispatcher(String dispatcherName) {
-        Dispatcher result = null;
-        DispatchPolicy dispatchPolicy = null;
-
-        if (Dispatchers.MOD.name().equals(dispatcherName) || DEFAULT.equals(dispatcherName)) {
-            dispatchPolicy = applicationContext.getBean(DefaultModDispatchPolicy.class);
-        }
-        result = applicationContext.getBean(DefaultDispatcher.class, dispatchPolicy);
+        DispatchPolicy dispatchPolicy = dispatchPolicyFactory.createDispatchPolicy(dispatcherName);
 
-        return result;
+        return applicationContext.getBean(DefaultDispatcher.class, dispatchPolicy);
     }
 
     public DispatchResult createDispatchResult(Node node, StoreInfo storeInfo) {
@@ -17,6 +17,7 @@
 package com.webank.ai.eggroll.framework.roll.factory;
 
 import com.webank.ai.eggroll.api.core.BasicMeta;
+import com.webank.ai.eggroll.api.framework.egg.NodeManager;
 import com.webank.ai.eggroll.api.framework.egg.NodeServiceGrpc;
 import com.webank.ai.eggroll.core.api.grpc.client.GrpcAsyncClientContext;
 import com.webank.ai.eggroll.core.api.grpc.client.GrpcStreamingClientTemplate;
@@ -45,6 +46,22 @@ public class EggNodeServiceCallModelTemplateFactory {
         return (GrpcStreamingClientTemplate<NodeServiceGrpc.NodeServiceStub, BasicMeta.Endpoint, BasicMeta.Endpoint>)
                 applicationContext.getBean(GrpcStreamingClientTemplate.class);
     }
+
+    public GrpcAsyncClientContext<NodeServiceGrpc.NodeServiceStub, BasicMeta.Endpoint, NodeManager.SchedulerStatus>
+    createEndpointToSchedulerStatusContext() {
+        GrpcAsyncClientContext<NodeServiceGrpc.NodeServiceStub, BasicMeta.Endpoint, NodeManager.SchedulerStatus> result =
+                (GrpcAsyncClientContext<NodeServiceGrpc.NodeServiceStub, BasicMeta.Endpoint, NodeManager.SchedulerStatus>)
+                        applicationContext.getBean(GrpcAsyncClientContext.class);
+        result.setStubClass(NodeServiceGrpc.NodeServiceStub.class);
+
+        return result;
+    }
+
+    public GrpcStreamingClientTemplate<NodeServiceGrpc.NodeServiceStub, BasicMeta.Endpoint, NodeManager.SchedulerStatus>
+    createEndpointToSchedulerStatusTemplate() {
+        return (GrpcStreamingClientTemplate<NodeServiceGrpc.NodeServiceStub, BasicMeta.Endpoint, NodeManager.SchedulerStatus>)
+                applicationContext.getBean(GrpcStreamingClientTemplate.class);
+    }
 }
 
 
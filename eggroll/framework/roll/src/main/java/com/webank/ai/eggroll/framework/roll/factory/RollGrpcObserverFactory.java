@@ -38,8 +38,9 @@ public class RollGrpcObserverFactory {
 
     public RollKvPutAllServerRequestStreamObserver createRollKvPutAllServerRequestStreamObserver(final StreamObserver<Kv.Empty> clientResponseObserver,
                                                                                                  final StoreInfo storeInfo,
-                                                                                                 final AtomicBoolean wasReady) {
-        return applicationContext.getBean(RollKvPutAllServerRequestStreamObserver.class, clientResponseObserver, storeInfo, wasReady);
+                                                                                                 final AtomicBoolean wasReady,
+                                                                                                 final boolean sortedKeys) {
+        return applicationContext.getBean(RollKvPutAllServerRequestStreamObserver.class, clientResponseObserver, storeInfo, wasReady, sortedKeys);
     }
 
     public StorageKvPutAllServerRequestStreamObserver createStoragePutAllRequestStreamObserver(final StreamObserver<Kv.Empty> clientResponseObserver,
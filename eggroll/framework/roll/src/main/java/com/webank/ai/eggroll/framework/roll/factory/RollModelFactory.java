@@ -16,18 +16,22 @@
 
 package com.webank.ai.eggroll.framework.roll.factory;
 
+import com.webank.ai.eggroll.api.computing.processor.Processor;
 import com.webank.ai.eggroll.api.core.BasicMeta;
 import com.webank.ai.eggroll.api.storage.Kv;
 import com.webank.ai.eggroll.core.io.StoreInfo;
 import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node;
 import com.webank.ai.eggroll.framework.roll.api.grpc.client.EggProcessServiceClient;
+import com.webank.ai.eggroll.framework.roll.helper.NodeHelper;
 import com.webank.ai.eggroll.framework.roll.service.async.callback.CountProcessListenableFutureCallback;
 import com.webank.ai.eggroll.framework.roll.service.async.callback.DefaultRollProcessListenableFutureCallback;
+import com.webank.ai.eggroll.framework.roll.service.async.callback.EggProcessorReleaseListenableFutureCallback;
 import com.webank.ai.eggroll.framework.roll.service.async.callback.PutAllProcessorListenableFutureCallback;
 import com.webank.ai.eggroll.framework.roll.service.async.processor.BaseProcessServiceProcessor;
 import com.webank.ai.eggroll.framework.roll.service.async.storage.CountProcessor;
 import com.webank.ai.eggroll.framework.roll.service.async.storage.IterateProcessor;
 import com.webank.ai.eggroll.framework.roll.service.async.storage.PutAllProcessor;
+import com.webank.ai.eggroll.framework.roll.service.async.storage.RebalanceProcessor;
 import com.webank.ai.eggroll.framework.roll.service.handler.impl.ProcessServiceStorageLocatorResultHandler;
 import com.webank.ai.eggroll.framework.roll.service.handler.impl.ReduceProcessServiceResultHandler;
 import com.webank.ai.eggroll.framework.roll.service.model.OperandBroker;
@@ -65,8 +69,8 @@ public class RollModelFactory {
         return applicationContext.getBean(OperandBrokerUnSortedHub.class);
     }
 
-    public PutAllProcessor createPutAllProcessor(OperandBroker operandBroker, StoreInfo storeInfo, Node node) {
-        return applicationContext.getBean(PutAllProcessor.class, operandBroker, storeInfo, node);
+    public PutAllProcessor createPutAllProcessor(OperandBroker operandBroker, StoreInfo storeInfo, Node node, boolean sortedKeys) {
+        return applicationContext.getBean(PutAllProcessor.class, operandBroker, storeInfo, node, sortedKeys);
     }
 
     public IterateProcessor createIterateProcessor(Kv.Range range, StoreInfo storeInfo, final OperandBroker operandBroker) {
@@ -77,6 +81,10 @@ public class RollModelFactory {
         return applicationContext.getBean(CountProcessor.class, request, storeInfo, node);
     }
 
+    public RebalanceProcessor createRebalanceProcessor(Kv.RebalanceInfo request, StoreInfo storeInfo) {
+        return applicationContext.getBean(RebalanceProcessor.class, request, storeInfo);
+    }
+
     public <R, E> BaseProcessServiceProcessor<R, E> createBaseProcessServiceProcessor(Class<? extends BaseProcessServiceProcessor<R, E>> concreteProcessServiceProcessorClass,
                                                                                       EggProcessServiceClient eggProcessServiceClient,
                                                                                       R requestInstance,
@@ -88,8 +96,17 @@ public class RollModelFactory {
         return applicationContext.getBean(ProcessServiceStorageLocatorResultHandler.class);
     }
 
-    public ReduceProcessServiceResultHandler createReduceProcessServiceResultHandler() {
-        return applicationContext.getBean(ReduceProcessServiceResultHandler.class);
+    public ReduceProcessServiceResultHandler createReduceProcessServiceResultHandler(Processor.UnaryProcess request,
+                                                                                    NodeHelper nodeHelper,
+                                                                                    List<String> combineTargets) {
+        return applicationContext.getBean(ReduceProcessServiceResultHandler.class, request, nodeHelper, combineTargets);
+    }
+
+    public <T> EggProcessorReleaseListenableFutureCallback<T> createEggProcessorReleaseCallback(NodeHelper nodeHelper,
+                                                                                                String target,
+                                                                                                BasicMeta.Endpoint processor) {
+        return (EggProcessorReleaseListenableFutureCallback<T>) applicationContext.getBean(
+                EggProcessorReleaseListenableFutureCallback.class, nodeHelper, target, processor);
     }
 
     public <T> DefaultRollProcessListenableFutureCallback<T> createDefaultRollProcessListenableCallback(final List<T> resultContainer,
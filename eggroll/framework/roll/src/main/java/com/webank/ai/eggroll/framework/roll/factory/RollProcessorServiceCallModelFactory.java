@@ -38,11 +38,15 @@ public class RollProcessorServiceCallModelFactory {
     @Autowired
     private GrpcAsyncClientContext<ProcessServiceGrpc.ProcessServiceStub, Processor.UnaryProcess, Kv.Operand> nonSpringUnaryProcessToOperandContext;
     @Autowired
+    private GrpcAsyncClientContext<ProcessServiceGrpc.ProcessServiceStub, Processor.CombineProcess, Kv.Operand> nonSpringCombineProcessToOperandContext;
+    @Autowired
     private GrpcStreamingClientTemplate<ProcessServiceGrpc.ProcessServiceStub, Processor.UnaryProcess, StorageBasic.StorageLocator> nonSpringUnaryProcessToDTableTemplate;
     @Autowired
     private GrpcStreamingClientTemplate<ProcessServiceGrpc.ProcessServiceStub, Processor.BinaryProcess, StorageBasic.StorageLocator> nonSpringBinaryProcessToDTableTemplate;
     @Autowired
     private GrpcStreamingClientTemplate<ProcessServiceGrpc.ProcessServiceStub, Processor.UnaryProcess, Kv.Operand> nonSpringUnaryProcessToOperandTemplate;
+    @Autowired
+    private GrpcStreamingClientTemplate<ProcessServiceGrpc.ProcessServiceStub, Processor.CombineProcess, Kv.Operand> nonSpringCombineProcessToOperandTemplate;
 
     public GrpcAsyncClientContext<ProcessServiceGrpc.ProcessServiceStub, Processor.UnaryProcess, StorageBasic.StorageLocator>
     createUnaryProcessToStorageLocatorContext() {
@@ -68,6 +72,14 @@ public class RollProcessorServiceCallModelFactory {
         return result;
     }
 
+    public GrpcAsyncClientContext<ProcessServiceGrpc.ProcessServiceStub, Processor.CombineProcess, Kv.Operand>
+    createCombineProcessToOperandContext() {
+        GrpcAsyncClientContext<ProcessServiceGrpc.ProcessServiceStub, Processor.CombineProcess, Kv.Operand> result
+                = applicationContext.getBean(nonSpringCombineProcessToOperandContext.getClass());
+        result.setStubClass(ProcessServiceGrpc.ProcessServiceStub.class);
+        return result;
+    }
+
     public GrpcStreamingClientTemplate<ProcessServiceGrpc.ProcessServiceStub, Processor.UnaryProcess, StorageBasic.StorageLocator>
     createUnaryProcessToStorageLocatorTemplate() {
         GrpcStreamingClientTemplate<ProcessServiceGrpc.ProcessServiceStub, Processor.UnaryProcess, StorageBasic.StorageLocator> result
@@ -88,4 +100,11 @@ public class RollProcessorServiceCallModelFactory {
                 = applicationContext.getBean(nonSpringUnaryProcessToOperandTemplate.getClass());
         return result;
     }
+
+    public GrpcStreamingClientTemplate<ProcessServiceGrpc.ProcessServiceStub, Processor.CombineProcess, Kv.Operand>
+    createCombineProcessToOperandTemplate() {
+        GrpcStreamingClientTemplate<ProcessServiceGrpc.ProcessServiceStub, Processor.CombineProcess, Kv.Operand> result
+                = applicationContext.getBean(nonSpringCombineProcessToOperandTemplate.getClass());
+        return result;
+    }
 }
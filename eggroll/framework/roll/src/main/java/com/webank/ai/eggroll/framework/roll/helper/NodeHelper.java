@@ -21,6 +21,7 @@ import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Maps;
 import com.webank.ai.eggroll.api.core.BasicMeta;
+import com.webank.ai.eggroll.api.framework.egg.NodeManager;
 import com.webank.ai.eggroll.core.api.grpc.client.crud.StorageMetaClient;
 import com.webank.ai.eggroll.core.utils.TypeConversionUtils;
 import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment;
@@ -103,6 +104,17 @@ public class NodeHelper {
         return fragmentsCache.getUnchecked(tableId);
     }
 
+    public void invalidateTable(long tableId) {
+        nodeIdToStorageNodeCache.invalidate(tableId);
+        fragmentsCache.invalidate(tableId);
+    }
+
+    public void invalidateAll() {
+        nodeIdToStorageNodeCache.invalidateAll();
+        fragmentsCache.invalidateAll();
+        ipToNodeManager.invalidateAll();
+    }
+
     public Map<Integer, Node> getFragmentOrderToStorageNodesOfTable(long tableId) {
         Map<Integer, Node> result = Maps.newConcurrentMap();
         Map<Long, Node> nodeIdToNode = getNodeIdToStorageNodesOfTable(tableId);
@@ -130,4 +142,24 @@ public class NodeHelper {
 
         return eggNodeManagerClient.getProcessor(typeConversionUtils.toEndpoint(nodeManager));
     }
+
+    public void releaseProcessorEndpoint(String ip, BasicMeta.Endpoint processor) {
+        Node nodeManager = getNodeManager(ip);
+
+        if (nodeManager == null) {
+            return;
+        }
+
+        eggNodeManagerClient.releaseProcessor(typeConversionUtils.toEndpoint(nodeManager), processor);
+    }
+
+    public NodeManager.SchedulerStatus getSchedulerStatus(String ip) {
+        Node nodeManager = getNodeManager(ip);
+
+        if (nodeManager == null) {
+            return null;
+        }
+
+        return eggNodeManagerClient.getSchedulerStatus(typeConversionUtils.toEndpoint(nodeManager));
+    }
 }
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.framework.roll.helper;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import com.webank.ai.eggroll.api.framework.meta.service.MetaService;
+import com.webank.ai.eggroll.core.api.grpc.client.crud.StorageMetaClient;
+import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable;
+import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment;
+import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node;
+import com.webank.ai.eggroll.framework.roll.util.RollServerUtils;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Roll-wide cache of table, fragment and storage node metadata used on the kv dispatch path.
+ *
+ * Entries are bounded in count and age. An entry is only replaced by a version that is not older
+ * (by {@link Dtable#getUpdatedAt()}), and loads that race with an invalidation are not cached, so a
+ * destroyed table cannot be resurrected by an in-flight lookup.
+ *
+ * Changes made by other rolls are picked up from the meta-service watch stream. While the stream is
+ * down entries still age out, and the RESET sent on reconnect drops everything cached meanwhile.
+ * Rewatching backs off up to {@link #MAX_REWATCH_INTERVAL_MILLIS}, and stops for a meta-service
+ * without watch, which leaves expiry as the only way other rolls' changes are seen.
+ */
+@Component
+public class TableMetaCache {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final long MAX_TABLES = 10000;
+    private static final long EXPIRE_MINUTES = 5;
+    private static final long REWATCH_INTERVAL_MILLIS = 5000;
+    private static final long MAX_REWATCH_INTERVAL_MILLIS = 300000;
+
+    @Autowired
+    private StorageMetaClient storageMetaClient;
+    @Autowired
+    private RollServerUtils rollServerUtils;
+    @Autowired
+    private NodeHelper nodeHelper;
+    @Autowired
+    private ThreadPoolTaskScheduler routineScheduler;
+
+    private Cache<Pair<String, String>, Dtable> tableCache;
+    private Cache<Long, Map<Integer, Node>> fragmentOrderToNodeCache;
+    private final AtomicLong invalidationCount = new AtomicLong(0);
+    private volatile long rewatchIntervalMillis = REWATCH_INTERVAL_MILLIS;
+
+    @PostConstruct
+    public void init() {
+        storageMetaClient.init(rollServerUtils.getMetaServiceEndpoint());
+
+        tableCache = CacheBuilder.newBuilder()
+                .maximumSize(MAX_TABLES)
+                .expireAfterWrite(EXPIRE_MINUTES, TimeUnit.MINUTES)
+                .recordStats()
+                .build();
+
+        fragmentOrderToNodeCache = CacheBuilder.newBuilder()
+                .maximumSize(MAX_TABLES)
+                .expireAfterWrite(EXPIRE_MINUTES, TimeUnit.MINUTES)
+                .recordStats()
+                .build();
+
+        watch();
+    }
+
+    /**
+     * @return the table, or null if meta-service does not know it
+     */
+    public Dtable getTable(String namespace, String tableName) {
+        Pair<String, String> key = ImmutablePair.of(namespace, tableName);
+        Dtable result = tableCache.getIfPresent(key);
+        if (result != null) {
+            return result;
+        }
+
+        long observedInvalidations = invalidationCount.get();
+        result = storageMetaClient.getTable(namespace, tableName);
+        if (result != null && observedInvalidations == invalidationCount.get()) {
+            onTableUpdated(result);
+            // an invalidation between the check and the update may have run before the entry was cached
+            if (observedInvalidations != invalidationCount.get()) {
+                tableCache.asMap().remove(key, result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the storage node holding {@code fragmentOrder} of the table, or null if there is no such fragment
+     */
+    public Node getStorageNode(long tableId, int fragmentOrder) {
+        Map<Integer, Node> fragmentOrderToNode = fragmentOrderToNodeCache.getIfPresent(tableId);
+        if (fragmentOrderToNode == null) {
+            long observedInvalidations = invalidationCount.get();
+            fragmentOrderToNode = loadFragmentOrderToNode(tableId);
+            if (observedInvalidations == invalidationCount.get()) {
+                fragmentOrderToNodeCache.put(tableId, fragmentOrderToNode);
+                if (observedInvalidations != invalidationCount.get()) {
+                    fragmentOrderToNodeCache.asMap().remove(tableId, fragmentOrderToNode);
+                }
+            }
+        }
+
+        return fragmentOrderToNode.get(fragmentOrder);
+    }
+
+    /**
+     * Applies a table update, keeping whichever of the cached and the given version is newer.
+     */
+    public void onTableUpdated(Dtable dtable) {
+        Pair<String, String> key = ImmutablePair.of(dtable.getNamespace(), dtable.getTableName());
+        tableCache.asMap().merge(key, dtable, (cached, updated) -> isNewer(cached, updated) ? cached : updated);
+    }
+
+    public void invalidate(Dtable dtable) {
+        invalidationCount.incrementAndGet();
+        tableCache.invalidate(ImmutablePair.of(dtable.getNamespace(), dtable.getTableName()));
+        if (dtable.getTableId() != null) {
+            fragmentOrderToNodeCache.invalidate(dtable.getTableId());
+        }
+        LOGGER.debug("[ROLL][TABLEMETACACHE] invalidated: {}, {}", dtable.getNamespace(), dtable.getTableName());
+    }
+
+    public void invalidateAll() {
+        invalidationCount.incrementAndGet();
+        tableCache.invalidateAll();
+        fragmentOrderToNodeCache.invalidateAll();
+        nodeHelper.invalidateAll();
+    }
+
+    private void watch() {
+        storageMetaClient.watch(new StreamObserver<MetaService.MetaChange>() {
+            @Override
+            public void onNext(MetaService.MetaChange metaChange) {
+                rewatchIntervalMillis = REWATCH_INTERVAL_MILLIS;
+                onMetaChange(metaChange);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                if (Status.fromThrowable(throwable).getCode() == Status.Code.UNIMPLEMENTED) {
+                    LOGGER.warn("[ROLL][TABLEMETACACHE] meta-service does not support watch, "
+                            + "changes by other rolls are seen once cached entries expire");
+                    return;
+                }
+                LOGGER.warn("[ROLL][TABLEMETACACHE] meta watch failed, rewatching in {} ms: {}",
+                        rewatchIntervalMillis, throwable.getMessage());
+                rewatch();
+            }
+
+            @Override
+            public void onCompleted() {
+                LOGGER.info("[ROLL][TABLEMETACACHE] meta watch completed, rewatching");
+                rewatch();
+            }
+        });
+    }
+
+    private void rewatch() {
+        long interval = rewatchIntervalMillis;
+        rewatchIntervalMillis = Math.min(interval * 2, MAX_REWATCH_INTERVAL_MILLIS);
+        routineScheduler.schedule(this::watch, new Date(System.currentTimeMillis() + interval));
+    }
+
+    private void onMetaChange(MetaService.MetaChange metaChange) {
+        long tableId = metaChange.getTableId();
+        switch (metaChange.getType()) {
+            case TABLE:
+                invalidationCount.incrementAndGet();
+                if (StringUtils.isNoneEmpty(metaChange.getNamespace(), metaChange.getTableName())) {
+                    tableCache.invalidate(ImmutablePair.of(metaChange.getNamespace(), metaChange.getTableName()));
+                }
+                tableCache.asMap().values().removeIf(dtable -> dtable.getTableId() != null && dtable.getTableId() == tableId);
+                fragmentOrderToNodeCache.invalidate(tableId);
+                nodeHelper.invalidateTable(tableId);
+                break;
+            case FRAGMENT:
+                invalidationCount.incrementAndGet();
+                fragmentOrderToNodeCache.invalidate(tableId);
+                nodeHelper.invalidateTable(tableId);
+                break;
+            case NODE:
+                invalidationCount.incrementAndGet();
+                fragmentOrderToNodeCache.invalidateAll();
+                nodeHelper.invalidateAll();
+                break;
+            default:
+                invalidateAll();
+                break;
+        }
+        LOGGER.debug("[ROLL][TABLEMETACACHE] meta change: {}, version: {}", metaChange.getType(), metaChange.getVersion());
+    }
+
+    private Map<Integer, Node> loadFragmentOrderToNode(long tableId) {
+        List<Fragment> fragments = storageMetaClient.getFragmentsByTableId(tableId);
+        if (fragments == null || fragments.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<Long, Node> nodeIdToNode = Maps.newHashMap();
+        for (Node node : storageMetaClient.getStorageNodesByTableId(tableId)) {
+            nodeIdToNode.put(node.getNodeId(), node);
+        }
+
+        // todo: consider master / backup scenario
+        Map<Integer, Node> result = Maps.newHashMapWithExpectedSize(fragments.size());
+        for (Fragment fragment : fragments) {
+            Node node = nodeIdToNode.get(fragment.getNodeId());
+            if (node != null) {
+                result.put(fragment.getFragmentOrder(), node);
+            }
+        }
+
+        return result;
+    }
+
+    private boolean isNewer(Dtable a, Dtable b) {
+        if (a.getUpdatedAt() == null || b.getUpdatedAt() == null) {
+            return false;
+        }
+        return a.getUpdatedAt().after(b.getUpdatedAt());
+    }
+}
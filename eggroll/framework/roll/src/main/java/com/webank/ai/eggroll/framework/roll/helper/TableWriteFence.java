@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.framework.roll.helper;
+
+import com.webank.ai.eggroll.core.io.StoreInfo;
+import com.webank.ai.eggroll.core.model.DtableStatus;
+import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps writes off a table while it is rebalanced.
+ *
+ * Writers bracket each write with {@link #enter(StoreInfo)} / {@link #exit(StoreInfo)} and are rejected at once
+ * while the table is fenced by this roll, or while meta-service has it {@link DtableStatus#REBALANCING}, which
+ * is how a rebalance run by another roll is seen. Long writes call {@link #check(StoreInfo)} as they go.
+ * {@link #fence(StoreInfo, long, TimeUnit)} waits for writes in flight through this roll to finish before the
+ * rebalance starts copying.
+ */
+@Component
+public class TableWriteFence {
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    @Autowired
+    private TableMetaCache tableMetaCache;
+
+    private final ConcurrentMap<Pair<String, String>, TableWrites> tableWrites = new ConcurrentHashMap<>();
+
+    public void enter(StoreInfo storeInfo) {
+        checkStatus(storeInfo);
+        tableWrites.compute(keyOf(storeInfo), (key, writes) -> {
+            if (writes == null) {
+                writes = new TableWrites();
+            } else if (writes.fenced) {
+                throw new IllegalStateException("table is being rebalanced, writes are rejected: " + storeInfo);
+            }
+            ++writes.writers;
+            return writes;
+        });
+    }
+
+    /**
+     * Throws if writes to the table are rejected now, for writers that entered before a rebalance started.
+     */
+    public void check(StoreInfo storeInfo) {
+        TableWrites writes = tableWrites.get(keyOf(storeInfo));
+        if (writes != null && writes.fenced) {
+            throw new IllegalStateException("table is being rebalanced, writes are rejected: " + storeInfo);
+        }
+        checkStatus(storeInfo);
+    }
+
+    public void exit(StoreInfo storeInfo) {
+        tableWrites.computeIfPresent(keyOf(storeInfo), (key, writes) -> {
+            --writes.writers;
+            return writes.writers <= 0 && !writes.fenced ? null : writes;
+        });
+    }
+
+    /**
+     * Rejects new writes to the table and waits for those in flight. Fails if the table is already fenced, or if
+     * writes are still in flight after {@code timeout}, in which case the table is unfenced again.
+     */
+    public void fence(StoreInfo storeInfo, long timeout, TimeUnit unit) throws InterruptedException {
+        Pair<String, String> key = keyOf(storeInfo);
+        TableWrites fenced = tableWrites.compute(key, (k, writes) -> {
+            if (writes == null) {
+                writes = new TableWrites();
+            } else if (writes.fenced) {
+                throw new IllegalStateException("table is being rebalanced: " + storeInfo);
+            }
+            writes.fenced = true;
+            return writes;
+        });
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (fenced.writers > 0) {
+            if (System.nanoTime() - deadline > 0) {
+                unfence(storeInfo);
+                throw new IllegalStateException("timed out waiting for writes in flight to table: " + storeInfo);
+            }
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+    }
+
+    public void unfence(StoreInfo storeInfo) {
+        tableWrites.computeIfPresent(keyOf(storeInfo), (key, writes) -> {
+            writes.fenced = false;
+            return writes.writers <= 0 ? null : writes;
+        });
+    }
+
+    private void checkStatus(StoreInfo storeInfo) {
+        Dtable dtable = tableMetaCache.getTable(storeInfo.getNameSpace(), storeInfo.getTableName());
+        if (dtable != null && DtableStatus.REBALANCING.name().equals(dtable.getStatus())) {
+            throw new IllegalStateException("table is being rebalanced, writes are rejected: " + storeInfo);
+        }
+    }
+
+    private static Pair<String, String> keyOf(StoreInfo storeInfo) {
+        return new ImmutablePair<>(storeInfo.getNameSpace(), storeInfo.getTableName());
+    }
+
+    private static class TableWrites {
+        // only changed inside compute, read outside it while fencing
+        volatile int writers;
+        volatile boolean fenced;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webank.ai.eggroll.framework.roll.service.async.callback;
+
+import com.webank.ai.eggroll.api.core.BasicMeta;
+import com.webank.ai.eggroll.core.utils.ErrorUtils;
+import com.webank.ai.eggroll.core.utils.ToStringUtils;
+import com.webank.ai.eggroll.framework.roll.helper.NodeHelper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+
+/**
+ * Hands the processor back to the egg scheduler once its task is done, whatever the outcome.
+ */
+@Component
+@Scope("prototype")
+public class EggProcessorReleaseListenableFutureCallback<T> implements ListenableFutureCallback<T> {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private final NodeHelper nodeHelper;
+    private final String target;
+    private final BasicMeta.Endpoint processor;
+
+    @Autowired
+    private ErrorUtils errorUtils;
+    @Autowired
+    private ToStringUtils toStringUtils;
+
+    public EggProcessorReleaseListenableFutureCallback(NodeHelper nodeHelper, String target, BasicMeta.Endpoint processor) {
+        this.nodeHelper = nodeHelper;
+        this.target = target;
+        this.processor = processor;
+    }
+
+    @Override
+    public void onFailure(Throwable ex) {
+        release();
+    }
+
+    @Override
+    public void onSuccess(T result) {
+        release();
+    }
+
+    private void release() {
+        try {
+            nodeHelper.releaseProcessorEndpoint(target, processor);
+        } catch (Exception e) {
+            // egg expires leases which are never released
+            LOGGER.warn("[ROLL][PROCESS][RELEASE] failed to release processor {}: {}",
+                    toStringUtils.toOneLineString(processor), errorUtils.getStackTrace(e));
+        }
+    }
+}
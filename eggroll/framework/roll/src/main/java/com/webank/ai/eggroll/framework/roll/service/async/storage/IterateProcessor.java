@@ -19,6 +19,7 @@ package com.webank.ai.eggroll.framework.roll.service.async.storage;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.protobuf.ByteString;
 import com.webank.ai.eggroll.api.storage.Kv;
 import com.webank.ai.eggroll.core.api.grpc.client.crud.StorageMetaClient;
 import com.webank.ai.eggroll.core.io.StoreInfo;
@@ -40,7 +41,6 @@ import javax.annotation.PostConstruct;
 import javax.annotation.concurrent.GuardedBy;
 import java.util.*;
 import java.util.concurrent.Callable;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
@@ -48,6 +48,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class IterateProcessor implements Callable<OperandBroker> {
     private static final long DEFAULT_MIN_CHUNK_SIZE = 4 << 20;
     private static final long DEFAULT_MAX_CHUNK_SIZE = 64 << 20;
+    private static final long WAIT_LOG_INTERVAL_MS = 10_000;
     private static final Logger LOGGER = LogManager.getLogger();
 
     private final OperandBroker result;
@@ -66,6 +67,7 @@ public class IterateProcessor implements Callable<OperandBroker> {
     private final Object eggBrokersLock;
     private final Object isEggFinishedLock;
     private final Object eggRangesLock;
+    private final Object dataArrivalLock;
 
     private int[] loserTree;
     private @GuardedBy("eggBrokersLock") ArrayList<OperandBroker> eggBrokers;
@@ -73,6 +75,8 @@ public class IterateProcessor implements Callable<OperandBroker> {
     private @GuardedBy("eggRangesLock") ArrayList<Kv.Range> eggRanges;
     private AtomicInteger eggFinishedCount;
     private List<Fragment> fragments;
+    private Map<Integer, Fragment> fragmentOrderToFragment;
+    private ByteString[] lastKeys;
     private Map<Long, Node> nodeIdToNodes;
     private ArrayList<StoreInfo> storeInfosWithFragments;
     private int totalFragments;
@@ -89,13 +93,14 @@ public class IterateProcessor implements Callable<OperandBroker> {
 
         this.curChunkSize = 0;
         minChunkSize = range.getMinChunkSize();
-        if (minChunkSize < 0) {
+        if (minChunkSize < 0 || range.getStreaming()) {
            minChunkSize = Long.MAX_VALUE;
         }
 
         this.eggBrokersLock = new Object();
         this.isEggFinishedLock = new Object();
         this.eggRangesLock = new Object();
+        this.dataArrivalLock = new Object();
     }
 
     @PostConstruct
@@ -114,6 +119,12 @@ public class IterateProcessor implements Callable<OperandBroker> {
         fragments = nodeHelper.getFragmentListOfTable(tableId);
         totalFragments = fragments.size();
 
+        fragmentOrderToFragment = Maps.newHashMapWithExpectedSize(totalFragments);
+        for (Fragment fragment : fragments) {
+            fragmentOrderToFragment.put(fragment.getFragmentOrder(), fragment);
+        }
+        lastKeys = new ByteString[totalFragments];
+
         if (minChunkSize == 0) {
             minChunkSize = Math.max(totalFragments * ((1 << 20) + (768 << 10)), DEFAULT_MIN_CHUNK_SIZE);
             minChunkSize = Math.min(minChunkSize, DEFAULT_MAX_CHUNK_SIZE);
@@ -150,11 +161,18 @@ public class IterateProcessor implements Callable<OperandBroker> {
                 eggBrokers.add(null);
             }
 
+            // fragment streams have no backpressure into the merge, so storage is still asked in chunks
             synchronized (eggRangesLock) {
-                eggRanges.add(range);
+                eggRanges.add(range.toBuilder().setStreaming(false).build());
             }
+        }
 
-            refillBroker(i);
+        // all fragments stream concurrently; the merge starts once each has either data or finished
+        for (int i = 0; i < totalFragments; ++i) {
+            startRefill(i);
+        }
+        for (int i = 0; i < totalFragments; ++i) {
+            awaitRefill(i);
         }
 
         if (eggFinishedCount.get() >= totalFragments) {
@@ -174,14 +192,17 @@ public class IterateProcessor implements Callable<OperandBroker> {
         OperandBroker curSortedBroker = null;
         Kv.Operand curSortedOperand = null;
 
-        while (curChunkSize < minChunkSize && eggFinishedCount.get() < totalFragments) {
+        // the result broker is finished early when the caller cancels
+        while (curChunkSize < minChunkSize && eggFinishedCount.get() < totalFragments && !result.isFinished()) {
             curSortedIndex = loserTree[0];
             synchronized (eggBrokersLock) {
                 curSortedBroker = eggBrokers.get(curSortedIndex);
             }
+            if (curSortedBroker == null) {
+                break;
+            }
             while (!curSortedBroker.isReady()) {
-                curSortedBroker.awaitLatch(1, TimeUnit.SECONDS);
-                LOGGER.info("[ROLL][KV][ITERATE] waiting to get. size: {}, storeInfo: {}", curSortedBroker.getQueueSize(), storeInfo);
+                awaitData(curSortedBroker);
 
                 if (curSortedBroker.isClosable()) {
                     if (eggFinishedCount.get() >= totalFragments) {
@@ -196,6 +217,9 @@ public class IterateProcessor implements Callable<OperandBroker> {
                     break;
                 }
             }
+            if (!curSortedBroker.isReady()) {
+                continue;
+            }
 
             curSortedOperand = curSortedBroker.get();
 
@@ -212,13 +236,8 @@ public class IterateProcessor implements Callable<OperandBroker> {
             curChunkSize += keySize + valueSize;
             result.put(curSortedOperand);
 
-            // if closable after get, then update range info
-            if (curSortedBroker.isClosable()) {
-                synchronized (eggRangesLock) {
-                    Kv.Range lastRange = eggRanges.get(curSortedIndex);
-                    eggRanges.set(curSortedIndex, lastRange.toBuilder().setStart(curSortedOperand.getKey()).build());
-                }
-            }
+            // the next chunk of this fragment starts from here once its broker is drained
+            lastKeys[curSortedIndex] = curSortedOperand.getKey();
             adjust(curSortedIndex);
         }
 
@@ -228,25 +247,23 @@ public class IterateProcessor implements Callable<OperandBroker> {
     }
 
     private OperandBroker refillBroker(int fragmentOrder) {
+        if (!startRefill(fragmentOrder)) {
+            return null;
+        }
+
+        return awaitRefill(fragmentOrder);
+    }
+
+    private boolean startRefill(int fragmentOrder) {
         synchronized (isEggFinishedLock) {
             if (isEggFinished.get(fragmentOrder)) {
-                return null;
+                return false;
             }
         }
         Preconditions.checkArgument(fragmentOrder >= 0 && fragmentOrder < totalFragments,
                 "fragmentOrder must >= 0 and < totalFragments");
 
-        StoreInfo storeInfoWithFragment = storeInfosWithFragments.get(fragmentOrder);
-        if (storeInfoWithFragment == null) {
-            storeInfoWithFragment = StoreInfo.copy(storeInfo);
-            storeInfoWithFragment.setFragment(fragmentOrder);
-            storeInfosWithFragments.add(fragmentOrder, storeInfoWithFragment);
-        }
-
-        Map<Integer, Fragment> fragmentOrderToFragment = Maps.newConcurrentMap();
-        for (Fragment fragment : fragments) {
-            fragmentOrderToFragment.put(fragment.getFragmentOrder(), fragment);
-        }
+        StoreInfo storeInfoWithFragment = getStoreInfoWithFragment(fragmentOrder);
 
         Fragment fragment = fragmentOrderToFragment.get(fragmentOrder);
         if (fragment == null) {
@@ -259,48 +276,96 @@ public class IterateProcessor implements Callable<OperandBroker> {
         }
         Kv.Range range = null;
         synchronized (eggRangesLock) {
-             range = eggRanges.get(fragmentOrder);
+            range = eggRanges.get(fragmentOrder);
+            if (lastKeys[fragmentOrder] != null) {
+                range = range.toBuilder().setStart(lastKeys[fragmentOrder]).build();
+                eggRanges.set(fragmentOrder, range);
+            }
         }
-        OperandBroker result = storageServiceClient.iterate(range, storeInfoWithFragment, fragmentToNode);
+        OperandBroker result = storageServiceClient.iterateStreaming(range, storeInfoWithFragment, fragmentToNode);
+        result.addReadyListener(this::signalDataArrival);
 
-        try {
-            boolean awaitResult = false;
-            while (!awaitResult) {
-                LOGGER.info("[ROLL][KV][ITERATE][PROCESSOR] waiting latch for: {}", storeInfoWithFragment);
+        synchronized (eggBrokersLock) {
+            OperandBroker oldBroker = eggBrokers.set(fragmentOrder, result);
+            if (oldBroker != null && !oldBroker.isClosable()) {
+                LOGGER.warn("[ROLL][KV][ITERATE] removing old broker which is not closable yet. tableId: {}, fragmentOrder: {}, nodeId: {}, node address: {}:{}",
+                        dtable.getTableId(), fragmentOrder, fragmentToNode.getNodeId(), fragmentToNode.getIp(), fragmentToNode.getPort());
+            }
+        }
 
-                awaitResult = result.awaitLatch(500, TimeUnit.MILLISECONDS);
+        return true;
+    }
 
-                if (result.isReady() || result.isClosable()) {
-                    LOGGER.info("[ROLL][KV][ITERATE][PROCESSOR] broker: {}, closable: {}, ready: {}",
-                            storeInfoWithFragment, result.isClosable(), result.isReady());
-                    break;
-                }
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException(e);
+    private OperandBroker awaitRefill(int fragmentOrder) {
+        OperandBroker result = null;
+        synchronized (eggBrokersLock) {
+            result = eggBrokers.get(fragmentOrder);
         }
-        LOGGER.info("[ROLL][KV][ITERATE][PROCESSOR] data arrived. size: {}, fragment order: {}, node address: {}:{}, range start: {}, range end: {}",
-                result.getQueueSize(), fragmentOrder, fragmentToNode.getIp(), fragmentToNode.getPort(), range.getStart().toStringUtf8(), range.getEnd().toStringUtf8());
+        if (result == null) {
+            return null;
+        }
+
+        awaitData(result);
+
+        LOGGER.info("[ROLL][KV][ITERATE][PROCESSOR] data arrived. size: {}, closable: {}, storeInfo: {}",
+                result.getQueueSize(), result.isClosable(), getStoreInfoWithFragment(fragmentOrder));
         if (result.isClosable()) {
             synchronized (isEggFinishedLock) {
                 isEggFinished.set(fragmentOrder, true);
             }
             eggFinishedCount.incrementAndGet();
             result = null;
-        }
 
-        synchronized (eggBrokersLock) {
-            OperandBroker oldBroker = eggBrokers.set(fragmentOrder, result);
-            if (oldBroker != null && !oldBroker.isClosable()) {
-                LOGGER.warn("[ROLL][KV][ITERATE] removing old broker which is not closable yet. tableId: {}, fragmentOrder: {}, nodeId: {}, node address: {}:{}",
-                        dtable.getTableId(), fragmentOrder, fragmentToNode.getNodeId(), fragmentToNode.getIp(), fragmentToNode.getPort());
+            synchronized (eggBrokersLock) {
+                eggBrokers.set(fragmentOrder, null);
             }
         }
 
         return result;
     }
 
+    /**
+     * blocks until the broker has data or is finished. Brokers signal {@link #dataArrivalLock} themselves,
+     * so the timeout only paces the progress log.
+     */
+    private void awaitData(OperandBroker broker) {
+        try {
+            synchronized (dataArrivalLock) {
+                while (!broker.isReady() && !broker.isFinished()) {
+                    long waitStart = System.currentTimeMillis();
+                    dataArrivalLock.wait(WAIT_LOG_INTERVAL_MS);
+                    if (System.currentTimeMillis() - waitStart >= WAIT_LOG_INTERVAL_MS) {
+                        LOGGER.info("[ROLL][KV][ITERATE][PROCESSOR] waiting for data. storeInfo: {}", storeInfo);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+
+        if (broker.getError() != null) {
+            throw new IllegalStateException("error in iterating fragment. storeInfo: " + storeInfo, broker.getError());
+        }
+    }
+
+    private void signalDataArrival() {
+        synchronized (dataArrivalLock) {
+            dataArrivalLock.notifyAll();
+        }
+    }
+
+    private StoreInfo getStoreInfoWithFragment(int fragmentOrder) {
+        StoreInfo storeInfoWithFragment = storeInfosWithFragments.get(fragmentOrder);
+        if (storeInfoWithFragment == null) {
+            storeInfoWithFragment = StoreInfo.copy(storeInfo);
+            storeInfoWithFragment.setFragment(fragmentOrder);
+            storeInfosWithFragments.set(fragmentOrder, storeInfoWithFragment);
+        }
+
+        return storeInfoWithFragment;
+    }
+
     private void adjust(int curIndex) {
         Preconditions.checkArgument(curIndex >= 0 && curIndex < totalFragments,
                 "curIndex must >= 0 and < totalFragments");
@@ -356,6 +421,9 @@ public class IterateProcessor implements Callable<OperandBroker> {
                 if (curBroker == null) {
                     break;
                 }
+            } else if (!curBroker.isReady()) {
+                // still streaming: the merge cannot order this fragment until its next key arrives
+                awaitData(curBroker);
             }
             result = curBroker.peek();
         }
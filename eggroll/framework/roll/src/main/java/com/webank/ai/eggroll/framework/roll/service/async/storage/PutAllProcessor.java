@@ -42,18 +42,20 @@ public class PutAllProcessor implements Callable<BasicMeta.ReturnStatus> {
     private OperandBroker operandBroker;
     private StoreInfo storeInfo;
     private Node node;
+    private boolean sortedKeys;
 
-    public PutAllProcessor(OperandBroker operandBroker, StoreInfo storeInfo, Node node) {
+    public PutAllProcessor(OperandBroker operandBroker, StoreInfo storeInfo, Node node, boolean sortedKeys) {
         this.operandBroker = operandBroker;
         this.storeInfo = storeInfo;
         this.node = node;
+        this.sortedKeys = sortedKeys;
     }
 
     @Override
     public BasicMeta.ReturnStatus call() throws Exception {
         BasicMeta.ReturnStatus returnStatus = returnStatusFactory.createSucessful("async send to storageService successful");
         try {
-            storageServiceClient.putAll(operandBroker, storeInfo, node);
+            storageServiceClient.putAll(operandBroker, storeInfo, node, sortedKeys);
         } catch (Exception e) {
             returnStatus = returnStatusFactory.create(500, errorUtils.getStackTrace(e));
         }
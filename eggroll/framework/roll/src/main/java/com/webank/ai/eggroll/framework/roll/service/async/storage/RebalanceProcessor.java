@@ -0,0 +1,360 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.framework.roll.service.async.storage;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.protobuf.ByteString;
+import com.webank.ai.eggroll.api.storage.Kv;
+import com.webank.ai.eggroll.core.api.grpc.client.crud.StorageMetaClient;
+import com.webank.ai.eggroll.core.constant.ModelConstants;
+import com.webank.ai.eggroll.core.error.exception.StorageNotExistsException;
+import com.webank.ai.eggroll.core.io.StoreInfo;
+import com.webank.ai.eggroll.core.model.DtableStatus;
+import com.webank.ai.eggroll.core.model.NodeStatus;
+import com.webank.ai.eggroll.core.model.NodeType;
+import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable;
+import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Fragment;
+import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node;
+import com.webank.ai.eggroll.framework.roll.api.grpc.client.StorageServiceClient;
+import com.webank.ai.eggroll.framework.roll.factory.DispatchPolicyFactory;
+import com.webank.ai.eggroll.framework.roll.factory.RollModelFactory;
+import com.webank.ai.eggroll.framework.roll.helper.NodeHelper;
+import com.webank.ai.eggroll.framework.roll.helper.TableMetaCache;
+import com.webank.ai.eggroll.framework.roll.helper.TableWriteFence;
+import com.webank.ai.eggroll.framework.roll.service.model.OperandBroker;
+import com.webank.ai.eggroll.framework.roll.strategy.DispatchPolicy;
+import com.webank.ai.eggroll.framework.roll.util.RollServerUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grows a table and / or spreads its fragments over the healthy storage nodes, moving as little data as possible.
+ *
+ * Growing copies the entries whose fragment changes under the table's dispatch policy to their new fragment,
+ * switches the table to the new fragment count and then removes the moved entries from their old fragment.
+ * With the JUMP dispatcher only ~(new - old) / new of the entries move. Fragments on nodes which are no longer
+ * healthy, or on nodes holding more than their share, are copied whole to the least loaded healthy node.
+ *
+ * Reads stay available throughout. The table is marked {@link DtableStatus#REBALANCING} in meta-service, which
+ * every roll checks before writes, write batches and processing tasks on it, so those are rejected until the
+ * rebalance ends. Before copying, the rebalance waits for writes and tasks in flight through this roll, and
+ * gives other rolls {@link #STATUS_SETTLE_SECONDS} to see the status through the meta watch and stop theirs.
+ */
+@Component
+@Scope("prototype")
+public class RebalanceProcessor implements Callable<Kv.RebalanceInfo> {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final long FENCE_TIMEOUT_SECONDS = 60;
+    private static final long STATUS_SETTLE_SECONDS = 10;
+
+    @Autowired
+    private StorageServiceClient storageServiceClient;
+    @Autowired
+    private StorageMetaClient storageMetaClient;
+    @Autowired
+    private RollServerUtils rollServerUtils;
+    @Autowired
+    private NodeHelper nodeHelper;
+    @Autowired
+    private TableMetaCache tableMetaCache;
+    @Autowired
+    private TableWriteFence tableWriteFence;
+    @Autowired
+    private DispatchPolicyFactory dispatchPolicyFactory;
+    @Autowired
+    private RollModelFactory rollModelFactory;
+
+    private final Kv.RebalanceInfo request;
+    private final StoreInfo storeInfo;
+
+    public RebalanceProcessor(Kv.RebalanceInfo request, StoreInfo storeInfo) {
+        this.request = request;
+        this.storeInfo = storeInfo;
+    }
+
+    @PostConstruct
+    public void init() {
+        storageMetaClient.init(rollServerUtils.getMetaServiceEndpoint());
+    }
+
+    @Override
+    public Kv.RebalanceInfo call() throws Exception {
+        Dtable dtable = storageMetaClient.getTable(storeInfo.getNameSpace(), storeInfo.getTableName());
+        if (dtable != null && DtableStatus.REBALANCING.name().equals(dtable.getStatus())) {
+            throw new IllegalStateException("table is being rebalanced: " + storeInfo);
+        }
+        if (dtable == null || !DtableStatus.NORMAL.name().equals(dtable.getStatus())) {
+            throw new StorageNotExistsException(storeInfo);
+        }
+
+        int currentFragmentCount = dtable.getTotalFragments();
+        int targetFragmentCount = request.getFragmentCount() > 0 ? request.getFragmentCount() : currentFragmentCount;
+        if (targetFragmentCount < currentFragmentCount) {
+            throw new IllegalArgumentException("shrinking a table is not supported. current fragment count: "
+                    + currentFragmentCount + ", requested: " + targetFragmentCount);
+        }
+
+        updateStatus(dtable, DtableStatus.REBALANCING);
+        long movedCount = 0;
+        try {
+            tableWriteFence.fence(storeInfo, FENCE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(STATUS_SETTLE_SECONDS));
+                if (targetFragmentCount > currentFragmentCount) {
+                    movedCount += growFragments(dtable, targetFragmentCount);
+                }
+                movedCount += rebalanceNodes(dtable);
+            } finally {
+                invalidateCaches(dtable);
+                tableWriteFence.unfence(storeInfo);
+            }
+        } finally {
+            updateStatus(dtable, DtableStatus.NORMAL);
+        }
+
+        LOGGER.info("[ROLL][KV][REBALANCE] finished. storeInfo: {}, fragment count: {} -> {}, moved: {}",
+                storeInfo, currentFragmentCount, targetFragmentCount, movedCount);
+
+        return Kv.RebalanceInfo.newBuilder()
+                .setFragmentCount(targetFragmentCount)
+                .setMovedCount(movedCount)
+                .build();
+    }
+
+    private long growFragments(Dtable dtable, int targetFragmentCount) {
+        int currentFragmentCount = dtable.getTotalFragments();
+        DispatchPolicy dispatchPolicy = dispatchPolicyFactory.createDispatchPolicy(dtable.getDispatcher());
+
+        // fragments are created against a copy, so dispatch keeps using the current count until data is in place
+        Dtable grown = storageMetaClient.getTableById(dtable.getTableId());
+        grown.setTotalFragments(targetFragmentCount);
+        storageMetaClient.createFragmentsForTable(grown);
+        invalidateCaches(dtable);
+
+        Map<Integer, Node> fragmentOrderToNode = fragmentOrderToNode(dtable.getTableId());
+
+        long movedCount = 0;
+        for (int fragment = 0; fragment < currentFragmentCount; ++fragment) {
+            final int source = fragment;
+            movedCount += scanFragment(dtable, source, fragmentOrderToNode.get(source), operands -> {
+                Map<Integer, List<Kv.Operand>> targetToOperands = Maps.newHashMap();
+                for (Kv.Operand operand : operands) {
+                    int target = dispatchPolicy.executePolicy(targetFragmentCount, operand.getKey());
+                    if (target != source) {
+                        targetToOperands.computeIfAbsent(target, k -> Lists.newArrayList()).add(operand);
+                    }
+                }
+
+                int pageMoved = 0;
+                for (Map.Entry<Integer, List<Kv.Operand>> entry : targetToOperands.entrySet()) {
+                    putAll(dtable, entry.getKey(), fragmentOrderToNode.get(entry.getKey()), entry.getValue());
+                    pageMoved += entry.getValue().size();
+                }
+
+                return pageMoved;
+            });
+        }
+
+        dtable.setTotalFragments(targetFragmentCount);
+        if (storageMetaClient.updateTable(dtable) == null) {
+            throw new IllegalStateException("failed to update fragment count of table: " + storeInfo);
+        }
+        invalidateCaches(dtable);
+
+        // entries have been switched to their new fragment. drop the stale copies
+        for (int fragment = 0; fragment < currentFragmentCount; ++fragment) {
+            final int source = fragment;
+            Node sourceNode = fragmentOrderToNode.get(source);
+            StoreInfo sourceStoreInfo = storeInfoOf(dtable, source);
+            scanFragment(dtable, source, sourceNode, operands -> {
+                List<Kv.Operand> staleKeys = Lists.newArrayList();
+                for (Kv.Operand operand : operands) {
+                    if (dispatchPolicy.executePolicy(targetFragmentCount, operand.getKey()) != source) {
+                        staleKeys.add(Kv.Operand.newBuilder().setKey(operand.getKey()).build());
+                    }
+                }
+                // one call per scanned page rather than one per moved key
+                if (!staleKeys.isEmpty()) {
+                    storageServiceClient.deleteAll(staleKeys, sourceStoreInfo, sourceNode);
+                }
+
+                return 0;
+            });
+        }
+
+        return movedCount;
+    }
+
+    private long rebalanceNodes(Dtable dtable) {
+        List<Fragment> fragments = storageMetaClient.getFragmentsByTableId(dtable.getTableId());
+
+        Map<Long, Node> healthyNodes = Maps.newHashMap();
+        Map<Long, List<Fragment>> nodeIdToFragments = Maps.newHashMap();
+        for (Node node : storageMetaClient.getNodesOfStatus(NodeStatus.HEALTHY)) {
+            if (NodeType.STORAGE.name().equals(node.getType())) {
+                healthyNodes.put(node.getNodeId(), node);
+                nodeIdToFragments.put(node.getNodeId(), Lists.newArrayList());
+            }
+        }
+        if (healthyNodes.isEmpty() || fragments.isEmpty()) {
+            return 0;
+        }
+
+        List<Fragment> toMove = Lists.newArrayList();
+        for (Fragment fragment : fragments) {
+            List<Fragment> fragmentsOfNode = nodeIdToFragments.get(fragment.getNodeId());
+            if (fragmentsOfNode == null) {
+                toMove.add(fragment);
+            } else {
+                fragmentsOfNode.add(fragment);
+            }
+        }
+
+        int maxFragmentsPerNode = (fragments.size() + healthyNodes.size() - 1) / healthyNodes.size();
+        for (List<Fragment> fragmentsOfNode : nodeIdToFragments.values()) {
+            while (fragmentsOfNode.size() > maxFragmentsPerNode) {
+                toMove.add(fragmentsOfNode.remove(fragmentsOfNode.size() - 1));
+            }
+        }
+
+        long movedCount = 0;
+        for (Fragment fragment : toMove) {
+            Node source = storageMetaClient.getNodeByNodeId(fragment.getNodeId());
+            if (source == null || NodeStatus.LOST.name().equals(source.getStatus())) {
+                LOGGER.warn("[ROLL][KV][REBALANCE] source node of fragment is lost. skipping. storeInfo: {}, fragment: {}",
+                        storeInfo, fragment.getFragmentOrder());
+                continue;
+            }
+
+            Long targetNodeId = nodeIdToFragments.entrySet().stream()
+                    .min(Comparator.comparingInt(entry -> entry.getValue().size()))
+                    .get()
+                    .getKey();
+            Node target = healthyNodes.get(targetNodeId);
+            int fragmentOrder = fragment.getFragmentOrder();
+
+            movedCount += scanFragment(dtable, fragmentOrder, source, operands -> {
+                putAll(dtable, fragmentOrder, target, operands);
+                return operands.size();
+            });
+
+            fragment.setNodeId(targetNodeId);
+            if (storageMetaClient.updateFragment(fragment) == null) {
+                throw new IllegalStateException("failed to move fragment " + fragmentOrder + " of table: " + storeInfo);
+            }
+            nodeIdToFragments.get(targetNodeId).add(fragment);
+            invalidateCaches(dtable);
+
+            storageServiceClient.destroy(ModelConstants.EMPTY, storeInfoOf(dtable, fragmentOrder), source);
+            LOGGER.info("[ROLL][KV][REBALANCE] moved fragment. storeInfo: {}, fragment: {}, from: {}, to: {}",
+                    storeInfo, fragmentOrder, source.getNodeId(), targetNodeId);
+        }
+
+        return movedCount;
+    }
+
+    private long scanFragment(Dtable dtable, int fragment, Node node, PageConsumer pageConsumer) {
+        if (node == null) {
+            throw new StorageNotExistsException(storeInfoOf(dtable, fragment));
+        }
+
+        StoreInfo storeInfoWithFragment = storeInfoOf(dtable, fragment);
+        ByteString start = ByteString.EMPTY;
+        List<Kv.Operand> page = Lists.newArrayList();
+        long result = 0;
+
+        while (true) {
+            Kv.Range range = Kv.Range.newBuilder().setStart(start).build();
+            OperandBroker broker = storageServiceClient.iterate(range, storeInfoWithFragment, node);
+
+            page.clear();
+            broker.drainTo(page);
+            if (page.isEmpty()) {
+                break;
+            }
+
+            result += pageConsumer.accept(page);
+            start = page.get(page.size() - 1).getKey();
+        }
+
+        return result;
+    }
+
+    private void putAll(Dtable dtable, int fragment, Node node, List<Kv.Operand> operands) {
+        if (node == null) {
+            throw new StorageNotExistsException(storeInfoOf(dtable, fragment));
+        }
+
+        OperandBroker broker = rollModelFactory.createOperandBroker();
+        broker.addAll(operands);
+        broker.setFinished();
+
+        storageServiceClient.putAll(broker, storeInfoOf(dtable, fragment), node);
+    }
+
+    private Map<Integer, Node> fragmentOrderToNode(long tableId) {
+        Map<Long, Node> nodeIdToNode = Maps.newHashMap();
+        for (Node node : storageMetaClient.getStorageNodesByTableId(tableId)) {
+            nodeIdToNode.put(node.getNodeId(), node);
+        }
+
+        Map<Integer, Node> result = Maps.newHashMap();
+        for (Fragment fragment : storageMetaClient.getFragmentsByTableId(tableId)) {
+            Node node = nodeIdToNode.get(fragment.getNodeId());
+            if (node != null) {
+                result.put(fragment.getFragmentOrder(), node);
+            }
+        }
+
+        return result;
+    }
+
+    private StoreInfo storeInfoOf(Dtable dtable, int fragment) {
+        StoreInfo result = StoreInfo.fromDtable(dtable);
+        result.setFragment(fragment);
+
+        return result;
+    }
+
+    private void updateStatus(Dtable dtable, DtableStatus status) {
+        dtable.setStatus(status.name());
+        if (storageMetaClient.updateTable(dtable) == null) {
+            throw new IllegalStateException("failed to mark table " + status + ": " + storeInfo);
+        }
+        invalidateCaches(dtable);
+    }
+
+    private void invalidateCaches(Dtable dtable) {
+        tableMetaCache.invalidate(dtable);
+        nodeHelper.invalidateTable(dtable.getTableId());
+    }
+
+    private interface PageConsumer {
+        int accept(List<Kv.Operand> page);
+    }
+}
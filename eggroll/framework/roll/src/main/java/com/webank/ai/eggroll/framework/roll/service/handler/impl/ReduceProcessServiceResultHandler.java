@@ -14,11 +14,17 @@
  * limitations under the License.
  */
 
+
 package com.webank.ai.eggroll.framework.roll.service.handler.impl;
 
+import com.google.common.collect.Lists;
+import com.webank.ai.eggroll.api.computing.processor.Processor;
+import com.webank.ai.eggroll.api.core.BasicMeta;
 import com.webank.ai.eggroll.api.storage.Kv;
 import com.webank.ai.eggroll.core.utils.ToStringUtils;
+import com.webank.ai.eggroll.framework.roll.api.grpc.client.EggProcessServiceClient;
 import com.webank.ai.eggroll.framework.roll.factory.RollModelFactory;
+import com.webank.ai.eggroll.framework.roll.helper.NodeHelper;
 import com.webank.ai.eggroll.framework.roll.service.handler.ProcessServiceResultHandler;
 import com.webank.ai.eggroll.framework.roll.service.model.OperandBroker;
 import com.webank.ai.eggroll.framework.roll.service.model.OperandBrokerUnSortedHub;
@@ -31,20 +37,40 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.concurrent.Future;
 
+/**
+ * Streams the per-fragment partials of a reduce back to the caller. When the request asks for
+ * combineAtRoll, the partials are instead combined tree-wise by egg processors (at most COMBINE_FAN_IN
+ * partials per call) and a single operand is returned. Any failure while combining falls back to
+ * forwarding the partials, which the caller is able to combine itself.
+ */
 @Component
 @Scope("prototype")
 public class ReduceProcessServiceResultHandler implements ProcessServiceResultHandler<OperandBroker, Kv.Operand> {
     private static final Logger LOGGER = LogManager.getLogger();
+    private static final int COMBINE_FAN_IN = 16;
     @Autowired
     private RollModelFactory rollModelFactory;
     @Autowired
     private ThreadPoolTaskExecutor asyncThreadPool;
     @Autowired
     private ToStringUtils toStringUtils;
+    @Autowired
+    private EggProcessServiceClient eggProcessServiceClient;
+
+    private final Processor.UnaryProcess request;
+    private final NodeHelper nodeHelper;
+    private final List<String> combineTargets;
+
+    public ReduceProcessServiceResultHandler(Processor.UnaryProcess request, NodeHelper nodeHelper, List<String> combineTargets) {
+        this.request = request;
+        this.nodeHelper = nodeHelper;
+        this.combineTargets = combineTargets;
+    }
 
     @Override
-    public void handle(StreamObserver<Kv.Operand> requestObserver, List<OperandBroker> unprocessedResults) {
+    public void handle(StreamObserver<Kv.Operand> requestObserver, List<OperandBroker> unprocessedResults) throws Throwable {
         OperandBrokerUnSortedHub operandBrokerUnsortedHub = rollModelFactory.createOperandUnsortedBrokerHub();
         LOGGER.info("[REDUCE][HANDLER] unprocessedResult.size: {}", unprocessedResults.size());
         for (OperandBroker operandBroker : unprocessedResults) {
@@ -55,21 +81,84 @@ public class ReduceProcessServiceResultHandler implements ProcessServiceResultHa
         asyncThreadPool.submit(operandBrokerUnsortedHub);
 
         OperandBroker mergedOperandBroker = operandBrokerUnsortedHub.getMergedBroker();
+        boolean combining = !combineTargets.isEmpty();
+        List<Kv.Operand> partials = Lists.newArrayList();
         Kv.Operand result = null;
 
         int resultCount = 0;
         int resultNotNullCount = 0;
-        // todo: to eden: please add result process logic here
         while (!mergedOperandBroker.isClosable()) {
             result = mergedOperandBroker.get();
             ++resultCount;
             if (result != null) {
                 // LOGGER.info("[REDUCE][RESULT]: {}", toStringUtils.toOneLineString(result));
-                requestObserver.onNext(result);
+                if (combining) {
+                    partials.add(result);
+                } else {
+                    requestObserver.onNext(result);
+                }
                 ++resultNotNullCount;
             }
         }
 
-        LOGGER.info("[REDUCE][COMPLETE] done handling reduce results. result count: {}, result not null count: {}", resultCount, resultNotNullCount);
+        if (combining) {
+            if (partials.size() > 1) {
+                try {
+                    partials = Lists.newArrayList(combineTree(partials));
+                } catch (Exception e) {
+                    LOGGER.warn("[REDUCE][COMBINE] failed to combine {} partials at roll, forwarding them instead. task: {}",
+                            partials.size(), toStringUtils.toOneLineString(request.getInfo()), e);
+                }
+            }
+
+            for (Kv.Operand partial : partials) {
+                requestObserver.onNext(partial);
+            }
+        }
+
+        LOGGER.info("[REDUCE][COMPLETE] done handling reduce results. result count: {}, result not null count: {}, returned count: {}",
+                resultCount, resultNotNullCount, combining ? partials.size() : resultNotNullCount);
+    }
+
+    private Kv.Operand combineTree(List<Kv.Operand> partials) throws Exception {
+        List<Kv.Operand> level = partials;
+        while (level.size() > 1) {
+            List<Future<Kv.Operand>> groupResults = Lists.newArrayList();
+            for (int start = 0, group = 0; start < level.size(); start += COMBINE_FAN_IN, ++group) {
+                List<Kv.Operand> operands = level.subList(start, Math.min(start + COMBINE_FAN_IN, level.size()));
+                String target = combineTargets.get(group % combineTargets.size());
+                groupResults.add(asyncThreadPool.submit(() -> combine(target, operands)));
+            }
+
+            List<Kv.Operand> nextLevel = Lists.newArrayListWithCapacity(groupResults.size());
+            for (Future<Kv.Operand> groupResult : groupResults) {
+                nextLevel.add(groupResult.get());
+            }
+            LOGGER.info("[REDUCE][COMBINE] combined {} partials into {}", level.size(), nextLevel.size());
+            level = nextLevel;
+        }
+
+        return level.get(0);
+    }
+
+    private Kv.Operand combine(String target, List<Kv.Operand> operands) {
+        if (operands.size() == 1) {
+            return operands.get(0);
+        }
+
+        BasicMeta.Endpoint processor = nodeHelper.getProcessorEndpoint(target);
+        if (processor == null) {
+            throw new IllegalStateException("no processor available on egg: " + target);
+        }
+
+        Processor.CombineProcess combineProcess = Processor.CombineProcess.newBuilder()
+                .setInfo(request.getInfo())
+                .addAllOperands(operands)
+                .build();
+        try {
+            return eggProcessServiceClient.combine(combineProcess, processor);
+        } finally {
+            nodeHelper.releaseProcessorEndpoint(target, processor);
+        }
     }
 }
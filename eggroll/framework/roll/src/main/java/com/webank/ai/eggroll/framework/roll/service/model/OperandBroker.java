@@ -18,6 +18,8 @@ package com.webank.ai.eggroll.framework.roll.service.model;
 
 import com.google.common.collect.Queues;
 import com.webank.ai.eggroll.api.storage.Kv;
+import com.webank.ai.eggroll.core.metrics.InstanceGauge;
+import com.webank.ai.eggroll.core.metrics.MetricsRegistry;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.context.annotation.Scope;
@@ -25,7 +27,9 @@ import org.springframework.stereotype.Component;
 
 import javax.annotation.concurrent.GuardedBy;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -39,8 +43,13 @@ public class OperandBroker {
     private @GuardedBy("this") volatile boolean isFinished;
     private volatile CountDownLatch readyLatch;
     private final Object readyLatchLock;
+    private final List<Runnable> readyListeners;
+    private volatile Throwable error;
 
     private static final Logger LOGGER = LogManager.getLogger();
+    private static final InstanceGauge<OperandBroker> QUEUE_SIZE_GAUGE = MetricsRegistry.getDefault()
+            .instanceGauge("eggroll_roll_operand_broker_queue_size", "operands waiting in open operand brokers",
+                    OperandBroker::getQueueSize);
 
     public OperandBroker() {
         this(-1);
@@ -55,7 +64,9 @@ public class OperandBroker {
 
         this.isFinished = false;
         this.readyLatchLock = new Object();
+        this.readyListeners = new CopyOnWriteArrayList<>();
         resetLatch();
+        QUEUE_SIZE_GAUGE.track(this);
     }
 
     public void put(Kv.Operand operand) {
@@ -70,6 +81,7 @@ public class OperandBroker {
             throw new RuntimeException(e);
         } finally {
             countDownLatch();
+            notifyReadyListeners();
         }
     }
 
@@ -81,6 +93,7 @@ public class OperandBroker {
 
         if (result) {
             countDownLatch();
+            notifyReadyListeners();
         }
 
         return result;
@@ -104,6 +117,16 @@ public class OperandBroker {
         return result;
     }
 
+    /**
+     * non-blocking counterpart of {@link #get()}: returns null at once if nothing is queued
+     */
+    public Kv.Operand poll() {
+        Kv.Operand result = operandQueue.poll();
+        resetLatch();
+
+        return result;
+    }
+
     public Kv.Operand peek() {
         return operandQueue.peek();
     }
@@ -137,6 +160,26 @@ public class OperandBroker {
         }
     }
 
+    /**
+     * listener is run on the producer's thread whenever an operand is queued or the broker gets finished,
+     * and once at registration if either has already happened. It should only signal, never block: work such
+     * as writing to a gRPC call belongs on an executor the listener hands it to.
+     */
+    public OperandBroker addReadyListener(Runnable listener) {
+        readyListeners.add(listener);
+        if (isReady() || isFinished()) {
+            listener.run();
+        }
+
+        return this;
+    }
+
+    private void notifyReadyListeners() {
+        for (Runnable listener : readyListeners) {
+            listener.run();
+        }
+    }
+
     // todo: check thread safety
     public boolean awaitLatch(long timeout, TimeUnit unit) throws InterruptedException {
         if (!operandQueue.isEmpty()) {
@@ -170,11 +213,26 @@ public class OperandBroker {
             isFinished = true;
         }
         countDownLatch();
+        notifyReadyListeners();
         return this;
     }
 
+    public OperandBroker setError(Throwable error) {
+        this.error = error;
+        return setFinished();
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Finishes the broker and drops what is still queued, so a producer blocked on a full bounded broker returns.
+     */
     public void close() {
         setFinished();
+        operandQueue.clear();
+        QUEUE_SIZE_GAUGE.untrack(this);
     }
 
     public int getQueueSize() {
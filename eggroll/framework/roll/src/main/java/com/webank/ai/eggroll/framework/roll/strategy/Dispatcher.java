@@ -18,8 +18,13 @@ package com.webank.ai.eggroll.framework.roll.strategy;
 
 import com.google.protobuf.ByteString;
 import com.webank.ai.eggroll.core.io.StoreInfo;
+import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable;
 import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node;
 
 public interface Dispatcher {
     public Node dispatch(StoreInfo storeInfo, ByteString dataKey);
+
+    public Node dispatch(Dtable dtable, int fragment);
+
+    public DispatchPolicy getDispatchPolicy();
 }
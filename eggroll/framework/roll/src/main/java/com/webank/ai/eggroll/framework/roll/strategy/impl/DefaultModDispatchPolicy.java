@@ -16,59 +16,22 @@
 
 package com.webank.ai.eggroll.framework.roll.strategy.impl;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.protobuf.ByteString;
-import com.webank.ai.eggroll.core.api.grpc.client.crud.StorageMetaClient;
-import com.webank.ai.eggroll.core.constant.RuntimeConstants;
 import com.webank.ai.eggroll.core.error.exception.StorageNotExistsException;
 import com.webank.ai.eggroll.core.io.StoreInfo;
 import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable;
+import com.webank.ai.eggroll.framework.roll.helper.TableMetaCache;
 import com.webank.ai.eggroll.framework.roll.strategy.DispatchPolicy;
-import com.webank.ai.eggroll.framework.roll.util.RollServerUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
-import javax.annotation.PostConstruct;
-import java.util.concurrent.ExecutionException;
-
 @Service("dispatchPolicy")
 @Scope("prototype")
 public class DefaultModDispatchPolicy implements DispatchPolicy {
     @Autowired
-    private StorageMetaClient storageMetaClient;
-    @Autowired
-    private RollServerUtils rollServerUtils;
-
-    private LoadingCache<StoreInfo, Integer> storeInfoToFragmentCountLoadingCache;
-
-    @PostConstruct
-    public void init() {
-        storageMetaClient.init(rollServerUtils.getMetaServiceEndpoint());
-        storeInfoToFragmentCountLoadingCache = CacheBuilder.newBuilder()
-                .weakKeys()
-                .weakValues()
-                .maximumSize(100)
-                .expireAfterAccess(RuntimeConstants.DEFAULT_WAIT_TIME, RuntimeConstants.DEFAULT_TIMEUNIT)
-                .recordStats()
-                .build(new CacheLoader<StoreInfo, Integer>() {
-                    @Override
-                    public Integer load(StoreInfo key) throws Exception {
-                        if (StringUtils.isAnyBlank(key.getNameSpace(), key.getTableName())) {
-                            throw new StorageNotExistsException(key);
-                        }
-                        Dtable dtable = storageMetaClient.getTable(key);
-                        if (dtable == null) {
-                            throw new StorageNotExistsException(key);
-                        }
-
-                        return dtable.getTotalFragments();
-                    }
-                });
-    }
+    private TableMetaCache tableMetaCache;
 
     @Override
     public int executePolicy(int total, ByteString key) {
@@ -82,10 +45,14 @@ public class DefaultModDispatchPolicy implements DispatchPolicy {
 
     @Override
     public int executePolicy(StoreInfo storeInfo, ByteString key) {
-        try {
-            return executePolicy(storeInfoToFragmentCountLoadingCache.get(storeInfo), key);
-        } catch (ExecutionException e) {
-            throw new RuntimeException(e);
+        if (StringUtils.isAnyBlank(storeInfo.getNameSpace(), storeInfo.getTableName())) {
+            throw new StorageNotExistsException(storeInfo);
         }
+        Dtable dtable = tableMetaCache.getTable(storeInfo.getNameSpace(), storeInfo.getTableName());
+        if (dtable == null) {
+            throw new StorageNotExistsException(storeInfo);
+        }
+
+        return executePolicy(dtable.getTotalFragments(), key);
     }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.framework.roll.strategy.impl;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.protobuf.ByteString;
+import com.webank.ai.eggroll.core.error.exception.StorageNotExistsException;
+import com.webank.ai.eggroll.core.io.StoreInfo;
+import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable;
+import com.webank.ai.eggroll.framework.roll.helper.TableMetaCache;
+import com.webank.ai.eggroll.framework.roll.strategy.DispatchPolicy;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+
+/**
+ * Jump consistent hash (Lamping and Veach) over a murmur3 hash of the key. Growing a table from n to n + 1
+ * fragments moves only the ~1/(n + 1) of keys that land on the new fragment, which is what makes online
+ * rebalancing cheap compared to {@link DefaultModDispatchPolicy}.
+ */
+@Component
+@Scope("prototype")
+public class JumpConsistentHashDispatchPolicy implements DispatchPolicy {
+    private static final HashFunction KEY_HASH = Hashing.murmur3_128();
+
+    @Autowired
+    private TableMetaCache tableMetaCache;
+
+    @Override
+    public int executePolicy(int total, ByteString key) {
+        return Hashing.consistentHash(KEY_HASH.hashBytes(key.asReadOnlyByteBuffer()), total);
+    }
+
+    @Override
+    public int executePolicy(StoreInfo storeInfo, ByteString key) {
+        if (StringUtils.isAnyBlank(storeInfo.getNameSpace(), storeInfo.getTableName())) {
+            throw new StorageNotExistsException(storeInfo);
+        }
+        Dtable dtable = tableMetaCache.getTable(storeInfo.getNameSpace(), storeInfo.getTableName());
+        if (dtable == null) {
+            throw new StorageNotExistsException(storeInfo);
+        }
+
+        return executePolicy(dtable.getTotalFragments(), key);
+    }
+}
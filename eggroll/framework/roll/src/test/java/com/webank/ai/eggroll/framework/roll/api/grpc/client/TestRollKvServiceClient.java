@@ -24,6 +24,7 @@ import com.webank.ai.eggroll.api.storage.StorageBasic;
 import com.webank.ai.eggroll.core.factory.GrpcServerFactory;
 import com.webank.ai.eggroll.core.io.StoreInfo;
 import com.webank.ai.eggroll.core.model.Bytes;
+import com.webank.ai.eggroll.core.model.Dispatchers;
 import com.webank.ai.eggroll.core.server.ServerConf;
 import com.webank.ai.eggroll.core.utils.ToStringUtils;
 import com.webank.ai.eggroll.framework.roll.service.model.OperandBroker;
@@ -31,6 +32,7 @@ import com.webank.ai.eggroll.framework.storage.service.model.enums.Stores;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -147,6 +149,45 @@ public class TestRollKvServiceClient {
         rollKvServiceClient.putAll(operandBroker, storeInfo);
     }
 
+    @Test
+    public void testPutAllThenGetOnJumpTable() {
+        StoreInfo jumpStoreInfo = StoreInfo.builder()
+                .type(Stores.LMDB.name())
+                .nameSpace(namespace)
+                .tableName(name + "_jump")
+                .build();
+        StorageBasic.StorageLocator storageLocator = StorageBasic.StorageLocator.newBuilder()
+                .setType(StorageBasic.StorageType.LMDB)
+                .setNamespace(jumpStoreInfo.getNameSpace())
+                .setName(jumpStoreInfo.getTableName())
+                .build();
+        rollKvServiceClient.create(Kv.CreateTableInfo.newBuilder()
+                .setStorageLocator(storageLocator)
+                .setFragmentCount(10)
+                .setDispatcher(Dispatchers.JUMP.name())
+                .build());
+
+        int keyCount = 1000;
+        OperandBroker operandBroker = new OperandBroker();
+        for (int i = 0; i < keyCount; ++i) {
+            operandBroker.put(Kv.Operand.newBuilder()
+                    .setKey(ByteString.copyFromUtf8("k" + i))
+                    .setValue(ByteString.copyFromUtf8("v" + i))
+                    .build());
+        }
+        operandBroker.setFinished();
+        rollKvServiceClient.putAll(operandBroker, jumpStoreInfo);
+
+        // get routes by the table's dispatcher, so every key must be found where putAll wrote it
+        for (int i = 0; i < keyCount; ++i) {
+            Kv.Operand result = rollKvServiceClient.get(
+                    Kv.Operand.newBuilder().setKey(ByteString.copyFromUtf8("k" + i)).build(), jumpStoreInfo);
+            Assert.assertEquals("v" + i, result.getValue().toStringUtf8());
+        }
+
+        rollKvServiceClient.destroy(jumpStoreInfo);
+    }
+
     @Test
     public void testPutAllToSameDb() {
         OperandBroker operandBroker = new OperandBroker();
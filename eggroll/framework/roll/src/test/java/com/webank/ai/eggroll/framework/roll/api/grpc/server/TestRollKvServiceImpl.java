@@ -0,0 +1,255 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.framework.roll.api.grpc.server;
+
+import com.google.common.collect.Lists;
+import com.google.protobuf.ByteString;
+import com.webank.ai.eggroll.api.storage.KVServiceGrpc;
+import com.webank.ai.eggroll.api.storage.Kv;
+import com.webank.ai.eggroll.core.constant.MetaConstants;
+import com.webank.ai.eggroll.core.io.StoreInfo;
+import com.webank.ai.eggroll.core.serdes.impl.GeneralJsonStringSerDes;
+import com.webank.ai.eggroll.core.utils.ErrorUtils;
+import com.webank.ai.eggroll.core.utils.ToStringUtils;
+import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable;
+import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Node;
+import com.webank.ai.eggroll.framework.roll.api.grpc.client.StorageServiceClient;
+import com.webank.ai.eggroll.framework.roll.factory.DispatcherFactory;
+import com.webank.ai.eggroll.framework.roll.helper.TableMetaCache;
+import com.webank.ai.eggroll.framework.roll.helper.TableWriteFence;
+import com.webank.ai.eggroll.framework.roll.strategy.DispatchPolicy;
+import com.webank.ai.eggroll.framework.roll.strategy.Dispatcher;
+import com.webank.ai.eggroll.framework.roll.strategy.impl.DefaultModDispatchPolicy;
+import com.webank.ai.eggroll.framework.storage.service.server.ObjectStoreServicer;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+public class TestRollKvServiceImpl {
+    private static final int TOTAL_FRAGMENTS = 4;
+    // more than one key batch, so the stream is paused and resumed
+    private static final int KEY_COUNT = 25_000;
+
+    private StoreInfo storeInfo = StoreInfo.builder().type("LMDB").nameSpace("ns").tableName("name").build();
+    private Map<ByteString, ByteString> storage = new ConcurrentHashMap<>();
+    private ThreadPoolTaskExecutor asyncThreadPool;
+    private Server server;
+    private ManagedChannel channel;
+    private KVServiceGrpc.KVServiceStub stub;
+
+    @Before
+    public void init() throws Exception {
+        asyncThreadPool = new ThreadPoolTaskExecutor();
+        asyncThreadPool.setCorePoolSize(8);
+        asyncThreadPool.setMaxPoolSize(8);
+        asyncThreadPool.initialize();
+
+        TableMetaCache tableMetaCache = createTableMetaCache();
+        TableWriteFence tableWriteFence = new TableWriteFence();
+        ReflectionTestUtils.setField(tableWriteFence, "tableMetaCache", tableMetaCache);
+
+        RollKvServiceImpl rollKvService = new RollKvServiceImpl();
+        ReflectionTestUtils.setField(rollKvService, "storageServiceClient", createStorageServiceClient());
+        ReflectionTestUtils.setField(rollKvService, "tableMetaCache", tableMetaCache);
+        ReflectionTestUtils.setField(rollKvService, "dispatcherFactory", createDispatcherFactory());
+        ReflectionTestUtils.setField(rollKvService, "toStringUtils", createToStringUtils());
+        ReflectionTestUtils.setField(rollKvService, "errorUtils", new ErrorUtils());
+        ReflectionTestUtils.setField(rollKvService, "asyncThreadPool", asyncThreadPool);
+        ReflectionTestUtils.setField(rollKvService, "tableWriteFence", tableWriteFence);
+
+        String serverName = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(serverName)
+                .addService(ServerInterceptors.intercept(rollKvService, new ObjectStoreServicer.KvStoreInterceptor()))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(serverName).build();
+        stub = MetadataUtils.attachHeaders(KVServiceGrpc.newStub(channel), MetaConstants.createMetadataFromStoreInfo(storeInfo));
+
+        for (int i = 0; i < KEY_COUNT; i += 2) {
+            storage.put(key(i), value(i));
+        }
+    }
+
+    @After
+    public void destroy() throws Exception {
+        channel.shutdownNow();
+        server.shutdownNow();
+        server.awaitTermination(5, TimeUnit.SECONDS);
+        asyncThreadPool.shutdown();
+    }
+
+    @Test
+    public void testGetAll() throws Exception {
+        List<Kv.Operand> results = callWithKeys(KVServiceGrpc.KVServiceStub::getAll);
+
+        Assert.assertEquals(KEY_COUNT, results.size());
+        for (int i = 0; i < KEY_COUNT; ++i) {
+            Assert.assertEquals(key(i), results.get(i).getKey());
+            Assert.assertEquals(i % 2 == 0 ? value(i) : ByteString.EMPTY, results.get(i).getValue());
+        }
+        Assert.assertEquals(KEY_COUNT / 2, storage.size());
+    }
+
+    @Test
+    public void testDeleteAll() throws Exception {
+        List<Kv.Operand> results = callWithKeys(KVServiceGrpc.KVServiceStub::deleteAll);
+
+        Assert.assertEquals(KEY_COUNT, results.size());
+        for (int i = 0; i < KEY_COUNT; ++i) {
+            Assert.assertEquals(key(i), results.get(i).getKey());
+            Assert.assertEquals(i % 2 == 0 ? value(i) : ByteString.EMPTY, results.get(i).getValue());
+        }
+        Assert.assertTrue(storage.isEmpty());
+    }
+
+    private List<Kv.Operand> callWithKeys(BiFunction<KVServiceGrpc.KVServiceStub, StreamObserver<Kv.Operand>, StreamObserver<Kv.Operand>> method)
+            throws InterruptedException {
+        List<Kv.Operand> results = Lists.newArrayList();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch finishLatch = new CountDownLatch(1);
+
+        StreamObserver<Kv.Operand> requestObserver = method.apply(stub, new StreamObserver<Kv.Operand>() {
+            @Override
+            public void onNext(Kv.Operand operand) {
+                results.add(operand);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                error.set(throwable);
+                finishLatch.countDown();
+            }
+
+            @Override
+            public void onCompleted() {
+                finishLatch.countDown();
+            }
+        });
+        for (int i = 0; i < KEY_COUNT; ++i) {
+            requestObserver.onNext(Kv.Operand.newBuilder().setKey(key(i)).build());
+        }
+        requestObserver.onCompleted();
+
+        Assert.assertTrue("call did not finish", finishLatch.await(30, TimeUnit.SECONDS));
+        Assert.assertNull(error.get());
+        return results;
+    }
+
+    private StorageServiceClient createStorageServiceClient() {
+        return new StorageServiceClient() {
+            @Override
+            public List<Kv.Operand> getAll(List<Kv.Operand> keys, StoreInfo storeInfo, Node node) {
+                return lookup(keys, storeInfo, node, false);
+            }
+
+            @Override
+            public List<Kv.Operand> deleteAll(List<Kv.Operand> keys, StoreInfo storeInfo, Node node) {
+                return lookup(keys, storeInfo, node, true);
+            }
+        };
+    }
+
+    private List<Kv.Operand> lookup(List<Kv.Operand> keys, StoreInfo storeInfo, Node node, boolean delete) {
+        Assert.assertEquals(storeInfo.getFragment().longValue(), node.getNodeId().longValue());
+        List<Kv.Operand> result = Lists.newArrayListWithCapacity(keys.size());
+        for (Kv.Operand key : keys) {
+            Assert.assertEquals(storeInfo.getFragment().intValue(),
+                    new DefaultModDispatchPolicy().executePolicy(TOTAL_FRAGMENTS, key.getKey()));
+            ByteString value = delete ? storage.remove(key.getKey()) : storage.get(key.getKey());
+            Kv.Operand.Builder builder = Kv.Operand.newBuilder().setKey(key.getKey());
+            if (value != null) {
+                builder.setValue(value);
+            }
+            result.add(builder.build());
+        }
+        return result;
+    }
+
+    private TableMetaCache createTableMetaCache() {
+        Dtable dtable = new Dtable();
+        dtable.setTableId(1L);
+        dtable.setNamespace(storeInfo.getNameSpace());
+        dtable.setTableName(storeInfo.getTableName());
+        dtable.setTotalFragments(TOTAL_FRAGMENTS);
+        return new TableMetaCache() {
+            @Override
+            public Dtable getTable(String namespace, String tableName) {
+                return dtable;
+            }
+        };
+    }
+
+    private DispatcherFactory createDispatcherFactory() {
+        DispatchPolicy dispatchPolicy = new DefaultModDispatchPolicy();
+        Dispatcher dispatcher = new Dispatcher() {
+            @Override
+            public Node dispatch(StoreInfo storeInfo, ByteString dataKey) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Node dispatch(Dtable dtable, int fragment) {
+                Node node = new Node();
+                node.setNodeId((long) fragment);
+                return node;
+            }
+
+            @Override
+            public DispatchPolicy getDispatchPolicy() {
+                return dispatchPolicy;
+            }
+        };
+        return new DispatcherFactory() {
+            @Override
+            public Dispatcher createDispatcher(String dispatcherName) {
+                return dispatcher;
+            }
+        };
+    }
+
+    private ToStringUtils createToStringUtils() {
+        ToStringUtils toStringUtils = new ToStringUtils();
+        ReflectionTestUtils.setField(toStringUtils, "jsonSerDes", new GeneralJsonStringSerDes());
+        return toStringUtils;
+    }
+
+    private static ByteString key(int i) {
+        return ByteString.copyFromUtf8("k" + i);
+    }
+
+    private static ByteString value(int i) {
+        return ByteString.copyFromUtf8("v" + i);
+    }
+}
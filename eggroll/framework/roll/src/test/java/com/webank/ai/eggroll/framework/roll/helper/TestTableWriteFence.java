@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.framework.roll.helper;
+
+import com.webank.ai.eggroll.core.io.StoreInfo;
+import com.webank.ai.eggroll.core.model.DtableStatus;
+import com.webank.ai.eggroll.framework.meta.service.dao.generated.model.model.Dtable;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class TestTableWriteFence {
+    private TableWriteFence tableWriteFence = new TableWriteFence();
+    private StoreInfo storeInfo = StoreInfo.builder().nameSpace("ns").tableName("name").build();
+    private Dtable dtable = new Dtable();
+
+    @Before
+    public void init() {
+        dtable.setNamespace(storeInfo.getNameSpace());
+        dtable.setTableName(storeInfo.getTableName());
+        dtable.setStatus(DtableStatus.NORMAL.name());
+        ReflectionTestUtils.setField(tableWriteFence, "tableMetaCache", new TableMetaCache() {
+            @Override
+            public Dtable getTable(String namespace, String tableName) {
+                return dtable;
+            }
+        });
+    }
+
+    @Test
+    public void testFenceRejectsNewWrites() throws Exception {
+        tableWriteFence.fence(storeInfo, 1, TimeUnit.SECONDS);
+        try {
+            tableWriteFence.enter(storeInfo);
+            Assert.fail("write to a fenced table should be rejected");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            tableWriteFence.fence(storeInfo, 1, TimeUnit.SECONDS);
+            Assert.fail("second rebalance of a fenced table should be rejected");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        tableWriteFence.unfence(storeInfo);
+        tableWriteFence.enter(storeInfo);
+        tableWriteFence.exit(storeInfo);
+    }
+
+    @Test
+    public void testFenceWaitsForWritesInFlight() throws Exception {
+        tableWriteFence.enter(storeInfo);
+        CompletableFuture<Void> fence = CompletableFuture.runAsync(() -> {
+            try {
+                tableWriteFence.fence(storeInfo, 10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        Thread.sleep(300);
+        Assert.assertFalse(fence.isDone());
+        tableWriteFence.exit(storeInfo);
+        fence.get(5, TimeUnit.SECONDS);
+        tableWriteFence.unfence(storeInfo);
+    }
+
+    @Test
+    public void testFenceTimesOutAndUnfences() throws Exception {
+        tableWriteFence.enter(storeInfo);
+        try {
+            tableWriteFence.fence(storeInfo, 200, TimeUnit.MILLISECONDS);
+            Assert.fail("fence should time out while a write is in flight");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        tableWriteFence.enter(storeInfo);
+        tableWriteFence.exit(storeInfo);
+        tableWriteFence.exit(storeInfo);
+    }
+
+    @Test
+    public void testRebalancingStatusRejectsWrites() throws Exception {
+        tableWriteFence.enter(storeInfo);
+        tableWriteFence.check(storeInfo);
+
+        // a rebalance run by another roll is only seen through the table status
+        dtable.setStatus(DtableStatus.REBALANCING.name());
+        try {
+            tableWriteFence.check(storeInfo);
+            Assert.fail("write in flight to a rebalancing table should be rejected");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            tableWriteFence.enter(storeInfo);
+            Assert.fail("write to a rebalancing table should be rejected");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        tableWriteFence.exit(storeInfo);
+
+        dtable.setStatus(DtableStatus.NORMAL.name());
+        tableWriteFence.enter(storeInfo);
+        tableWriteFence.exit(storeInfo);
+    }
+}
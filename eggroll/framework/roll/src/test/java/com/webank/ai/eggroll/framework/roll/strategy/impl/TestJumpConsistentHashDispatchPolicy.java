@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.framework.roll.strategy.impl;
+
+import com.google.protobuf.ByteString;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestJumpConsistentHashDispatchPolicy {
+    private static final int KEY_COUNT = 100000;
+
+    private JumpConsistentHashDispatchPolicy dispatchPolicy = new JumpConsistentHashDispatchPolicy();
+
+    @Test
+    public void testGrowMovesOnlyToNewFragments() {
+        int oldTotal = 10;
+        int newTotal = 12;
+        int moved = 0;
+
+        for (int i = 0; i < KEY_COUNT; ++i) {
+            ByteString key = ByteString.copyFromUtf8("k" + i);
+            int before = dispatchPolicy.executePolicy(oldTotal, key);
+            int after = dispatchPolicy.executePolicy(newTotal, key);
+
+            Assert.assertTrue(before >= 0 && before < oldTotal);
+            if (before != after) {
+                Assert.assertTrue(after >= oldTotal);
+                ++moved;
+            }
+        }
+
+        // expected share is (newTotal - oldTotal) / newTotal
+        double movedRatio = (double) moved / KEY_COUNT;
+        Assert.assertEquals(2.0 / 12, movedRatio, 0.01);
+    }
+
+    @Test
+    public void testBalanced() {
+        int total = 16;
+        int[] counts = new int[total];
+        for (int i = 0; i < KEY_COUNT; ++i) {
+            ++counts[dispatchPolicy.executePolicy(total, ByteString.copyFromUtf8("k" + i))];
+        }
+
+        for (int count : counts) {
+            Assert.assertEquals(KEY_COUNT / total, count, KEY_COUNT / total * 0.1);
+        }
+    }
+}
@@ -17,12 +17,16 @@
 package com.webank.ai.eggroll.networking.proxy.factory;
 
 import com.google.common.net.InetAddresses;
+import com.webank.ai.eggroll.core.metrics.MetricsHttpServer;
+import com.webank.ai.eggroll.core.metrics.MetricsRegistry;
+import com.webank.ai.eggroll.core.metrics.MetricsServerInterceptor;
 import com.webank.ai.eggroll.networking.proxy.grpc.service.DataTransferPipedServerImpl;
 import com.webank.ai.eggroll.networking.proxy.grpc.service.RouteServerImpl;
 import com.webank.ai.eggroll.networking.proxy.manager.ServerConfManager;
 import com.webank.ai.eggroll.networking.proxy.model.ServerConf;
 import com.webank.ai.eggroll.networking.proxy.service.FdnRouter;
 import io.grpc.Server;
+import io.grpc.ServerInterceptors;
 import io.grpc.netty.shaded.io.grpc.netty.GrpcSslContexts;
 import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
 import io.grpc.netty.shaded.io.netty.handler.ssl.ClientAuth;
@@ -36,6 +40,7 @@ import org.apache.logging.log4j.core.config.Configurator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
 import javax.net.ssl.SSLException;
@@ -100,8 +105,15 @@ public class GrpcServerFactory {
 
         }
 
-        serverBuilder.addService(dataTransferPipedServer)
-                .addService(routeServer)
+        MetricsServerInterceptor metricsServerInterceptor = new MetricsServerInterceptor();
+        TaskExecutor grpcServiceExecutor = (TaskExecutor) applicationContext.getBean("grpcServiceExecutor");
+        if (grpcServiceExecutor instanceof ThreadPoolTaskExecutor) {
+            MetricsRegistry.getDefault().registerExecutor("grpcServiceExecutor",
+                    ((ThreadPoolTaskExecutor) grpcServiceExecutor).getThreadPoolExecutor());
+        }
+
+        serverBuilder.addService(ServerInterceptors.intercept(dataTransferPipedServer, metricsServerInterceptor))
+                .addService(ServerInterceptors.intercept(routeServer, metricsServerInterceptor))
                 .maxConcurrentCallsPerConnection(20000)
                 .maxInboundMessageSize(32 << 20)
                 .flowControlWindow(32 << 20)
@@ -110,7 +122,7 @@ public class GrpcServerFactory {
                 .maxConnectionIdle(1, TimeUnit.HOURS)
                 .permitKeepAliveTime(1, TimeUnit.SECONDS)
                 .permitKeepAliveWithoutCalls(true)
-                .executor((TaskExecutor) applicationContext.getBean("grpcServiceExecutor"))
+                .executor(grpcServiceExecutor)
                 .maxConnectionAge(24, TimeUnit.HOURS)
                 .maxConnectionAgeGrace(24, TimeUnit.HOURS);
 
@@ -150,6 +162,14 @@ public class GrpcServerFactory {
             LOGGER.info("running in insecure mode");
         }
 
+        if (serverConf.getMetricsPort() > 0) {
+            try {
+                new MetricsHttpServer(MetricsRegistry.getDefault(), serverConf.getMetricsPort()).start();
+            } catch (IOException e) {
+                LOGGER.warn("failed to start metrics endpoint on port {}", serverConf.getMetricsPort(), e);
+            }
+        }
+
         Runtime.getRuntime().addShutdownHook(new Thread() {
             @Override
             public void run() {
@@ -254,6 +274,11 @@ public class GrpcServerFactory {
                 serverConf.setNeighbourInsecureChannelEnabled(false);
             }
 
+            String metricsPort = properties.getProperty(MetricsHttpServer.METRICS_PORT);
+            if (StringUtils.isNotBlank(metricsPort)) {
+                serverConf.setMetricsPort(Integer.valueOf(metricsPort.trim()));
+            }
+
             String isDebugEnabled = properties.getProperty("debug.enabled");
             if (StringUtils.isNotBlank(isDebugEnabled)
                     && ("true".equals(isDebugEnabled.toLowerCase()))
@@ -32,6 +32,7 @@ import com.webank.ai.eggroll.networking.proxy.util.Timeouts;
 import com.webank.ai.eggroll.networking.proxy.util.ToStringUtils;
 import io.grpc.Grpc;
 import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -53,6 +54,8 @@ public class ServerPushRequestStreamObserver implements StreamObserver<Proxy.Pac
     private static final Logger AUDIT = LogManager.getLogger("audit");
     private static final Logger DEBUGGING = LogManager.getLogger("debugging");
     private final StreamObserver<Proxy.Metadata> responseObserver;
+    private final ServerCallStreamObserver<Proxy.Metadata> serverCallStreamObserver;
+    private final boolean isCreditBased;
     @Autowired
     private ApplicationEventPublisher applicationEventPublisher;
     @Autowired
@@ -92,6 +95,23 @@ public class ServerPushRequestStreamObserver implements StreamObserver<Proxy.Pac
 
         this.noError = true;
         this.ackCount = new AtomicLong(0L);
+
+        // credit-based flow control: the sender gets as many packets in flight as the pipe can hold,
+        // and is granted more only as they are read out of the pipe
+        if (responseObserver instanceof ServerCallStreamObserver) {
+            this.serverCallStreamObserver = (ServerCallStreamObserver<Proxy.Metadata>) responseObserver;
+        } else {
+            this.serverCallStreamObserver = null;
+        }
+        this.isCreditBased = serverCallStreamObserver != null && pipe instanceof PacketQueuePipe;
+
+        if (isCreditBased) {
+            PacketQueuePipe packetQueuePipe = (PacketQueuePipe) pipe;
+            packetQueuePipe.setCreditListener(this::grantCredits);
+            grantCredits(packetQueuePipe.getCapacity());
+        } else {
+            grantCredits(1);
+        }
     }
 
     @Override
@@ -143,6 +163,9 @@ public class ServerPushRequestStreamObserver implements StreamObserver<Proxy.Pac
         if (noError) {
             pipe.write(packet);
             ackCount.incrementAndGet();
+            if (!isCreditBased) {
+                grantCredits(1);
+            }
             //LOGGER.info("myCoordinator: {}, Proxy.Packet coordinator: {}", myCoordinator, packet.getHeader().getSrc().getCoordinator());
             if (isAuditEnabled && packet.getHeader().getSrc().getPartyId().equals(myCoordinator)) {
                 AUDIT.info(toStringUtils.toOneLineString(packet));
@@ -171,6 +194,12 @@ public class ServerPushRequestStreamObserver implements StreamObserver<Proxy.Pac
         }
     }
 
+    private void grantCredits(int credits) {
+        if (serverCallStreamObserver != null && !serverCallStreamObserver.isCancelled()) {
+            serverCallStreamObserver.request(credits);
+        }
+    }
+
     @Override
     public void onError(Throwable throwable) {
         LOGGER.error("[PUSH][OBSERVER][ONERROR] error in push server: {}, metadata: {}, ackCount: {}",
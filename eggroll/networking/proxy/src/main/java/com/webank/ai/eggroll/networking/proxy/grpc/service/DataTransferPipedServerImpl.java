@@ -26,6 +26,7 @@ import com.webank.ai.eggroll.networking.proxy.infra.Pipe;
 import com.webank.ai.eggroll.networking.proxy.util.ErrorUtils;
 import com.webank.ai.eggroll.networking.proxy.util.Timeouts;
 import com.webank.ai.eggroll.networking.proxy.util.ToStringUtils;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.logging.log4j.LogManager;
@@ -63,6 +64,9 @@ public class DataTransferPipedServerImpl extends DataTransferServiceGrpc.DataTra
 
         Pipe pipe = getPipe();
         // LOGGER.info("push pipe: {}", pipe);
+
+        // inbound packets are requested by ServerPushRequestStreamObserver as the pipe frees up
+        ((ServerCallStreamObserver<Proxy.Metadata>) responseObserver).disableAutoInboundFlowControl();
 /*
         PipeHandleNotificationEvent event =
                 eventFactory.createPipeHandleNotificationEvent(
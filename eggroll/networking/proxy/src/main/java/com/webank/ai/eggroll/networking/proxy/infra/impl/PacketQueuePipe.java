@@ -18,6 +18,8 @@ package com.webank.ai.eggroll.networking.proxy.infra.impl;
 
 
 import com.webank.ai.eggroll.api.networking.proxy.Proxy;
+import com.webank.ai.eggroll.core.metrics.InstanceGauge;
+import com.webank.ai.eggroll.core.metrics.MetricsRegistry;
 import com.webank.ai.eggroll.networking.proxy.factory.QueueFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -28,15 +30,25 @@ import org.springframework.stereotype.Component;
 import javax.annotation.PostConstruct;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 
 @Component
 @Scope("prototype")
 public class PacketQueuePipe extends BasePipe {
     private static final Logger LOGGER = LogManager.getLogger(PacketQueuePipe.class);
+    private static final int CAPACITY = 3000;
+    private static final int CREDIT_BATCH_SIZE = 64;
+    private static final long WRITE_WAIT_MILLIS = 1000;
+    private static final InstanceGauge<PacketQueuePipe> QUEUE_DEPTH_GAUGE = MetricsRegistry.getDefault()
+            .instanceGauge("eggroll_proxy_pipe_queue_depth", "packets waiting in open proxy pipes",
+                    PacketQueuePipe::getQueueSize);
     @Autowired
     private QueueFactory queueFactory;
     private Proxy.Metadata metadata;
     private LinkedBlockingQueue<Proxy.Packet> queue;
+    private volatile IntConsumer creditListener;
+    private final AtomicInteger releasedCredits = new AtomicInteger(0);
     private int inCounter = 0;
     private int outCounter = 0;
 
@@ -52,13 +64,19 @@ public class PacketQueuePipe extends BasePipe {
 
     @PostConstruct
     private void init() {
-        this.queue = queueFactory.createLinkedBlockingQueue(3000);
+        this.queue = queueFactory.createLinkedBlockingQueue(CAPACITY);
+        QUEUE_DEPTH_GAUGE.track(this);
     }
 
     @Override
     public Proxy.Packet read() {
         // LOGGER.info("read for the {} time, queue size: {}", ++inCounter, queue.size());
-        return queue.poll();
+        Proxy.Packet result = queue.poll();
+        if (result != null) {
+            releaseCredit();
+        }
+
+        return result;
     }
 
     @Override
@@ -71,15 +89,31 @@ public class PacketQueuePipe extends BasePipe {
             LOGGER.debug("read wait timeout");
             Thread.currentThread().interrupt();
         }
+        if (result != null) {
+            releaseCredit();
+        }
 
         return result;
     }
 
+    /**
+     * Blocks while the pipe is full. Writers which can hold back their producer should instead
+     * only write as many packets as they have been granted through {@link #setCreditListener(IntConsumer)}.
+     */
     @Override
     public void write(Object o) {
         // LOGGER.info("write for the {} time, queue size: {}", ++outCounter, queue.size());
         if (o instanceof Proxy.Packet) {
-            queue.add((Proxy.Packet) o);
+            Proxy.Packet packet = (Proxy.Packet) o;
+            try {
+                while (!queue.offer(packet, WRITE_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    checkNotClosed();
+                    LOGGER.debug("pipe full, waiting for reader. metadata: {}", metadata);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while waiting for pipe capacity", e);
+            }
         } else {
             throw new IllegalArgumentException("object o is of type: " + o.getClass().getCanonicalName()
                     + ", which is not of type " + Proxy.Packet.class.getCanonicalName());
@@ -99,4 +133,36 @@ public class PacketQueuePipe extends BasePipe {
     public int getQueueSize() {
         return queue.size();
     }
+
+    public int getCapacity() {
+        return CAPACITY;
+    }
+
+    public int getRemainingCapacity() {
+        return queue.remainingCapacity();
+    }
+
+    /**
+     * Registers the listener to be granted credits as packets are read out of the pipe. A writer which starts
+     * with {@link #getCapacity()} credits and writes one packet per credit never finds the pipe full.
+     */
+    public void setCreditListener(IntConsumer creditListener) {
+        this.creditListener = creditListener;
+    }
+
+    private void releaseCredit() {
+        IntConsumer listener = creditListener;
+        if (listener == null) {
+            return;
+        }
+
+        // batches grants, but never holds one back once the reader has caught up
+        int released = releasedCredits.incrementAndGet();
+        if (released >= CREDIT_BATCH_SIZE || queue.isEmpty()) {
+            released = releasedCredits.getAndSet(0);
+            if (released > 0) {
+                listener.accept(released);
+            }
+        }
+    }
 }
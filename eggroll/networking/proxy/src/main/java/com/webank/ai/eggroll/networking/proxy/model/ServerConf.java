@@ -45,6 +45,7 @@ public class ServerConf {
     private boolean isNeighbourInsecureChannelEnabled;
 
     private boolean isDebugEnabled;
+    private int metricsPort;
 
     @Override
     public String toString() {
@@ -64,6 +65,7 @@ public class ServerConf {
                 ", isAuditEnabled=" + isAuditEnabled +
                 ", isNeighbourInsecureChannelEnabled=" + isNeighbourInsecureChannelEnabled +
                 ", isDebugEnabled=" + isDebugEnabled +
+                ", metricsPort=" + metricsPort +
                 '}';
     }
 
@@ -186,4 +188,12 @@ public class ServerConf {
     public void setDebugEnabled(boolean debugEnabled) {
         isDebugEnabled = debugEnabled;
     }
+
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
+    public void setMetricsPort(int metricsPort) {
+        this.metricsPort = metricsPort;
+    }
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webank.ai.eggroll.framework.storage.benchmark;
+
+import com.webank.ai.eggroll.core.model.Bytes;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+final class BenchmarkSupport {
+    static final int KEY_SIZE = 16;
+    static final int BATCH_SIZE = 1000;
+    static final int CHUNK_ENTRIES = 1000;
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Fixed width keys as db_bench does, so sequential ids are also sorted keys.
+     */
+    static Bytes key(long id) {
+        return Bytes.wrap(keyBytes(id));
+    }
+
+    static byte[] keyBytes(long id) {
+        return String.format("%0" + KEY_SIZE + "d", id).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Random value of valueSize which compresses to about half, like db_bench's default.
+     */
+    static byte[] value(int valueSize) {
+        Random random = new Random(301);
+        byte[] result = new byte[valueSize];
+        for (int i = 0; i < valueSize; i += 2) {
+            result[i] = (byte) (' ' + random.nextInt(95));
+            if (i + 1 < valueSize) {
+                result[i + 1] = result[i];
+            }
+        }
+
+        return result;
+    }
+
+    static Path createTempDirectory(String prefix) throws IOException {
+        return Files.createTempDirectory(prefix);
+    }
+
+    static void delete(Path dir) throws IOException {
+        if (dir == null || Files.notExists(dir)) {
+            return;
+        }
+
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webank.ai.eggroll.framework.storage.benchmark;
+
+import com.google.common.collect.Lists;
+import com.webank.ai.eggroll.core.io.KeyValue;
+import com.webank.ai.eggroll.core.io.KeyValueIterator;
+import com.webank.ai.eggroll.core.io.KeyValueStore;
+import com.webank.ai.eggroll.core.io.StoreInfo;
+import com.webank.ai.eggroll.core.model.Bytes;
+import com.webank.ai.eggroll.framework.storage.service.model.LMDBStore;
+import com.webank.ai.eggroll.framework.storage.service.model.LevelDBStore;
+import com.webank.ai.eggroll.framework.storage.service.model.enums.Stores;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * db_bench style workloads against the stores directly. Every iteration starts from a fresh store
+ * holding entryCount sequential keys.
+ *
+ * Run with: java -jar storage/storage-benchmark/target/benchmarks.jar KeyValueStoreBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(2)
+@State(Scope.Benchmark)
+public class KeyValueStoreBenchmark {
+    @Param({"LMDB", "LEVEL_DB", "IN_MEMORY"})
+    private String store;
+
+    @Param({"100", "1024", "16384"})
+    private int valueSize;
+
+    @Param({"10000"})
+    private int entryCount;
+
+    private Path dataDir;
+    private KeyValueStore<Bytes, byte[]> kvStore;
+    private byte[] value;
+    private long nextSeq;
+
+    @Setup(Level.Iteration)
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        dataDir = BenchmarkSupport.createTempDirectory("kv-store-benchmark-");
+        value = BenchmarkSupport.value(valueSize);
+
+        StoreInfo storeInfo = StoreInfo.builder()
+                .type(store)
+                .nameSpace("benchmark")
+                .tableName("kv_store_" + valueSize)
+                .fragment(0)
+                .build();
+        Properties properties = new Properties();
+        properties.put(LMDBStore.DATA_DIR, dataDir.toString());
+        properties.put(LevelDBStore.DATA_DIR, dataDir.toString());
+
+        kvStore = Stores.valueOf(store).create(storeInfo);
+        kvStore.init(properties);
+
+        List<KeyValue<Bytes, byte[]>> batch = Lists.newArrayListWithCapacity(BenchmarkSupport.BATCH_SIZE);
+        for (long i = 0; i < entryCount; ++i) {
+            batch.add(KeyValue.pair(BenchmarkSupport.key(i), value));
+            if (batch.size() >= BenchmarkSupport.BATCH_SIZE) {
+                kvStore.putAll(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            kvStore.putAll(batch);
+        }
+        nextSeq = entryCount;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        kvStore.destroy();
+        BenchmarkSupport.delete(dataDir);
+    }
+
+    @Benchmark
+    public void fillSeq() {
+        kvStore.put(BenchmarkSupport.key(nextSeq++), value);
+    }
+
+    @Benchmark
+    public void fillRandom() {
+        kvStore.put(BenchmarkSupport.key(ThreadLocalRandom.current().nextInt(entryCount)), value);
+    }
+
+    @Benchmark
+    public byte[] readRandom() {
+        return kvStore.get(BenchmarkSupport.key(ThreadLocalRandom.current().nextInt(entryCount)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkSupport.CHUNK_ENTRIES)
+    public void iterateChunked(Blackhole blackhole) {
+        // start early enough that every invocation really reads CHUNK_ENTRIES entries
+        int bound = Math.max(1, entryCount - BenchmarkSupport.CHUNK_ENTRIES);
+        Bytes from = BenchmarkSupport.key(ThreadLocalRandom.current().nextInt(bound));
+        int count = 0;
+        try (KeyValueIterator<Bytes, byte[]> iterator = kvStore.range(from, null)) {
+            while (count < BenchmarkSupport.CHUNK_ENTRIES && iterator.hasNext()) {
+                blackhole.consume(iterator.next());
+                ++count;
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkSupport.BATCH_SIZE)
+    public void putAllStream() {
+        StreamObserver<KeyValue<Bytes, byte[]>> putAll = kvStore.putAll();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < BenchmarkSupport.BATCH_SIZE; ++i) {
+            putAll.onNext(KeyValue.pair(BenchmarkSupport.key(random.nextInt(entryCount)), value));
+        }
+        putAll.onCompleted();
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.webank.ai.eggroll.framework.storage.benchmark;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import com.webank.ai.eggroll.api.storage.KVServiceGrpc;
+import com.webank.ai.eggroll.api.storage.Kv;
+import com.webank.ai.eggroll.core.constant.MetaConstants;
+import com.webank.ai.eggroll.core.io.StoreInfo;
+import com.webank.ai.eggroll.framework.storage.service.manager.LMDBStoreManager;
+import com.webank.ai.eggroll.framework.storage.service.server.LMDBServicer;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The same workloads as {@link KeyValueStoreBenchmark} through LMDBServicer, served in-process so that
+ * serialization and the servicer's copying are measured without the network.
+ *
+ * Run with: java -jar storage/storage-benchmark/target/benchmarks.jar LMDBServicerBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(2)
+@State(Scope.Benchmark)
+public class LMDBServicerBenchmark {
+    private static final long CHUNK_BYTES = 2L * 1024 * 1024;
+
+    @Param({"100", "1024", "16384"})
+    private int valueSize;
+
+    @Param({"10000"})
+    private int entryCount;
+
+    private Path dataDir;
+    private Server server;
+    private ManagedChannel channel;
+    private KVServiceGrpc.KVServiceBlockingStub blockingStub;
+    private KVServiceGrpc.KVServiceStub asyncStub;
+    private ByteString value;
+    private AtomicLong nextSeq;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dataDir = BenchmarkSupport.createTempDirectory("lmdb-servicer-benchmark-");
+        value = UnsafeByteOperations.unsafeWrap(BenchmarkSupport.value(valueSize));
+
+        String serverName = InProcessServerBuilder.generateName();
+        // in-process calls do not serialize in onNext, so values have to be copied out of the map
+        LMDBServicer servicer = new LMDBServicer(new LMDBStoreManager(dataDir.toString()), false);
+        server = InProcessServerBuilder.forName(serverName)
+                .addService(ServerInterceptors.intercept(servicer, new LMDBServicer.KvStoreInterceptor()))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(serverName).build();
+
+        StoreInfo storeInfo = StoreInfo.builder()
+                .type("LMDB")
+                .nameSpace("benchmark")
+                .tableName("lmdb_servicer_" + valueSize)
+                .fragment(0)
+                .build();
+        Metadata headers = MetaConstants.createMetadataFromStoreInfo(storeInfo);
+        blockingStub = MetadataUtils.attachHeaders(KVServiceGrpc.newBlockingStub(channel), headers);
+        asyncStub = MetadataUtils.attachHeaders(KVServiceGrpc.newStub(channel), headers);
+
+        for (long i = 0; i < entryCount; i += BenchmarkSupport.BATCH_SIZE) {
+            putAll(i, (int) Math.min(BenchmarkSupport.BATCH_SIZE, entryCount - i), false);
+        }
+        nextSeq = new AtomicLong(entryCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+        blockingStub.destroy(Kv.Empty.getDefaultInstance());
+        channel.shutdownNow().awaitTermination(10, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(10, TimeUnit.SECONDS);
+        BenchmarkSupport.delete(dataDir);
+    }
+
+    @Benchmark
+    public Kv.Empty fillSeq() {
+        return blockingStub.put(operand(nextSeq.getAndIncrement()));
+    }
+
+    @Benchmark
+    public Kv.Empty fillRandom() {
+        return blockingStub.put(operand(ThreadLocalRandom.current().nextInt(entryCount)));
+    }
+
+    @Benchmark
+    public Kv.Operand readRandom() {
+        return blockingStub.get(Kv.Operand.newBuilder()
+                .setKey(UnsafeByteOperations.unsafeWrap(BenchmarkSupport.keyBytes(ThreadLocalRandom.current().nextInt(entryCount))))
+                .build());
+    }
+
+    /**
+     * One iterate call as roll issues them: from a random key until the chunk reaches CHUNK_BYTES.
+     */
+    @Benchmark
+    public void iterateChunked(Blackhole blackhole) {
+        Kv.Range range = Kv.Range.newBuilder()
+                .setStart(UnsafeByteOperations.unsafeWrap(BenchmarkSupport.keyBytes(ThreadLocalRandom.current().nextInt(entryCount))))
+                .setMinChunkSize(CHUNK_BYTES)
+                .build();
+        Iterator<Kv.Operand> iterator = blockingStub.iterate(range);
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkSupport.BATCH_SIZE)
+    public void putAllStream() throws InterruptedException {
+        putAll(0, BenchmarkSupport.BATCH_SIZE, true);
+    }
+
+    private void putAll(long firstId, int count, boolean randomKeys) throws InterruptedException {
+        CountDownLatch finishLatch = new CountDownLatch(1);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        StreamObserver<Kv.Operand> requestObserver = asyncStub.putAll(new StreamObserver<Kv.Empty>() {
+            @Override
+            public void onNext(Kv.Empty empty) {
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                error.set(throwable);
+                finishLatch.countDown();
+            }
+
+            @Override
+            public void onCompleted() {
+                finishLatch.countDown();
+            }
+        });
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < count; ++i) {
+            requestObserver.onNext(operand(randomKeys ? random.nextInt(entryCount) : firstId + i));
+        }
+        requestObserver.onCompleted();
+        finishLatch.await();
+
+        if (error.get() != null) {
+            throw new IllegalStateException(error.get());
+        }
+    }
+
+    private Kv.Operand operand(long id) {
+        return Kv.Operand.newBuilder()
+                .setKey(UnsafeByteOperations.unsafeWrap(BenchmarkSupport.keyBytes(id)))
+                .setValue(value)
+                .build();
+    }
+}
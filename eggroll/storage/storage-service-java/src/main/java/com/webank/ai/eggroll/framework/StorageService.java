@@ -16,6 +16,9 @@
 
 package com.webank.ai.eggroll.framework;
 
+import com.webank.ai.eggroll.core.metrics.MetricsHttpServer;
+import com.webank.ai.eggroll.core.metrics.MetricsRegistry;
+import com.webank.ai.eggroll.core.metrics.MetricsServerInterceptor;
 import com.webank.ai.eggroll.core.server.BaseEggRollServer;
 import com.webank.ai.eggroll.framework.storage.service.manager.LMDBStoreManager;
 import com.webank.ai.eggroll.framework.storage.service.server.LMDBServicer;
@@ -46,6 +49,21 @@ public class StorageService extends BaseEggRollServer {
                 .desc("directory to store data")
                 .build();
 
+        Option metricsPortOption = Option.builder("m")
+                .longOpt("metrics-port")
+                .argName("port")
+                .numberOfArgs(1)
+                .desc("port for the metrics endpoint")
+                .build();
+
+        Option storePropertyOption = Option.builder("s")
+                .longOpt("store-property")
+                .argName("key=value")
+                .numberOfArgs(2)
+                .valueSeparator('=')
+                .desc("property passed to every store, e.g. putall.batch.bytes=67108864")
+                .build();
+
         Option helpOption = Option.builder("h")
                 .longOpt("help")
                 .desc("print this message")
@@ -53,6 +71,8 @@ public class StorageService extends BaseEggRollServer {
 
         options.addOption(serverPortOption)
                 .addOption(dataDirOption)
+                .addOption(metricsPortOption)
+                .addOption(storePropertyOption)
                 .addOption(helpOption);
 
         CommandLineParser parser = new DefaultParser();
@@ -62,12 +82,17 @@ public class StorageService extends BaseEggRollServer {
         String dataDir = cmd.getOptionValue("d");
 
 
-        LMDBServicer objectStoreServicer = new LMDBServicer(new LMDBStoreManager(dataDir));
+        LMDBServicer objectStoreServicer = new LMDBServicer(new LMDBStoreManager(dataDir, cmd.getOptionProperties("s")), true);
         Server server = ServerBuilder.forPort(serverPort)
-                .addService(ServerInterceptors.intercept(objectStoreServicer, new LMDBServicer.KvStoreInterceptor()))
+                .addService(ServerInterceptors.intercept(objectStoreServicer,
+                        new LMDBServicer.KvStoreInterceptor(), new MetricsServerInterceptor()))
                 .maxInboundMessageSize(256 << 20).build();
 
 
+        if (cmd.hasOption("m")) {
+            new MetricsHttpServer(MetricsRegistry.getDefault(), Integer.valueOf(cmd.getOptionValue("m"))).start();
+        }
+
         LOGGER.info("Server started listening on port: {}, data dir: {}", serverPort, dataDir);
         server.start();
         server.awaitTermination();
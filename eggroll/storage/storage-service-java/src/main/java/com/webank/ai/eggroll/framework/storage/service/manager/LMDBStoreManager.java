@@ -17,6 +17,7 @@
 package com.webank.ai.eggroll.framework.storage.service.manager;
 
 import com.google.common.cache.*;
+import com.webank.ai.eggroll.core.error.exception.ProcessorStateException;
 import com.webank.ai.eggroll.core.io.KeyValueStore;
 import com.webank.ai.eggroll.core.io.StoreInfo;
 import com.webank.ai.eggroll.core.io.StoreManager;
@@ -36,6 +37,7 @@ import java.nio.file.attribute.FileTime;
 import java.util.Properties;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 public class LMDBStoreManager implements StoreManager<Bytes, byte[]> {
@@ -58,31 +60,27 @@ public class LMDBStoreManager implements StoreManager<Bytes, byte[]> {
     };
     private final Timer timer;
     private final String parentDir;
+    private final Properties storeProperties;
     private LoadingCache<StoreInfo, LMDBStore> storeCache = CacheBuilder.newBuilder()
             .expireAfterAccess(360, TimeUnit.MINUTES)
             .removalListener(REMOVAL_LISTENER)
             .build(new CacheLoader<StoreInfo, LMDBStore>() {
                 @Override
                 public LMDBStore load(StoreInfo storeInfo) throws Exception {
-                    LMDBStore store = (LMDBStore) Stores.LMDB.create(storeInfo);
-                    LOGGER.info("Loading " + store.toString());
-                    if (!store.isOpen()) {
-                        Properties properties = new Properties();
-                        if (storeInfo.getType().equalsIgnoreCase(Stores.IN_MEMORY.name())) {
-                            // should config the same as python processor
-                            properties.put(LMDBStore.DATA_DIR, Paths.get(parentDir, LMDB_TEMPORARY).toString());
-                        } else {
-                            properties.put(LMDBStore.DATA_DIR, Paths.get(parentDir, LMDB).toString());
-                        }
-                        store.init(properties);
-                        LOGGER.info("Initiated " + store.toString());
-                    }
-                    return store;
+                    return loadStore(storeInfo, 0L);
                 }
             });
 
     public LMDBStoreManager(String parentDir) {
+        this(parentDir, new Properties());
+    }
+
+    /**
+     * @param storeProperties defaults for every store opened, such as {@link LMDBStore#PUT_ALL_BATCH_BYTES}
+     */
+    public LMDBStoreManager(String parentDir, Properties storeProperties) {
         this.parentDir = parentDir;
+        this.storeProperties = storeProperties;
         timer = new Timer();
         timer.scheduleAtFixedRate(new TimerTask() {
             @Override
@@ -102,6 +100,18 @@ public class LMDBStoreManager implements StoreManager<Bytes, byte[]> {
         return storeCache.getUnchecked(info);
     }
 
+    /**
+     * Creates the store with an initial map size of {@code mapSizeHint} bytes if it is not open yet.
+     * A hint of 0 or less falls back to {@link LMDBStore#DEFAULT_MAP_SIZE}. The map still grows on demand.
+     */
+    public KeyValueStore<Bytes, byte[]> createIfMissing(StoreInfo info, long mapSizeHint) {
+        try {
+            return storeCache.get(info, () -> loadStore(info, mapSizeHint));
+        } catch (ExecutionException e) {
+            throw new ProcessorStateException("Error creating store " + info, e.getCause());
+        }
+    }
+
     @Override
     public void destroy(StoreInfo info) {
         KeyValueStore<Bytes, byte[]> store = storeCache.getUnchecked(info);
@@ -118,6 +128,27 @@ public class LMDBStoreManager implements StoreManager<Bytes, byte[]> {
         storeCache.cleanUp();
     }
 
+    private LMDBStore loadStore(StoreInfo storeInfo, long mapSizeHint) {
+        LMDBStore store = (LMDBStore) Stores.LMDB.create(storeInfo);
+        LOGGER.info("Loading " + store.toString());
+        if (!store.isOpen()) {
+            Properties properties = new Properties();
+            properties.putAll(storeProperties);
+            if (storeInfo.getType().equalsIgnoreCase(Stores.IN_MEMORY.name())) {
+                // should config the same as python processor
+                properties.put(LMDBStore.DATA_DIR, Paths.get(parentDir, LMDB_TEMPORARY).toString());
+            } else {
+                properties.put(LMDBStore.DATA_DIR, Paths.get(parentDir, LMDB).toString());
+            }
+            if (mapSizeHint > 0) {
+                properties.put(LMDBStore.MAP_SIZE, String.valueOf(mapSizeHint));
+            }
+            store.init(properties);
+            LOGGER.info("Initiated " + store.toString());
+        }
+        return store;
+    }
+
     private void cleanRoutine() {
         File tempDirectory = Paths.get(parentDir, LMDB_TEMPORARY).toFile();
         if (tempDirectory == null || !tempDirectory.isDirectory()) {
@@ -36,15 +36,23 @@ public class LocalStoreManager implements StoreManager<Bytes, byte[]> {
     private final Map<StoreInfo, KeyValueStore<Bytes, byte[]>> storeMap;
     // for mock
     private final String parentDir;
+    private final Properties storeProperties;
 
     public LocalStoreManager() {
-        this.storeMap = new ConcurrentHashMap<>();
-        this.parentDir = System.getProperty("user.dir");
+        this(System.getProperty("user.dir"));
     }
 
     public LocalStoreManager(String parentDir) {
+        this(parentDir, new Properties());
+    }
+
+    /**
+     * @param storeProperties defaults for every store opened, such as {@link LevelDBStore#CACHE_SIZE}
+     */
+    public LocalStoreManager(String parentDir, Properties storeProperties) {
         this.storeMap = new ConcurrentHashMap<>();
         this.parentDir = parentDir;
+        this.storeProperties = storeProperties;
     }
 
     @Override
@@ -64,6 +72,7 @@ public class LocalStoreManager implements StoreManager<Bytes, byte[]> {
             if (!storeMap.containsKey(info)) {
                 KeyValueStore keyValueStore = type.create(info);
                 Properties properties = new Properties();
+                properties.putAll(storeProperties);
                 properties.put(LevelDBStore.DATA_DIR, parentDir);
                 keyValueStore.init(properties);
                 storeMap.putIfAbsent(info, keyValueStore);
@@ -22,40 +22,73 @@ import com.webank.ai.eggroll.core.io.KeyValue;
 import com.webank.ai.eggroll.core.io.KeyValueIterator;
 import com.webank.ai.eggroll.core.io.KeyValueStore;
 import com.webank.ai.eggroll.core.io.StoreInfo;
+import com.webank.ai.eggroll.core.metrics.InstanceGauge;
+import com.webank.ai.eggroll.core.metrics.MetricsRegistry;
+import com.webank.ai.eggroll.core.model.Bytes;
 import io.grpc.stub.StreamObserver;
 
 import java.util.*;
-
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sorted in-memory store on a {@link ConcurrentSkipListMap}. Iterators walk the live map and are weakly
+ * consistent: they never fail on concurrent writes and may or may not see them. Entry count and the bytes of
+ * keys and values held are kept up to date on every write.
+ */
 public class InMemoryKeyValueStore<K, V> implements KeyValueStore<K, V> {
+    private static final InstanceGauge<InMemoryKeyValueStore<?, ?>> USED_SIZE_GAUGE = MetricsRegistry.getDefault()
+            .instanceGauge("eggroll_storage_in_memory_used_bytes", "bytes of keys and values in open in-memory stores",
+                    store -> store.sizeInBytes());
+    private static final InstanceGauge<InMemoryKeyValueStore<?, ?>> ENTRIES_GAUGE = MetricsRegistry.getDefault()
+            .instanceGauge("eggroll_storage_in_memory_entries", "entries of open in-memory stores",
+                    store -> store.count());
     private final String name;
-    private final NavigableMap<K, V> map;
+    private final ConcurrentNavigableMap<K, V> map;
+    private final AtomicLong count;
+    private final AtomicLong sizeInBytes;
     private volatile boolean open = false;
 
     public InMemoryKeyValueStore(StoreInfo info) {
         this.name = info.getTableName();
-        this.map = new TreeMap<>();
+        this.map = new ConcurrentSkipListMap<>();
+        this.count = new AtomicLong(0);
+        this.sizeInBytes = new AtomicLong(0);
     }
 
     @Override
-    public synchronized void put(K key, V value) {
+    public void put(K key, V value) {
+        Objects.requireNonNull(key, "key cannot be null");
         if (value == null) {
-            this.map.remove(key);
+            delete(key);
+            return;
+        }
+
+        final V originalValue = this.map.put(key, value);
+        if (originalValue == null) {
+            added(key, value);
         } else {
-            this.map.put(key, value);
+            sizeInBytes.addAndGet(sizeOf(value) - sizeOf(originalValue));
         }
     }
 
     @Override
-    public synchronized V putIfAbsent(K key, V value) {
-        final V originalValue = get(key);
+    public V putIfAbsent(K key, V value) {
+        Objects.requireNonNull(key, "key cannot be null");
+        if (value == null) {
+            return get(key);
+        }
+
+        final V originalValue = this.map.putIfAbsent(key, value);
         if (originalValue == null) {
-            put(key, value);
+            added(key, value);
         }
         return originalValue;
     }
 
     @Override
-    public synchronized void putAll(List<KeyValue<K, V>> entries) {
+    public void putAll(List<KeyValue<K, V>> entries) {
         for (final KeyValue<K, V> entry : entries) {
             put(entry.key, entry.value);
         }
@@ -82,17 +115,22 @@ public class InMemoryKeyValueStore<K, V> implements KeyValueStore<K, V> {
     }
 
     @Override
-    public synchronized V delete(K key) {
-        return this.map.remove(key);
+    public V delete(K key) {
+        final V originalValue = this.map.remove(key);
+        if (originalValue != null) {
+            count.decrementAndGet();
+            sizeInBytes.addAndGet(-sizeOf(key) - sizeOf(originalValue));
+        }
+        return originalValue;
     }
 
     @Override
-    public synchronized V get(K key) {
+    public V get(K key) {
         return this.map.get(key);
     }
 
     @Override
-    public synchronized KeyValueIterator<K, V> range(K from, K to) {
+    public KeyValueIterator<K, V> range(K from, K to) {
         if (from != null && to != null)
             return new InMemoryKeyValueIterator<>(this.map.subMap(from, false, to, false).entrySet().iterator(), name);
         if (from != null)
@@ -103,25 +141,50 @@ public class InMemoryKeyValueStore<K, V> implements KeyValueStore<K, V> {
     }
 
     @Override
-    public synchronized KeyValueIterator<K, V> all() {
-        final TreeMap<K, V> copy = new TreeMap<>(this.map);
-        return new InMemoryKeyValueIterator<>(copy.entrySet().iterator(), name);
+    public KeyValueIterator<K, V> all() {
+        return new InMemoryKeyValueIterator<>(this.map.entrySet().iterator(), name);
     }
 
     @Override
-    public synchronized void destroy() {
+    public void destroy() {
         close();
     }
 
     @Override
     public long count() {
-        throw new UnsupportedOperationException("count operation not supported");
+        return count.get();
+    }
+
+    /**
+     * Bytes held by keys and values, counted for {@link Bytes} and byte array keys and values.
+     */
+    public long sizeInBytes() {
+        return sizeInBytes.get();
     }
 
     @Override
     public synchronized void close() {
-        this.map.clear();
         this.open = false;
+        USED_SIZE_GAUGE.untrack(this);
+        ENTRIES_GAUGE.untrack(this);
+        this.map.clear();
+        this.count.set(0);
+        this.sizeInBytes.set(0);
+    }
+
+    private void added(K key, V value) {
+        count.incrementAndGet();
+        sizeInBytes.addAndGet(sizeOf(key) + sizeOf(value));
+    }
+
+    private static long sizeOf(Object object) {
+        if (object instanceof Bytes) {
+            return ((Bytes) object).get().length;
+        }
+        if (object instanceof byte[]) {
+            return ((byte[]) object).length;
+        }
+        return 0;
     }
 
     @Override
@@ -142,6 +205,8 @@ public class InMemoryKeyValueStore<K, V> implements KeyValueStore<K, V> {
     @Override
     public synchronized void init(Properties properties) {
         this.open = true;
+        USED_SIZE_GAUGE.track(this);
+        ENTRIES_GAUGE.track(this);
     }
 
 
@@ -22,6 +22,8 @@ import com.webank.ai.eggroll.core.io.KeyValue;
 import com.webank.ai.eggroll.core.io.KeyValueIterator;
 import com.webank.ai.eggroll.core.io.KeyValueStore;
 import com.webank.ai.eggroll.core.io.StoreInfo;
+import com.webank.ai.eggroll.core.metrics.InstanceGauge;
+import com.webank.ai.eggroll.core.metrics.MetricsRegistry;
 import com.webank.ai.eggroll.core.model.Bytes;
 import com.webank.ai.eggroll.core.utils.AbstractIterator;
 import com.webank.ai.eggroll.core.utils.ErrorUtils;
@@ -35,22 +37,69 @@ import org.lmdbjava.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 
 public class LMDBStore implements KeyValueStore<Bytes, byte[]> {
     public static final String DATA_DIR = "data.dir";
+    public static final String MAP_SIZE = "map.size";
+    public static final long DEFAULT_MAP_SIZE = 1L << 30;
+    public static final String PUT_ALL_BATCH_BYTES = "putall.batch.bytes";
+    public static final String PUT_ALL_BATCH_RECORDS = "putall.batch.records";
+    public static final long DEFAULT_PUT_ALL_BATCH_BYTES = 64L << 20;
+    public static final long DEFAULT_PUT_ALL_BATCH_RECORDS = 100_000;
+    // how long the committing thread waits for more point writes to join its txn. 0 commits what is queued
+    public static final String GROUP_COMMIT_WINDOW_MICROS = "group.commit.window.micros";
+    private static final int MAX_GROUP_COMMIT_WRITES = 1024;
     private static final String TOSTRING_FORMAT = "LMDBStore : %s";
+    private static final int MAX_KEY_SIZE = 511;
+    private static final ThreadLocal<ByteBuffer> KEY_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(MAX_KEY_SIZE));
+    private static final long GROW_LOCK_TIMEOUT_SECONDS = 60;
+    // fraction of the free map space a streaming putAll batch may fill before the map is grown for it
+    private static final double STREAM_GROW_RATIO = 0.8;
     private static Logger LOGGER = LogManager.getLogger(LMDBStore.class);
+    private static final InstanceGauge<LMDBStore> MAP_SIZE_GAUGE = MetricsRegistry.getDefault()
+            .instanceGauge("eggroll_storage_lmdb_map_size_bytes", "map size of open lmdb envs", store -> store.mapSize);
+    private static final InstanceGauge<LMDBStore> USED_SIZE_GAUGE = MetricsRegistry.getDefault()
+            .instanceGauge("eggroll_storage_lmdb_used_bytes", "pages in use of open lmdb envs",
+                    store -> store.readEnvStat(env -> (env.info().lastPageNumber + 1) * env.stat().pageSize));
+    private static final InstanceGauge<LMDBStore> ENTRIES_GAUGE = MetricsRegistry.getDefault()
+            .instanceGauge("eggroll_storage_lmdb_entries", "entries of open lmdb envs",
+                    store -> store.readEnvStat(env -> env.stat().entries));
     private final StoreInfo storeInfo;
     private final Set<KeyValueIterator> openIterators = Collections.synchronizedSet(new HashSet<KeyValueIterator>());
     private File dbDir;
     private volatile boolean open = false;
-    private Env<byte[]> env;
-    private Dbi<byte[]> dbi;
+    private Env<ByteBuffer> env;
+    private Dbi<ByteBuffer> dbi;
+    private volatile long mapSize;
+    // every txn holds a read stamp; growing the map takes the write stamp so no txn is in flight
+    private final StampedLock resizeLock = new StampedLock();
+    // keeps metric scrapes from reading env stats while the env is being closed
+    private final Object envStatLock = new Object();
+    private final AtomicInteger pendingGrows = new AtomicInteger(0);
+    private final Set<Runnable> growListeners = ConcurrentHashMap.newKeySet();
+    private long putAllBatchBytes = DEFAULT_PUT_ALL_BATCH_BYTES;
+    private long putAllBatchRecords = DEFAULT_PUT_ALL_BATCH_RECORDS;
+    private long groupCommitWindowNanos = 0;
+    private final Queue<PendingWrite<?>> pendingWrites = new ConcurrentLinkedQueue<>();
+    // the env is opened with MDB_NOLOCK, which disables lmdb's own writer mutex, so every write txn takes this
+    private final ReentrantLock writerLock = new ReentrantLock();
 
     private ErrorUtils errorUtils;
 
@@ -62,76 +111,117 @@ public class LMDBStore implements KeyValueStore<Bytes, byte[]> {
     @Override
     public void put(Bytes key, byte[] value) {
         Objects.requireNonNull(key, "key cannot be null");
-        if (value == null || value.length == 0) {
-            dbi.delete(key.get());
-        } else {
-            dbi.put(key.get(), value);
-        }
+        groupWrite(txn -> {
+            putInTxn(txn, key, value);
+            return null;
+        });
     }
 
     @Override
     public byte[] putIfAbsent(Bytes key, byte[] value) {
         Objects.requireNonNull(key, "key cannot be null");
 
-        try (Txn<byte[]> txn = env.txnWrite()) {
-            byte[] oldValue = dbi.get(txn, key.get());
+        return groupWrite(txn -> {
+            byte[] oldValue = toBytes(dbi.get(txn, keyBuffer(key)));
             if (oldValue == null) {
-                if (value == null || value.length == 0) {
-                    dbi.delete(txn, key.get());
-                } else {
-                    dbi.put(txn, key.get(), value);
-                }
+                putInTxn(txn, key, value);
             }
-            txn.commit();
             return oldValue;
-        }
+        });
     }
 
     @Override
     public void putAll(List<KeyValue<Bytes, byte[]>> entries) {
-        try (Txn<byte[]> txn = env.txnWrite()) {
+        write(txn -> {
             for (KeyValue<Bytes, byte[]> entry : entries) {
                 Objects.requireNonNull(entry.key, "key cannot be null");
-                if (entry.value == null) {
-                    dbi.delete(txn, entry.key.get());
-                } else {
-                    dbi.put(txn, entry.key.get(), entry.value);
-                }
+                putEntryInTxn(txn, entry.key, entry.value);
             }
-            txn.commit();
-        }
+            return null;
+        });
     }
 
     @Override
     public StreamObserver<KeyValue<Bytes, byte[]>> putAll() {
-        Txn<byte[]> txn = env.txnWrite();
+        return putAll(false);
+    }
+
+    /**
+     * Streaming put that commits every {@link #PUT_ALL_BATCH_BYTES} bytes or {@link #PUT_ALL_BATCH_RECORDS}
+     * records, so a long stream does not pin its dirty pages until it ends. Entries are buffered until a batch is
+     * full and each batch is written in its own txn, so no txn or resize stamp is held while the stream is idle.
+     * Batches committed before an error are kept. With {@code sortedKeys}, entries are appended with MDB_APPEND
+     * as long as their keys sort after everything in the db, and put normally from the first one that does not.
+     */
+    public StreamObserver<KeyValue<Bytes, byte[]>> putAll(boolean sortedKeys) {
         return new StreamObserver<KeyValue<Bytes, byte[]>>() {
+            private final List<KeyValue<Bytes, byte[]>> batch = new ArrayList<>();
+            private long batchBytes;
+            private boolean appending = sortedKeys;
+
             @Override
             public void onNext(KeyValue<Bytes, byte[]> entry) {
                 Objects.requireNonNull(entry.key, "key cannot be null");
-                if (entry.value == null) {
-                    dbi.delete(txn, entry.key.get());
-                } else {
-                    dbi.put(txn, entry.key.get(), entry.value);
+                batch.add(entry);
+                batchBytes += entry.key.get().length + (entry.value == null ? 0 : entry.value.length);
+                if (batchBytes >= putAllBatchBytes || batch.size() >= putAllBatchRecords) {
+                    commitBatch();
                 }
             }
 
             @Override
             public void onError(Throwable throwable) {
-                txn.abort();
-                txn.close();
-                LOGGER.error(errorUtils.toGrpcRuntimeException(throwable));
-                LOGGER.info("[STORAGESERVICE][PUTALL] error");
+                batch.clear();
+                // toGrpcRuntimeException needs the spring-initialized ErrorUtils, this one is not
+                LOGGER.error("[STORAGESERVICE][PUTALL] error, batches committed before it are kept: {}",
+                        errorUtils.getStackTrace(throwable));
             }
 
             @Override
             public void onCompleted() {
-                synchronized (this) {
-                    txn.commit();
-                    txn.close();
-                }
+                commitBatch();
                 //env.sync(true);
-                LOGGER.info("[STORAGESERVICE][STORE][PUTALL] completed. store info: {}");
+                LOGGER.info("[STORAGESERVICE][STORE][PUTALL] completed. store info: {}", storeInfo);
+            }
+
+            private void commitBatch() {
+                if (batch.isEmpty()) {
+                    return;
+                }
+                // grow up front rather than retrying a large batch once per doubling.
+                // pages are rarely full, hence the 2x estimate of the space the batch occupies
+                long estimatedBytes = 2 * batchBytes;
+                long observedMapSize;
+                long usedSize;
+                long stamp = resizeLock.readLock();
+                try {
+                    observedMapSize = mapSize;
+                    usedSize = usedSize();
+                } finally {
+                    resizeLock.unlockRead(stamp);
+                }
+                if (estimatedBytes > (observedMapSize - usedSize) * STREAM_GROW_RATIO) {
+                    growMapSize(observedMapSize, usedSize + estimatedBytes);
+                }
+
+                // a retry after a map grow writes the whole batch again, so appending is only updated on commit
+                appending = write(txn -> {
+                    boolean appendingNow = appending;
+                    for (KeyValue<Bytes, byte[]> entry : batch) {
+                        if (appendingNow && entry.value != null) {
+                            appendingNow = appendInTxn(txn, entry.key, entry.value);
+                            if (!appendingNow) {
+                                LOGGER.info("[STORAGE][PUTALL] keys not ascending, stopped appending to {}", storeInfo);
+                                putEntryInTxn(txn, entry.key, entry.value);
+                            }
+                        } else {
+                            putEntryInTxn(txn, entry.key, entry.value);
+                        }
+                    }
+                    return appendingNow;
+                });
+                batch.clear();
+                batchBytes = 0;
             }
         };
     }
@@ -139,43 +229,356 @@ public class LMDBStore implements KeyValueStore<Bytes, byte[]> {
     @Override
     public byte[] delete(Bytes key) {
         Objects.requireNonNull(key, "key cannot be null");
-        try (Txn<byte[]> txn = env.txnWrite()) {
-            byte[] value = dbi.get(txn, key.get());
-            dbi.delete(txn, key.get());
-            txn.commit();
+        return groupWrite(txn -> {
+            ByteBuffer keyBuffer = keyBuffer(key);
+            byte[] value = toBytes(dbi.get(txn, keyBuffer));
+            if (value != null) {
+                dbi.delete(txn, keyBuffer);
+            }
             return value;
-        }
+        });
+    }
+
+    /**
+     * Deletes the given keys in one write txn and returns the deleted values in key order, null for absent keys.
+     */
+    public List<byte[]> deleteAll(List<Bytes> keys) {
+        return write(txn -> {
+            List<byte[]> result = new ArrayList<>(keys.size());
+            for (Bytes key : keys) {
+                Objects.requireNonNull(key, "key cannot be null");
+                ByteBuffer keyBuffer = keyBuffer(key);
+                byte[] value = toBytes(dbi.get(txn, keyBuffer));
+                if (value != null) {
+                    dbi.delete(txn, keyBuffer);
+                }
+                result.add(value);
+            }
+            return result;
+        });
     }
 
     @Override
     public byte[] get(Bytes key) {
         Objects.requireNonNull(key, "key cannot be null");
-        try (Txn<byte[]> txn = env.txnRead()) {
-            return dbi.get(txn, key.get());
+        long stamp = resizeLock.readLock();
+        try (Txn<ByteBuffer> txn = env.txnRead()) {
+            return toBytes(dbi.get(txn, keyBuffer(key)));
+        } finally {
+            resizeLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Reads a value without copying it out of the memory map. The buffer handed to {@code valueConsumer}
+     * points into the map and is only valid until the consumer returns; it is null if the key is absent.
+     */
+    public void get(Bytes key, Consumer<ByteBuffer> valueConsumer) {
+        Objects.requireNonNull(key, "key cannot be null");
+        long stamp = resizeLock.readLock();
+        try (Txn<ByteBuffer> txn = env.txnRead()) {
+            valueConsumer.accept(dbi.get(txn, keyBuffer(key)));
+        } finally {
+            resizeLock.unlockRead(stamp);
         }
     }
 
+    /**
+     * Batched variant of {@link #get(Bytes, Consumer)}: looks up all keys in one read txn, in key order.
+     * Each buffer is only valid until {@code valueConsumer} returns for that key.
+     */
+    public void getAll(List<Bytes> keys, BiConsumer<Bytes, ByteBuffer> valueConsumer) {
+        long stamp = resizeLock.readLock();
+        try (Txn<ByteBuffer> txn = env.txnRead()) {
+            for (Bytes key : keys) {
+                Objects.requireNonNull(key, "key cannot be null");
+                valueConsumer.accept(key, dbi.get(txn, keyBuffer(key)));
+            }
+        } finally {
+            resizeLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * The returned iterator gives its txn back when a map grow is pending and resumes after the last key it made,
+     * so an idle or abandoned iterator does not hold up writes.
+     */
     @Override
     public KeyValueIterator<Bytes, byte[]> range(Bytes from, Bytes to) {
         validateStoreOpen();
-        final LMDBRangeIterator lmdbRangeIterator = new LMDBRangeIterator(from, to);
+        final LMDBRangeIterator<Bytes, byte[]> lmdbRangeIterator = new LMDBRangeIterator<>(from, to,
+                keyVal -> new KeyValue<>(Bytes.wrap(toBytes(keyVal.key())), toBytes(keyVal.val())), true);
+        openIterators.add(lmdbRangeIterator);
+        return lmdbRangeIterator;
+    }
+
+    /**
+     * Zero-copy variant of {@link #range(Bytes, Bytes)}. Returned buffers point into the memory map and
+     * are only valid until the next call to {@code hasNext()} / {@code next()} on the iterator. Unlike
+     * {@link #range(Bytes, Bytes)} iterators, these cannot give their txn back to a map grow by themselves:
+     * callers must close them promptly or on {@link #addGrowListener(Runnable)}.
+     */
+    public KeyValueIterator<ByteBuffer, ByteBuffer> rangeBuffers(Bytes from, Bytes to) {
+        validateStoreOpen();
+        final LMDBRangeIterator<ByteBuffer, ByteBuffer> lmdbRangeIterator = new LMDBRangeIterator<>(from, to,
+                keyVal -> new KeyValue<>(keyVal.key(), keyVal.val()), false);
         openIterators.add(lmdbRangeIterator);
         return lmdbRangeIterator;
     }
 
     @Override
     public KeyValueIterator<Bytes, byte[]> all() {
-        validateStoreOpen();
-        final LMDBRangeIterator lmdbIterator = new LMDBRangeIterator(null, null);
-        openIterators.add(lmdbIterator);
-        return lmdbIterator;
+        return range(null, null);
+    }
+
+    public long getMapSize() {
+        return mapSize;
+    }
+
+    /**
+     * True while a map grow is waiting for open txns. Holders of long-lived iterators should close them.
+     */
+    public boolean isGrowPending() {
+        return pendingGrows.get() > 0;
+    }
+
+    /**
+     * Registers a listener run on the growing thread before it waits for open txns, so that holders of
+     * long-lived iterators can close them. Listeners must not block.
+     */
+    public void addGrowListener(Runnable listener) {
+        growListeners.add(listener);
+    }
+
+    public void removeGrowListener(Runnable listener) {
+        growListeners.remove(listener);
+    }
+
+    /**
+     * Group commit for point writes. Callers queue their action and take turns at the writer lock. Whoever
+     * gets it with its own action still pending applies everything queued so far in one txn, so concurrent
+     * callers share a commit instead of queueing on the writer lock one txn each.
+     */
+    private <R> R groupWrite(Function<Txn<ByteBuffer>, R> action) {
+        PendingWrite<R> pendingWrite = new PendingWrite<>(action);
+        pendingWrites.add(pendingWrite);
+        writerLock.lock();
+        try {
+            if (!pendingWrite.done) {
+                if (groupCommitWindowNanos > 0) {
+                    LockSupport.parkNanos(groupCommitWindowNanos);
+                }
+                commitPendingWrites();
+            }
+        } finally {
+            writerLock.unlock();
+        }
+        return pendingWrite.get();
+    }
+
+    private void commitPendingWrites() {
+        List<PendingWrite<?>> batch = new ArrayList<>();
+        PendingWrite<?> pendingWrite;
+        while (batch.size() < MAX_GROUP_COMMIT_WRITES && (pendingWrite = pendingWrites.poll()) != null) {
+            batch.add(pendingWrite);
+        }
+
+        try {
+            // a retry after a map grow runs every action again, so results are only kept from the committed try
+            Object[] results = write(txn -> {
+                Object[] tried = new Object[batch.size()];
+                for (int i = 0; i < batch.size(); ++i) {
+                    tried[i] = batch.get(i).action.apply(txn);
+                }
+                return tried;
+            });
+            for (int i = 0; i < batch.size(); ++i) {
+                batch.get(i).complete(results[i], null);
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).complete(null, e);
+                return;
+            }
+            // one bad action aborts the shared txn. give each its own so only that caller sees the error
+            for (PendingWrite<?> write : batch) {
+                try {
+                    write.complete(write(write.action), null);
+                } catch (RuntimeException single) {
+                    write.complete(null, single);
+                }
+            }
+        } finally {
+            for (PendingWrite<?> write : batch) {
+                if (!write.done) {
+                    write.complete(null, new ProcessorStateException("group commit failed for " + storeInfo));
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs {@code action} in a write txn under the writer lock and commits it. If the map is full, the txn is
+     * rolled back, the map is grown and the action is retried.
+     */
+    private <R> R write(Function<Txn<ByteBuffer>, R> action) {
+        while (true) {
+            long observedMapSize;
+            writerLock.lock();
+            try {
+                long stamp = resizeLock.readLock();
+                try (Txn<ByteBuffer> txn = env.txnWrite()) {
+                    R result = action.apply(txn);
+                    txn.commit();
+                    return result;
+                } catch (Env.MapFullException e) {
+                    LOGGER.info("[STORAGE] map full for {}, mapSize: {}", storeInfo, mapSize);
+                    observedMapSize = mapSize;
+                } finally {
+                    resizeLock.unlockRead(stamp);
+                }
+            } finally {
+                writerLock.unlock();
+            }
+            growMapSize(observedMapSize, 0);
+        }
+    }
+
+    /**
+     * Doubles the map size until it exceeds {@code minSize}. Waits for in-flight txns of this env to finish,
+     * as mdb_env_set_mapsize requires. Concurrent callers that observed the same size only grow it once.
+     */
+    private void growMapSize(long observedMapSize, long minSize) {
+        long stamp;
+        pendingGrows.incrementAndGet();
+        try {
+            for (Runnable listener : growListeners) {
+                listener.run();
+            }
+            stamp = resizeLock.tryWriteLock(GROW_LOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessorStateException("interrupted while growing map of " + storeInfo, e);
+        } finally {
+            pendingGrows.decrementAndGet();
+        }
+        if (stamp == 0L) {
+            throw new ProcessorStateException("timed out waiting for open transactions to grow map of " + storeInfo);
+        }
+
+        try {
+            if (mapSize != observedMapSize) {
+                return;
+            }
+            long newMapSize = observedMapSize * 2;
+            while (newMapSize < minSize) {
+                newMapSize *= 2;
+            }
+            env.setMapSize(newMapSize);
+            mapSize = newMapSize;
+            LOGGER.info("[STORAGE] grown map of {} from {} to {}", storeInfo, observedMapSize, newMapSize);
+        } finally {
+            resizeLock.unlockWrite(stamp);
+        }
+    }
+
+    private long usedSize() {
+        return (env.info().lastPageNumber + 1) * env.stat().pageSize;
+    }
+
+    private void putInTxn(Txn<ByteBuffer> txn, Bytes key, byte[] value) {
+        if (value == null || value.length == 0) {
+            dbi.delete(txn, keyBuffer(key));
+        } else {
+            dbi.reserve(txn, keyBuffer(key), value.length).put(value);
+        }
+    }
+
+    /**
+     * Puts an entry of a putAll. Unlike {@link #putInTxn(Txn, Bytes, byte[])}, only a null value deletes the key;
+     * an empty value is stored.
+     */
+    private void putEntryInTxn(Txn<ByteBuffer> txn, Bytes key, byte[] value) {
+        if (value == null) {
+            dbi.delete(txn, keyBuffer(key));
+        } else {
+            dbi.reserve(txn, keyBuffer(key), value.length).put(value);
+        }
+    }
+
+    /**
+     * Puts with MDB_APPEND. Returns false, having written nothing, if the key does not sort after the last key
+     * of the db.
+     */
+    private boolean appendInTxn(Txn<ByteBuffer> txn, Bytes key, byte[] value) {
+        try {
+            dbi.reserve(txn, keyBuffer(key), value.length, PutFlags.MDB_APPEND).put(value);
+            return true;
+        } catch (Dbi.KeyExistsException e) {
+            return false;
+        }
+    }
+
+    private static class PendingWrite<R> {
+        final Function<Txn<ByteBuffer>, R> action;
+        // written by the committing thread before it releases the writer lock, read after taking it
+        R result;
+        RuntimeException error;
+        boolean done;
+
+        PendingWrite(Function<Txn<ByteBuffer>, R> action) {
+            this.action = action;
+        }
+
+        @SuppressWarnings("unchecked")
+        void complete(Object result, RuntimeException error) {
+            this.result = (R) result;
+            this.error = error;
+            this.done = true;
+        }
+
+        R get() {
+            if (error != null) {
+                throw error;
+            }
+            return result;
+        }
+    }
+
+    private static ByteBuffer keyBuffer(Bytes key) {
+        byte[] keyBytes = key.get();
+        ByteBuffer buffer = KEY_BUFFER.get();
+        if (keyBytes.length > buffer.capacity()) {
+            return directBuffer(keyBytes);
+        }
+        buffer.clear();
+        buffer.put(keyBytes).flip();
+        return buffer;
+    }
+
+    private static ByteBuffer directBuffer(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        return buffer;
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        if (buffer == null) {
+            return null;
+        }
+        byte[] result = new byte[buffer.remaining()];
+        buffer.duplicate().get(result);
+        return result;
     }
 
     @Override
     public void destroy() {
         try {
-            try (Txn<byte[]> txn = env.txnWrite()) {
+            writerLock.lock();
+            try (Txn<ByteBuffer> txn = env.txnWrite()) {
                 dbi.drop(txn, true);
+            } finally {
+                writerLock.unlock();
             }
             String[] files = dbDir.list();
             if (null != files) {
@@ -221,8 +624,14 @@ public class LMDBStore implements KeyValueStore<Bytes, byte[]> {
             try {
                 Files.createDirectories(dbPath);
                 dbDir = dbPath.toFile();
-                env = Env.create(new ByteArrayProxy()).setMaxDbs(1).setMaxReaders(256).setMapSize(1_073_741_824).open(dbDir, EnvFlags.MDB_NOTLS, EnvFlags.MDB_NOSYNC, EnvFlags.MDB_NOLOCK);
+                long initialMapSize = Long.parseLong(properties.getProperty(MAP_SIZE, String.valueOf(DEFAULT_MAP_SIZE)));
+                env = Env.create().setMaxDbs(1).setMaxReaders(256).setMapSize(initialMapSize).open(dbDir, EnvFlags.MDB_NOTLS, EnvFlags.MDB_NOSYNC, EnvFlags.MDB_NOLOCK);
                 dbi = env.openDbi((String) null, DbiFlags.MDB_CREATE);
+                // an existing env keeps its own size if it has already grown beyond the requested one
+                mapSize = env.info().mapSize;
+                putAllBatchBytes = Long.parseLong(properties.getProperty(PUT_ALL_BATCH_BYTES, String.valueOf(DEFAULT_PUT_ALL_BATCH_BYTES)));
+                putAllBatchRecords = Long.parseLong(properties.getProperty(PUT_ALL_BATCH_RECORDS, String.valueOf(DEFAULT_PUT_ALL_BATCH_RECORDS)));
+                groupCommitWindowNanos = TimeUnit.MICROSECONDS.toNanos(Long.parseLong(properties.getProperty(GROUP_COMMIT_WINDOW_MICROS, "0")));
             } catch (final DBException e) {
                 throw new ProcessorStateException("Error opening store " + storeInfo + " at location " + dbDir.toString(), e);
             }
@@ -231,6 +640,9 @@ public class LMDBStore implements KeyValueStore<Bytes, byte[]> {
         }
 
         open = true;
+        MAP_SIZE_GAUGE.track(this);
+        USED_SIZE_GAUGE.track(this);
+        ENTRIES_GAUGE.track(this);
     }
 
     @Override
@@ -244,12 +656,24 @@ public class LMDBStore implements KeyValueStore<Bytes, byte[]> {
             return;
         }
 
-        this.open = false;
+        synchronized (envStatLock) {
+            this.open = false;
+        }
+        MAP_SIZE_GAUGE.untrack(this);
+        USED_SIZE_GAUGE.untrack(this);
+        ENTRIES_GAUGE.untrack(this);
         closeOpenIterators();
         env.close();
         dbi.close();
     }
 
+    private long readEnvStat(ToLongFunction<Env<ByteBuffer>> stat) {
+        synchronized (envStatLock) {
+            validateStoreOpen();
+            return stat.applyAsLong(env);
+        }
+    }
+
     private void closeOpenIterators() {
         final HashSet<KeyValueIterator> iterators;
         synchronized (openIterators) {
@@ -275,46 +699,133 @@ public class LMDBStore implements KeyValueStore<Bytes, byte[]> {
         return String.format(TOSTRING_FORMAT, storeInfo.toString());
     }
 
-    private class LMDBRangeIterator extends AbstractIterator<KeyValue<Bytes, byte[]>> implements KeyValueIterator<Bytes, byte[]> {
-        final CursorIterator<byte[]> cursorIterator;
-        final Txn<byte[]> txn;
+    private class LMDBRangeIterator<K, V> extends AbstractIterator<KeyValue<K, V>> implements KeyValueIterator<K, V> {
+        final Bytes to;
+        final Function<CursorIterator.KeyVal<ByteBuffer>, KeyValue<K, V>> converter;
+        final boolean yieldOnGrow;
+        final Runnable growListener = this::tryYield;
+        private final ReentrantLock lock = new ReentrantLock();
+        // null while yielded to a map grow. reopened after the last key made on the next call
+        private Txn<ByteBuffer> txn;
+        private CursorIterator<ByteBuffer> cursorIterator;
+        private long stamp;
+        private Bytes resumeFrom;
+        private ByteBuffer lastKey;
 
         private volatile boolean open = true;
-        private KeyValue<Bytes, byte[]> next;
-
-        LMDBRangeIterator(final Bytes from, final Bytes to) {
-            KeyRange<byte[]> keyRange;
-            if (from != null && to != null) {
-                keyRange = KeyRange.open(from.get(), to.get());
-            } else if (from != null) {
-                keyRange = KeyRange.greaterThan(from.get());
+        private KeyValue<K, V> next;
+
+        LMDBRangeIterator(final Bytes from, final Bytes to, final Function<CursorIterator.KeyVal<ByteBuffer>, KeyValue<K, V>> converter,
+                          boolean yieldOnGrow) {
+            this.to = to;
+            this.converter = converter;
+            this.yieldOnGrow = yieldOnGrow;
+            this.resumeFrom = from;
+            openCursor();
+            if (yieldOnGrow) {
+                addGrowListener(growListener);
+            }
+        }
+
+        private void openCursor() {
+            KeyRange<ByteBuffer> keyRange;
+            if (resumeFrom != null && to != null) {
+                keyRange = KeyRange.open(directBuffer(resumeFrom.get()), directBuffer(to.get()));
+            } else if (resumeFrom != null) {
+                keyRange = KeyRange.greaterThan(directBuffer(resumeFrom.get()));
             } else if (to != null) {
-                keyRange = KeyRange.lessThan(to.get());
+                keyRange = KeyRange.lessThan(directBuffer(to.get()));
             } else {
                 keyRange = KeyRange.all();
             }
-            this.txn = env.txnRead();
-            this.cursorIterator = dbi.iterate(txn, keyRange, Bytes.BYTES_LEXICO_COMPARATOR);
+            long newStamp = resizeLock.readLock();
+            try {
+                this.txn = env.txnRead();
+                this.cursorIterator = dbi.iterate(txn, keyRange);
+                this.stamp = newStamp;
+            } catch (RuntimeException e) {
+                if (txn != null) {
+                    txn.close();
+                    txn = null;
+                }
+                resizeLock.unlockRead(newStamp);
+                throw e;
+            }
+        }
+
+        private void closeCursor() {
+            if (txn == null) {
+                return;
+            }
+            try {
+                cursorIterator.close();
+                txn.close();
+            } finally {
+                txn = null;
+                cursorIterator = null;
+                lastKey = null;
+                resizeLock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Gives the txn and resize stamp back to a pending grow unless a call is in progress, which yields
+         * when it returns. Only copying iterators yield: entries they made do not point into the map.
+         */
+        private void tryYield() {
+            if (!lock.tryLock()) {
+                return;
+            }
+            try {
+                if (open && txn != null) {
+                    if (lastKey != null) {
+                        resumeFrom = Bytes.wrap(toBytes(lastKey));
+                    }
+                    closeCursor();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void yieldIfGrowPending() {
+            if (yieldOnGrow && isGrowPending()) {
+                tryYield();
+            }
         }
 
         @Override
-        public synchronized void close() {
-            openIterators.remove(this);
-            txn.close();
-            cursorIterator.close();
-            this.open = false;
+        public void close() {
+            lock.lock();
+            try {
+                if (!open) {
+                    return;
+                }
+                removeGrowListener(growListener);
+                openIterators.remove(this);
+                closeCursor();
+                this.open = false;
+            } finally {
+                lock.unlock();
+            }
         }
 
         @Override
-        public synchronized boolean hasNext() {
-            if (!open) {
-                throw new InvalidStateStoreException(String.format("LMDB store %s has closed", storeInfo.toString()));
+        public boolean hasNext() {
+            lock.lock();
+            try {
+                if (!open) {
+                    throw new InvalidStateStoreException(String.format("LMDB store %s has closed", storeInfo.toString()));
+                }
+                return super.hasNext();
+            } finally {
+                lock.unlock();
+                yieldIfGrowPending();
             }
-            return super.hasNext();
         }
 
         @Override
-        public Bytes peekNextKey() {
+        public K peekNextKey() {
             if (!hasNext()) {
                 throw new NoSuchElementException();
             }
@@ -322,28 +833,38 @@ public class LMDBStore implements KeyValueStore<Bytes, byte[]> {
         }
 
         @Override
-        public KeyValue<Bytes, byte[]> allDone() {
-            KeyValue<Bytes, byte[]> rtn = super.allDone();
+        public KeyValue<K, V> allDone() {
+            KeyValue<K, V> rtn = super.allDone();
             close();
             return rtn;
         }
 
         @Override
-        public synchronized KeyValue<Bytes, byte[]> next() {
-            return super.next();
+        public KeyValue<K, V> next() {
+            lock.lock();
+            try {
+                return super.next();
+            } finally {
+                lock.unlock();
+                yieldIfGrowPending();
+            }
         }
 
         @Override
-        protected KeyValue<Bytes, byte[]> makeNext() {
+        protected KeyValue<K, V> makeNext() {
+            if (txn == null) {
+                openCursor();
+            }
             if (!cursorIterator.hasNext()) {
                 return allDone();
             } else {
-                CursorIterator.KeyVal<byte[]> keyVal = cursorIterator.next();
-                next = new KeyValue<>(Bytes.wrap(keyVal.key()), keyVal.val());
+                CursorIterator.KeyVal<ByteBuffer> keyVal = cursorIterator.next();
+                lastKey = keyVal.key();
+                next = converter.apply(keyVal);
                 return next;
             }
         }
     }
 
 
-}
\ No newline at end of file
+}
@@ -16,6 +16,7 @@
 
 package com.webank.ai.eggroll.framework.storage.service.model;
 
+import com.google.common.util.concurrent.Striped;
 import com.webank.ai.eggroll.core.error.exception.InvalidStateStoreException;
 import com.webank.ai.eggroll.core.error.exception.ProcessorStateException;
 import com.webank.ai.eggroll.core.io.KeyValue;
@@ -35,19 +36,38 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 public class LevelDBStore implements KeyValueStore<Bytes, byte[]> {
 
     public static final String DATA_DIR = "data.dir";
-    private static final int WRITE_BUFFER_SIZE = 16 * 1024 * 1024;
+    public static final String CACHE_SIZE = "cache.size";
+    public static final String COMPRESSION = "compression";
+    public static final String BLOCK_SIZE = "block.size";
+    public static final String WRITE_BUFFER_SIZE = "write.buffer.size";
+    // keeps count() as a counter, paid for by a read of every written key and a scan of the db at open
+    public static final String EXACT_COUNT = "exact.count";
+    public static final long DEFAULT_CACHE_SIZE = 8L << 20;
+    private static final int DEFAULT_WRITE_BUFFER_SIZE = 16 * 1024 * 1024;
     private static final int BLOCK_RESTART_INTERVAL = 16;
-    private static final int BLOCK_SIZE = 4096;
+    private static final int DEFAULT_BLOCK_SIZE = 4096;
     private static final int MAX_OPEN_FILES = 1000;
-    private static final CompressionType COMPRESSION_TYPE = CompressionType.NONE;
+    private static final CompressionType DEFAULT_COMPRESSION_TYPE = CompressionType.NONE;
     private static final String DB_FILE_DIR = "leveldb";
+    private static final int KEY_LOCK_STRIPES = 64;
     private static Logger LOGGER = LogManager.getLogger(LevelDBStore.class);
     private final StoreInfo storeInfo;
     private final Set<KeyValueIterator> openIterators = Collections.synchronizedSet(new HashSet<KeyValueIterator>());
+    // shared by every operation and exclusive for close, so reads and writes only contend inside leveldb
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    // serializes writes of the same key, which read the old value to keep putIfAbsent, delete and count exact
+    private final Striped<Lock> keyLocks = Striped.lock(KEY_LOCK_STRIPES);
+    private final AtomicLong count = new AtomicLong(0);
+    private boolean exactCount;
     protected volatile boolean open = false;
     File dbDir;
     private Options options;
@@ -63,13 +83,16 @@ public class LevelDBStore implements KeyValueStore<Bytes, byte[]> {
     @Override
     public void init(Properties properties) {
         options = new Options();
-        options.writeBufferSize(WRITE_BUFFER_SIZE);
-        options.compressionType(COMPRESSION_TYPE);
+        options.writeBufferSize(Integer.parseInt(properties.getProperty(WRITE_BUFFER_SIZE, String.valueOf(DEFAULT_WRITE_BUFFER_SIZE))));
+        options.compressionType(CompressionType.valueOf(
+                properties.getProperty(COMPRESSION, DEFAULT_COMPRESSION_TYPE.name()).toUpperCase()));
+        options.cacheSize(Long.parseLong(properties.getProperty(CACHE_SIZE, String.valueOf(DEFAULT_CACHE_SIZE))));
         options.createIfMissing(true);
         options.errorIfExists(false);
-        options.blockSize(BLOCK_SIZE);
+        options.blockSize(Integer.parseInt(properties.getProperty(BLOCK_SIZE, String.valueOf(DEFAULT_BLOCK_SIZE))));
         options.blockRestartInterval(BLOCK_RESTART_INTERVAL);
         options.maxOpenFiles(MAX_OPEN_FILES);
+        exactCount = Boolean.parseBoolean(properties.getProperty(EXACT_COUNT, "false"));
 
         wOptions = new WriteOptions();
 
@@ -87,6 +110,9 @@ public class LevelDBStore implements KeyValueStore<Bytes, byte[]> {
             try {
                 Files.createDirectories(dbDir.getParentFile().toPath());
                 db = Iq80DBFactory.factory.open(dbDir, options);
+                if (exactCount) {
+                    count.set(countEntries());
+                }
             } catch (final DBException e) {
                 throw new ProcessorStateException("Error opening store " + storeInfo + " at location " + dbDir.toString(), e);
             }
@@ -97,26 +123,74 @@ public class LevelDBStore implements KeyValueStore<Bytes, byte[]> {
         open = true;
     }
 
+    /**
+     * Counts the entries by a scan of the db. With {@link #EXACT_COUNT} this runs once at open and writes
+     * keep the count up to date afterwards, otherwise it runs on every count().
+     */
+    private long countEntries() throws IOException {
+        long result = 0;
+        try (DBIterator iterator = db.iterator(rOptions)) {
+            for (iterator.seekToFirst(); iterator.hasNext(); iterator.next()) {
+                ++result;
+            }
+        }
+        return result;
+    }
+
     private void validateStoreOpen() {
         if (!open) {
             throw new InvalidStateStoreException("Store " + storeInfo + " is currently closed");
         }
     }
 
+    private <R> R read(Supplier<R> action) {
+        closeLock.readLock().lock();
+        try {
+            validateStoreOpen();
+            return action.get();
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    private <R> R writeKey(Bytes key, Supplier<R> action) {
+        Objects.requireNonNull(key, "key cannot be null");
+        return read(() -> {
+            Lock keyLock = keyLocks.get(key);
+            keyLock.lock();
+            try {
+                return action.get();
+            } finally {
+                keyLock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Writes or, for a null value, removes the key. Callers hold its key lock and pass the value they read
+     * under it, which only matters for the count when it is exact.
+     */
     private void putInternal(final byte[] rawKey,
-                             final byte[] rawValue) {
+                             final byte[] rawValue,
+                             final byte[] oldValue) {
         if (rawValue == null) {
             try {
                 db.delete(rawKey, wOptions);
             } catch (final DBException e) {
                 throw new ProcessorStateException("Error while removing key %s from store " + storeInfo, e);
             }
+            if (exactCount && oldValue != null) {
+                count.decrementAndGet();
+            }
         } else {
             try {
                 db.put(rawKey, rawValue, wOptions);
             } catch (final DBException e) {
                 throw new ProcessorStateException("Error while putting key %s value %s into store " + storeInfo, e);
             }
+            if (exactCount && oldValue == null) {
+                count.incrementAndGet();
+            }
         }
     }
 
@@ -128,124 +202,141 @@ public class LevelDBStore implements KeyValueStore<Bytes, byte[]> {
         }
     }
 
-    private void write(final WriteBatch batch) throws DBException, IOException {
-        try {
-            db.write(batch, wOptions);
-        } finally {
-            batch.close();
+    /**
+     * Writes the entries in one batch. The last entry of a key wins, as in a {@link WriteBatch}.
+     */
+    private void writeEntries(final Collection<KeyValue<Bytes, byte[]>> entries) {
+        final Map<Bytes, byte[]> finalValues = new LinkedHashMap<>();
+        for (final KeyValue<Bytes, byte[]> entry : entries) {
+            Objects.requireNonNull(entry.key, "key cannot be null");
+            finalValues.put(entry.key, entry.value);
         }
+
+        read(() -> {
+            // bulkGet orders the stripes, so concurrent batches lock them in the same order
+            final List<Lock> locks = new ArrayList<>();
+            for (Lock lock : keyLocks.bulkGet(finalValues.keySet())) {
+                if (locks.isEmpty() || locks.get(locks.size() - 1) != lock) {
+                    locks.add(lock);
+                }
+            }
+            locks.forEach(Lock::lock);
+            try (final WriteBatch batch = db.createWriteBatch()) {
+                long delta = 0;
+                for (final Map.Entry<Bytes, byte[]> entry : finalValues.entrySet()) {
+                    final byte[] rawKey = entry.getKey().get();
+                    final boolean existed = exactCount && getInternal(rawKey) != null;
+                    if (entry.getValue() == null) {
+                        batch.delete(rawKey);
+                        delta -= existed ? 1 : 0;
+                    } else {
+                        batch.put(rawKey, entry.getValue());
+                        delta += existed ? 0 : 1;
+                    }
+                }
+                db.write(batch, wOptions);
+                if (exactCount) {
+                    count.addAndGet(delta);
+                }
+            } catch (final DBException | IOException e) {
+                throw new ProcessorStateException("Error while batch writing to store " + storeInfo, e);
+            } finally {
+                locks.forEach(Lock::unlock);
+            }
+            return null;
+        });
     }
 
     @Override
-    public synchronized void put(final Bytes key, final byte[] value) {
-        Objects.requireNonNull(key, "key cannot be null");
-        validateStoreOpen();
-        putInternal(key.get(), value);
+    public void put(final Bytes key, final byte[] value) {
+        writeKey(key, () -> {
+            putInternal(key.get(), value, exactCount ? getInternal(key.get()) : null);
+            return null;
+        });
     }
 
     @Override
-    public synchronized byte[] putIfAbsent(final Bytes key, final byte[] value) {
-        Objects.requireNonNull(key, "key cannot be null");
-        final byte[] oldValue = get(key);
-        if (oldValue == null) {
-            put(key, value);
-        }
-        return oldValue;
+    public byte[] putIfAbsent(final Bytes key, final byte[] value) {
+        return writeKey(key, () -> {
+            final byte[] oldValue = getInternal(key.get());
+            if (oldValue == null) {
+                putInternal(key.get(), value, null);
+            }
+            return oldValue;
+        });
     }
 
     @Override
     public void putAll(List<KeyValue<Bytes, byte[]>> entries) {
-        try (final WriteBatch batch = db.createWriteBatch()) {
-            for (final KeyValue<Bytes, byte[]> entry : entries) {
-                Objects.requireNonNull(entry.key, "key cannot be null");
-                if (entry.value == null) {
-                    batch.delete(entry.key.get());
-                } else {
-                    batch.put(entry.key.get(), entry.value);
-                }
-            }
-            write(batch);
-        } catch (IOException e) {
-            throw new ProcessorStateException("Error while batch writing to store " + storeInfo, e);
-        }
+        writeEntries(entries);
     }
 
     @Override
     public StreamObserver<KeyValue<Bytes, byte[]>> putAll() {
         return new StreamObserver<KeyValue<Bytes, byte[]>>() {
-            final WriteBatch batch = db.createWriteBatch();
+            final List<KeyValue<Bytes, byte[]>> entries = new ArrayList<>();
 
             @Override
             public void onNext(KeyValue<Bytes, byte[]> entry) {
                 Objects.requireNonNull(entry.key, "key cannot be null");
-                if (entry.value == null) {
-                    batch.delete(entry.key.get());
-                } else {
-                    batch.put(entry.key.get(), entry.value);
-                }
+                entries.add(entry);
             }
 
             @Override
             public void onError(Throwable throwable) {
                 LOGGER.error(throwable);
-                try {
-                    batch.close();
-                } catch (IOException e) {
-                    LOGGER.error(e);
-                }
+                entries.clear();
             }
 
             @Override
             public void onCompleted() {
-                try {
-                    write(batch);
-                    batch.close();
-                } catch (IOException e) {
-                    throw new ProcessorStateException("Error while batch writing to store " + storeInfo, e);
-                }
+                writeEntries(entries);
+                entries.clear();
             }
         };
     }
 
     @Override
-    public synchronized byte[] delete(Bytes key) {
-        Objects.requireNonNull(key, "key cannot be null");
-        final byte[] value = get(key);
-        put(key, null);
-        return value;
+    public byte[] delete(Bytes key) {
+        return writeKey(key, () -> {
+            final byte[] value = getInternal(key.get());
+            putInternal(key.get(), null, value);
+            return value;
+        });
     }
 
     @Override
-    public synchronized byte[] get(Bytes key) {
-        validateStoreOpen();
-        return getInternal(key.get());
+    public byte[] get(Bytes key) {
+        return read(() -> getInternal(key.get()));
     }
 
     @Override
-    public synchronized KeyValueIterator<Bytes, byte[]> range(Bytes from, Bytes to) {
+    public KeyValueIterator<Bytes, byte[]> range(Bytes from, Bytes to) {
         if (from == null && to == null) {
             return all();
         }
-        validateStoreOpen();
 
-        final LevelDBRangeIterator levelDBRangeIterator = new LevelDBRangeIterator(storeInfo.getTableName(), db.iterator(rOptions), from, to);
-        openIterators.add(levelDBRangeIterator);
+        return read(() -> {
+            final LevelDBRangeIterator levelDBRangeIterator = new LevelDBRangeIterator(storeInfo.getTableName(), db.iterator(rOptions), from, to);
+            openIterators.add(levelDBRangeIterator);
 
-        return levelDBRangeIterator;
+            return levelDBRangeIterator;
+        });
     }
 
     @Override
-    public synchronized KeyValueIterator<Bytes, byte[]> all() {
-        validateStoreOpen();
-        final DBIterator innerIter = db.iterator(rOptions);
-        innerIter.seekToFirst();
-        final LevelDBIterator levelDBIterator = new LevelDBIterator(storeInfo.getTableName(), innerIter);
-        openIterators.add(levelDBIterator);
-        return levelDBIterator;
+    public KeyValueIterator<Bytes, byte[]> all() {
+        return read(() -> {
+            final DBIterator innerIter = db.iterator(rOptions);
+            innerIter.seekToFirst();
+            final LevelDBIterator levelDBIterator = new LevelDBIterator(storeInfo.getTableName(), innerIter);
+            openIterators.add(levelDBIterator);
+            return levelDBIterator;
+        });
     }
 
     @Override
-    public synchronized void destroy() {
+    public void destroy() {
         close();
         try {
             Iq80DBFactory.factory.destroy(dbDir, new Options());
@@ -256,28 +347,43 @@ public class LevelDBStore implements KeyValueStore<Bytes, byte[]> {
 
     @Override
     public long count() {
-        throw new UnsupportedOperationException("count operation not supported");
+        if (exactCount) {
+            validateStoreOpen();
+            return count.get();
+        }
+        return read(() -> {
+            try {
+                return countEntries();
+            } catch (final DBException | IOException e) {
+                throw new ProcessorStateException("Error while counting store " + storeInfo, e);
+            }
+        });
     }
 
     @Override
-    public synchronized void close() {
-        if (!open) {
-            return;
-        }
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (!open) {
+                return;
+            }
 
-        open = false;
-        closeOpenIterators();
+            open = false;
+            closeOpenIterators();
 
-        try {
-            db.close();
-        } catch (IOException e) {
-            // ignore this
-        }
+            try {
+                db.close();
+            } catch (IOException e) {
+                // ignore this
+            }
 
-        options = null;
-        wOptions = null;
-        rOptions = null;
-        db = null;
+            options = null;
+            wOptions = null;
+            rOptions = null;
+            db = null;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
     }
 
     private void closeOpenIterators() {
@@ -32,6 +32,7 @@ import com.webank.ai.eggroll.core.serdes.impl.POJOUtils;
 import com.webank.ai.eggroll.core.utils.AbstractIterator;
 import io.grpc.ManagedChannel;
 import io.grpc.Metadata;
+import io.grpc.StatusRuntimeException;
 import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
 import io.grpc.stub.MetadataUtils;
 import io.grpc.stub.StreamObserver;
@@ -43,6 +44,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import java.util.*;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 
 public class RemoteKeyValueStore implements KeyValueStore<Bytes, byte[]> {
@@ -56,6 +58,7 @@ public class RemoteKeyValueStore implements KeyValueStore<Bytes, byte[]> {
     // TODO temporary configs
     private int maxWaitMins = 0;
     private int maxMessageSize = 16 * 1024 * 1024;
+    private static final int MAX_ITERATE_RESUMES = 3;
 
     public RemoteKeyValueStore(StoreInfo storeInfo) {
         this.storeInfo = storeInfo;
@@ -156,6 +159,64 @@ public class RemoteKeyValueStore implements KeyValueStore<Bytes, byte[]> {
         return rtn;
     }
 
+    /**
+     * Gets many keys in one streaming call instead of one call per key. Results follow key order, null for absent keys.
+     */
+    public List<byte[]> getAll(List<Bytes> keys) {
+        return keysStreamingCall(keys, stub::getAll);
+    }
+
+    /**
+     * Deletes many keys in one streaming call. Returns the deleted values in key order, null for absent keys.
+     */
+    public List<byte[]> deleteAll(List<Bytes> keys) {
+        return keysStreamingCall(keys, stub::deleteAll);
+    }
+
+    private List<byte[]> keysStreamingCall(List<Bytes> keys,
+                                           Function<StreamObserver<Kv.Operand>, StreamObserver<Kv.Operand>> call) {
+        final CountDownLatch finishLatch = new CountDownLatch(1);
+        final List<byte[]> result = new ArrayList<>(keys.size());
+        final Throwable[] error = new Throwable[1];
+
+        StreamObserver<Kv.Operand> requestObs = call.apply(new StreamObserver<Kv.Operand>() {
+            @Override
+            public void onNext(Kv.Operand operand) {
+                byte[] value = operand.getValue().toByteArray();
+                result.add(value.length == 0 ? null : value);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                LOGGER.error(throwable.getMessage(), throwable);
+                error[0] = throwable;
+                finishLatch.countDown();
+            }
+
+            @Override
+            public void onCompleted() {
+                finishLatch.countDown();
+            }
+        });
+        for (Bytes key : keys) {
+            Objects.requireNonNull(key, "key cannot be null");
+            requestObs.onNext(POJOUtils.buildOperand(key, new byte[0]));
+        }
+        requestObs.onCompleted();
+
+        try {
+            finishLatch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InvalidStateStoreException("interrupted while waiting for " + storeInfo, e);
+        }
+        if (error[0] != null) {
+            throw new InvalidStateStoreException("error in batched call to " + storeInfo, error[0]);
+        }
+
+        return result;
+    }
+
     @Override
     public KeyValueIterator<Bytes, byte[]> range(Bytes from, Bytes to) {
         return new WrappedRangedRemoteIterator(from, to);
@@ -230,11 +291,19 @@ public class RemoteKeyValueStore implements KeyValueStore<Bytes, byte[]> {
         return channel != null && !channel.isShutdown();
     }
 
+    /**
+     * Iterates with streaming calls: each call sends the rest of the range, so a scan normally takes one call.
+     * A broken call is resumed after the last key received. A call that ends without error is followed by one
+     * more from the last key, which comes back empty unless the server only sent a chunk (storage nodes
+     * without streaming iterate).
+     */
     private class WrappedRemoteIterator extends AbstractIterator<KeyValue<Bytes, byte[]>> implements KeyValueIterator<Bytes, byte[]> {
 
         Iterator<Kv.Operand> iter;
         KeyValue<Bytes, byte[]> next;
         private volatile boolean open = true;
+        private boolean receivedInCall;
+        private int resumes;
 
 
         public WrappedRemoteIterator() {
@@ -262,20 +331,40 @@ public class RemoteKeyValueStore implements KeyValueStore<Bytes, byte[]> {
             return super.hasNext();
         }
 
+        protected Kv.Range.Builder newRange() {
+            Kv.Range.Builder rangeBuilder = Kv.Range.newBuilder().setStreaming(true);
+            if (next != null) {
+                rangeBuilder.setStart(ByteString.copyFrom(next.key.get()));
+            }
+            return rangeBuilder;
+        }
+
         @Override
         protected KeyValue<Bytes, byte[]> makeNext() {
-            if (iter == null || !iter.hasNext()) {
-                if (next == null) {
-                    iter = blockingStub.iterate(Kv.Range.newBuilder().buildPartial());
-                } else {
-                    iter = blockingStub.iterate(Kv.Range.newBuilder().setStart(ByteString.copyFrom(next.key.get())).buildPartial());
-                }
-                if (!iter.hasNext()) {
-                    return allDone();
+            while (true) {
+                try {
+                    if (iter == null) {
+                        iter = blockingStub.iterate(newRange().build());
+                        receivedInCall = false;
+                    }
+                    if (iter.hasNext()) {
+                        next = POJOUtils.buildKeyValue(iter.next());
+                        receivedInCall = true;
+                        return next;
+                    }
+                    iter = null;
+                    if (!receivedInCall) {
+                        return allDone();
+                    }
+                } catch (StatusRuntimeException e) {
+                    iter = null;
+                    if (++resumes > MAX_ITERATE_RESUMES) {
+                        throw e;
+                    }
+                    LOGGER.warn("[STORAGE][ITERATE] resuming iterate of {} after error. resumes: {}, status: {}",
+                            storeInfo, resumes, e.getStatus());
                 }
             }
-            next = POJOUtils.buildKeyValue(iter.next());
-            return next;
         }
     }
 
@@ -289,23 +378,22 @@ public class RemoteKeyValueStore implements KeyValueStore<Bytes, byte[]> {
         }
 
         @Override
-        protected KeyValue<Bytes, byte[]> makeNext() {
-            if (iter == null || !iter.hasNext()) {
-                Kv.Range.Builder rangeBuilder = Kv.Range.newBuilder();
-                if (next != null) {
-                    rangeBuilder.setStart(ByteString.copyFrom(next.key.get()));
-                } else if (from != null) {
-                    rangeBuilder.setStart(ByteString.copyFrom(from.get()));
-                }
-                iter = blockingStub.iterate(rangeBuilder.buildPartial());
-                if (!iter.hasNext()) {
-                    return allDone();
-                }
+        protected Kv.Range.Builder newRange() {
+            Kv.Range.Builder rangeBuilder = super.newRange();
+            if (next == null && from != null) {
+                rangeBuilder.setStart(ByteString.copyFrom(from.get()));
+            }
+            if (to != null) {
+                rangeBuilder.setEnd(ByteString.copyFrom(to.get()));
             }
-            next = POJOUtils.buildKeyValue(iter.next());
+            return rangeBuilder;
+        }
 
-            if (to == null || next.key.compareTo(to) < 0) {
-                return next;
+        @Override
+        protected KeyValue<Bytes, byte[]> makeNext() {
+            KeyValue<Bytes, byte[]> result = super.makeNext();
+            if (result == null || to == null || result.key.compareTo(to) < 0) {
+                return result;
             }
 
             return allDone();
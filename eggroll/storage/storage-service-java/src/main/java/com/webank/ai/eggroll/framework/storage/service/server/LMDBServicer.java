@@ -18,6 +18,7 @@ package com.webank.ai.eggroll.framework.storage.service.server;
 
 
 import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
 import com.webank.ai.eggroll.api.storage.KVServiceGrpc;
 import com.webank.ai.eggroll.api.storage.Kv;
 import com.webank.ai.eggroll.core.api.grpc.server.GrpcServerWrapper;
@@ -28,22 +29,56 @@ import com.webank.ai.eggroll.core.io.StoreInfo;
 import com.webank.ai.eggroll.core.io.StoreManager;
 import com.webank.ai.eggroll.core.model.Bytes;
 import com.webank.ai.eggroll.core.serdes.impl.POJOUtils;
+import com.webank.ai.eggroll.core.utils.ErrorUtils;
+import com.webank.ai.eggroll.framework.storage.service.manager.LMDBStoreManager;
 import com.webank.ai.eggroll.framework.storage.service.model.LMDBStore;
 import io.grpc.*;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
 
 public class LMDBServicer extends KVServiceGrpc.KVServiceImplBase {
     private static final long PAYLOAD_THRESHOLD = 2L * 1024 * 1024;
+    // keys of a getAll / deleteAll handled per txn, so a long key stream does not pin one txn or buffer all keys
+    private static final int KEY_BATCH_SIZE = 10_000;
+    // a streaming iterate reopens its read txn after this many entries, bytes or millis. the env runs with
+    // MDB_NOLOCK, so lmdb does not track readers and writers may reuse the pages of a long-lived read txn
+    private static final long STREAMING_TXN_MAX_ENTRIES = 10_000;
+    private static final long STREAMING_TXN_MAX_BYTES = 16L * 1024 * 1024;
+    private static final long STREAMING_TXN_MAX_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
     private static Logger LOGGER = LogManager.getLogger(LMDBServicer.class);
     private final StoreManager<Bytes, byte[]> storeMgr;
+    private final boolean zeroCopy;
     private GrpcServerWrapper grpcServerWrapper;
+    private ErrorUtils errorUtils;
 
     public LMDBServicer(StoreManager<Bytes, byte[]> storeMgr) {
+        this(storeMgr, false);
+    }
+
+    /**
+     * @param zeroCopy send values straight from the LMDB map instead of copying them. Only safe on a transport
+     *                 whose onNext serializes the message before returning, such as netty: the mapped buffers
+     *                 are invalid once the read txn is closed. The in-process transport hands the message over
+     *                 as is, so it needs false.
+     */
+    public LMDBServicer(StoreManager<Bytes, byte[]> storeMgr, boolean zeroCopy) {
         this.storeMgr = storeMgr;
+        this.zeroCopy = zeroCopy;
         this.grpcServerWrapper = new GrpcServerWrapper();
+        this.errorUtils = new ErrorUtils();
+    }
+
+    private ByteString fromMap(ByteBuffer buffer) {
+        return zeroCopy ? UnsafeByteOperations.unsafeWrap(buffer) : ByteString.copyFrom(buffer.duplicate());
     }
 
     private LMDBStore getStore() {
@@ -51,6 +86,21 @@ public class LMDBServicer extends KVServiceGrpc.KVServiceImplBase {
         return (LMDBStore) storeMgr.createIfMissing(info);
     }
 
+    @Override
+    public void createIfAbsent(Kv.CreateTableInfo request, StreamObserver<Kv.CreateTableInfo> responseObserver) {
+        grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
+            StoreInfo info = StoreInfo.fromStorageLocator(request.getStorageLocator());
+            LOGGER.info("{} receive createIfAbsent request. fragmentSizeHint: {}", info, request.getFragmentSizeHint());
+            if (storeMgr instanceof LMDBStoreManager) {
+                ((LMDBStoreManager) storeMgr).createIfMissing(info, request.getFragmentSizeHint());
+            } else {
+                storeMgr.createIfMissing(info);
+            }
+            responseObserver.onNext(request);
+            responseObserver.onCompleted();
+        });
+    }
+
     @Override
     public void put(Kv.Operand request, StreamObserver<Kv.Empty> responseObserver) {
         grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
@@ -80,8 +130,9 @@ public class LMDBServicer extends KVServiceGrpc.KVServiceImplBase {
     @Override
     public StreamObserver<Kv.Operand> putAll(StreamObserver<Kv.Empty> responseObserver) {
         LMDBStore store = getStore();
-        LOGGER.info("putAll request received. store: {}", store);
-        StreamObserver<KeyValue<Bytes, byte[]>> putObs = store.putAll();
+        boolean sortedKeys = Boolean.parseBoolean(MetaConstants.SORTED_KEYS.asContextKey().get());
+        LOGGER.info("putAll request received. store: {}, sortedKeys: {}", store, sortedKeys);
+        StreamObserver<KeyValue<Bytes, byte[]>> putObs = store.putAll(sortedKeys);
 
         return new StreamObserver<Kv.Operand>() {
             long count = 0;
@@ -128,17 +179,67 @@ public class LMDBServicer extends KVServiceGrpc.KVServiceImplBase {
     public void get(Kv.Operand request, StreamObserver<Kv.Operand> responseObserver) {
         grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
             LMDBStore store = getStore();
-            byte[] valueBuffer = store.get(Bytes.wrap(request.getKey()));
-            Kv.Operand.Builder builder = Kv.Operand.newBuilder().setKey(request.getKey());
-            if (valueBuffer != null)
-                builder.setValue(ByteString.copyFrom(valueBuffer));
-            responseObserver.onNext(builder.buildPartial());
+            store.get(Bytes.wrap(request.getKey()), valueBuffer -> {
+                Kv.Operand.Builder builder = Kv.Operand.newBuilder().setKey(request.getKey());
+                if (valueBuffer != null)
+                    builder.setValue(fromMap(valueBuffer));
+                responseObserver.onNext(builder.buildPartial());
+            });
             responseObserver.onCompleted();
         });
     }
 
+    @Override
+    public StreamObserver<Kv.Operand> getAll(StreamObserver<Kv.Operand> responseObserver) {
+        LMDBStore store = getStore();
+        LOGGER.info("getAll request received. store: {}", store);
+
+        return new KeyBatchObserver(store, "getAll", responseObserver) {
+            @Override
+            protected void processBatch(List<Bytes> keys) {
+                store.getAll(keys, (key, valueBuffer) -> {
+                    Kv.Operand.Builder builder = Kv.Operand.newBuilder().setKey(UnsafeByteOperations.unsafeWrap(key.get()));
+                    if (valueBuffer != null) {
+                        builder.setValue(fromMap(valueBuffer));
+                    }
+                    responseObserver.onNext(builder.buildPartial());
+                });
+            }
+        };
+    }
+
+    @Override
+    public StreamObserver<Kv.Operand> deleteAll(StreamObserver<Kv.Operand> responseObserver) {
+        LMDBStore store = getStore();
+        LOGGER.info("deleteAll request received. store: {}", store);
+
+        return new KeyBatchObserver(store, "deleteAll", responseObserver) {
+            @Override
+            protected void processBatch(List<Bytes> keys) {
+                List<byte[]> values = store.deleteAll(keys);
+                for (int i = 0; i < keys.size(); ++i) {
+                    Kv.Operand.Builder builder = Kv.Operand.newBuilder().setKey(UnsafeByteOperations.unsafeWrap(keys.get(i).get()));
+                    if (values.get(i) != null) {
+                        builder.setValue(UnsafeByteOperations.unsafeWrap(values.get(i)));
+                    }
+                    responseObserver.onNext(builder.buildPartial());
+                }
+            }
+        };
+    }
+
     @Override
     public void iterate(Kv.Range request, StreamObserver<Kv.Operand> responseObserver) {
+        if (request.getStreaming()) {
+            grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
+                LMDBStore store = getStore();
+                LOGGER.info("{} receive streaming iterate request. start: {}, end: {}",
+                        store, request.getStart().toStringUtf8(), request.getEnd().toStringUtf8());
+                new StreamingIterateWriter(store, request, (ServerCallStreamObserver<Kv.Operand>) responseObserver).start();
+            });
+            return;
+        }
+
         grpcServerWrapper.wrapGrpcServerRunnable(responseObserver, () -> {
             long bytesCount = 0;
             LMDBStore store = getStore();
@@ -157,11 +258,11 @@ public class LMDBServicer extends KVServiceGrpc.KVServiceImplBase {
                 toBuffer = Bytes.wrap(toBytes);
             }
             long threshold = request.getMinChunkSize() > 0 ? request.getMinChunkSize() : PAYLOAD_THRESHOLD;
-            try (KeyValueIterator<Bytes, byte[]> keyValueIterator = store.range(fromBuffer, toBuffer)) {
+            try (KeyValueIterator<ByteBuffer, ByteBuffer> keyValueIterator = store.rangeBuffers(fromBuffer, toBuffer)) {
                 while (keyValueIterator.hasNext()) {
-                    KeyValue<Bytes, byte[]> keyValue = keyValueIterator.next();
-                    Kv.Operand operand = Kv.Operand.newBuilder().setKey(ByteString.copyFrom(keyValue.key.get()))
-                            .setValue(ByteString.copyFrom(keyValue.value)).build();
+                    KeyValue<ByteBuffer, ByteBuffer> keyValue = keyValueIterator.next();
+                    Kv.Operand operand = Kv.Operand.newBuilder().setKey(fromMap(keyValue.key))
+                            .setValue(fromMap(keyValue.value)).build();
                     responseObserver.onNext(operand);
                     ++count;
                     bytesCount += operand.getKey().size();
@@ -197,6 +298,201 @@ public class LMDBServicer extends KVServiceGrpc.KVServiceImplBase {
         });
     }
 
+    /**
+     * Streams a whole range in one call. A read txn and cursor serve a bounded run of entries, bytes and time,
+     * and are also closed when the transport stops being ready or a map grow of the store waits for them; the
+     * cursor then reopens after the last key sent. Writes only happen while the transport is ready, and resume
+     * from grpc's onReady.
+     */
+    private class StreamingIterateWriter {
+        private final LMDBStore store;
+        private final Kv.Range request;
+        private final ServerCallStreamObserver<Kv.Operand> responseObserver;
+        private final Bytes to;
+        private final ReentrantLock lock;
+        private Bytes lastKey;
+        private KeyValueIterator<ByteBuffer, ByteBuffer> iterator;
+        private ByteBuffer lastKeyBuffer;
+        private boolean done;
+        private long count;
+        // sent under the current txn
+        private long txnEntries;
+        private long txnBytes;
+        private long txnOpenedAt;
+
+        StreamingIterateWriter(LMDBStore store, Kv.Range request, ServerCallStreamObserver<Kv.Operand> responseObserver) {
+            this.store = store;
+            this.request = request;
+            this.responseObserver = responseObserver;
+            this.lastKey = request.getStart().isEmpty() ? null : Bytes.wrap(request.getStart());
+            this.to = request.getEnd().isEmpty() ? null : Bytes.wrap(request.getEnd());
+            this.lock = new ReentrantLock();
+            this.done = false;
+            this.count = 0;
+        }
+
+        void start() {
+            responseObserver.setOnCancelHandler(() -> {
+                LOGGER.warn("{} streaming iterate cancelled by caller. sent: {}", store, count);
+                lock.lock();
+                try {
+                    finish(null);
+                } finally {
+                    lock.unlock();
+                }
+            });
+            responseObserver.setOnReadyHandler(this::drain);
+            drain();
+        }
+
+        private void drain() {
+            lock.lock();
+            try {
+                while (!done && responseObserver.isReady()) {
+                    if (iterator == null) {
+                        iterator = store.rangeBuffers(lastKey, to);
+                        txnEntries = 0;
+                        txnBytes = 0;
+                        txnOpenedAt = System.nanoTime();
+                    }
+                    if (!iterator.hasNext()) {
+                        finish(null);
+                        break;
+                    }
+
+                    KeyValue<ByteBuffer, ByteBuffer> keyValue = iterator.next();
+                    responseObserver.onNext(Kv.Operand.newBuilder()
+                            .setKey(fromMap(keyValue.key))
+                            .setValue(fromMap(keyValue.value))
+                            .build());
+                    lastKeyBuffer = keyValue.key;
+                    ++count;
+                    ++txnEntries;
+                    txnBytes += keyValue.key.remaining() + keyValue.value.remaining();
+
+                    if (store.isGrowPending() || txnEntries >= STREAMING_TXN_MAX_ENTRIES
+                            || txnBytes >= STREAMING_TXN_MAX_BYTES
+                            || System.nanoTime() - txnOpenedAt >= STREAMING_TXN_MAX_NANOS) {
+                        releaseIterator();
+                    }
+                }
+                // the caller may take arbitrarily long to be ready again. do not hold the txn meanwhile
+                releaseIterator();
+            } catch (Throwable t) {
+                finish(t);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Closes the cursor and its txn, remembering where to resume. The key buffer points into the map,
+         * so it is copied before the txn goes away.
+         */
+        private void releaseIterator() {
+            if (iterator == null) {
+                return;
+            }
+            if (lastKeyBuffer != null) {
+                byte[] keyBytes = new byte[lastKeyBuffer.remaining()];
+                lastKeyBuffer.duplicate().get(keyBytes);
+                lastKey = Bytes.wrap(keyBytes);
+                lastKeyBuffer = null;
+            }
+            iterator.close();
+            iterator = null;
+        }
+
+        private void finish(Throwable throwable) {
+            if (done) {
+                return;
+            }
+            done = true;
+            lastKeyBuffer = null;
+            if (iterator != null) {
+                iterator.close();
+                iterator = null;
+            }
+
+            if (responseObserver.isCancelled()) {
+                return;
+            }
+            if (throwable != null) {
+                LOGGER.error("{} error in streaming iterate. sent: {}", store, count, throwable);
+                responseObserver.onError(errorUtils.toGrpcRuntimeException(throwable));
+            } else {
+                responseObserver.onCompleted();
+                LOGGER.info("[STORAGE][ITERATE][STREAMING] {} sent: {}, start: '{}', end: '{}'",
+                        store, count, request.getStart().toStringUtf8(), request.getEnd().toStringUtf8());
+            }
+        }
+    }
+
+    /**
+     * Collects the keys of a key stream and hands them to {@link #processBatch(List)} in batches of
+     * {@link #KEY_BATCH_SIZE}. After the first error the rest of the stream is dropped.
+     */
+    private abstract class KeyBatchObserver implements StreamObserver<Kv.Operand> {
+        private final LMDBStore store;
+        private final String operation;
+        private final StreamObserver<Kv.Operand> responseObserver;
+        private List<Bytes> keys = new ArrayList<>();
+        private long count = 0;
+        private boolean failed = false;
+
+        KeyBatchObserver(LMDBStore store, String operation, StreamObserver<Kv.Operand> responseObserver) {
+            this.store = store;
+            this.operation = operation;
+            this.responseObserver = responseObserver;
+        }
+
+        protected abstract void processBatch(List<Bytes> keys);
+
+        @Override
+        public void onNext(Kv.Operand operand) {
+            if (failed) {
+                return;
+            }
+            keys.add(Bytes.wrap(operand.getKey()));
+            if (keys.size() >= KEY_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            failed = true;
+            LOGGER.error("{} {} cancelled by caller after {} keys", store, operation, count, throwable);
+        }
+
+        @Override
+        public void onCompleted() {
+            if (failed) {
+                return;
+            }
+            flush();
+            if (!failed) {
+                responseObserver.onCompleted();
+                LOGGER.info("{} {} {} keys", store, operation, count);
+            }
+        }
+
+        private void flush() {
+            if (keys.isEmpty()) {
+                return;
+            }
+            List<Bytes> batch = keys;
+            keys = new ArrayList<>();
+            try {
+                processBatch(batch);
+                count += batch.size();
+            } catch (Throwable t) {
+                failed = true;
+                LOGGER.error("{} error in {}", store, operation, t);
+                responseObserver.onError(errorUtils.toGrpcRuntimeException(t));
+            }
+        }
+    }
 
     public static class KvStoreInterceptor implements ServerInterceptor {
         @Override
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.framework.storage.service;
+
+import com.webank.ai.eggroll.core.io.KeyValue;
+import com.webank.ai.eggroll.core.io.KeyValueIterator;
+import com.webank.ai.eggroll.core.io.StoreInfo;
+import com.webank.ai.eggroll.core.model.Bytes;
+import com.webank.ai.eggroll.framework.storage.service.model.InMemoryKeyValueStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class InMemoryKeyValueStoreTests {
+    private InMemoryKeyValueStore<Bytes, byte[]> store;
+
+    @Before
+    public void setUp() {
+        store = new InMemoryKeyValueStore<>(StoreInfo.builder()
+                .nameSpace("testNamespace")
+                .tableName("testInMemoryStore")
+                .fragment(0)
+                .build());
+        store.init(new Properties());
+    }
+
+    @After
+    public void tearDown() {
+        store.destroy();
+    }
+
+    @Test
+    public void countAndSizeFollowWrites() {
+        store.put(key(1), new byte[10]);
+        store.put(key(1), new byte[4]);
+        assertNull(store.putIfAbsent(key(2), new byte[6]));
+        assertNotNull(store.putIfAbsent(key(2), new byte[100]));
+        store.putAll(Arrays.asList(KeyValue.pair(key(3), new byte[1]), KeyValue.pair(key(3), null)));
+        assertEquals(2, store.count());
+        assertEquals(2 * key(1).get().length + 4 + 6, store.sizeInBytes());
+
+        assertNotNull(store.delete(key(1)));
+        assertNull(store.delete(key(1)));
+        assertEquals(1, store.count());
+        assertEquals(key(2).get().length + 6, store.sizeInBytes());
+
+        store.close();
+        assertEquals(0, store.count());
+        assertEquals(0, store.sizeInBytes());
+    }
+
+    @Test
+    public void iterationToleratesConcurrentWrites() {
+        for (int i = 0; i < 100; ++i) {
+            store.put(key(i), new byte[]{(byte) i});
+        }
+
+        int seen = 0;
+        KeyValueIterator<Bytes, byte[]> iterator = store.all();
+        while (iterator.hasNext()) {
+            KeyValue<Bytes, byte[]> keyValue = iterator.next();
+            // writes behind and ahead of the iterator must not fail it
+            store.delete(keyValue.key);
+            if (seen < 100) {
+                store.put(key(1000 + seen), new byte[]{1});
+            }
+            ++seen;
+        }
+        iterator.close();
+
+        // the keys put ahead of the iterator are seen as well, each once
+        assertEquals(200, seen);
+        assertEquals(0, store.count());
+        assertEquals(0, store.sizeInBytes());
+    }
+
+    private static Bytes key(int i) {
+        return Bytes.wrapUtf8String(String.format("k%08d", i));
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.framework.storage.service;
+
+import com.webank.ai.eggroll.core.io.KeyValue;
+import com.webank.ai.eggroll.core.io.KeyValueIterator;
+import com.webank.ai.eggroll.core.io.StoreInfo;
+import com.webank.ai.eggroll.core.model.Bytes;
+import com.webank.ai.eggroll.framework.storage.service.model.LMDBStore;
+import io.grpc.stub.StreamObserver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class LMDBStoreTests {
+    private static final long SMALL_MAP_SIZE = 1L << 20;
+    private static final int VALUE_SIZE = 16 * 1024;
+    private static final int ENTRY_COUNT = 512;
+    private static final int BATCH_RECORDS = 100;
+
+    private File dir;
+    private LMDBStore store;
+
+    @Before
+    public void setUp() {
+        dir = TestUtils.tempDirectory();
+        store = new LMDBStore(StoreInfo.builder()
+                .nameSpace("testNamespace")
+                .tableName("testLMDBStore")
+                .fragment(0)
+                .build());
+        Properties properties = new Properties();
+        properties.put(LMDBStore.DATA_DIR, dir.getAbsolutePath());
+        properties.put(LMDBStore.MAP_SIZE, String.valueOf(SMALL_MAP_SIZE));
+        properties.put(LMDBStore.PUT_ALL_BATCH_RECORDS, String.valueOf(BATCH_RECORDS));
+        store.init(properties);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        store.destroy();
+        TestUtils.delete(dir);
+    }
+
+    @Test
+    public void putGrowsFullMap() {
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            store.put(key(i), value(i));
+        }
+
+        assertTrue(store.getMapSize() > SMALL_MAP_SIZE);
+        assertEquals(ENTRY_COUNT, store.count());
+        assertArrayEquals(value(ENTRY_COUNT - 1), store.get(key(ENTRY_COUNT - 1)));
+    }
+
+    @Test
+    public void streamingPutAllGrowsFullMap() {
+        StreamObserver<KeyValue<Bytes, byte[]>> putAll = store.putAll();
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            putAll.onNext(KeyValue.pair(key(i), value(i)));
+        }
+        putAll.onCompleted();
+
+        assertTrue(store.getMapSize() > SMALL_MAP_SIZE);
+        assertEquals(ENTRY_COUNT, store.count());
+        assertArrayEquals(value(0), store.get(key(0)));
+    }
+
+    @Test
+    public void streamingPutAllKeepsCommittedBatchesOnError() {
+        // values small enough that no grow commits in between
+        StreamObserver<KeyValue<Bytes, byte[]>> putAll = store.putAll();
+        for (int i = 0; i < BATCH_RECORDS * 2 + 10; ++i) {
+            putAll.onNext(KeyValue.pair(key(i), new byte[]{(byte) i}));
+        }
+        putAll.onError(new IllegalStateException("stream broken"));
+
+        assertEquals(BATCH_RECORDS * 2, store.count());
+        assertNull(store.get(key(BATCH_RECORDS * 2)));
+    }
+
+    @Test
+    public void putAllStoresEmptyValues() {
+        store.put(key(1), value(1));
+        store.putAll(Arrays.asList(KeyValue.pair(key(0), new byte[0]), KeyValue.pair(key(1), null)));
+
+        assertArrayEquals(new byte[0], store.get(key(0)));
+        assertNull(store.get(key(1)));
+    }
+
+    @Test
+    public void streamingPutAllStoresEmptyValues() {
+        store.put(key(0), value(0));
+        StreamObserver<KeyValue<Bytes, byte[]>> putAll = store.putAll(true);
+        // appended, then put once the keys stop ascending
+        putAll.onNext(KeyValue.pair(key(2), new byte[0]));
+        putAll.onNext(KeyValue.pair(key(1), new byte[0]));
+        putAll.onNext(KeyValue.pair(key(0), null));
+        putAll.onCompleted();
+
+        assertNull(store.get(key(0)));
+        assertArrayEquals(new byte[0], store.get(key(1)));
+        assertArrayEquals(new byte[0], store.get(key(2)));
+    }
+
+    @Test
+    public void sortedPutAllFallsBackWhenKeysDescend() {
+        store.put(key(ENTRY_COUNT), value(ENTRY_COUNT));
+        StreamObserver<KeyValue<Bytes, byte[]>> putAll = store.putAll(true);
+        putAll.onNext(KeyValue.pair(key(ENTRY_COUNT + 1), value(ENTRY_COUNT + 1)));
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            putAll.onNext(KeyValue.pair(key(i), value(i)));
+        }
+        putAll.onCompleted();
+
+        assertEquals(ENTRY_COUNT + 2, store.count());
+        assertArrayEquals(value(0), store.get(key(0)));
+        assertArrayEquals(value(ENTRY_COUNT + 1), store.get(key(ENTRY_COUNT + 1)));
+    }
+
+    @Test
+    public void growListenerReleasesLongLivedIterator() {
+        store.put(key(0), value(0));
+        KeyValueIterator<ByteBuffer, ByteBuffer> iterator = store.rangeBuffers(null, null);
+        assertTrue(iterator.hasNext());
+        store.addGrowListener(() -> {
+            assertTrue(store.isGrowPending());
+            iterator.close();
+        });
+
+        for (int i = 1; i < ENTRY_COUNT; ++i) {
+            store.put(key(i), value(i));
+        }
+
+        assertFalse(store.isGrowPending());
+        assertTrue(store.getMapSize() > SMALL_MAP_SIZE);
+        assertEquals(ENTRY_COUNT, store.count());
+    }
+
+    @Test
+    public void idleRangeIteratorYieldsToGrow() {
+        store.put(key(0), value(0));
+        store.put(key(1), value(1));
+        KeyValueIterator<Bytes, byte[]> iterator = store.range(null, null);
+        assertArrayEquals(key(0).get(), iterator.next().key.get());
+
+        for (int i = 2; i < ENTRY_COUNT; ++i) {
+            store.put(key(i), value(i));
+        }
+        assertTrue(store.getMapSize() > SMALL_MAP_SIZE);
+
+        // resumes after the last key it made, seeing what was written meanwhile
+        int seen = 1;
+        while (iterator.hasNext()) {
+            assertArrayEquals(key(seen).get(), iterator.next().key.get());
+            ++seen;
+        }
+        assertEquals(ENTRY_COUNT, seen);
+        iterator.close();
+    }
+
+    @Test
+    public void idleStreamingPutAllDoesNotBlockGrow() {
+        StreamObserver<KeyValue<Bytes, byte[]>> putAll = store.putAll();
+        putAll.onNext(KeyValue.pair(key(ENTRY_COUNT), value(ENTRY_COUNT)));
+
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            store.put(key(i), value(i));
+        }
+        putAll.onCompleted();
+
+        assertTrue(store.getMapSize() > SMALL_MAP_SIZE);
+        assertEquals(ENTRY_COUNT + 1, store.count());
+    }
+
+    @Test
+    public void concurrentPointWritesShareCommits() throws Exception {
+        int threads = 8;
+        int writesPerThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; ++t) {
+            int offset = t * writesPerThread;
+            futures.add(executor.submit(() -> {
+                for (int i = offset; i < offset + writesPerThread; ++i) {
+                    store.put(key(i), new byte[]{(byte) i});
+                    assertArrayEquals(new byte[]{(byte) i}, store.putIfAbsent(key(i), new byte[]{0}));
+                    if (i % 2 == 0) {
+                        assertArrayEquals(new byte[]{(byte) i}, store.delete(key(i)));
+                    }
+                }
+            }));
+        }
+        // keys lmdb rejects fail alone, not the writes that shared their txn
+        Future<?> tooLong = executor.submit(() -> store.put(Bytes.wrap(new byte[1024]), new byte[]{1}));
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        try {
+            tooLong.get();
+            fail("key longer than lmdb allows should fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RuntimeException);
+        }
+        executor.shutdown();
+
+        assertEquals(threads * writesPerThread / 2, store.count());
+        assertNull(store.get(key(0)));
+        assertArrayEquals(new byte[]{(byte) 1}, store.get(key(1)));
+    }
+
+    @Test
+    public void concurrentBatchWritesAreSerialized() throws Exception {
+        int threads = 8;
+        int batchesPerThread = 20;
+        int batchSize = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; ++t) {
+            int offset = t * batchesPerThread * batchSize;
+            futures.add(executor.submit(() -> {
+                for (int b = 0; b < batchesPerThread; ++b) {
+                    List<KeyValue<Bytes, byte[]>> entries = new ArrayList<>();
+                    List<Bytes> keys = new ArrayList<>();
+                    for (int i = 0; i < batchSize; ++i) {
+                        int k = offset + b * batchSize + i;
+                        entries.add(KeyValue.pair(key(k), new byte[]{(byte) k}));
+                        if (i % 2 == 0) {
+                            keys.add(key(k));
+                        }
+                    }
+                    // putAll, deleteAll and point writes all take the one writer lock
+                    store.putAll(entries);
+                    store.deleteAll(keys);
+                    store.put(key(offset + b * batchSize), new byte[]{1});
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(threads * batchesPerThread * (batchSize / 2 + 1), store.count());
+    }
+
+    @Test
+    public void getAllAndDeleteAllFollowKeyOrder() {
+        store.put(key(1), value(1));
+        store.put(key(3), value(3));
+        List<Bytes> keys = Arrays.asList(key(3), key(2), key(1));
+
+        List<byte[]> got = new ArrayList<>();
+        store.getAll(keys, (key, valueBuffer) -> {
+            byte[] value = null;
+            if (valueBuffer != null) {
+                value = new byte[valueBuffer.remaining()];
+                valueBuffer.get(value);
+            }
+            got.add(value);
+        });
+        assertEquals(3, got.size());
+        assertArrayEquals(value(3), got.get(0));
+        assertNull(got.get(1));
+        assertArrayEquals(value(1), got.get(2));
+
+        List<byte[]> deleted = store.deleteAll(keys);
+        assertEquals(3, deleted.size());
+        assertArrayEquals(value(3), deleted.get(0));
+        assertNull(deleted.get(1));
+        assertArrayEquals(value(1), deleted.get(2));
+        assertEquals(0, store.count());
+    }
+
+    private static Bytes key(int i) {
+        return Bytes.wrapUtf8String(String.format("k%08d", i));
+    }
+
+    private static byte[] value(int i) {
+        byte[] result = new byte[VALUE_SIZE];
+        result[0] = (byte) i;
+        result[VALUE_SIZE - 1] = (byte) (i >> 8);
+        return result;
+    }
+}
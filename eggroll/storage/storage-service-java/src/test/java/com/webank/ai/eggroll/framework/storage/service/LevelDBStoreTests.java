@@ -0,0 +1,149 @@
+/*
+ * Copyright 2019 The FATE Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.webank.ai.eggroll.framework.storage.service;
+
+import com.webank.ai.eggroll.core.io.KeyValue;
+import com.webank.ai.eggroll.core.io.StoreInfo;
+import com.webank.ai.eggroll.core.model.Bytes;
+import com.webank.ai.eggroll.framework.storage.service.model.LevelDBStore;
+import io.grpc.stub.StreamObserver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class LevelDBStoreTests {
+    private static final StoreInfo STORE_INFO = StoreInfo.builder()
+            .nameSpace("testNamespace")
+            .tableName("testLevelDBStore")
+            .fragment(0)
+            .build();
+
+    private File dir;
+    private Properties properties;
+    private LevelDBStore store;
+
+    @Before
+    public void setUp() {
+        dir = TestUtils.tempDirectory();
+        properties = new Properties();
+        properties.put(LevelDBStore.DATA_DIR, dir.getAbsolutePath());
+        properties.put(LevelDBStore.COMPRESSION, "snappy");
+        properties.put(LevelDBStore.CACHE_SIZE, String.valueOf(1 << 20));
+        store = new LevelDBStore(STORE_INFO);
+        store.init(properties);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        store.destroy();
+        TestUtils.delete(dir);
+    }
+
+    @Test
+    public void countFollowsWritesAndSurvivesReopen() {
+        assertCountFollowsWritesAndSurvivesReopen();
+    }
+
+    @Test
+    public void exactCountFollowsWritesAndSurvivesReopen() {
+        reopenWithExactCount();
+        assertCountFollowsWritesAndSurvivesReopen();
+    }
+
+    private void assertCountFollowsWritesAndSurvivesReopen() {
+        store.put(key(1), value(1));
+        store.put(key(1), value(2));
+        assertNull(store.putIfAbsent(key(2), value(2)));
+        assertArrayEquals(value(2), store.putIfAbsent(key(2), value(3)));
+        assertEquals(2, store.count());
+
+        store.putAll(Arrays.asList(
+                KeyValue.pair(key(3), value(3)),
+                KeyValue.pair(key(3), value(4)),
+                KeyValue.pair(key(4), value(4)),
+                KeyValue.pair(key(4), null),
+                KeyValue.pair(key(1), null)));
+        assertEquals(2, store.count());
+        assertNull(store.get(key(4)));
+
+        StreamObserver<KeyValue<Bytes, byte[]>> putAll = store.putAll();
+        putAll.onNext(KeyValue.pair(key(5), value(5)));
+        putAll.onNext(KeyValue.pair(key(6), value(6)));
+        putAll.onCompleted();
+        assertArrayEquals(value(2), store.delete(key(2)));
+        assertNull(store.delete(key(2)));
+        assertEquals(3, store.count());
+
+        store.close();
+        store = new LevelDBStore(STORE_INFO);
+        store.init(properties);
+        assertEquals(3, store.count());
+        assertArrayEquals(value(4), store.get(key(3)));
+    }
+
+    @Test
+    public void concurrentWritersKeepCountExact() throws Exception {
+        reopenWithExactCount();
+        int threads = 8;
+        int keys = 100;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; ++t) {
+            futures.add(executor.submit(() -> {
+                // every thread writes the same keys, so only the first insert of each may count
+                for (int i = 0; i < keys; ++i) {
+                    store.putIfAbsent(key(i), value(i));
+                    store.put(key(i), value(i));
+                    assertArrayEquals(value(i), store.get(key(i)));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(keys, store.count());
+    }
+
+    private void reopenWithExactCount() {
+        store.close();
+        properties.put(LevelDBStore.EXACT_COUNT, "true");
+        store = new LevelDBStore(STORE_INFO);
+        store.init(properties);
+    }
+
+    private static Bytes key(int i) {
+        return Bytes.wrapUtf8String(String.format("k%08d", i));
+    }
+
+    private static byte[] value(int i) {
+        return String.valueOf(i).getBytes();
+    }
+}
@@ -33,14 +33,20 @@ import org.apache.logging.log4j.Logger;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
-import redis.clients.jedis.Pipeline;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class CacheManager {
     private static final Logger LOGGER = LogManager.getLogger();
-    private static JedisPool jedisPool;
+    private static Map<Integer, JedisPool> jedisPools;
+    private static ConcurrentMap<String, CompletableFuture<ReturnResult>> loadingCacheKeys;
+    private static long loadingWaitTimeout;
     private static Cache<String, ReturnResult> inferenceResultCache;
     private static Cache<String, ReturnResult> remoteModelInferenceResultCache;
     private static int[] remoteModelInferenceResultCacheDBIndex;
@@ -65,19 +71,14 @@ public class CacheManager {
                 .maximumSize(Configuration.getPropertyInt("inferenceResultCacheCacheMaxSize"))
                 .build();
 
-        JedisPoolConfig jedisPoolConfig = new JedisPoolConfig();
-        jedisPoolConfig.setMaxTotal(Configuration.getPropertyInt("redis.maxTotal"));
-        jedisPoolConfig.setMaxIdle(Configuration.getPropertyInt("redis.maxIdle"));
-        jedisPool = new JedisPool(jedisPoolConfig,
-                Configuration.getProperty("redis.ip"),
-                Configuration.getPropertyInt("redis.port"),
-                Configuration.getPropertyInt("redis.timeout"),
-                Configuration.getProperty("redis.password"));
         inferenceResultCacheDBIndex = initializeCacheDBIndex(Configuration.getProperty("external.inferenceResultCacheDBIndex"));
         externalInferenceResultCacheTTL = Configuration.getPropertyInt("external.inferenceResultCacheTTL");
         remoteModelInferenceResultCacheDBIndex = initializeCacheDBIndex(Configuration.getProperty("external.remoteModelInferenceResultCacheDBIndex"));
         externalRemoteModelInferenceResultCacheTTL = Configuration.getPropertyInt("external.remoteModelInferenceResultCacheTTL");
         canCacheRetcode = initializeCanCacheRetcode();
+        jedisPools = initializeJedisPools();
+        loadingCacheKeys = new ConcurrentHashMap<>();
+        loadingWaitTimeout = Configuration.getPropertyInt("redis.loadingWaitTimeout", 1000);
     }
 
     public static void putInferenceResultCache(String partyId, String caseid, ReturnResult returnResult) {
@@ -97,6 +98,19 @@ public class CacheManager {
         return returnResult;
     }
 
+    /**
+     * Results in caseids order, null where not cached. Missed keys are fetched with one MGET per redis db.
+     */
+    public static List<ReturnResult> getInferenceResultCaches(String partyId, List<String> caseids) {
+        List<String> inferenceResultCacheKeys = new ArrayList<>(caseids.size());
+        for (String caseid : caseids) {
+            inferenceResultCacheKeys.add(generateInferenceResultCacheKey(partyId, caseid));
+        }
+        List<ReturnResult> returnResults = getFromCache(inferenceResultCacheKeys, CacheType.INFERENCE_RESULT);
+        LOGGER.info("Get {} of {} inference results from cache.", countNonNull(returnResults), returnResults.size());
+        return returnResults;
+    }
+
     public static void putRemoteModelInferenceResult(FederatedParty remoteParty, FederatedRoles federatedRoles, Map<String, Object> featureIds, ReturnResult returnResult) {
         if (! Boolean.parseBoolean(Configuration.getProperty("remoteModelInferenceResultCacheSwitch"))){
             return;
@@ -120,17 +134,123 @@ public class CacheManager {
         return returnResult;
     }
 
+    /**
+     * Batch counterpart of getRemoteModelInferenceResult, results in featureIdsList order.
+     */
+    public static List<ReturnResult> getRemoteModelInferenceResults(FederatedParty remoteParty, FederatedRoles federatedRoles, List<Map<String, Object>> featureIdsList) {
+        if (! Boolean.parseBoolean(Configuration.getProperty("remoteModelInferenceResultCacheSwitch"))){
+            return new ArrayList<>(Collections.nCopies(featureIdsList.size(), null));
+        }
+        List<String> remoteModelInferenceResultCacheKeys = new ArrayList<>(featureIdsList.size());
+        for (Map<String, Object> featureIds : featureIdsList) {
+            remoteModelInferenceResultCacheKeys.add(generateRemoteModelInferenceResultCacheKey(remoteParty, federatedRoles, featureIds));
+        }
+        List<ReturnResult> returnResults = getFromCache(remoteModelInferenceResultCacheKeys, CacheType.REMOTE_MODEL_INFERENCE_RESULT);
+        LOGGER.info("Get {} of {} remote model inference results from cache.", countNonNull(returnResults), returnResults.size());
+        return returnResults;
+    }
+
+    /**
+     * Concurrent misses on the same key wait for the one redis lookup already in flight instead of issuing their own.
+     */
     private static ReturnResult getFromCache(String cacheKey, CacheType cacheType) {
         CacheValueConfig cacheValueConfig = getCacheValueConfig(cacheKey, cacheType);
         ReturnResult returnResultFromInCache = (ReturnResult) cacheValueConfig.getInProcessCache().getIfPresent(cacheKey);
         if (returnResultFromInCache != null) {
             return returnResultFromInCache;
         }
-        ReturnResult returnResultFromExternalCache = getFromRedisCache(cacheKey, cacheValueConfig);
-        if (returnResultFromExternalCache != null) {
-            cacheValueConfig.getInProcessCache().put(cacheKey, returnResultFromExternalCache);
+        CompletableFuture<ReturnResult> loading = new CompletableFuture<>();
+        CompletableFuture<ReturnResult> inFlight = loadingCacheKeys.putIfAbsent(cacheKey, loading);
+        if (inFlight != null) {
+            return awaitLoading(cacheKey, inFlight);
+        }
+        try {
+            ReturnResult returnResultFromExternalCache = getFromRedisCache(cacheKey, cacheValueConfig);
+            if (returnResultFromExternalCache != null) {
+                cacheValueConfig.getInProcessCache().put(cacheKey, returnResultFromExternalCache);
+            }
+            loading.complete(returnResultFromExternalCache);
+            return returnResultFromExternalCache;
+        } catch (RuntimeException ex) {
+            loading.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            loadingCacheKeys.remove(cacheKey, loading);
+        }
+    }
+
+    private static List<ReturnResult> getFromCache(List<String> cacheKeys, CacheType cacheType) {
+        ReturnResult[] returnResults = new ReturnResult[cacheKeys.size()];
+        Map<String, CompletableFuture<ReturnResult>> ownLoadings = new HashMap<>();
+        Map<Integer, CompletableFuture<ReturnResult>> otherLoadings = new HashMap<>();
+        Map<Integer, List<String>> dbIndexToLoadingKeys = new HashMap<>();
+        Cache inProcessCache = null;
+        for (int i = 0; i < cacheKeys.size(); i++) {
+            String cacheKey = cacheKeys.get(i);
+            CacheValueConfig cacheValueConfig = getCacheValueConfig(cacheKey, cacheType);
+            inProcessCache = cacheValueConfig.getInProcessCache();
+            ReturnResult returnResultFromInCache = (ReturnResult) inProcessCache.getIfPresent(cacheKey);
+            if (returnResultFromInCache != null) {
+                returnResults[i] = returnResultFromInCache;
+                continue;
+            }
+            CompletableFuture<ReturnResult> loading = ownLoadings.get(cacheKey);
+            if (loading != null) {
+                otherLoadings.put(i, loading);
+                continue;
+            }
+            loading = new CompletableFuture<>();
+            CompletableFuture<ReturnResult> inFlight = loadingCacheKeys.putIfAbsent(cacheKey, loading);
+            if (inFlight != null) {
+                otherLoadings.put(i, inFlight);
+                continue;
+            }
+            ownLoadings.put(cacheKey, loading);
+            dbIndexToLoadingKeys.computeIfAbsent(cacheValueConfig.getDbIndex(), dbIndex -> new ArrayList<>()).add(cacheKey);
+        }
+
+        try {
+            for (Map.Entry<Integer, List<String>> entry : dbIndexToLoadingKeys.entrySet()) {
+                List<String> loadingKeys = entry.getValue();
+                List<String> cacheValueStrings;
+                try (Jedis jedis = getJedisPool(entry.getKey()).getResource()) {
+                    cacheValueStrings = jedis.mget(loadingKeys.toArray(new String[0]));
+                }
+                for (int i = 0; i < loadingKeys.size(); i++) {
+                    ReturnResult returnResultFromExternalCache = (ReturnResult) ObjectTransform.json2Bean(cacheValueStrings.get(i), ReturnResult.class);
+                    if (returnResultFromExternalCache != null) {
+                        inProcessCache.put(loadingKeys.get(i), returnResultFromExternalCache);
+                    }
+                    ownLoadings.get(loadingKeys.get(i)).complete(returnResultFromExternalCache);
+                }
+            }
+        } catch (RuntimeException ex) {
+            ownLoadings.values().forEach(loading -> loading.completeExceptionally(ex));
+            throw ex;
+        } finally {
+            ownLoadings.forEach(loadingCacheKeys::remove);
+        }
+
+        for (int i = 0; i < cacheKeys.size(); i++) {
+            if (returnResults[i] != null) {
+                continue;
+            }
+            CompletableFuture<ReturnResult> loading = otherLoadings.get(i);
+            returnResults[i] = loading != null ? awaitLoading(cacheKeys.get(i), loading) : ownLoadings.get(cacheKeys.get(i)).join();
+        }
+        return Arrays.asList(returnResults);
+    }
+
+    private static ReturnResult awaitLoading(String cacheKey, CompletableFuture<ReturnResult> loading) {
+        try {
+            return loading.get(loadingWaitTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException ex) {
+            LOGGER.warn("Wait for {} loading from redis failed, treated as missed: {}", cacheKey, ex.getMessage());
+            return null;
         }
-        return returnResultFromExternalCache;
     }
 
     private static boolean putIntoCache(String cacheKey, CacheType cacheType, ReturnResult returnResult) {
@@ -145,8 +265,7 @@ public class CacheManager {
     }
 
     private static ReturnResult getFromRedisCache(String cacheKey, CacheValueConfig cacheValueConfig) {
-        try (Jedis jedis = jedisPool.getResource()) {
-            jedis.select(cacheValueConfig.getDbIndex());
+        try (Jedis jedis = getJedisPool(cacheValueConfig.getDbIndex()).getResource()) {
             String cacheValueString = jedis.get(cacheKey);
             ReturnResult returnResultFromExternalCache = (ReturnResult) ObjectTransform.json2Bean(cacheValueString, ReturnResult.class);
             return returnResultFromExternalCache;
@@ -154,13 +273,60 @@ public class CacheManager {
     }
 
     private static void putIntoRedisCache(String cacheKey, CacheValueConfig cacheValueConfig, ReturnResult returnResult) {
-        try (Jedis jedis = jedisPool.getResource()) {
-            Pipeline redisPipeline = jedis.pipelined();
-            redisPipeline.select(cacheValueConfig.getDbIndex());
-            redisPipeline.set(cacheKey, ObjectTransform.bean2Json(returnResult));
-            redisPipeline.expire(cacheKey, cacheValueConfig.getTtl());
-            redisPipeline.sync();
+        try (Jedis jedis = getJedisPool(cacheValueConfig.getDbIndex()).getResource()) {
+            jedis.setex(cacheKey, cacheValueConfig.getTtl(), ObjectTransform.bean2Json(returnResult));
+        }
+    }
+
+    private static JedisPool getJedisPool(int dbIndex) {
+        return jedisPools.get(dbIndex);
+    }
+
+    /**
+     * One pool per redis db so a pooled connection never has to SELECT before use.
+     * Each pool is sized by redis.maxTotalPerDB / redis.maxIdlePerDB. Without them redis.maxTotal / redis.maxIdle
+     * are split evenly across the pools, so the overall connection count stays what it was with a single pool.
+     */
+    private static Map<Integer, JedisPool> initializeJedisPools() {
+        Set<Integer> dbIndexs = new TreeSet<>();
+        for (int dbIndex : inferenceResultCacheDBIndex) {
+            dbIndexs.add(dbIndex);
+        }
+        for (int dbIndex : remoteModelInferenceResultCacheDBIndex) {
+            dbIndexs.add(dbIndex);
+        }
+        int poolCount = Math.max(1, dbIndexs.size());
+        JedisPoolConfig jedisPoolConfig = new JedisPoolConfig();
+        jedisPoolConfig.setMaxTotal(Configuration.getPropertyInt("redis.maxTotalPerDB",
+                ceilDiv(Configuration.getPropertyInt("redis.maxTotal"), poolCount)));
+        jedisPoolConfig.setMaxIdle(Configuration.getPropertyInt("redis.maxIdlePerDB",
+                ceilDiv(Configuration.getPropertyInt("redis.maxIdle"), poolCount)));
+        LOGGER.info("{} redis pools, maxTotal per pool: {}, maxIdle per pool: {}",
+                poolCount, jedisPoolConfig.getMaxTotal(), jedisPoolConfig.getMaxIdle());
+        Map<Integer, JedisPool> pools = new HashMap<>();
+        for (int dbIndex : dbIndexs) {
+            pools.put(dbIndex, new JedisPool(jedisPoolConfig,
+                    Configuration.getProperty("redis.ip"),
+                    Configuration.getPropertyInt("redis.port"),
+                    Configuration.getPropertyInt("redis.timeout"),
+                    Configuration.getProperty("redis.password"),
+                    dbIndex));
+        }
+        return pools;
+    }
+
+    private static int ceilDiv(int total, int parts) {
+        return Math.max(1, (total + parts - 1) / parts);
+    }
+
+    private static int countNonNull(List<ReturnResult> returnResults) {
+        int count = 0;
+        for (ReturnResult returnResult : returnResults) {
+            if (returnResult != null) {
+                count++;
+            }
         }
+        return count;
     }
 
     private static int[] initializeCacheDBIndex(String config) {
@@ -170,7 +336,7 @@ public class CacheManager {
             int start = Integer.parseInt(indexStartEnd[0]);
             int end = Integer.parseInt(indexStartEnd[1]);
             dbIndexs = new int[end - start + 1];
-            for (int i = 0; i < end; i++) {
+            for (int i = 0; i < dbIndexs.length; i++) {
                 dbIndexs[i] = start + i;
             }
         } else {
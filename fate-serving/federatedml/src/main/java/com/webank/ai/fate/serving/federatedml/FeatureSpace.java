@@ -0,0 +1,49 @@
+package com.webank.ai.fate.serving.federatedml;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dense index of every feature name a compiled pipeline knows about, resolved once at model load.
+ */
+public class FeatureSpace {
+    private final Map<String, Integer> featureIndex;
+    private final String[] featureNames;
+
+    public FeatureSpace(Collection<String> featureNames) {
+        this.featureIndex = new HashMap<>(featureNames.size() * 2);
+        this.featureNames = new String[featureNames.size()];
+        int index = 0;
+        for (String featureName : featureNames) {
+            if (!featureIndex.containsKey(featureName)) {
+                featureIndex.put(featureName, index);
+                this.featureNames[index++] = featureName;
+            }
+        }
+    }
+
+    public int size() {
+        return featureIndex.size();
+    }
+
+    public int indexOf(String featureName) {
+        Integer index = featureIndex.get(featureName);
+        return index == null ? -1 : index;
+    }
+
+    public String getFeatureName(int index) {
+        return featureNames[index];
+    }
+
+    public FeatureVector vectorize(Map<String, Object> inputData) {
+        FeatureVector featureVector = new FeatureVector(this, inputData);
+        for (Map.Entry<String, Object> entry : inputData.entrySet()) {
+            int index = indexOf(entry.getKey());
+            if (index >= 0) {
+                featureVector.setRaw(index, entry.getValue());
+            }
+        }
+        return featureVector;
+    }
+}
@@ -0,0 +1,149 @@
+package com.webank.ai.fate.serving.federatedml;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One input row laid out over a {@link FeatureSpace}. Values are parsed once; the ones that are not
+ * numbers keep their text so imputer and outlier markers such as "null" or "nan" can still be matched.
+ *
+ * Each value also keeps the string the map path would see from {@code toString()}, so markers match
+ * exactly as they do over feature maps: "0.0" is not the marker "0".
+ */
+public class FeatureVector {
+    private final FeatureSpace featureSpace;
+    private final Map<String, Object> inputData;
+    private final double[] values;
+    private final String[] texts;
+    // toString of the value on the map path. null for values set by a transform, which the map path holds as doubles
+    private final String[] strings;
+    private final boolean[] present;
+    private final boolean[] nulls;
+    private final boolean[] modified;
+
+    FeatureVector(FeatureSpace featureSpace, Map<String, Object> inputData) {
+        int size = featureSpace.size();
+        this.featureSpace = featureSpace;
+        this.inputData = inputData;
+        this.values = new double[size];
+        this.texts = new String[size];
+        this.strings = new String[size];
+        this.present = new boolean[size];
+        this.nulls = new boolean[size];
+        this.modified = new boolean[size];
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public int getInputSize() {
+        return inputData.size();
+    }
+
+    public String getFeatureName(int index) {
+        return featureSpace.getFeatureName(index);
+    }
+
+    public boolean isPresent(int index) {
+        return present[index];
+    }
+
+    public boolean isNull(int index) {
+        return nulls[index];
+    }
+
+    public boolean isNumeric(int index) {
+        return present[index] && !nulls[index] && texts[index] == null;
+    }
+
+    public double getValue(int index) {
+        return values[index];
+    }
+
+    public String getText(int index) {
+        return texts[index];
+    }
+
+    /**
+     * @return what {@code toString()} of the value gives on the map path, null for a null value
+     */
+    public String getString(int index) {
+        if (nulls[index]) {
+            return null;
+        }
+        return strings[index] != null ? strings[index] : String.valueOf(values[index]);
+    }
+
+    public void set(int index, double value) {
+        values[index] = value;
+        texts[index] = null;
+        strings[index] = null;
+        nulls[index] = false;
+        present[index] = true;
+        modified[index] = true;
+    }
+
+    /**
+     * Sets a value the map path would hold as this string, e.g. an imputer replacement.
+     */
+    public void setString(int index, String string) {
+        setRaw(index, string);
+        modified[index] = true;
+    }
+
+    public void setNull(int index) {
+        values[index] = Double.NaN;
+        texts[index] = null;
+        strings[index] = null;
+        nulls[index] = true;
+        present[index] = true;
+        modified[index] = true;
+    }
+
+    void setRaw(int index, Object raw) {
+        if (raw == null) {
+            setNull(index);
+            modified[index] = false;
+            return;
+        }
+        String string = raw.toString();
+        double value;
+        String text;
+        if (raw instanceof Number) {
+            value = ((Number) raw).doubleValue();
+            text = Double.isNaN(value) ? string : null;
+        } else {
+            try {
+                value = Double.parseDouble(string);
+                text = Double.isNaN(value) ? string : null;
+            } catch (NumberFormatException ex) {
+                value = Double.NaN;
+                text = string;
+            }
+        }
+        values[index] = value;
+        texts[index] = text;
+        strings[index] = string;
+        nulls[index] = false;
+        present[index] = true;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> result = new HashMap<>(inputData);
+        for (int i = 0; i < values.length; i++) {
+            if (modified[i]) {
+                Object value;
+                if (nulls[i]) {
+                    value = null;
+                } else if (strings[i] != null) {
+                    value = strings[i];
+                } else {
+                    value = values[i];
+                }
+                result.put(featureSpace.getFeatureName(i), value);
+            }
+        }
+        return result;
+    }
+}
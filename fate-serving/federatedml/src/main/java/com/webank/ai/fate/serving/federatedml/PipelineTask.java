@@ -7,12 +7,15 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class PipelineTask {
     private List<BaseModel> pipeLineNode = new ArrayList<>();
     private String modelPackage = "com.webank.ai.fate.serving.federatedml.model";
+    private FeatureSpace featureSpace;
     private static final Logger LOGGER = LogManager.getLogger();
 
     public int initModel(Map<String, byte[]> modelProtoMap) {
@@ -48,7 +51,39 @@ public class PipelineTask {
         return StatusCode.OK;
     }
 
+    /**
+     * Resolves every node against one dense feature space so predict runs over parsed rows instead of
+     * feature maps. Pipelines with a node that can not be compiled keep running over maps.
+     */
+    public boolean compile() {
+        if (this.pipeLineNode.isEmpty()) {
+            return false;
+        }
+        try {
+            Set<String> featureNames = new LinkedHashSet<>();
+            for (BaseModel mlNode : this.pipeLineNode) {
+                featureNames.addAll(mlNode.getFeatureNames());
+            }
+            FeatureSpace featureSpace = new FeatureSpace(featureNames);
+            for (BaseModel mlNode : this.pipeLineNode) {
+                if (!mlNode.compile(featureSpace)) {
+                    LOGGER.info("{} can not be compiled, pipeline predicts on feature maps", mlNode.getClass().getSimpleName());
+                    return false;
+                }
+            }
+            this.featureSpace = featureSpace;
+        } catch (Exception ex) {
+            LOGGER.warn("Pipeline compile catch error, pipeline predicts on feature maps", ex);
+            return false;
+        }
+        LOGGER.info("Finish compile Pipeline over {} features", this.featureSpace.size());
+        return true;
+    }
+
     public Map<String, Object> predict(Map<String, Object> inputData, Map<String, Object> predictParams) {
+        if (this.featureSpace != null) {
+            return predictCompiled(inputData, predictParams);
+        }
         LOGGER.info("Start Pipeline predict use {} model node.", this.pipeLineNode.size());
         for (int i = 0; i < this.pipeLineNode.size(); i++) {
             LOGGER.info(this.pipeLineNode.get(i).getClass().getName());
@@ -58,4 +93,65 @@ public class PipelineTask {
         LOGGER.info("Finish Pipeline predict");
         return inputData;
     }
+
+    public List<Map<String, Object>> batchPredict(List<Map<String, Object>> inputData, Map<String, Object> predictParams) {
+        if (this.featureSpace != null) {
+            return batchPredictCompiled(inputData, predictParams);
+        }
+        LOGGER.info("Start Pipeline batch predict of {} records use {} model node.", inputData.size(), this.pipeLineNode.size());
+        for (int i = 0; i < this.pipeLineNode.size(); i++) {
+            inputData = this.pipeLineNode.get(i).batchPredict(inputData, predictParams);
+        }
+        LOGGER.info("Finish Pipeline batch predict");
+        return inputData;
+    }
+
+    private Map<String, Object> predictCompiled(Map<String, Object> inputData, Map<String, Object> predictParams) {
+        LOGGER.info("Start compiled Pipeline predict use {} model node.", this.pipeLineNode.size());
+        FeatureVector featureVector = this.featureSpace.vectorize(inputData);
+        // the last node's output, null while the row was last rewritten in place
+        Map<String, Object> result = null;
+        for (BaseModel mlNode : this.pipeLineNode) {
+            result = mlNode.predict(featureVector, predictParams);
+            if (result != null) {
+                // as on the map path, the next node runs over this node's output
+                featureVector = this.featureSpace.vectorize(result);
+            }
+        }
+        LOGGER.info("Finish compiled Pipeline predict");
+        return result != null ? result : featureVector.toMap();
+    }
+
+    private List<Map<String, Object>> batchPredictCompiled(List<Map<String, Object>> inputData, Map<String, Object> predictParams) {
+        LOGGER.info("Start compiled Pipeline batch predict of {} records use {} model node.", inputData.size(), this.pipeLineNode.size());
+        List<FeatureVector> featureVectors = new ArrayList<>(inputData.size());
+        for (Map<String, Object> input : inputData) {
+            featureVectors.add(this.featureSpace.vectorize(input));
+        }
+        List<Map<String, Object>> result = null;
+        for (BaseModel mlNode : this.pipeLineNode) {
+            result = mlNode.batchPredictCompiled(featureVectors, predictParams);
+            if (result != null) {
+                for (int i = 0; i < featureVectors.size(); i++) {
+                    if (result.get(i) != null) {
+                        featureVectors.set(i, this.featureSpace.vectorize(result.get(i)));
+                    }
+                }
+            }
+        }
+        if (result == null) {
+            result = new ArrayList<>(featureVectors.size());
+            for (FeatureVector featureVector : featureVectors) {
+                result.add(featureVector.toMap());
+            }
+        } else {
+            for (int i = 0; i < featureVectors.size(); i++) {
+                if (result.get(i) == null) {
+                    result.set(i, featureVectors.get(i).toMap());
+                }
+            }
+        }
+        LOGGER.info("Finish compiled Pipeline batch predict");
+        return result;
+    }
 }
@@ -6,16 +6,24 @@ import com.webank.ai.fate.api.networking.proxy.Proxy;
 import com.webank.ai.fate.core.bean.FederatedParty;
 import com.webank.ai.fate.core.bean.FederatedRoles;
 import com.webank.ai.fate.core.bean.ReturnResult;
+import com.webank.ai.fate.core.constant.StatusCode;
 import com.webank.ai.fate.core.network.grpc.client.ClientPool;
 import com.webank.ai.fate.core.utils.Configuration;
 import com.webank.ai.fate.core.utils.ObjectTransform;
+import com.webank.ai.fate.serving.federatedml.FeatureSpace;
+import com.webank.ai.fate.serving.federatedml.FeatureVector;
+import com.webank.ai.fate.serving.core.constant.InferenceRetCode;
 import com.webank.ai.fate.serving.core.manager.CacheManager;
 import io.grpc.ManagedChannel;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public abstract class BaseModel {
@@ -25,6 +33,49 @@ public abstract class BaseModel {
 
     public abstract Map<String, Object> predict(Map<String, Object> inputData, Map<String, Object> predictParams);
 
+    /**
+     * Predicts every record of a batch. Models which talk to other parties override this to do so once per batch.
+     */
+    public List<Map<String, Object>> batchPredict(List<Map<String, Object>> inputData, Map<String, Object> predictParams) {
+        List<Map<String, Object>> result = new ArrayList<>(inputData.size());
+        for (Map<String, Object> input : inputData) {
+            result.add(predict(input, predictParams));
+        }
+        return result;
+    }
+
+    /**
+     * Feature names this node reads or writes, used to build the pipeline's {@link FeatureSpace}.
+     */
+    public Collection<String> getFeatureNames() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Resolves the node's parameters against the feature space. Returns false when the node
+     * can only run over feature maps.
+     */
+    public boolean compile(FeatureSpace featureSpace) {
+        return false;
+    }
+
+    /**
+     * Compiled counterpart of predict. Preprocessing nodes rewrite the row in place and return null,
+     * models return their result.
+     */
+    public abstract Map<String, Object> predict(FeatureVector inputData, Map<String, Object> predictParams);
+
+    public List<Map<String, Object>> batchPredictCompiled(List<FeatureVector> inputData, Map<String, Object> predictParams) {
+        List<Map<String, Object>> result = new ArrayList<>(inputData.size());
+        boolean hasResult = false;
+        for (FeatureVector input : inputData) {
+            Map<String, Object> output = predict(input, predictParams);
+            hasResult |= output != null;
+            result.add(output);
+        }
+        return hasResult ? result : null;
+    }
+
     protected ReturnResult getFederatedPredict(Map<String, Object> federatedParams) {
         FederatedParty srcParty = (FederatedParty) federatedParams.get("local");
         FederatedRoles federatedRoles = (FederatedRoles) federatedParams.get("role");
@@ -55,7 +106,112 @@ public abstract class BaseModel {
         return remoteResult;
     }
 
+    /**
+     * Host results of a batch in input order, with one remote call for the records not cached.
+     * Hosts without federatedBatchInference answer PARAMERROR, those are asked once per record instead.
+     * Marks which records came from cache in federatedParams "is_cache_list".
+     */
+    protected List<ReturnResult> getFederatedBatchPredict(Map<String, Object> federatedParams) {
+        FederatedParty srcParty = (FederatedParty) federatedParams.get("local");
+        FederatedRoles federatedRoles = (FederatedRoles) federatedParams.get("role");
+        List<Map<String, Object>> featureIdsList = (List<Map<String, Object>>) federatedParams.get("feature_ids");
+
+        FederatedParty dstParty = new FederatedParty("host", federatedRoles.getRole("host").get(0));
+        List<ReturnResult> result = new ArrayList<>(featureIdsList.size());
+        List<Boolean> isCacheList = new ArrayList<>(featureIdsList.size());
+        List<Integer> missIndexes = new ArrayList<>();
+        List<Map<String, Object>> missFeatureIds = new ArrayList<>();
+        List<Object> missCaseids = new ArrayList<>();
+        List<Object> caseids = (List<Object>) federatedParams.get("caseids");
+        List<ReturnResult> remoteResultsFromCache = CacheManager.getRemoteModelInferenceResults(dstParty, federatedRoles, featureIdsList);
+        for (int i = 0; i < featureIdsList.size(); i++) {
+            ReturnResult remoteResultFromCache = remoteResultsFromCache.get(i);
+            result.add(remoteResultFromCache);
+            isCacheList.add(remoteResultFromCache != null);
+            if (remoteResultFromCache == null) {
+                missIndexes.add(i);
+                missFeatureIds.add(featureIdsList.get(i));
+                missCaseids.add(caseids.get(i));
+            }
+        }
+        federatedParams.put("is_cache_list", isCacheList);
+        LOGGER.info("Get {} of {} remote party model inference results from cache.", featureIdsList.size() - missIndexes.size(), featureIdsList.size());
+        if (missIndexes.isEmpty()) {
+            return result;
+        }
+
+        Map<String, Object> requestData = new HashMap<>();
+        requestData.put("caseid", federatedParams.get("caseid"));
+        requestData.put("seqno", federatedParams.get("seqno"));
+        requestData.put("caseids", ObjectTransform.bean2Json(missCaseids));
+        requestData.put("partner_local", ObjectTransform.bean2Json(srcParty));
+        requestData.put("partner_model_info", ObjectTransform.bean2Json(federatedParams.get("model_info")));
+        requestData.put("feature_ids", ObjectTransform.bean2Json(missFeatureIds));
+        requestData.put("local", ObjectTransform.bean2Json(dstParty));
+        requestData.put("role", ObjectTransform.bean2Json(federatedParams.get("role")));
+
+        List<ReturnResult> remoteResults = null;
+        int failedRetcode = InferenceRetCode.NETWORK_ERROR;
+        try {
+            ReturnResult remoteResult = getFederatedPredictFromRemote(srcParty, dstParty, requestData, "federatedBatchInference");
+            if (remoteResult.getRetcode() == InferenceRetCode.OK) {
+                remoteResults = new ArrayList<>(missIndexes.size());
+                for (Object recordResult : (List<Object>) remoteResult.getData().get("batchDataList")) {
+                    remoteResults.add((ReturnResult) ObjectTransform.json2Bean(ObjectTransform.bean2Json(recordResult), ReturnResult.class));
+                }
+            } else if (remoteResult.getRetcode() == StatusCode.PARAMERROR) {
+                LOGGER.info("Host {} does not support federated batch inference, request {} records one by one.", dstParty.getPartyId(), missIndexes.size());
+                remoteResults = getFederatedPredictPerRecord(srcParty, dstParty, federatedParams, missFeatureIds, missCaseids);
+            } else {
+                failedRetcode = remoteResult.getRetcode();
+            }
+        } catch (Exception ex) {
+            LOGGER.error("get host batch predict failed:", ex);
+        }
+
+        for (int i = 0; i < missIndexes.size(); i++) {
+            ReturnResult remoteResult;
+            if (remoteResults != null && i < remoteResults.size() && remoteResults.get(i) != null) {
+                remoteResult = remoteResults.get(i);
+                CacheManager.putRemoteModelInferenceResult(dstParty, federatedRoles, missFeatureIds.get(i), remoteResult);
+            } else {
+                remoteResult = new ReturnResult();
+                remoteResult.setRetcode(failedRetcode);
+            }
+            result.set(missIndexes.get(i), remoteResult);
+        }
+        LOGGER.info("Get {} remote party model inference results from federated batch request.", missIndexes.size());
+        return result;
+    }
+
+    private List<ReturnResult> getFederatedPredictPerRecord(FederatedParty srcParty, FederatedParty dstParty, Map<String, Object> federatedParams,
+                                                            List<Map<String, Object>> featureIdsList, List<Object> caseids) {
+        List<ReturnResult> result = new ArrayList<>(featureIdsList.size());
+        for (int i = 0; i < featureIdsList.size(); i++) {
+            Map<String, Object> requestData = new HashMap<>();
+            requestData.put("caseid", caseids.get(i));
+            requestData.put("seqno", federatedParams.get("seqno"));
+            requestData.put("partner_local", ObjectTransform.bean2Json(srcParty));
+            requestData.put("partner_model_info", ObjectTransform.bean2Json(federatedParams.get("model_info")));
+            requestData.put("feature_id", ObjectTransform.bean2Json(featureIdsList.get(i)));
+            requestData.put("local", ObjectTransform.bean2Json(dstParty));
+            requestData.put("role", ObjectTransform.bean2Json(federatedParams.get("role")));
+            ReturnResult remoteResult = null;
+            try {
+                remoteResult = getFederatedPredictFromRemote(srcParty, dstParty, requestData);
+            } catch (Exception ex) {
+                LOGGER.error("get host predict failed:", ex);
+            }
+            result.add(remoteResult);
+        }
+        return result;
+    }
+
     protected ReturnResult getFederatedPredictFromRemote(FederatedParty srcParty, FederatedParty dstParty, Map<String, Object> requestData) {
+        return getFederatedPredictFromRemote(srcParty, dstParty, requestData, "federatedInference");
+    }
+
+    protected ReturnResult getFederatedPredictFromRemote(FederatedParty srcParty, FederatedParty dstParty, Map<String, Object> requestData, String command) {
 
         Proxy.Packet.Builder packetBuilder = Proxy.Packet.newBuilder();
         packetBuilder.setBody(Proxy.Data.newBuilder()
@@ -75,7 +231,7 @@ public abstract class BaseModel {
                         .setRole("serving")
                         .setName("partyName")
                         .build());
-        metaDataBuilder.setCommand(Proxy.Command.newBuilder().setName("federatedInference").build());
+        metaDataBuilder.setCommand(Proxy.Command.newBuilder().setName(command).build());
         metaDataBuilder.setConf(Proxy.Conf.newBuilder().setOverallTimeout(60 * 1000));
         packetBuilder.setHeader(metaDataBuilder.build());
 
@@ -2,15 +2,20 @@ package com.webank.ai.fate.serving.federatedml.model;
 
 import com.webank.ai.fate.core.constant.StatusCode;
 import com.webank.ai.fate.core.mlmodel.buffer.LRModelParamProto.LRModelParam;
+import com.webank.ai.fate.serving.federatedml.FeatureSpace;
+import com.webank.ai.fate.serving.federatedml.FeatureVector;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
 public abstract class HeteroLR extends BaseModel {
     private Map<String, Double> weight;
     private Double intercept;
+    private boolean[] hasWeight;
+    private double[] weights;
     private static final Logger LOGGER = LogManager.getLogger();
 
     @Override
@@ -67,6 +72,52 @@ public abstract class HeteroLR extends BaseModel {
         return ret;
     }
 
+    Map<String, Double> forward(FeatureVector inputData) {
+        double score = 0;
+        int hitCount = 0;
+        for (int i = 0; i < inputData.size(); i++) {
+            if (this.hasWeight[i] && inputData.isPresent(i)) {
+                if (inputData.isNull(i)) {
+                    throw new NullPointerException("feature " + inputData.getFeatureName(i) + " is null");
+                }
+                if (!inputData.isNumeric(i)) {
+                    throw new NumberFormatException("For input string: \"" + inputData.getText(i) + "\"");
+                }
+                score += inputData.getValue(i) * this.weights[i];
+                hitCount += 1;
+            }
+        }
+        score += this.intercept;
+
+        double modelWeightHitRate = (double) hitCount / this.weight.size();
+        double inputDataHitRate = (double) hitCount / inputData.getInputSize();
+        LOGGER.info("model weight hit rate:{}", modelWeightHitRate);
+        LOGGER.info("input data features hit rate:{}", inputDataHitRate);
+
+        Map<String, Double> ret = new HashMap<>();
+        ret.put("score", score);
+        ret.put("modelWrightHitRate", modelWeightHitRate);
+        ret.put("inputDataHitRate", inputDataHitRate);
+        return ret;
+    }
+
+    @Override
+    public Collection<String> getFeatureNames() {
+        return this.weight.keySet();
+    }
+
+    @Override
+    public boolean compile(FeatureSpace featureSpace) {
+        this.hasWeight = new boolean[featureSpace.size()];
+        this.weights = new double[featureSpace.size()];
+        for (Map.Entry<String, Double> entry : this.weight.entrySet()) {
+            int index = featureSpace.indexOf(entry.getKey());
+            this.hasWeight[index] = true;
+            this.weights[index] = entry.getValue();
+        }
+        return true;
+    }
+
     @Override
     public abstract Map<String, Object> predict(Map<String, Object> inputData, Map<String, Object> predictParams);
 }
@@ -1,10 +1,13 @@
 package com.webank.ai.fate.serving.federatedml.model;
 
 import com.webank.ai.fate.core.bean.ReturnResult;
+import com.webank.ai.fate.serving.federatedml.FeatureVector;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static java.lang.Math.exp;
@@ -18,8 +21,34 @@ public class HeteroLRGuest extends HeteroLR {
 
     @Override
     public Map<String, Object> predict(Map<String, Object> inputData, Map<String, Object> predictParams) {
+        return predictWithForward(forward(inputData), predictParams);
+    }
+
+    @Override
+    public Map<String, Object> predict(FeatureVector inputData, Map<String, Object> predictParams) {
+        return predictWithForward(forward(inputData), predictParams);
+    }
+
+    @Override
+    public List<Map<String, Object>> batchPredict(List<Map<String, Object>> inputData, Map<String, Object> predictParams) {
+        List<Map<String, Double>> forwardRets = new ArrayList<>(inputData.size());
+        for (Map<String, Object> input : inputData) {
+            forwardRets.add(forward(input));
+        }
+        return batchPredictWithForward(forwardRets, predictParams);
+    }
+
+    @Override
+    public List<Map<String, Object>> batchPredictCompiled(List<FeatureVector> inputData, Map<String, Object> predictParams) {
+        List<Map<String, Double>> forwardRets = new ArrayList<>(inputData.size());
+        for (FeatureVector input : inputData) {
+            forwardRets.add(forward(input));
+        }
+        return batchPredictWithForward(forwardRets, predictParams);
+    }
+
+    private Map<String, Object> predictWithForward(Map<String, Double> forwardRet, Map<String, Object> predictParams) {
         Map<String, Object> result = new HashMap<>();
-        Map<String, Double> forwardRet = forward(inputData);
         double score = forwardRet.get("score");
         LOGGER.info("guest score:{}", score);
 
@@ -40,4 +69,28 @@ public class HeteroLRGuest extends HeteroLR {
 
         return result;
     }
+
+    private List<Map<String, Object>> batchPredictWithForward(List<Map<String, Double>> forwardRets, Map<String, Object> predictParams) {
+        List<ReturnResult> hostPredictResponses = this.getFederatedBatchPredict((Map<String, Object>) predictParams.get("federatedParams"));
+        predictParams.put("federatedResults", hostPredictResponses);
+
+        List<Map<String, Object>> results = new ArrayList<>(forwardRets.size());
+        for (int i = 0; i < forwardRets.size(); i++) {
+            Map<String, Object> result = new HashMap<>();
+            Map<String, Double> forwardRet = forwardRets.get(i);
+            double score = forwardRet.get("score");
+
+            ReturnResult hostPredictResponse = hostPredictResponses.get(i);
+            if (hostPredictResponse.getRetcode() == 0 && hostPredictResponse.getData().get("score") != null) {
+                score += ((Number) hostPredictResponse.getData().get("score")).doubleValue();
+            }
+
+            result.put("prob", sigmod(score));
+            result.put("guestModelWeightHitRate:{}", forwardRet.get("modelWrightHitRate"));
+            result.put("guestInputDataHitRate:{}", forwardRet.get("inputDataHitRate"));
+            results.add(result);
+        }
+
+        return results;
+    }
 }
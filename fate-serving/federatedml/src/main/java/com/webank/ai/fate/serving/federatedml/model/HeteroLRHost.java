@@ -1,5 +1,6 @@
 package com.webank.ai.fate.serving.federatedml.model;
 
+import com.webank.ai.fate.serving.federatedml.FeatureVector;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -18,4 +19,13 @@ public class HeteroLRHost extends HeteroLR {
 
         return result;
     }
+
+    @Override
+    public Map<String, Object> predict(FeatureVector inputData, Map<String, Object> predictParams) {
+        HashMap<String, Object> result = new HashMap<>();
+        Map<String, Double> ret = forward(inputData);
+        result.put("score", ret.get("score"));
+
+        return result;
+    }
 }
@@ -3,9 +3,12 @@ package com.webank.ai.fate.serving.federatedml.model;
 import com.webank.ai.fate.core.constant.StatusCode;
 import com.webank.ai.fate.core.mlmodel.buffer.ImputerMetaProto.ImputerMeta;
 import com.webank.ai.fate.core.mlmodel.buffer.ImputerParamProto.ImputerParam;
+import com.webank.ai.fate.serving.federatedml.FeatureSpace;
+import com.webank.ai.fate.serving.federatedml.FeatureVector;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -13,6 +16,7 @@ public class Imputer extends BaseModel {
     private ImputerMeta imputerMetaProto;
     private ImputerParam imputerParamProto;
     private boolean isImputer;
+    private ValueReplacer valueReplacer;
     private static final Logger LOGGER = LogManager.getLogger();
 
     @Override
@@ -49,4 +53,25 @@ public class Imputer extends BaseModel {
         }
         return inputData;
     }
+
+    @Override
+    public Collection<String> getFeatureNames() {
+        return this.imputerParamProto.getMissingReplaceValueMap().keySet();
+    }
+
+    @Override
+    public boolean compile(FeatureSpace featureSpace) {
+        if (this.isImputer) {
+            this.valueReplacer = new ValueReplacer(featureSpace, this.imputerMetaProto.getMissingValueList(), this.imputerParamProto.getMissingReplaceValueMap());
+        }
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> predict(FeatureVector inputData, Map<String, Object> predictParams) {
+        if (this.isImputer) {
+            this.valueReplacer.replace(inputData);
+        }
+        return null;
+    }
 }
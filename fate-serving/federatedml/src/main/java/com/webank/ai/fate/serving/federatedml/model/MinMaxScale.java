@@ -1,6 +1,8 @@
 package com.webank.ai.fate.serving.federatedml.model;
 
 import com.webank.ai.fate.core.mlmodel.buffer.ScaleParamProto.MinMaxScaleParam;
+import com.webank.ai.fate.serving.federatedml.FeatureSpace;
+import com.webank.ai.fate.serving.federatedml.FeatureVector;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -8,6 +10,7 @@ import java.util.Map;
 
 public class MinMaxScale {
     private static final Logger LOGGER = LogManager.getLogger();
+    private MinMaxScaleParam[] params;
 
     public Map<String, Object> transform(Map<String, Object> inputData, Map<String, MinMaxScaleParam> scales) {
         LOGGER.info("Start MinMaxScale transform");
@@ -39,4 +42,40 @@ public class MinMaxScale {
         }
         return inputData;
     }
+
+    public void compile(FeatureSpace featureSpace, Map<String, MinMaxScaleParam> scales) {
+        this.params = new MinMaxScaleParam[featureSpace.size()];
+        for (Map.Entry<String, MinMaxScaleParam> entry : scales.entrySet()) {
+            int index = featureSpace.indexOf(entry.getKey());
+            if (index >= 0) {
+                this.params[index] = entry.getValue();
+            }
+        }
+    }
+
+    public void transform(FeatureVector inputData) {
+        for (int i = 0; i < inputData.size(); i++) {
+            MinMaxScaleParam scale = params[i];
+            if (scale == null || !inputData.isNumeric(i)) {
+                continue;
+            }
+            double value = inputData.getValue(i);
+            if (value > scale.getFeatUpper())
+                value = 1;
+            else if (value < scale.getFeatLower())
+                value = 0;
+            else {
+                double range = scale.getFeatUpper() - scale.getFeatLower();
+                if (range <= 0) {
+                    value = 0;
+                } else {
+                    value = (value - scale.getFeatLower()) / range;
+                }
+            }
+
+            double outLower = scale.getOutLower();
+            double out_range = scale.getOutUpper() - outLower;
+            inputData.set(i, value * out_range + outLower);
+        }
+    }
 }
@@ -3,9 +3,12 @@ package com.webank.ai.fate.serving.federatedml.model;
 import com.webank.ai.fate.core.constant.StatusCode;
 import com.webank.ai.fate.core.mlmodel.buffer.OutlierMetaProto.OutlierMeta;
 import com.webank.ai.fate.core.mlmodel.buffer.OutlierParamProto.OutlierParam;
+import com.webank.ai.fate.serving.federatedml.FeatureSpace;
+import com.webank.ai.fate.serving.federatedml.FeatureVector;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -13,6 +16,7 @@ public class Outlier extends BaseModel {
     private OutlierMeta outlierMetaProto;
     private OutlierParam outlierParamProto;
     private boolean isOutlier;
+    private ValueReplacer valueReplacer;
     private static final Logger LOGGER = LogManager.getLogger();
 
     @Override
@@ -54,4 +58,25 @@ public class Outlier extends BaseModel {
         }
         return inputData;
     }
+
+    @Override
+    public Collection<String> getFeatureNames() {
+        return this.outlierParamProto.getOutlierReplaceValueMap().keySet();
+    }
+
+    @Override
+    public boolean compile(FeatureSpace featureSpace) {
+        if (this.isOutlier) {
+            this.valueReplacer = new ValueReplacer(featureSpace, this.outlierMetaProto.getOutlierValueList(), this.outlierParamProto.getOutlierReplaceValueMap());
+        }
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> predict(FeatureVector inputData, Map<String, Object> predictParams) {
+        if (this.isOutlier) {
+            this.valueReplacer.replace(inputData);
+        }
+        return null;
+    }
 }
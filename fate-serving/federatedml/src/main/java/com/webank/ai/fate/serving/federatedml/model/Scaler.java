@@ -3,15 +3,21 @@ package com.webank.ai.fate.serving.federatedml.model;
 import com.webank.ai.fate.core.constant.StatusCode;
 import com.webank.ai.fate.core.mlmodel.buffer.ScaleMetaProto.ScaleMeta;
 import com.webank.ai.fate.core.mlmodel.buffer.ScaleParamProto.ScaleParam;
+import com.webank.ai.fate.serving.federatedml.FeatureSpace;
+import com.webank.ai.fate.serving.federatedml.FeatureVector;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 
 public class Scaler extends BaseModel {
     private ScaleMeta scaleMeta;
     private ScaleParam scaleParam;
     private boolean isScale;
+    private MinMaxScale minMaxScale;
+    private StandardScale standardScale;
     private static final Logger LOGGER = LogManager.getLogger();
 
     @Override
@@ -43,4 +49,40 @@ public class Scaler extends BaseModel {
         }
         return inputData;
     }
+
+    @Override
+    public Collection<String> getFeatureNames() {
+        String scaleMethod = this.scaleMeta.getStrategy().toLowerCase();
+        if (scaleMethod.equals("min_max_scale")) {
+            return this.scaleParam.getMinmaxScaleParamMap().keySet();
+        } else if (scaleMethod.equals("standard_scale")) {
+            return this.scaleParam.getStandardScaleParamMap().keySet();
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean compile(FeatureSpace featureSpace) {
+        if (this.isScale) {
+            String scaleMethod = this.scaleMeta.getStrategy().toLowerCase();
+            if (scaleMethod.equals("min_max_scale")) {
+                this.minMaxScale = new MinMaxScale();
+                this.minMaxScale.compile(featureSpace, this.scaleParam.getMinmaxScaleParamMap());
+            } else if (scaleMethod.equals("standard_scale")) {
+                this.standardScale = new StandardScale();
+                this.standardScale.compile(featureSpace, this.scaleParam.getStandardScaleParamMap());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> predict(FeatureVector inputData, Map<String, Object> predictParams) {
+        if (this.minMaxScale != null) {
+            this.minMaxScale.transform(inputData);
+        } else if (this.standardScale != null) {
+            this.standardScale.transform(inputData);
+        }
+        return null;
+    }
 }
@@ -1,6 +1,8 @@
 package com.webank.ai.fate.serving.federatedml.model;
 
 import com.webank.ai.fate.core.mlmodel.buffer.ScaleParamProto.StandardScaleParam;
+import com.webank.ai.fate.serving.federatedml.FeatureSpace;
+import com.webank.ai.fate.serving.federatedml.FeatureVector;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -8,6 +10,9 @@ import java.util.Map;
 
 public class StandardScale {
     private static final Logger LOGGER = LogManager.getLogger();
+    private boolean[] hasParam;
+    private double[] means;
+    private double[] scales;
 
     public Map<String, Object> transform(Map<String, Object> inputData, Map<String, StandardScaleParam> standardScalesMap) {
         LOGGER.info("Start StandardScale transform");
@@ -28,4 +33,28 @@ public class StandardScale {
         }
         return inputData;
     }
+
+    public void compile(FeatureSpace featureSpace, Map<String, StandardScaleParam> standardScalesMap) {
+        int size = featureSpace.size();
+        this.hasParam = new boolean[size];
+        this.means = new double[size];
+        this.scales = new double[size];
+        for (Map.Entry<String, StandardScaleParam> entry : standardScalesMap.entrySet()) {
+            int index = featureSpace.indexOf(entry.getKey());
+            if (index >= 0) {
+                double scale = entry.getValue().getScale();
+                this.hasParam[index] = true;
+                this.means[index] = entry.getValue().getMean();
+                this.scales[index] = scale == 0 ? 1 : scale;
+            }
+        }
+    }
+
+    public void transform(FeatureVector inputData) {
+        for (int i = 0; i < inputData.size(); i++) {
+            if (hasParam[i] && inputData.isNumeric(i)) {
+                inputData.set(i, inputData.getValue(i) - means[i] / scales[i]);
+            }
+        }
+    }
 }
@@ -0,0 +1,44 @@
+package com.webank.ai.fate.serving.federatedml.model;
+
+import com.webank.ai.fate.serving.federatedml.FeatureSpace;
+import com.webank.ai.fate.serving.federatedml.FeatureVector;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiled form of Imputer and Outlier: replaces marker values with the per-feature replacement.
+ *
+ * Matches the map path: a value is a marker when its lowercased string is one of the markers, so "0.0"
+ * does not match the marker "0", and a marker feature without a replacement becomes null. Input keys
+ * outside the feature space are not read by any compiled node and pass through unchanged.
+ */
+class ValueReplacer {
+    private final Set<String> markers;
+    private final String[] replaceValues;
+
+    ValueReplacer(FeatureSpace featureSpace, List<String> markers, Map<String, String> replaceValues) {
+        this.markers = new HashSet<>(markers);
+        this.replaceValues = new String[featureSpace.size()];
+        for (Map.Entry<String, String> entry : replaceValues.entrySet()) {
+            int index = featureSpace.indexOf(entry.getKey());
+            if (index >= 0) {
+                this.replaceValues[index] = entry.getValue();
+            }
+        }
+    }
+
+    void replace(FeatureVector inputData) {
+        for (int i = 0; i < inputData.size(); i++) {
+            if (inputData.isPresent(i) && markers.contains(inputData.getString(i).toLowerCase())) {
+                if (replaceValues[i] != null) {
+                    inputData.setString(i, replaceValues[i]);
+                } else {
+                    inputData.setNull(i);
+                }
+            }
+        }
+    }
+}
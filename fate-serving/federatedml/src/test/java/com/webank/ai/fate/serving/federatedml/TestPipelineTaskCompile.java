@@ -0,0 +1,170 @@
+package com.webank.ai.fate.serving.federatedml;
+
+import com.webank.ai.fate.core.mlmodel.buffer.ImputerMetaProto.ImputerMeta;
+import com.webank.ai.fate.core.mlmodel.buffer.ImputerParamProto.ImputerParam;
+import com.webank.ai.fate.core.mlmodel.buffer.LRModelParamProto.LRModelParam;
+import com.webank.ai.fate.core.mlmodel.buffer.OutlierMetaProto.OutlierMeta;
+import com.webank.ai.fate.core.mlmodel.buffer.OutlierParamProto.OutlierParam;
+import com.webank.ai.fate.core.mlmodel.buffer.PipelineProto.Pipeline;
+import com.webank.ai.fate.core.mlmodel.buffer.ScaleMetaProto.ScaleMeta;
+import com.webank.ai.fate.core.mlmodel.buffer.ScaleParamProto.MinMaxScaleParam;
+import com.webank.ai.fate.core.mlmodel.buffer.ScaleParamProto.ScaleParam;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestPipelineTaskCompile {
+    // the two paths add the weighted features up in different orders
+    private static final double DELTA = 1e-12;
+
+    private Map<String, byte[]> modelProtoMap;
+    private PipelineTask mapPipeline;
+    private PipelineTask compiledPipeline;
+
+    @Before
+    public void setUp() {
+        modelProtoMap = new HashMap<>();
+        modelProtoMap.put("Pipeline", Pipeline.newBuilder()
+                .addAllNodeMeta(Arrays.asList("Outlier.meta", "Imputer.meta", "Scaler.meta", "HeteroLRHost.meta"))
+                .addAllNodeParam(Arrays.asList("Outlier.param", "Imputer.param", "Scaler.param", "HeteroLRHost.param"))
+                .build().toByteArray());
+        modelProtoMap.put("Outlier.meta", OutlierMeta.newBuilder()
+                .setIsOutlier(true)
+                .addOutlierValue("999")
+                .build().toByteArray());
+        modelProtoMap.put("Outlier.param", OutlierParam.newBuilder()
+                .putOutlierReplaceValue("x3", "7")
+                .putOutlierReplaceValue("x4", "3")
+                .build().toByteArray());
+        modelProtoMap.put("Imputer.meta", ImputerMeta.newBuilder()
+                .setIsImputer(true)
+                .addAllMissingValue(Arrays.asList("null", "nan", "0"))
+                .build().toByteArray());
+        modelProtoMap.put("Imputer.param", ImputerParam.newBuilder()
+                .putMissingReplaceValue("x1", "1.5")
+                .putMissingReplaceValue("x2", "2")
+                .build().toByteArray());
+        MinMaxScaleParam minMax = MinMaxScaleParam.newBuilder()
+                .setFeatLower(0).setFeatUpper(10).setOutLower(0).setOutUpper(1)
+                .build();
+        modelProtoMap.put("Scaler.meta", ScaleMeta.newBuilder()
+                .setIsScale(true)
+                .setStrategy("min_max_scale")
+                .build().toByteArray());
+        modelProtoMap.put("Scaler.param", ScaleParam.newBuilder()
+                .putMinmaxScaleParam("x1", minMax)
+                .putMinmaxScaleParam("x2", minMax)
+                .putMinmaxScaleParam("x3", minMax)
+                .build().toByteArray());
+        modelProtoMap.put("HeteroLRHost.meta", new byte[0]);
+        modelProtoMap.put("HeteroLRHost.param", LRModelParam.newBuilder()
+                .putWeight("x1", 0.5)
+                .putWeight("x2", -1.25)
+                .putWeight("x4", 2)
+                .setIntercept(0.1)
+                .build().toByteArray());
+
+        mapPipeline = new PipelineTask();
+        mapPipeline.initModel(modelProtoMap);
+        compiledPipeline = new PipelineTask();
+        compiledPipeline.initModel(modelProtoMap);
+        Assert.assertTrue(compiledPipeline.compile());
+    }
+
+    /**
+     * Appends a second model that only reads the score of the first, so it sees nothing unless the
+     * first model's output is fed into it.
+     */
+    private void stackModel() {
+        modelProtoMap.put("Pipeline", Pipeline.newBuilder()
+                .addAllNodeMeta(Arrays.asList("Outlier.meta", "Imputer.meta", "Scaler.meta", "HeteroLRHost.meta", "HeteroLRHost.stacked.meta"))
+                .addAllNodeParam(Arrays.asList("Outlier.param", "Imputer.param", "Scaler.param", "HeteroLRHost.param", "HeteroLRHost.stacked.param"))
+                .build().toByteArray());
+        modelProtoMap.put("HeteroLRHost.stacked.meta", new byte[0]);
+        modelProtoMap.put("HeteroLRHost.stacked.param", LRModelParam.newBuilder()
+                .putWeight("score", 3)
+                .setIntercept(-0.5)
+                .build().toByteArray());
+
+        mapPipeline = new PipelineTask();
+        mapPipeline.initModel(modelProtoMap);
+        compiledPipeline = new PipelineTask();
+        compiledPipeline.initModel(modelProtoMap);
+        Assert.assertTrue(compiledPipeline.compile());
+    }
+
+    private List<Map<String, Object>> inputs() {
+        List<Map<String, Object>> inputs = new ArrayList<>();
+        // "0.0" is not the marker "0", 0 is
+        inputs.add(row("0.0", "4", "5", "1"));
+        inputs.add(row(0, 4, 5, 1));
+        // markers are matched on the lowercased string
+        inputs.add(row("3", "NaN", "5", "999"));
+        inputs.add(row(3.0, Double.NaN, 5.0, 999.0));
+        // x3 is a marker without an imputer replacement, so it becomes null and the scaler skips it
+        inputs.add(row("2", "8", "null", "999"));
+        return inputs;
+    }
+
+    private Map<String, Object> row(Object x1, Object x2, Object x3, Object x4) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", "0");
+        row.put("x1", x1);
+        row.put("x2", x2);
+        row.put("x3", x3);
+        row.put("x4", x4);
+        return row;
+    }
+
+    @Test
+    public void testCompiledPredictMatchesMapPredict() {
+        List<Map<String, Object>> mapInputs = inputs();
+        List<Map<String, Object>> compiledInputs = inputs();
+        for (int i = 0; i < mapInputs.size(); i++) {
+            Map<String, Object> expected = mapPipeline.predict(mapInputs.get(i), new HashMap<>());
+            Map<String, Object> actual = compiledPipeline.predict(compiledInputs.get(i), new HashMap<>());
+            Assert.assertEquals("row " + i, (Double) expected.get("score"), (Double) actual.get("score"), DELTA);
+        }
+    }
+
+    @Test
+    public void testCompiledBatchPredictMatchesMapBatchPredict() {
+        List<Map<String, Object>> expected = mapPipeline.batchPredict(inputs(), new HashMap<>());
+        List<Map<String, Object>> actual = compiledPipeline.batchPredict(inputs(), new HashMap<>());
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals("row " + i, (Double) expected.get(i).get("score"), (Double) actual.get(i).get("score"), DELTA);
+        }
+    }
+
+    @Test
+    public void testCompiledPredictFeedsModelOutputToNextNode() {
+        stackModel();
+        List<Map<String, Object>> mapInputs = inputs();
+        List<Map<String, Object>> compiledInputs = inputs();
+        for (int i = 0; i < mapInputs.size(); i++) {
+            Map<String, Object> expected = mapPipeline.predict(mapInputs.get(i), new HashMap<>());
+            Map<String, Object> actual = compiledPipeline.predict(compiledInputs.get(i), new HashMap<>());
+            Assert.assertEquals("row " + i, expected.keySet(), actual.keySet());
+            Assert.assertEquals("row " + i, (Double) expected.get("score"), (Double) actual.get("score"), DELTA);
+        }
+    }
+
+    @Test
+    public void testCompiledBatchPredictFeedsModelOutputToNextNode() {
+        stackModel();
+        List<Map<String, Object>> expected = mapPipeline.batchPredict(inputs(), new HashMap<>());
+        List<Map<String, Object>> actual = compiledPipeline.batchPredict(inputs(), new HashMap<>());
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals("row " + i, expected.get(i).keySet(), actual.get(i).keySet());
+            Assert.assertEquals("row " + i, (Double) expected.get(i).get("score"), (Double) actual.get(i).get("score"), DELTA);
+        }
+    }
+}
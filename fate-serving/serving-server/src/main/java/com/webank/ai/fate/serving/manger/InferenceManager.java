@@ -24,6 +24,7 @@ import com.webank.ai.fate.core.utils.ObjectTransform;
 import com.webank.ai.fate.serving.adapter.dataaccess.FeatureData;
 import com.webank.ai.fate.serving.adapter.processing.PostProcessing;
 import com.webank.ai.fate.serving.adapter.processing.PreProcessing;
+import com.webank.ai.fate.serving.bean.BatchInferenceRequest;
 import com.webank.ai.fate.serving.bean.InferenceRequest;
 import com.webank.ai.fate.serving.bean.ModelNamespaceData;
 import com.webank.ai.fate.serving.bean.PostProcessingResult;
@@ -38,7 +39,10 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class InferenceManager {
@@ -118,6 +122,7 @@ public class InferenceManager {
             LOGGER.error("feature data preprocessing failed", ex);
             inferenceResult.setRetcode(InferenceRetCode.INVALID_FEATURE + 1000);
             inferenceResult.setRetmsg(ex.getMessage());
+            logInferenceAudited(inferenceRequest, modelNamespaceData, inferenceResult, false, false, rawFeatureData);
             return inferenceResult;
         }
         Map<String, Object> featureData = preProcessingResult.getProcessingResult();
@@ -142,6 +147,149 @@ public class InferenceManager {
 
         Map<String, Object> modelResult = model.predict(featureData, predictParams);
         LOGGER.info(modelResult);
+        boolean fromCache = (boolean) federatedParams.getOrDefault("is_cache", false);
+        ReturnResult federatedResult = (ReturnResult) predictParams.get("federatedResult");
+        return buildInferenceResult(inferenceRequest, modelNamespaceData, rawFeatureData, featureData, modelResult, federatedResult, fromCache);
+    }
+
+    /**
+     * Runs a batch of records through the model with one federated call to the host for the whole batch.
+     * Returns a result per record in "batchDataList", each with its own retcode.
+     */
+    public static ReturnResult batchInference(BatchInferenceRequest batchInferenceRequest) {
+        ReturnResult batchResult = new ReturnResult();
+        List<InferenceRequest> records = batchInferenceRequest.getBatchDataList();
+        if (records == null || records.isEmpty()) {
+            batchResult.setRetcode(InferenceRetCode.EMPTY_DATA + 1000);
+            batchResult.setRetmsg("Empty batch.");
+            return batchResult;
+        }
+        String modelName = batchInferenceRequest.getModelVersion();
+        String modelNamespace = batchInferenceRequest.getModelId();
+        if (StringUtils.isEmpty(modelNamespace) && batchInferenceRequest.haveAppId()) {
+            modelNamespace = ModelManager.getModelNamespaceByPartyId(batchInferenceRequest.getAppid());
+        }
+        if (StringUtils.isEmpty(modelNamespace)) {
+            batchResult.setRetcode(InferenceRetCode.LOAD_MODEL_FAILED + 1000);
+            return batchResult;
+        }
+        ModelNamespaceData modelNamespaceData = ModelManager.getModelNamespaceData(modelNamespace);
+        PipelineTask model;
+        if (StringUtils.isEmpty(modelName)) {
+            modelName = modelNamespaceData.getUsedModelName();
+            model = modelNamespaceData.getUsedModel();
+        } else {
+            model = ModelManager.getModel(modelName, modelNamespace);
+        }
+        if (model == null) {
+            batchResult.setRetcode(InferenceRetCode.LOAD_MODEL_FAILED + 1000);
+            return batchResult;
+        }
+        LOGGER.info("use model to batch inference {} records for {}, id: {}, version: {}", records.size(), batchInferenceRequest.getAppid(), modelNamespace, modelName);
+
+        ReturnResult[] recordResults = new ReturnResult[records.size()];
+        List<Integer> predictIndexes = new ArrayList<>();
+        List<Map<String, Object>> predictFeatureData = new ArrayList<>();
+        List<Map<String, Object>> predictFeatureIds = new ArrayList<>();
+        List<String> predictCaseids = new ArrayList<>();
+        List<ReturnResult> cachedResults = getBatchInferenceResultCache(batchInferenceRequest, records);
+        for (int i = 0; i < records.size(); i++) {
+            InferenceRequest record = records.get(i);
+            ReturnResult recordResult = cachedResults.get(i);
+            if (recordResult != null) {
+                recordResults[i] = recordResult;
+                continue;
+            }
+            recordResult = new ReturnResult();
+            recordResult.setCaseid(record.getCaseid());
+            recordResults[i] = recordResult;
+
+            Map<String, Object> rawFeatureData = record.getFeatureData();
+            if (rawFeatureData == null) {
+                recordResult.setRetcode(InferenceRetCode.EMPTY_DATA + 1000);
+                recordResult.setRetmsg("Can not parse data json.");
+                logInferenceAudited(record, modelNamespaceData, recordResult, false, false, rawFeatureData);
+                continue;
+            }
+            PreProcessingResult preProcessingResult;
+            try {
+                preProcessingResult = getPreProcessingFeatureData(rawFeatureData);
+            } catch (Exception ex) {
+                LOGGER.error("feature data preprocessing failed", ex);
+                recordResult.setRetcode(InferenceRetCode.INVALID_FEATURE + 1000);
+                recordResult.setRetmsg(ex.getMessage());
+                logInferenceAudited(record, modelNamespaceData, recordResult, false, false, rawFeatureData);
+                continue;
+            }
+            if (preProcessingResult.getProcessingResult() == null) {
+                recordResult.setRetcode(InferenceRetCode.NUMERICAL_ERROR + 1000);
+                recordResult.setRetmsg("Can not preprocessing data");
+                logInferenceAudited(record, modelNamespaceData, recordResult, false, false, rawFeatureData);
+                continue;
+            }
+            predictIndexes.add(i);
+            predictFeatureData.add(preProcessingResult.getProcessingResult());
+            predictFeatureIds.add(preProcessingResult.getFeatureIds());
+            predictCaseids.add(record.getCaseid());
+        }
+
+        if (!predictIndexes.isEmpty()) {
+            Map<String, Object> predictParams = new HashMap<>();
+            Map<String, Object> federatedParams = new HashMap<>();
+            federatedParams.put("caseid", batchInferenceRequest.getSeqno());
+            federatedParams.put("seqno", batchInferenceRequest.getSeqno());
+            federatedParams.put("caseids", predictCaseids);
+            federatedParams.put("local", modelNamespaceData.getLocal());
+            federatedParams.put("model_info", new ModelInfo(modelName, modelNamespace));
+            federatedParams.put("role", modelNamespaceData.getRole());
+            federatedParams.put("feature_ids", predictFeatureIds);
+            predictParams.put("federatedParams", federatedParams);
+
+            List<Map<String, Object>> modelResults = model.batchPredict(predictFeatureData, predictParams);
+            List<ReturnResult> federatedResults = (List<ReturnResult>) predictParams.get("federatedResults");
+            List<Boolean> isCacheList = (List<Boolean>) federatedParams.get("is_cache_list");
+            for (int j = 0; j < predictIndexes.size(); j++) {
+                int i = predictIndexes.get(j);
+                recordResults[i] = buildInferenceResult(records.get(i), modelNamespaceData, records.get(i).getFeatureData(),
+                        predictFeatureData.get(j), modelResults.get(j),
+                        federatedResults == null ? null : federatedResults.get(j),
+                        isCacheList != null && isCacheList.get(j));
+            }
+        }
+
+        batchResult.setRetcode(InferenceRetCode.OK);
+        batchResult.getData().put("batchDataList", Arrays.asList(recordResults));
+        return batchResult;
+    }
+
+    private static List<ReturnResult> getBatchInferenceResultCache(BatchInferenceRequest batchInferenceRequest, List<InferenceRequest> records) {
+        Map<String, List<Integer>> appidToIndexes = new HashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            InferenceRequest record = records.get(i);
+            if (batchInferenceRequest.haveAppId()) {
+                record.setAppid(batchInferenceRequest.getAppid());
+            }
+            appidToIndexes.computeIfAbsent(record.getAppid(), appid -> new ArrayList<>()).add(i);
+        }
+        ReturnResult[] cachedResults = new ReturnResult[records.size()];
+        for (Map.Entry<String, List<Integer>> entry : appidToIndexes.entrySet()) {
+            List<String> caseids = new ArrayList<>(entry.getValue().size());
+            for (int index : entry.getValue()) {
+                caseids.add(records.get(index).getCaseid());
+            }
+            List<ReturnResult> appidResults = CacheManager.getInferenceResultCaches(entry.getKey(), caseids);
+            for (int i = 0; i < appidResults.size(); i++) {
+                cachedResults[entry.getValue().get(i)] = appidResults.get(i);
+            }
+        }
+        return Arrays.asList(cachedResults);
+    }
+
+    private static ReturnResult buildInferenceResult(InferenceRequest inferenceRequest, ModelNamespaceData modelNamespaceData,
+                                                     Map<String, Object> rawFeatureData, Map<String, Object> featureData,
+                                                     Map<String, Object> modelResult, ReturnResult federatedResult, boolean fromCache) {
+        ReturnResult inferenceResult = new ReturnResult();
+        inferenceResult.setCaseid(inferenceRequest.getCaseid());
         PostProcessingResult postProcessingResult;
         try {
             postProcessingResult = getPostProcessedResult(featureData, modelResult);
@@ -153,21 +301,20 @@ public class InferenceManager {
         }
         inferenceResult = postProcessingResult.getProcessingResult();
         inferenceResult.setCaseid(inferenceRequest.getCaseid());
-        boolean fromCache = (boolean) federatedParams.getOrDefault("is_cache", false);
-        ReturnResult federatedResult = (ReturnResult) predictParams.get("federatedResult");
+        int federatedRetcode = federatedResult == null ? InferenceRetCode.OK : federatedResult.getRetcode();
         boolean billing = true;
         if (fromCache) {
             billing = false;
-        } else if (federatedResult.getRetcode() == InferenceRetCode.GET_FEATURE_FAILED || federatedResult.getRetcode() == InferenceRetCode.INVALID_FEATURE || federatedResult.getRetcode() == InferenceRetCode.NO_FEATURE) {
+        } else if (federatedRetcode == InferenceRetCode.GET_FEATURE_FAILED || federatedRetcode == InferenceRetCode.INVALID_FEATURE || federatedRetcode == InferenceRetCode.NO_FEATURE) {
             billing = false;
         }
         int partyInferenceRetcode = 0;
         if (inferenceResult.getRetcode() != 0) {
             partyInferenceRetcode += 1;
         }
-        if (federatedResult.getRetcode() != 0) {
+        if (federatedRetcode != 0) {
             partyInferenceRetcode += 2;
-            inferenceResult.setRetcode(federatedResult.getRetcode());
+            inferenceResult.setRetcode(federatedRetcode);
         }
         inferenceResult.setRetcode(inferenceResult.getRetcode() + partyInferenceRetcode * 1000);
         logInferenceAudited(inferenceRequest, modelNamespaceData, inferenceResult, fromCache, billing, rawFeatureData);
@@ -228,6 +375,71 @@ public class InferenceManager {
         return returnResult;
     }
 
+    public static ReturnResult federatedBatchInference(Map<String, Object> federatedParams) {
+        ReturnResult returnResult = new ReturnResult();
+        FederatedParty party = (FederatedParty) ObjectTransform.json2Bean(federatedParams.get("local").toString(), FederatedParty.class);
+        FederatedRoles federatedRoles = (FederatedRoles) ObjectTransform.json2Bean(federatedParams.get("role").toString(), FederatedRoles.class);
+        ModelInfo partnerModelInfo = (ModelInfo) ObjectTransform.json2Bean(federatedParams.get("partner_model_info").toString(), ModelInfo.class);
+        List<Map<String, Object>> featureIdsList = (List<Map<String, Object>>) ObjectTransform.json2Bean(federatedParams.get("feature_ids").toString(), ArrayList.class);
+        List<Object> caseids = (List<Object>) ObjectTransform.json2Bean(federatedParams.get("caseids").toString(), ArrayList.class);
+
+        ModelInfo modelInfo = ModelManager.getModelInfoByPartner(partnerModelInfo.getName(), partnerModelInfo.getNamespace());
+        PipelineTask model = modelInfo == null ? null : ModelManager.getModel(modelInfo.getName(), modelInfo.getNamespace());
+        if (model == null) {
+            returnResult.setRetcode(InferenceRetCode.LOAD_MODEL_FAILED);
+            returnResult.setRetmsg("Can not found model.");
+            return returnResult;
+        }
+        LOGGER.info("use model to batch inference {} records on {} {}, id: {}, version: {}", featureIdsList.size(), party.getRole(), party.getPartyId(), modelInfo.getNamespace(), modelInfo.getName());
+
+        ReturnResult[] recordResults = new ReturnResult[featureIdsList.size()];
+        List<Integer> predictIndexes = new ArrayList<>();
+        List<Map<String, Object>> predictFeatureData = new ArrayList<>();
+        for (int i = 0; i < featureIdsList.size(); i++) {
+            ReturnResult getFeatureDataResult = getFeatureData(featureIdsList.get(i));
+            if (getFeatureDataResult.getRetcode() != InferenceRetCode.OK) {
+                recordResults[i] = new ReturnResult();
+                recordResults[i].setRetcode(getFeatureDataResult.getRetcode());
+            } else if (getFeatureDataResult.getData() == null || getFeatureDataResult.getData().size() < 1) {
+                recordResults[i] = new ReturnResult();
+                recordResults[i].setRetcode(InferenceRetCode.GET_FEATURE_FAILED);
+                recordResults[i].setRetmsg("Can not get feature data.");
+            } else {
+                predictIndexes.add(i);
+                predictFeatureData.add(getFeatureDataResult.getData());
+            }
+        }
+
+        if (!predictIndexes.isEmpty()) {
+            Map<String, Object> predictParams = new HashMap<>();
+            predictParams.put("federatedParams", federatedParams);
+            List<Map<String, Object>> modelResults = null;
+            try {
+                modelResults = model.batchPredict(predictFeatureData, predictParams);
+            } catch (Exception ex) {
+                LOGGER.info("federatedBatchInference error:", ex);
+            }
+            for (int j = 0; j < predictIndexes.size(); j++) {
+                int i = predictIndexes.get(j);
+                ReturnResult recordResult = new ReturnResult();
+                if (modelResults == null) {
+                    recordResult.setRetcode(InferenceRetCode.SYSTEM_ERROR);
+                } else {
+                    recordResult.setRetcode(InferenceRetCode.OK);
+                    recordResult.setData(modelResults.get(j));
+                    InferenceUtils.logInferenceAudited(FederatedInferenceType.FEDERATED, party, federatedRoles,
+                            String.valueOf(caseids.get(i)), federatedParams.get("seqno").toString(), recordResult.getRetcode(), false, true);
+                }
+                recordResults[i] = recordResult;
+            }
+        }
+
+        returnResult.setRetcode(InferenceRetCode.OK);
+        returnResult.getData().put("batchDataList", Arrays.asList(recordResults));
+        LOGGER.info("federated batch inference successfully");
+        return returnResult;
+    }
+
     private static PreProcessingResult getPreProcessingFeatureData(Map<String, Object> originFeatureData) {
         String classPath = PreProcessing.class.getPackage().getName() + "." + Configuration.getProperty("InferencePreProcessingAdapter");
         PreProcessing preProcessing = (PreProcessing) InferenceUtils.getClassByName(classPath);
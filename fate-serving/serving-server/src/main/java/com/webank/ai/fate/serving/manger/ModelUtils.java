@@ -46,6 +46,7 @@ public class ModelUtils {
         }
         PipelineTask pipelineTask = new PipelineTask();
         pipelineTask.initModel(modelBytes);
+        pipelineTask.compile();
         return pipelineTask;
     }
 
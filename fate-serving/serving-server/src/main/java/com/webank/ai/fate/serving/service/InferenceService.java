@@ -21,6 +21,7 @@ import com.webank.ai.fate.api.serving.InferenceServiceGrpc;
 import com.webank.ai.fate.api.serving.InferenceServiceProto.InferenceMessage;
 import com.webank.ai.fate.core.bean.ReturnResult;
 import com.webank.ai.fate.core.utils.ObjectTransform;
+import com.webank.ai.fate.serving.bean.BatchInferenceRequest;
 import com.webank.ai.fate.serving.bean.InferenceRequest;
 import com.webank.ai.fate.serving.core.bean.InferenceActionType;
 import com.webank.ai.fate.serving.core.constant.InferenceRetCode;
@@ -50,6 +51,34 @@ public class InferenceService extends InferenceServiceGrpc.InferenceServiceImplB
         inferenceServiceAction(req, responseObserver, InferenceActionType.ASYNC_RUN);
     }
 
+    @Override
+    public void batchInference(InferenceMessage req, StreamObserver<InferenceMessage> responseObserver) {
+        InferenceMessage.Builder response = InferenceMessage.newBuilder();
+        ReturnResult returnResult;
+        try{
+            if (accessLOGGER.isDebugEnabled()){
+                accessLOGGER.debug(req.getBody().toStringUtf8());
+            }
+            BatchInferenceRequest batchInferenceRequest = (BatchInferenceRequest) ObjectTransform.json2Bean(req.getBody().toStringUtf8(), BatchInferenceRequest.class);
+            if (batchInferenceRequest != null){
+                returnResult = InferenceManager.batchInference(batchInferenceRequest);
+                if (returnResult.getRetcode() != InferenceRetCode.OK){
+                    LOGGER.warn("batch inference failed: \n{}", req.getBody().toStringUtf8());
+                }
+            }else{
+                returnResult = new ReturnResult();
+                returnResult.setRetcode(InferenceRetCode.EMPTY_DATA);
+            }
+        }catch (Exception e){
+            returnResult = new ReturnResult();
+            returnResult.setRetcode(InferenceRetCode.SYSTEM_ERROR);
+            LOGGER.error(String.format("batch inference system error:\n%s", req.getBody().toStringUtf8()), e);
+        }
+        response.setBody(ByteString.copyFrom(ObjectTransform.bean2Json(returnResult).getBytes()));
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
     private void inferenceServiceAction(InferenceMessage req, StreamObserver<InferenceMessage> responseObserver, InferenceActionType actionType) {
         InferenceMessage.Builder response = InferenceMessage.newBuilder();
         ReturnResult returnResult;
@@ -44,6 +44,9 @@ public class ProxyService extends DataTransferServiceGrpc.DataTransferServiceImp
             case "federatedInference":
                 responseResult = InferenceManager.federatedInference(requestData);
                 break;
+            case "federatedBatchInference":
+                responseResult = InferenceManager.federatedBatchInference(requestData);
+                break;
             default:
                 responseResult = new ReturnResult();
                 responseResult.setRetcode(StatusCode.PARAMERROR);